@@ -121,8 +121,13 @@ public class JiraApiResource {
 
     OAuth1Provider provider = getOAuth1Provider(jiraIntegrationURL);
 
-    return searchAssignableUsersService.searchAssingablesUsers(accessToken, provider,
-        jiraIntegrationURL, issueKey, username);
+    try {
+      return searchAssignableUsersService.searchAssingablesUsers(accessToken, provider,
+          jiraIntegrationURL, issueKey, username);
+    } catch (JiraAuthorizationException e) {
+      invalidateAccessToken(jiraIntegrationURL, userId);
+      throw e;
+    }
   }
 
   /**
@@ -146,7 +151,12 @@ public class JiraApiResource {
 
     OAuth1Provider provider = getOAuth1Provider(jiraIntegrationURL);
 
-    return issueSearchService.getIssueInfo(accessToken, provider, jiraIntegrationURL, issueKey);
+    try {
+      return issueSearchService.getIssueInfo(accessToken, provider, jiraIntegrationURL, issueKey);
+    } catch (JiraAuthorizationException e) {
+      invalidateAccessToken(jiraIntegrationURL, userId);
+      throw e;
+    }
   }
 
   /**
@@ -173,8 +183,13 @@ public class JiraApiResource {
 
     OAuth1Provider provider = getOAuth1Provider(jiraIntegrationURL);
 
-    return userAssignService.assignUserToIssue(accessToken, issueKey, username, jiraIntegrationURL,
-        provider);
+    try {
+      return userAssignService.assignUserToIssue(accessToken, issueKey, username,
+          jiraIntegrationURL, provider);
+    } catch (JiraAuthorizationException e) {
+      invalidateAccessToken(jiraIntegrationURL, userId);
+      throw e;
+    }
   }
 
   /**
@@ -202,8 +217,13 @@ public class JiraApiResource {
 
     validateRequiredPayload(comment);
 
-    return issueCommentService.addCommentToAnIssue(accessToken, issueKey, jiraIntegrationURL,
-        provider, comment);
+    try {
+      return issueCommentService.addCommentToAnIssue(accessToken, issueKey, jiraIntegrationURL,
+          provider, comment);
+    } catch (JiraAuthorizationException e) {
+      invalidateAccessToken(jiraIntegrationURL, userId);
+      throw e;
+    }
   }
 
   /**
@@ -238,6 +258,15 @@ public class JiraApiResource {
     }
   }
 
+  /**
+   * Removes the cached user access token, as JIRA has rejected it.
+   * @param baseURL JIRA base URL
+   * @param userId User identifier
+   */
+  private void invalidateAccessToken(String baseURL, Long userId) {
+    jiraWebHookIntegration.invalidateAccessToken(baseURL, userId);
+  }
+
   /**
    * Retrieves authentication provider
    */
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.authorization;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.jira.cache.JiraLruCache;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * In-memory cache of the decrypted JIRA access tokens, by configuration, JIRA base URL and
+ * Symphony user.
+ *
+ * Reading a token requires to find the user authorization data, parse it, retrieve the bot user
+ * key and decrypt the token, so the JIRA API calls use this cache instead. It keeps up to
+ * 'maxSize' tokens, evicting the least recently used ones, and the tokens expire after
+ * 'ttlSeconds' (see {@link JiraLruCache}). A token is invalidated when the user authorization data is saved again or when
+ * JIRA rejects it.
+ *
+ * Only tokens found are cached, so a user who has just authorized the application doesn't need to
+ * wait for the cache to expire.
+ */
+@Component
+public class JiraAccessTokenCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JiraAccessTokenCache.class);
+
+  private static final String KEY_SEPARATOR = "|";
+
+  @Value("${applications.jira.authorization.tokenCache.maxSize:1000}")
+  private Integer maxSize;
+
+  @Value("${applications.jira.authorization.tokenCache.ttlSeconds:300}")
+  private Long ttlSeconds;
+
+  private JiraLruCache<String> tokens;
+
+  @PostConstruct
+  public void init() {
+    this.tokens = new JiraLruCache<>(maxSize);
+  }
+
+  /**
+   * Returns the cached access token.
+   * @param configurationId Integration configuration ID
+   * @param url JIRA base URL
+   * @param userId Symphony user ID
+   * @return Access token or null if the token isn't cached or has expired
+   */
+  public String get(String configurationId, String url, Long userId) {
+    return tokens.get(getKey(configurationId, url, userId));
+  }
+
+  /**
+   * Caches the access token, unless the token of the user was invalidated while it was read.
+   * @param configurationId Integration configuration ID
+   * @param url JIRA base URL
+   * @param userId Symphony user ID
+   * @param accessToken Decrypted access token
+   * @param readGeneration Generation when the token started to be read
+   */
+  public void put(String configurationId, String url, Long userId, String accessToken,
+      long readGeneration) {
+    if (accessToken == null) {
+      return;
+    }
+
+    tokens.put(getKey(configurationId, url, userId), accessToken,
+        TimeUnit.SECONDS.toMillis(ttlSeconds), readGeneration);
+  }
+
+  /**
+   * Returns the current generation. Must be read before starting to read the token to be cached.
+   * @return Current generation
+   */
+  public long getGeneration() {
+    return tokens.getGeneration();
+  }
+
+  /**
+   * Removes the access token of a user.
+   * @param configurationId Integration configuration ID
+   * @param url JIRA base URL
+   * @param userId Symphony user ID
+   */
+  public void invalidate(String configurationId, String url, Long userId) {
+    tokens.invalidate(getKey(configurationId, url, userId));
+
+    LOGGER.debug("Cached access token of the user {} invalidated", userId);
+  }
+
+  /**
+   * Removes all the access tokens.
+   */
+  public void invalidateAll() {
+    tokens.invalidateAll();
+
+    LOGGER.debug("Cached access tokens invalidated");
+  }
+
+  public long getHitCount() {
+    return tokens.getHitCount();
+  }
+
+  public long getMissCount() {
+    return tokens.getMissCount();
+  }
+
+  public long getEvictionCount() {
+    return tokens.getEvictionCount();
+  }
+
+  /**
+   * Returns the ratio of token reads served by the cache.
+   * @return Hit rate, from 0 to 1
+   */
+  public double getHitRate() {
+    long hits = tokens.getHitCount();
+    long total = hits + tokens.getMissCount();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  private String getKey(String configurationId, String url, Long userId) {
+    return configurationId + KEY_SEPARATOR + url + KEY_SEPARATOR + userId;
+  }
+
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.authorization;
+
+/**
+ * Immutable holder of the application public and private keys, already validated. The keys are
+ * replaced together by publishing a new holder.
+ */
+final class JiraApplicationKeys {
+
+  static final JiraApplicationKeys EMPTY = new JiraApplicationKeys(null, null);
+
+  private final String publicKey;
+
+  private final String privateKey;
+
+  JiraApplicationKeys(String publicKey, String privateKey) {
+    this.publicKey = publicKey;
+    this.privateKey = privateKey;
+  }
+
+  /**
+   * Returns the application public key.
+   * @return Public key or null if it wasn't loaded
+   */
+  String getPublicKey() {
+    return publicKey;
+  }
+
+  /**
+   * Returns the application private key.
+   * @return Private key or null if it wasn't loaded
+   */
+  String getPrivateKey() {
+    return privateKey;
+  }
+
+  JiraApplicationKeys withPublicKey(String publicKey) {
+    return new JiraApplicationKeys(publicKey, privateKey);
+  }
+
+  JiraApplicationKeys withPrivateKey(String privateKey) {
+    return new JiraApplicationKeys(publicKey, privateKey);
+  }
+
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.authorization;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.authorization.AuthorizationException;
+import org.symphonyoss.integration.jira.cache.JiraLruCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * In-memory cache of the checks whether a Symphony user has authorized the application to call
+ * the JIRA API on the user's behalf, by configuration, JIRA base URL and Symphony user.
+ *
+ * The frontend asks for it every time a dialog is opened, and each check makes a request to JIRA.
+ * Users authorized are cached for 'ttlSeconds', while users not authorized are cached for
+ * 'notAuthorizedTtlSeconds', so the users who have just authorized the application don't wait
+ * too long. Concurrent checks of the same user share a single request to JIRA. The failed checks
+ * aren't cached.
+ *
+ * The check of a user is invalidated when the user authorization data is saved again or when JIRA
+ * rejects the user access token out of the check. The check rejected by JIRA is cached as not
+ * authorized.
+ */
+@Component
+public class JiraAuthorizationCheckCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JiraAuthorizationCheckCache.class);
+
+  private static final String KEY_SEPARATOR = "|";
+
+  @Value("${applications.jira.authorization.checkCache.maxSize:1000}")
+  private Integer maxSize;
+
+  @Value("${applications.jira.authorization.checkCache.ttlSeconds:60}")
+  private Long ttlSeconds;
+
+  @Value("${applications.jira.authorization.checkCache.notAuthorizedTtlSeconds:10}")
+  private Long notAuthorizedTtlSeconds;
+
+  private final AtomicLong sharedCount = new AtomicLong();
+
+  /**
+   * Checks in progress. The invalidation of a user removes the user check in progress, so the
+   * next checks don't wait for it.
+   */
+  private final ConcurrentMap<String, FutureTask<Boolean>> checks = new ConcurrentHashMap<>();
+
+  private JiraLruCache<Boolean> results;
+
+  @PostConstruct
+  public void init() {
+    this.results = new JiraLruCache<>(maxSize);
+  }
+
+  /**
+   * Returns the cached check, or runs it when the check isn't cached or has expired. When the same
+   * check is already in progress, waits for it instead.
+   * @param configurationId Integration configuration ID
+   * @param url JIRA base URL
+   * @param userId Symphony user ID
+   * @param check Check to run
+   * @return <code>true</code> If the user has authorized the access.
+   * @throws AuthorizationException Thrown when the check fails.
+   */
+  public boolean isUserAuthorized(String configurationId, String url, Long userId,
+      final Check check) throws AuthorizationException {
+    String key = configurationId + KEY_SEPARATOR + url + KEY_SEPARATOR + userId;
+
+    Boolean cached = results.get(key);
+
+    if (cached != null) {
+      return cached;
+    }
+
+    FutureTask<Boolean> task = new FutureTask<>(new Callable<Boolean>() {
+      @Override
+      public Boolean call() throws Exception {
+        return check.run();
+      }
+    });
+
+    // read before the check is registered, so an invalidation of the user after that point
+    // discards the result
+    long checkGeneration = results.getGeneration();
+
+    FutureTask<Boolean> inProgress = checks.putIfAbsent(key, task);
+
+    if (inProgress != null) {
+      sharedCount.incrementAndGet();
+      return getResult(inProgress);
+    }
+
+    try {
+      task.run();
+
+      boolean authorized = getResult(task);
+      long ttl = authorized ? ttlSeconds : notAuthorizedTtlSeconds;
+      results.put(key, authorized, TimeUnit.SECONDS.toMillis(ttl), checkGeneration);
+
+      return authorized;
+    } finally {
+      checks.remove(key, task);
+    }
+  }
+
+  /**
+   * Removes the check of a user.
+   * @param configurationId Integration configuration ID
+   * @param url JIRA base URL
+   * @param userId Symphony user ID
+   */
+  public void invalidate(String configurationId, String url, Long userId) {
+    String key = configurationId + KEY_SEPARATOR + url + KEY_SEPARATOR + userId;
+
+    checks.remove(key);
+    results.invalidate(key);
+
+    LOGGER.debug("Cached authorization check of the user {} invalidated", userId);
+  }
+
+  /**
+   * Removes the checks of all the users.
+   */
+  public void invalidateAll() {
+    checks.clear();
+    results.invalidateAll();
+  }
+
+  public long getHitCount() {
+    return results.getHitCount();
+  }
+
+  public long getMissCount() {
+    return results.getMissCount();
+  }
+
+  /**
+   * Returns the number of checks that waited for the same check in progress instead of making a
+   * request to JIRA.
+   * @return Number of checks shared
+   */
+  public long getSharedCount() {
+    return sharedCount.get();
+  }
+
+  /**
+   * Returns the ratio of checks served by the cache.
+   * @return Hit rate, from 0 to 1
+   */
+  public double getHitRate() {
+    long hits = results.getHitCount();
+    long total = hits + results.getMissCount();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  /**
+   * Waits for the check and rethrows its failure.
+   */
+  private boolean getResult(FutureTask<Boolean> task) throws AuthorizationException {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AuthorizationException("Interrupted while checking the user authorization", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+
+      if (cause instanceof AuthorizationException) {
+        throw (AuthorizationException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+
+      throw new AuthorizationException("Fail to check the user authorization", cause);
+    }
+  }
+
+  /**
+   * Check whether the user has authorized the access.
+   */
+  public interface Check {
+
+    /**
+     * Runs the check.
+     * @return <code>true</code> If the user has authorized the access.
+     * @throws AuthorizationException Thrown when the check fails.
+     */
+    boolean run() throws AuthorizationException;
+
+  }
+
+}
@@ -26,6 +26,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
@@ -54,22 +55,33 @@ import org.symphonyoss.integration.utils.RsaKeyUtils;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
 /**
  * Service component responsible to provide the authentication properties from JIRA application.
  *
  * This component reads the YAML configuration file to retrieve application name and application
  * URL. It should also read the application public key configured on the filesystem and validate it.
  *
+ * The application keys are loaded when the integration is created and reloaded when the key files
+ * change on the certificate directory.
+ *
  * Created by rsanchez on 24/07/17.
  */
 @Component
@@ -105,8 +117,15 @@ public class JiraAuthorizationManager {
 
   private static final MessageUtils MSG = new MessageUtils(BUNDLE_FILENAME);
 
+  private static final String PROVIDER_KEY_SEPARATOR = "|";
+
+  private static final String KEY_WATCHER_THREAD_NAME = "jira-key-watcher";
+
   private boolean cryptographyEnabled = true;
 
+  @Value("${applications.jira.authorization.providerCache.maxSize:100}")
+  private Integer providerCacheMaxSize;
+
   @Autowired
   private IntegrationProperties properties;
 
@@ -131,15 +150,197 @@ public class JiraAuthorizationManager {
   @Autowired
   private Environment environment;
 
+  @Autowired
+  private JiraAccessTokenCache accessTokenCache;
+
+  @Autowired
+  private JiraBotKeyCache botKeyCache;
+
+  @Autowired
+  private JiraAuthorizationCheckCache authorizationCheckCache;
+
+  /**
+   * Application keys cache. Read without locking, replaced while holding 'keysLock'.
+   */
+  private volatile JiraApplicationKeys keys = JiraApplicationKeys.EMPTY;
+
+  private final Object keysLock = new Object();
+
   /**
-   * Application public key cache
+   * Watches the certificate directory to reload the application keys
    */
-  private String publicKey;
+  private WatchService keyWatcher;
 
   /**
-   * Application private key cache
+   * Configured OAuth1 providers, by consumer key, JIRA base URL and callback URL
    */
-  private String privateKey;
+  private Map<String, CachedProvider> providers;
+
+  @PostConstruct
+  public void init() {
+    this.providers = new LinkedHashMap<String, CachedProvider>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedProvider> eldest) {
+        return size() > providerCacheMaxSize;
+      }
+    };
+  }
+
+  @PreDestroy
+  public void destroy() {
+    synchronized (keysLock) {
+      if (keyWatcher != null) {
+        try {
+          keyWatcher.close();
+        } catch (IOException e) {
+          LOGGER.warn("Cannot stop watching the application keys", e);
+        }
+
+        keyWatcher = null;
+      }
+    }
+  }
+
+  /**
+   * Loads and validates the application keys, and starts watching the certificate directory to
+   * reload them when the key files change. Keys that can't be loaded now are loaded on demand,
+   * failing the requests that need them as before.
+   * @param appType Application type
+   */
+  public void loadKeys(String appType) {
+    Application application = properties.getApplication(appType);
+
+    if (application == null || application.getAuthorization() == null) {
+      return;
+    }
+
+    reloadKeys(application);
+    watchKeys(application);
+  }
+
+  /**
+   * Reads the application keys again and publishes them at once. A key that can't be read or is
+   * invalid is kept as it was, so a key file partially written is only picked up when complete.
+   * @param application Application settings
+   */
+  private void reloadKeys(Application application) {
+    AppAuthorizationModel authModel = application.getAuthorization();
+
+    synchronized (keysLock) {
+      JiraApplicationKeys current = keys;
+
+      String publicKey = null;
+      String privateKey = null;
+
+      try {
+        publicKey = readPublicKey(authModel, application);
+      } catch (IntegrationRuntimeException e) {
+        LOGGER.error("Cannot load the application public key", e);
+      }
+
+      try {
+        privateKey = readPrivateKey(authModel, application);
+      } catch (IntegrationRuntimeException e) {
+        LOGGER.error("Cannot load the application private key", e);
+      }
+
+      keys = new JiraApplicationKeys(publicKey != null ? publicKey : current.getPublicKey(),
+          privateKey != null ? privateKey : current.getPrivateKey());
+    }
+  }
+
+  /**
+   * Starts a daemon thread to reload the application keys when the certificate directory changes.
+   * Any change reloads the keys, as the key files may be symbolic links swapped by changing
+   * another entry of the directory (e.g. the '..data' link of a Kubernetes secret volume).
+   * @param application Application settings
+   */
+  private void watchKeys(final Application application) {
+    final WatchService watcher;
+
+    synchronized (keysLock) {
+      if (keyWatcher != null) {
+        return;
+      }
+
+      try {
+        String certsDirectory = utils.getCertsDirectory();
+
+        if (StringUtils.isEmpty(certsDirectory) || !Files.isDirectory(Paths.get(certsDirectory))) {
+          return;
+        }
+
+        Path certsDir = Paths.get(certsDirectory);
+
+        watcher = certsDir.getFileSystem().newWatchService();
+        certsDir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY);
+      } catch (IOException | CertificateNotFoundException e) {
+        LOGGER.warn("Cannot watch the certificate directory, the application keys won't be "
+            + "reloaded", e);
+        return;
+      }
+
+      this.keyWatcher = watcher;
+    }
+
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          while (true) {
+            WatchKey watchKey = watcher.take();
+
+            if (!watchKey.pollEvents().isEmpty()) {
+              LOGGER.info("Certificate directory changed, reloading the application keys");
+              reloadWatchedKeys(application);
+            }
+
+            if (!watchKey.reset()) {
+              LOGGER.warn("Certificate directory is no longer watched");
+              return;
+            }
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+          LOGGER.debug("Application keys are no longer watched");
+        }
+      }
+    }, KEY_WATCHER_THREAD_NAME);
+
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Reloads the application keys from the watcher thread. Failures are logged, so the thread
+   * keeps watching the directory.
+   */
+  private void reloadWatchedKeys(Application application) {
+    try {
+      reloadKeys(application);
+    } catch (RuntimeException e) {
+      LOGGER.error("Cannot reload the application keys", e);
+    }
+  }
+
+  /**
+   * Discards the bot user key data cached for the configuration, as the configuration may have
+   * been updated to use another bot user, and the configured OAuth1 providers.
+   * @param settings Integration settings
+   */
+  public void onConfigChange(IntegrationSettings settings) {
+    if (botKeyCache != null) {
+      botKeyCache.invalidate(settings.getConfigurationId());
+    }
+
+    if (providers != null) {
+      synchronized (providers) {
+        providers.clear();
+      }
+    }
+  }
 
   /**
    * Provide the authorization properties for JIRA application.
@@ -159,16 +360,40 @@ public class JiraAuthorizationManager {
   }
 
   /**
-   * Read the application public key configured on the filesystem and validate it.
+   * Retrieve the application public key, reading it when it wasn't loaded yet.
    * @param authModel authorization properties
    * @param application Application settings
    * @return Application public key
    */
   private String getPublicKey(AppAuthorizationModel authModel, Application application) {
+    String publicKey = keys.getPublicKey();
+
     if (StringUtils.isNotEmpty(publicKey)) {
       return publicKey;
     }
 
+    synchronized (keysLock) {
+      publicKey = keys.getPublicKey();
+
+      if (StringUtils.isEmpty(publicKey)) {
+        publicKey = readPublicKey(authModel, application);
+
+        if (publicKey != null) {
+          keys = keys.withPublicKey(publicKey);
+        }
+      }
+
+      return publicKey;
+    }
+  }
+
+  /**
+   * Read the application public key configured on the filesystem and validate it.
+   * @param authModel authorization properties
+   * @param application Application settings
+   * @return Application public key
+   */
+  private String readPublicKey(AppAuthorizationModel authModel, Application application) {
     String dataEnv = String.format(PUBLIC_KEY_DATA_TEMPLATE, application.getId());
     String data = environment.getProperty(dataEnv);
 
@@ -192,8 +417,6 @@ public class JiraAuthorizationManager {
     try {
       PublicKey pk = rsaKeyUtils.getPublicKey(pkAsString);
       if (pk != null) {
-        this.publicKey = pkAsString;
-
         return pkAsString;
       }
     } catch (Exception e) {
@@ -222,11 +445,13 @@ public class JiraAuthorizationManager {
   }
 
   /**
-   * Read the application private key configured on the filesystem and validate it.
+   * Retrieve the application private key, reading it when it wasn't loaded yet.
    * @param settings This integration settings.
    * @return Application private key
    */
   private String getPrivateKey(IntegrationSettings settings) {
+    String privateKey = keys.getPrivateKey();
+
     if (StringUtils.isNotEmpty(privateKey)) {
       return privateKey;
     }
@@ -235,6 +460,28 @@ public class JiraAuthorizationManager {
     Application application = properties.getApplication(appType);
     AppAuthorizationModel authModel = application.getAuthorization();
 
+    synchronized (keysLock) {
+      privateKey = keys.getPrivateKey();
+
+      if (StringUtils.isEmpty(privateKey)) {
+        privateKey = readPrivateKey(authModel, application);
+
+        if (privateKey != null) {
+          keys = keys.withPrivateKey(privateKey);
+        }
+      }
+
+      return privateKey;
+    }
+  }
+
+  /**
+   * Read the application private key configured on the filesystem and validate it.
+   * @param authModel authorization properties
+   * @param application Application settings
+   * @return Application private key
+   */
+  private String readPrivateKey(AppAuthorizationModel authModel, Application application) {
     String dataEnv = String.format(PRIVATE_KEY_DATA_TEMPLATE, application.getId());
     String data = environment.getProperty(dataEnv);
 
@@ -258,8 +505,6 @@ public class JiraAuthorizationManager {
     try {
       PrivateKey pk = rsaKeyUtils.getPrivateKey(pkAsString);
       if (pk != null) {
-        this.privateKey = pkAsString;
-
         return pkAsString;
       }
     } catch (Exception e) {
@@ -325,13 +570,39 @@ public class JiraAuthorizationManager {
 
   /**
    * Verify if the passed user has authorized us to perform Jira API calls on behalf of him/her.
+   *
+   * The checks are cached by {@link JiraAuthorizationCheckCache}.
+   * @param settings Jira integration settings.
+   * @param url Jira base URL.
+   * @param userId Symphony user ID.
+   * @return <code>true</code> If the passed user has authorized the access.
+   * @throws AuthorizationException Thrown in case of error.
+   */
+  public boolean isUserAuthorized(final IntegrationSettings settings, final String url,
+      final Long userId) throws AuthorizationException {
+    if (authorizationCheckCache == null) {
+      return checkUserAuthorized(settings, url, userId);
+    }
+
+    return authorizationCheckCache.isUserAuthorized(settings.getConfigurationId(), url, userId,
+        new JiraAuthorizationCheckCache.Check() {
+          @Override
+          public boolean run() throws AuthorizationException {
+            return checkUserAuthorized(settings, url, userId);
+          }
+        });
+  }
+
+  /**
+   * Verify if the passed user has authorized us to perform Jira API calls, requesting the user
+   * details to JIRA with the user access token.
    * @param settings Jira integration settings.
    * @param url Jira base URL.
    * @param userId Symphony user ID.
    * @return <code>true</code> If the passed user has authorized the access.
    * @throws AuthorizationException Thrown in case of error.
    */
-  public boolean isUserAuthorized(IntegrationSettings settings, String url, Long userId)
+  private boolean checkUserAuthorized(IntegrationSettings settings, String url, Long userId)
       throws AuthorizationException {
     UserAuthorizationData userAuthorizationData =
         getUserAuthorizationData(settings, url, userId);
@@ -367,6 +638,8 @@ public class JiraAuthorizationManager {
           e, MSG.getMessage("integration.jira.url.api.invalid.solution"));
     } catch (OAuth1HttpRequestException e) {
       if (HttpStatusCodes.STATUS_CODE_UNAUTHORIZED == e.getCode()) {
+        // the check itself isn't invalidated, so the user not authorized is cached
+        invalidateCachedAccessToken(settings, url, userId);
         return false;
       }
 
@@ -395,6 +668,7 @@ public class JiraAuthorizationManager {
     UserAuthorizationData userAuthData = new UserAuthorizationData(url, userId, jiraOAuth1Data);
 
     authRepoService.save(settings.getType(), settings.getConfigurationId(), userAuthData);
+    invalidateAccessToken(settings, url, userId);
 
     return authorizationUrl;
   }
@@ -429,8 +703,7 @@ public class JiraAuthorizationManager {
     try {
       String encryptedAccessToken = accessToken;
       if (cryptographyEnabled) {
-        UserKeyManagerData userKMData =
-            userService.getBotUserAccountKeyData(settings.getConfigurationId());
+        UserKeyManagerData userKMData = getCurrentBotUserKeyData(settings);
         encryptedAccessToken = cryptoService.encrypt(accessToken, userKMData.getPrivateKey());
       }
 
@@ -438,6 +711,7 @@ public class JiraAuthorizationManager {
       userAuthData.setData(jiraOAuth1Data);
 
       authRepoService.save(settings.getType(), settings.getConfigurationId(), userAuthData);
+      invalidateAccessToken(settings, url, userAuthData.getUserId());
     } catch (CryptoException e) {
       throw new JiraOAuth1Exception(
           MSG.getMessage("integration.jira.auth.encrypt", temporaryToken),
@@ -446,7 +720,9 @@ public class JiraAuthorizationManager {
   }
 
   /**
-   * Builds a JiraOAuth1Provider.
+   * Builds a JiraOAuth1Provider. The configured providers are reused while the consumer key, the
+   * base URL, the callback URL and the application private key remain the same, and they are
+   * discarded when the integration configuration changes.
    * @param settings Integration settings.
    * @param baseUrl Base URL.
    * @return JiraOAuth1Provider configured.
@@ -459,6 +735,44 @@ public class JiraAuthorizationManager {
     String privateKey = getPrivateKey(settings);
     String callbackUrl = getCallbackUrl(settings);
 
+    if (providers == null) {
+      return buildJiraOAuth1Provider(consumerKey, privateKey, baseUrl, callbackUrl);
+    }
+
+    String key = consumerKey + PROVIDER_KEY_SEPARATOR + StringUtils.strip(baseUrl, "/")
+        + PROVIDER_KEY_SEPARATOR + callbackUrl;
+
+    CachedProvider cached;
+
+    synchronized (providers) {
+      cached = providers.get(key);
+    }
+
+    if (cached != null && StringUtils.equals(cached.privateKey, privateKey)) {
+      return cached.provider;
+    }
+
+    JiraOAuth1Provider provider =
+        buildJiraOAuth1Provider(consumerKey, privateKey, baseUrl, callbackUrl);
+
+    synchronized (providers) {
+      providers.put(key, new CachedProvider(provider, privateKey));
+    }
+
+    return provider;
+  }
+
+  /**
+   * Creates and configures a new JiraOAuth1Provider.
+   * @param consumerKey Consumer key.
+   * @param privateKey Application private key.
+   * @param baseUrl Base URL.
+   * @param callbackUrl Authorization callback URL.
+   * @return JiraOAuth1Provider configured.
+   * @throws JiraOAuth1Exception Thrown when the URLs are invalid.
+   */
+  private JiraOAuth1Provider buildJiraOAuth1Provider(String consumerKey, String privateKey,
+      String baseUrl, String callbackUrl) throws JiraOAuth1Exception {
     JiraOAuth1Provider provider = context.getBean(JiraOAuth1Provider.class);
     provider.configure(consumerKey, privateKey, baseUrl, callbackUrl);
     return provider;
@@ -466,6 +780,8 @@ public class JiraAuthorizationManager {
 
   /**
    * Get an access token for user to perform calls to an external system resource.
+   *
+   * The decrypted tokens are cached by {@link JiraAccessTokenCache}.
    * @param settings Integration settings
    * @param url Integration URL.
    * @param userId User id.
@@ -475,6 +791,61 @@ public class JiraAuthorizationManager {
    */
   public String getAccessToken(IntegrationSettings settings, String url, Long userId)
       throws AuthorizationException {
+    if (accessTokenCache == null) {
+      return readAccessToken(settings, url, userId);
+    }
+
+    String configurationId = settings.getConfigurationId();
+    String accessToken = accessTokenCache.get(configurationId, url, userId);
+
+    if (accessToken == null) {
+      long generation = accessTokenCache.getGeneration();
+      accessToken = readAccessToken(settings, url, userId);
+      accessTokenCache.put(configurationId, url, userId, accessToken, generation);
+    }
+
+    return accessToken;
+  }
+
+  /**
+   * Removes the cached access token and authorization check of a user. Must be called when JIRA
+   * rejects the token.
+   * @param settings Integration settings
+   * @param url Integration URL.
+   * @param userId User id.
+   */
+  public void invalidateAccessToken(IntegrationSettings settings, String url, Long userId) {
+    invalidateCachedAccessToken(settings, url, userId);
+
+    if (authorizationCheckCache != null) {
+      authorizationCheckCache.invalidate(settings.getConfigurationId(), url, userId);
+    }
+  }
+
+  /**
+   * Removes the cached access token of a user, keeping the authorization check.
+   * @param settings Integration settings
+   * @param url Integration URL.
+   * @param userId User id.
+   */
+  private void invalidateCachedAccessToken(IntegrationSettings settings, String url,
+      Long userId) {
+    if (accessTokenCache != null) {
+      accessTokenCache.invalidate(settings.getConfigurationId(), url, userId);
+    }
+  }
+
+  /**
+   * Reads and decrypts the access token stored for the user.
+   * @param settings Integration settings
+   * @param url Integration URL.
+   * @param userId User id.
+   * @return An access token or null if the user hasn't authorized the application.
+   * @throws AuthorizationException Invalid JIRA authorization data or failure to read
+   * authorization data.
+   */
+  private String readAccessToken(IntegrationSettings settings, String url, Long userId)
+      throws AuthorizationException {
     UserAuthorizationData userAuthorizationData = getUserAuthorizationData(settings, url, userId);
 
     if ((userAuthorizationData == null) || (userAuthorizationData.getData() == null)) {
@@ -510,9 +881,7 @@ public class JiraAuthorizationManager {
           JiraOAuth1Data.class);
       String accessToken = jiraOAuth1Data.getAccessToken();
       if (cryptographyEnabled && !StringUtils.isEmpty(accessToken)) {
-        UserKeyManagerData userKMData =
-            userService.getBotUserAccountKeyData(settings.getConfigurationId());
-        String decryptedAccessToken = cryptoService.decrypt(accessToken, userKMData.getPrivateKey());
+        String decryptedAccessToken = decryptAccessToken(settings, accessToken);
         jiraOAuth1Data.setAccessToken(decryptedAccessToken);
       }
       return jiraOAuth1Data;
@@ -521,6 +890,55 @@ public class JiraAuthorizationManager {
     }
   }
 
+  /**
+   * Decrypts the access token with the bot user key. The key is retrieved from
+   * {@link JiraBotKeyCache}, and retrieved again from the key manager when the cached key can't
+   * decrypt the token, as the key may have changed. Those retries are rate limited by the cache,
+   * so a token that can't be decrypted fails without calling the key manager again.
+   * @param settings Integration settings
+   * @param accessToken Encrypted access token
+   * @return Decrypted access token
+   * @throws CryptoException Thrown when the token cannot be decrypted with the current key.
+   */
+  private String decryptAccessToken(IntegrationSettings settings, String accessToken)
+      throws CryptoException {
+    String configurationId = settings.getConfigurationId();
+
+    if (botKeyCache == null) {
+      UserKeyManagerData userKMData = userService.getBotUserAccountKeyData(configurationId);
+      return cryptoService.decrypt(accessToken, userKMData.getPrivateKey());
+    }
+
+    UserKeyManagerData userKMData = botKeyCache.getKeyData(configurationId);
+
+    try {
+      return cryptoService.decrypt(accessToken, userKMData.getPrivateKey());
+    } catch (CryptoException e) {
+      UserKeyManagerData currentKMData = botKeyCache.refreshAfterFailure(configurationId);
+
+      if (currentKMData == null
+          || StringUtils.equals(currentKMData.getPrivateKey(), userKMData.getPrivateKey())) {
+        throw e;
+      }
+
+      return cryptoService.decrypt(accessToken, currentKMData.getPrivateKey());
+    }
+  }
+
+  /**
+   * Retrieves the bot user key data from the key manager, so the new tokens are always encrypted
+   * with the current key. The cached key data is replaced as well.
+   * @param settings Integration settings
+   * @return Bot user key data
+   */
+  private UserKeyManagerData getCurrentBotUserKeyData(IntegrationSettings settings) {
+    if (botKeyCache != null) {
+      return botKeyCache.refresh(settings.getConfigurationId());
+    }
+
+    return userService.getBotUserAccountKeyData(settings.getConfigurationId());
+  }
+
   /**
    * Find a user authorization data that matches with the given url and userId
    * @param settings Integration settings.
@@ -545,4 +963,21 @@ public class JiraAuthorizationManager {
     String baseUrl = properties.getApplicationUrl(appId);
     return baseUrl + CLOSE_POP_UP_HTML;
   }
-}
\ No newline at end of file
+
+  /**
+   * Configured OAuth1 provider and the private key it was configured with.
+   */
+  private static class CachedProvider {
+
+    private final JiraOAuth1Provider provider;
+
+    private final String privateKey;
+
+    private CachedProvider(JiraOAuth1Provider provider, String privateKey) {
+      this.provider = provider;
+      this.privateKey = privateKey;
+    }
+
+  }
+
+}
@@ -0,0 +1,210 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.authorization;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.model.UserKeyManagerData;
+import org.symphonyoss.integration.service.UserService;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of the bot user key data, by configuration.
+ *
+ * The key data is used to encrypt and decrypt the JIRA access tokens, and retrieving it requires
+ * a call to the key manager. The key data expires after 'ttlSeconds', so a key changed on the key
+ * manager is picked up without restarting the application. Key data without private key isn't
+ * cached.
+ *
+ * The callers must call {@link #refreshAfterFailure(String)} when the cached key can't decrypt a
+ * token, as the key may have changed before the entry expired. Those refreshes are limited to one
+ * every 'refreshIntervalSeconds' per configuration, so tokens that can't be decrypted by any key
+ * don't call the key manager on every request.
+ */
+@Component
+public class JiraBotKeyCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JiraBotKeyCache.class);
+
+  @Value("${applications.jira.authorization.keyCache.ttlSeconds:600}")
+  private Long ttlSeconds;
+
+  @Value("${applications.jira.authorization.keyCache.refreshIntervalSeconds:30}")
+  private Long refreshIntervalSeconds;
+
+  @Autowired
+  private UserService userService;
+
+  private final ConcurrentMap<String, Entry> keys = new ConcurrentHashMap<>();
+
+  /**
+   * Time of the last refresh after a failure, by configuration.
+   */
+  private final ConcurrentMap<String, Long> failureRefreshes = new ConcurrentHashMap<>();
+
+  private final AtomicLong hitCount = new AtomicLong();
+
+  private final AtomicLong missCount = new AtomicLong();
+
+  private final AtomicLong refreshCount = new AtomicLong();
+
+  private final AtomicLong throttledCount = new AtomicLong();
+
+  /**
+   * Returns the bot user key data, retrieving it from the key manager when it isn't cached or has
+   * expired.
+   * @param configurationId Integration configuration ID
+   * @return Bot user key data
+   */
+  public UserKeyManagerData getKeyData(String configurationId) {
+    Entry entry = keys.get(configurationId);
+
+    if (entry != null && !entry.isExpired()) {
+      hitCount.incrementAndGet();
+      return entry.keyData;
+    }
+
+    missCount.incrementAndGet();
+    return load(configurationId);
+  }
+
+  /**
+   * Retrieves the bot user key data from the key manager and replaces the cached one.
+   * @param configurationId Integration configuration ID
+   * @return Bot user key data
+   */
+  public UserKeyManagerData refresh(String configurationId) {
+    refreshCount.incrementAndGet();
+    return load(configurationId);
+  }
+
+  /**
+   * Retrieves the bot user key data again after the cached key failed to decrypt a token. Returns
+   * the cached key data instead when the key data was already refreshed after a failure less than
+   * 'refreshIntervalSeconds' ago.
+   * @param configurationId Integration configuration ID
+   * @return Bot user key data
+   */
+  public UserKeyManagerData refreshAfterFailure(String configurationId) {
+    if (configurationId != null) {
+      long now = System.currentTimeMillis();
+      Long lastRefresh = failureRefreshes.get(configurationId);
+      Entry entry = keys.get(configurationId);
+
+      if (lastRefresh != null && entry != null
+          && now - lastRefresh < TimeUnit.SECONDS.toMillis(refreshIntervalSeconds)) {
+        throttledCount.incrementAndGet();
+        return entry.keyData;
+      }
+
+      failureRefreshes.put(configurationId, now);
+    }
+
+    return refresh(configurationId);
+  }
+
+  /**
+   * Removes the bot user key data of a configuration.
+   * @param configurationId Integration configuration ID
+   */
+  public void invalidate(String configurationId) {
+    if (configurationId != null) {
+      keys.remove(configurationId);
+      failureRefreshes.remove(configurationId);
+    }
+  }
+
+  /**
+   * Removes the bot user key data of all the configurations.
+   */
+  public void invalidateAll() {
+    keys.clear();
+    failureRefreshes.clear();
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getRefreshCount() {
+    return refreshCount.get();
+  }
+
+  /**
+   * Returns the number of refreshes after a failure skipped because the key data was refreshed
+   * recently.
+   * @return Number of refreshes skipped
+   */
+  public long getThrottledCount() {
+    return throttledCount.get();
+  }
+
+  private UserKeyManagerData load(String configurationId) {
+    UserKeyManagerData keyData = userService.getBotUserAccountKeyData(configurationId);
+
+    if (configurationId == null) {
+      return keyData;
+    }
+
+    if (keyData == null || StringUtils.isEmpty(keyData.getPrivateKey())) {
+      keys.remove(configurationId);
+    } else {
+      long expirationTime = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds);
+      Entry previous = keys.put(configurationId, new Entry(keyData, expirationTime));
+
+      if (previous != null && !keyData.getPrivateKey().equals(previous.keyData.getPrivateKey())) {
+        LOGGER.info("Bot user key changed for the configuration {}", configurationId);
+      }
+    }
+
+    return keyData;
+  }
+
+  /**
+   * Cached key data.
+   */
+  private static class Entry {
+
+    private final UserKeyManagerData keyData;
+
+    private final long expirationTime;
+
+    private Entry(UserKeyManagerData keyData, long expirationTime) {
+      this.keyData = keyData;
+      this.expirationTime = expirationTime;
+    }
+
+    private boolean isExpired() {
+      return System.currentTimeMillis() >= expirationTime;
+    }
+
+  }
+
+}
@@ -0,0 +1,211 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache that keeps up to 'maxSize' entries, evicting the least recently accessed ones,
+ * and expires each entry after the time it was put with.
+ *
+ * The values are read out of the cache, so a value read before its key was invalidated must not
+ * be cached afterwards. The callers read the generation before reading a value (see
+ * {@link #getGeneration()}), and the value is discarded if its key was invalidated since then.
+ * Only the invalidations of the same key discard it. The last invalidation of each key is kept up
+ * to 'maxSize' keys as well, and when one is evicted, the values read before it are discarded
+ * whatever their key.
+ *
+ * @param <V> Value type
+ */
+public class JiraLruCache<V> {
+
+  private final Map<String, Entry<V>> entries;
+
+  /**
+   * Generation of the last invalidation, by key.
+   */
+  private final Map<String, Long> invalidations;
+
+  private final AtomicLong generation;
+
+  /**
+   * Values read before this generation are discarded, whatever their key.
+   */
+  private long invalidatedGeneration;
+
+  private final AtomicLong hitCount = new AtomicLong();
+
+  private final AtomicLong missCount = new AtomicLong();
+
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  /**
+   * Creates a cache with its own generation.
+   * @param maxSize Maximum number of entries
+   */
+  public JiraLruCache(int maxSize) {
+    this(maxSize, new AtomicLong());
+  }
+
+  /**
+   * Creates a cache that shares the generation with other caches, so a single generation is read
+   * before reading the values cached by any of them.
+   * @param maxSize Maximum number of entries
+   * @param generation Generation shared by the caches
+   */
+  public JiraLruCache(final int maxSize, AtomicLong generation) {
+    this.generation = generation;
+
+    this.entries = new LinkedHashMap<String, Entry<V>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+        boolean evict = size() > maxSize;
+
+        if (evict) {
+          evictionCount.incrementAndGet();
+        }
+
+        return evict;
+      }
+    };
+
+    this.invalidations = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+        boolean evict = size() > maxSize;
+
+        if (evict) {
+          invalidatedGeneration = Math.max(invalidatedGeneration, eldest.getValue());
+        }
+
+        return evict;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached value.
+   * @param key Cache key
+   * @return Value or null if the value isn't cached or has expired
+   */
+  public V get(String key) {
+    Entry<V> entry;
+
+    synchronized (entries) {
+      entry = entries.get(key);
+
+      if (entry != null && entry.isExpired()) {
+        entries.remove(key);
+        entry = null;
+      }
+    }
+
+    if (entry == null) {
+      missCount.incrementAndGet();
+      return null;
+    }
+
+    hitCount.incrementAndGet();
+    return entry.value;
+  }
+
+  /**
+   * Caches the value, unless its key was invalidated after the value started to be read.
+   * @param key Cache key
+   * @param value Value, not null
+   * @param ttlMillis Time, in milliseconds, the value is kept
+   * @param readGeneration Generation when the value started to be read
+   */
+  public void put(String key, V value, long ttlMillis, long readGeneration) {
+    Entry<V> entry = new Entry<>(value, System.currentTimeMillis() + ttlMillis);
+
+    synchronized (entries) {
+      Long keyGeneration = invalidations.get(key);
+
+      if (readGeneration >= invalidatedGeneration
+          && (keyGeneration == null || readGeneration >= keyGeneration)) {
+        entries.put(key, entry);
+      }
+    }
+  }
+
+  /**
+   * Returns the current generation. Must be read before starting to read the value to be cached.
+   * @return Current generation
+   */
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * Removes the value of a key and discards the values of the key being read.
+   * @param key Cache key
+   */
+  public void invalidate(String key) {
+    synchronized (entries) {
+      invalidations.put(key, generation.incrementAndGet());
+      entries.remove(key);
+    }
+  }
+
+  /**
+   * Removes all the values and discards the values being read.
+   */
+  public void invalidateAll() {
+    synchronized (entries) {
+      invalidatedGeneration = generation.incrementAndGet();
+      invalidations.clear();
+      entries.clear();
+    }
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  /**
+   * Cached value.
+   */
+  private static class Entry<V> {
+
+    private final V value;
+
+    private final long expirationTime;
+
+    private Entry(V value, long expirationTime) {
+      this.value = value;
+      this.expirationTime = expirationTime;
+    }
+
+    private boolean isExpired() {
+      return System.currentTimeMillis() >= expirationTime;
+    }
+
+  }
+
+}
@@ -57,5 +57,9 @@ public class JiraErrorMessageKeys {
 
   public static final String INVALID_COMMENT_SOLUTION = INVALID_COMMENT + ".solution";
 
+  public static final String INGESTION_QUEUE_FULL = "integration.jira.ingestion.queue.full";
+
+  public static final String INGESTION_QUEUE_FULL_SOLUTION = INGESTION_QUEUE_FULL + ".solution";
+
 
 }
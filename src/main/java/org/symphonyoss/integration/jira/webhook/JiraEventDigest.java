@@ -0,0 +1,508 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.jira.webhook.model.JiraDigest;
+import org.symphonyoss.integration.jira.webhook.model.JiraEvent;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventAttributes;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventContext;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParser;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParserFactory;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParserResolver;
+import org.symphonyoss.integration.jira.webhook.parser.JiraPayloadProjection;
+import org.symphonyoss.integration.jira.webhook.parser.v2.CommentMetadataParser;
+import org.symphonyoss.integration.jira.webhook.parser.v2.IssueStateMetadataParser;
+import org.symphonyoss.integration.jira.webhook.parser.v2.JiraDigestMetadataParser;
+import org.symphonyoss.integration.jira.webhook.parser.v2.JiraMetadataParser;
+import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+import org.symphonyoss.integration.webhook.parser.WebHookParserFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Collects the issue events of an integration instance over a window and posts them as a single
+ * digest message, instead of one message per event.
+ *
+ * The events rendered by {@link IssueStateMetadataParser} and {@link CommentMetadataParser} are
+ * grouped by issue and rendered by {@link JiraDigestMetadataParser} when the window closes, or
+ * earlier when the digest reaches the maximum number of events. Other events are handled right
+ * away, but an event of an issue that has events in the pending digest handles the digest first.
+ *
+ * The windows are closed by {@link JiraWebHookIngestionQueue}, on a worker, and the digests of an
+ * instance are handled one at a time, so an event is never handled before the digest of the
+ * earlier events of its issue.
+ *
+ * The window is read from the application property
+ * 'applications.jira.digest.[instanceId].windowMillis', falling back to
+ * 'applications.jira.digest.windowMillis'. Digest mode is disabled when the window is zero.
+ *
+ * The digest is handled as a payload with the header {@link #DIGEST_ID_HEADER}, which is rendered
+ * by {@link #render(WebHookPayload)} instead of the JIRA parsers. Only the fields rendered by the
+ * digest are read from the digested events, and the scheduler that closes the windows is created
+ * when the first event is digested.
+ */
+@Component
+public class JiraEventDigest {
+
+  public static final String DIGEST_ID_HEADER = "x-jira-digest-id";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JiraEventDigest.class);
+
+  private static final String THREAD_NAME = "jira-event-digest";
+
+  private static final String WINDOW_TEMPLATE = "applications.jira.digest.%s.windowMillis";
+
+  private static final String DIGEST_BODY = "{}";
+
+  /**
+   * Fields of the event rendered by the digest.
+   */
+  private static final JiraPayloadProjection DIGEST_PROJECTION = new JiraPayloadProjection()
+      .include("webhookEvent")
+      .include("user")
+      .include("issue.key")
+      .include("issue.self")
+      .include("issue.fields.summary")
+      .include("issue.fields.status")
+      .include("issue.fields.issuetype")
+      .include("comment.visibility");
+
+  @Value("${applications.jira.digest.windowMillis:0}")
+  private Long windowMillis;
+
+  @Value("${applications.jira.digest.maxEvents:500}")
+  private Integer maxEvents;
+
+  @Autowired
+  private Environment environment;
+
+  @Autowired
+  private JiraParserResolver parserResolver;
+
+  @Autowired
+  private JiraDigestMetadataParser digestParser;
+
+  @Autowired
+  private JiraWebHookIngestionQueue ingestionQueue;
+
+  private ScheduledExecutorService scheduler;
+
+  private boolean destroyed;
+
+  private final Map<String, PendingDigest> pendingDigests = new HashMap<>();
+
+  private final ConcurrentMap<String, PendingDigest> closedDigests = new ConcurrentHashMap<>();
+
+  /**
+   * Locks held while the digests of each instance are handled.
+   */
+  private final ConcurrentMap<String, Object> handleLocks = new ConcurrentHashMap<>();
+
+  private final AtomicLong digestedCount = new AtomicLong();
+
+  private final AtomicLong emittedCount = new AtomicLong();
+
+  /**
+   * Handles the digest payload when the window closes.
+   */
+  public interface Handler {
+
+    void handle(WebHookPayload payload);
+
+  }
+
+  /**
+   * Handles the pending digests right away and stops the scheduler.
+   */
+  @PreDestroy
+  public void destroy() {
+    List<PendingDigest> digests;
+
+    synchronized (pendingDigests) {
+      destroyed = true;
+
+      if (scheduler != null) {
+        scheduler.shutdownNow();
+      }
+
+      digests = new ArrayList<>(pendingDigests.values());
+    }
+
+    for (PendingDigest digest : digests) {
+      flush(digest);
+    }
+  }
+
+  /**
+   * Checks if digest mode is enabled for the integration instance.
+   * @param instanceId Configuration instance identifier
+   * @return true if the window of the instance is greater than zero
+   */
+  public boolean isEnabled(String instanceId) {
+    return getWindowMillis(instanceId) > 0;
+  }
+
+  /**
+   * Adds the event to the digest of the instance if it's an issue event rendered by the digest.
+   * @param instanceId Configuration instance identifier
+   * @param integrationUser Integration username
+   * @param context Event context
+   * @param handler Handles the digest payload when the window closes
+   * @return true if the event was added to the digest (or skipped as a restricted comment), false if it
+   * must be handled right away (after the pending digest, if it has events of the same issue)
+   */
+  public boolean offer(String instanceId, String integrationUser, JiraEventContext context,
+      Handler handler) {
+    long window = getWindowMillis(instanceId);
+    if (window <= 0) {
+      return false;
+    }
+
+    JiraEventAttributes attributes = context.getAttributes();
+    String issueKey = attributes != null ? attributes.getIssueKey() : null;
+
+    if (StringUtils.isEmpty(issueKey)) {
+      return false;
+    }
+
+    JiraMetadataParser parser = getDigestedParser(context);
+    JiraEvent event = parser != null ? readEvent(context) : null;
+
+    if (event == null || event.getIssue() == null) {
+      release(instanceId, issueKey);
+      return false;
+    }
+
+    if (event.getComment() != null && event.getComment().isRestricted()) {
+      // restricted comments are not supported, therefore they're not posted
+      return true;
+    }
+
+    final PendingDigest digest;
+    boolean full;
+
+    synchronized (pendingDigests) {
+      if (destroyed) {
+        return false;
+      }
+
+      PendingDigest pending = pendingDigests.get(instanceId);
+
+      if (pending == null) {
+        pending = new PendingDigest(instanceId, integrationUser, handler);
+        pendingDigests.put(instanceId, pending);
+        schedule(pending, window);
+      }
+
+      pending.add(event, parser.getAction(event));
+      full = pending.eventCount >= maxEvents;
+      digest = pending;
+    }
+
+    digestedCount.incrementAndGet();
+
+    if (full) {
+      flush(digest);
+    }
+
+    return true;
+  }
+
+  /**
+   * Renders the digest handled as a payload.
+   * @param payload Webhook payload
+   * @return Digest message or null if the payload isn't a digest
+   */
+  public Message render(WebHookPayload payload) {
+    Map<String, String> headers = payload.getHeaders();
+    String id = headers != null ? headers.get(DIGEST_ID_HEADER) : null;
+
+    if (id == null) {
+      return null;
+    }
+
+    PendingDigest digest = closedDigests.remove(id);
+
+    if (digest == null) {
+      return null;
+    }
+
+    emittedCount.incrementAndGet();
+    return digestParser.parse(digest.build(), digest.integrationUser);
+  }
+
+  /**
+   * Returns the number of events added to a digest.
+   */
+  public long getDigestedCount() {
+    return digestedCount.get();
+  }
+
+  /**
+   * Returns the number of digests rendered.
+   */
+  public long getEmittedCount() {
+    return emittedCount.get();
+  }
+
+  public int getPendingCount() {
+    synchronized (pendingDigests) {
+      return pendingDigests.size();
+    }
+  }
+
+  private long getWindowMillis(String instanceId) {
+    String window = null;
+
+    if (environment != null && instanceId != null) {
+      window = environment.getProperty(String.format(WINDOW_TEMPLATE, instanceId));
+    }
+
+    if (StringUtils.isNotBlank(window)) {
+      return Long.parseLong(window.trim());
+    }
+
+    return windowMillis != null ? windowMillis : 0;
+  }
+
+  /**
+   * Returns the parser of the event if it's rendered by the digest. Only the event type read when
+   * the event was received is used.
+   */
+  private JiraMetadataParser getDigestedParser(JiraEventContext context) {
+    WebHookParserFactory factory = parserResolver != null ? parserResolver.getFactory() : null;
+    if (!(factory instanceof JiraParserFactory) || context.getAttributes() == null) {
+      return null;
+    }
+
+    JiraParser parser = ((JiraParserFactory) factory).getParser(context.getWebHookEvent(),
+        context.getEventTypeName());
+
+    if (parser instanceof IssueStateMetadataParser || parser instanceof CommentMetadataParser) {
+      return (JiraMetadataParser) parser;
+    }
+
+    return null;
+  }
+
+  /**
+   * Reads the fields rendered by the digest, without reading the whole event.
+   */
+  private JiraEvent readEvent(JiraEventContext context) {
+    try {
+      return JiraEvent.read(DIGEST_PROJECTION.read(context.getPayload().getBody()));
+    } catch (IOException e) {
+      // the failure is reported when the event is handled
+      return null;
+    }
+  }
+
+  /**
+   * Schedules the digest to be closed when the window ends. The scheduler is created on the first
+   * call, so it's never created if digest mode is disabled for all the instances. Must be called
+   * holding the lock of the pending digests.
+   */
+  private void schedule(final PendingDigest digest, long window) {
+    if (scheduler == null) {
+      scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, THREAD_NAME);
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+
+    scheduler.schedule(new Runnable() {
+      @Override
+      public void run() {
+        close(digest);
+      }
+    }, window, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Flushes the digest when its window closes, on a worker if the asynchronous ingestion is
+   * enabled. The digests of an instance are released on the same worker.
+   */
+  private void close(final PendingDigest digest) {
+    Runnable task = new Runnable() {
+      @Override
+      public void run() {
+        flush(digest);
+      }
+    };
+
+    if (ingestionQueue != null) {
+      ingestionQueue.release(digest.instanceId, JiraEventLane.NORMAL, task);
+    } else {
+      task.run();
+    }
+  }
+
+  /**
+   * Handles the pending digest of the instance right away if it has events of the issue. Waits for
+   * the digest of the instance being handled, if any, as it may have events of the issue too.
+   */
+  private void release(String instanceId, String issueKey) {
+    synchronized (getHandleLock(instanceId)) {
+      PendingDigest digest;
+
+      synchronized (pendingDigests) {
+        digest = pendingDigests.get(instanceId);
+
+        if (digest == null || !digest.latestEvents.containsKey(issueKey)) {
+          return;
+        }
+
+        pendingDigests.remove(instanceId);
+      }
+
+      handle(digest);
+    }
+  }
+
+  /**
+   * Closes the digest, if it's still pending, and handles it.
+   */
+  private void flush(PendingDigest digest) {
+    synchronized (getHandleLock(digest.instanceId)) {
+      synchronized (pendingDigests) {
+        if (pendingDigests.get(digest.instanceId) != digest) {
+          return;
+        }
+
+        pendingDigests.remove(digest.instanceId);
+      }
+
+      handle(digest);
+    }
+  }
+
+  private Object getHandleLock(String instanceId) {
+    Object lock = handleLocks.get(instanceId);
+
+    if (lock == null) {
+      Object created = new Object();
+      lock = handleLocks.putIfAbsent(instanceId, created);
+
+      if (lock == null) {
+        lock = created;
+      }
+    }
+
+    return lock;
+  }
+
+  /**
+   * Handles the digest payload. The digest is kept only while the handler runs, so it isn't kept
+   * forever when the payload isn't rendered.
+   */
+  private void handle(PendingDigest digest) {
+    closedDigests.put(digest.id, digest);
+
+    Map<String, String> headers = Collections.singletonMap(DIGEST_ID_HEADER, digest.id);
+    WebHookPayload payload =
+        new WebHookPayload(Collections.<String, String>emptyMap(), headers, DIGEST_BODY);
+
+    try {
+      digest.handler.handle(payload);
+    } catch (RuntimeException e) {
+      LOGGER.error("Failed to handle the JIRA event digest for " + digest.instanceId, e);
+    } finally {
+      closedDigests.remove(digest.id);
+    }
+  }
+
+  /**
+   * Events of an instance received during the window, grouped by issue.
+   */
+  private static class PendingDigest {
+
+    private final String id = UUID.randomUUID().toString();
+
+    private final String instanceId;
+
+    private final String integrationUser;
+
+    private final Handler handler;
+
+    private final Map<String, JiraEvent> latestEvents = new LinkedHashMap<>();
+
+    private final Map<String, List<JiraDigest.Action>> actions = new HashMap<>();
+
+    private int eventCount;
+
+    PendingDigest(String instanceId, String integrationUser, Handler handler) {
+      this.instanceId = instanceId;
+      this.integrationUser = integrationUser;
+      this.handler = handler;
+    }
+
+    void add(JiraEvent event, String action) {
+      String issueKey = event.getIssue().getKey();
+
+      latestEvents.put(issueKey, event);
+
+      List<JiraDigest.Action> issueActions = actions.get(issueKey);
+      if (issueActions == null) {
+        issueActions = new ArrayList<>();
+        actions.put(issueKey, issueActions);
+      }
+
+      issueActions.add(new JiraDigest.Action(action, event.getUser()));
+      eventCount++;
+    }
+
+    JiraDigest build() {
+      List<JiraDigest.Issue> issues = new ArrayList<>();
+
+      for (Map.Entry<String, JiraEvent> entry : latestEvents.entrySet()) {
+        issues.add(new JiraDigest.Issue(entry.getValue(), actions.get(entry.getKey())));
+      }
+
+      return new JiraDigest(eventCount, issues);
+    }
+  }
+
+}
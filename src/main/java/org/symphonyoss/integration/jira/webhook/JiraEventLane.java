@@ -0,0 +1,105 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook;
+
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_COMMENT_DELETED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_COMMENT_UPDATED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_ISSUE_COMMENT_DELETED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_ISSUE_COMMENT_EDITED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_WORKLOG_UPDATED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.WORKLOG_CREATED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.WORKLOG_DELETED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.WORKLOG_UPDATED;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.INCIDENT_SEVERITY_1_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraParserAccentConstants.RED_ACCENT;
+
+import org.apache.commons.lang3.StringUtils;
+import org.symphonyoss.integration.jira.webhook.model.JiraIssueFields;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventAttributes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Processing priority of a JIRA event, from the highest to the lowest.
+ *
+ * The lane is derived from the event type, the issue type (using the same accent mapping used to
+ * render the issue) and the priority name:
+ * <ul>
+ * <li>{@link #HIGH}: severity 1 incidents, and red accent issues (bugs, incidents, support issues)
+ * with the highest, blocker or critical priority</li>
+ * <li>{@link #LOW}: comment edits and deletions, worklog events, and issues with the lowest or
+ * trivial priority</li>
+ * <li>{@link #NORMAL}: everything else, including the events that don't belong to an issue</li>
+ * </ul>
+ */
+public enum JiraEventLane {
+
+  HIGH,
+
+  NORMAL,
+
+  LOW;
+
+  private static final Set<String> LOW_EVENTS = Collections.unmodifiableSet(new HashSet<>(
+      Arrays.asList(JIRA_COMMENT_UPDATED, JIRA_COMMENT_DELETED, JIRA_WORKLOG_UPDATED,
+          WORKLOG_CREATED, WORKLOG_UPDATED, WORKLOG_DELETED)));
+
+  private static final Set<String> LOW_EVENT_TYPES = Collections.unmodifiableSet(new HashSet<>(
+      Arrays.asList(JIRA_ISSUE_COMMENT_EDITED, JIRA_ISSUE_COMMENT_DELETED)));
+
+  private static final Set<String> HIGH_PRIORITIES = Collections.unmodifiableSet(new HashSet<>(
+      Arrays.asList("highest", "blocker", "critical")));
+
+  private static final Set<String> LOW_PRIORITIES = Collections.unmodifiableSet(new HashSet<>(
+      Arrays.asList("lowest", "trivial")));
+
+  /**
+   * Returns the lane of the event.
+   * @param event Event attributes
+   * @return Event lane
+   */
+  public static JiraEventLane of(JiraEventAttributes event) {
+    if (LOW_EVENTS.contains(event.getWebHookEvent())
+        || LOW_EVENT_TYPES.contains(event.getEventTypeName())) {
+      return LOW;
+    }
+
+    // issue type names have spaces, the constants have underscores
+    String issueType = StringUtils.replace(event.getIssueType(), " ", "_");
+    String priority = StringUtils.lowerCase(event.getPriority());
+
+    if (StringUtils.equalsIgnoreCase(INCIDENT_SEVERITY_1_TYPE, issueType)) {
+      return HIGH;
+    }
+
+    if (RED_ACCENT.equals(JiraIssueFields.getAccent(issueType))
+        && HIGH_PRIORITIES.contains(priority)) {
+      return HIGH;
+    }
+
+    if (LOW_PRIORITIES.contains(priority)) {
+      return LOW;
+    }
+
+    return NORMAL;
+  }
+
+}
@@ -0,0 +1,407 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook;
+
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_ISSUE_UPDATED;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.CHANGELOG_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.FIELD_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.FROMSTRING_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.FROM_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ITEMS_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.TOSTRING_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.TO_PATH;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventAttributes;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventContext;
+import org.symphonyoss.integration.jira.webhook.parser.JiraPayloadProjection;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Coalesces the bursts of 'jira:issue_updated' events sent by JIRA during an edit session.
+ *
+ * The first update of an issue is held for a configurable window, and the updates of the same
+ * issue and the same 'issue_event_type_name' received during the window are merged into it. An
+ * update of another event type handles the pending update right away and takes its place, and any
+ * other event of the issue handles the pending update right away before being handled itself. When
+ * the window closes, a single event is handled with the latest issue state and the changelog items
+ * of all the updates. The items that change the same field are merged to keep the first original
+ * value and the final value, and the fields changed back to the original value are dropped.
+ *
+ * The pending update is handled by {@link JiraWebHookIngestionQueue} when the window closes, on
+ * the worker of the issue, so it's still handled before the events of the issue received later.
+ *
+ * Only the changelog items of the held updates are read, and the handled event keeps the payload
+ * of the latest update with the merged items (see {@link JiraEventContext}).
+ *
+ * Coalescing is disabled when the window is zero.
+ */
+@Component
+public class JiraIssueUpdateCoalescer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JiraIssueUpdateCoalescer.class);
+
+  private static final String THREAD_NAME = "jira-issue-coalescer";
+
+  private static final JiraPayloadProjection CHANGELOG_PROJECTION =
+      new JiraPayloadProjection().include(CHANGELOG_PATH + "." + ITEMS_PATH);
+
+  @Value("${applications.jira.coalescing.windowMillis:0}")
+  private Long windowMillis;
+
+  @Value("${applications.jira.coalescing.maxPendingIssues:1000}")
+  private Integer maxPendingIssues;
+
+  @Autowired
+  private JiraWebHookIngestionQueue ingestionQueue;
+
+  private ScheduledExecutorService scheduler;
+
+  private final Map<String, PendingUpdate> pendingUpdates = new HashMap<>();
+
+  private final AtomicLong coalescedCount = new AtomicLong();
+
+  private final AtomicLong emittedCount = new AtomicLong();
+
+  /**
+   * Handles the event emitted when the coalescing window closes.
+   */
+  public interface Handler {
+
+    void handle(JiraEventContext context);
+
+  }
+
+  @PostConstruct
+  public void init() {
+    if (!isEnabled()) {
+      return;
+    }
+
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+
+    LOGGER.info("JIRA issue updates will be coalesced in windows of {} ms", windowMillis);
+  }
+
+  /**
+   * Handles the pending updates right away and stops the scheduler.
+   */
+  @PreDestroy
+  public void destroy() {
+    if (scheduler == null) {
+      return;
+    }
+
+    scheduler.shutdownNow();
+
+    List<PendingUpdate> updates;
+    synchronized (pendingUpdates) {
+      updates = new ArrayList<>(pendingUpdates.values());
+    }
+
+    for (PendingUpdate update : updates) {
+      flush(update);
+    }
+  }
+
+  public boolean isEnabled() {
+    return windowMillis != null && windowMillis > 0;
+  }
+
+  /**
+   * Holds the event if it's an issue update, merging it into the pending update of the same issue
+   * and event type. The pending update of the issue that can't be merged with the event is handled
+   * right away, before the event.
+   * @param instanceId Configuration instance identifier
+   * @param context Event context
+   * @param handler Handles the event when the coalescing window closes
+   * @return true if the event was held, false if it must be handled right away
+   */
+  public boolean offer(String instanceId, JiraEventContext context, Handler handler) {
+    JiraEventAttributes attributes = context.getAttributes();
+
+    if (scheduler == null || attributes == null
+        || StringUtils.isEmpty(attributes.getIssueKey())) {
+      return false;
+    }
+
+    final String issueKey = attributes.getIssueKey();
+    String key = instanceId + ":" + issueKey;
+
+    if (!JIRA_ISSUE_UPDATED.equals(attributes.getWebHookEvent())) {
+      release(key);
+      return false;
+    }
+
+    List<ObjectNode> items;
+    try {
+      items = readChangelogItems(context);
+    } catch (IOException e) {
+      // the failure is reported when the event is handled
+      release(key);
+      return false;
+    }
+
+    PendingUpdate replaced = null;
+    final PendingUpdate update;
+
+    synchronized (pendingUpdates) {
+      PendingUpdate pending = pendingUpdates.get(key);
+
+      if (pending != null && pending.accepts(context)) {
+        pending.merge(context, items, handler);
+        coalescedCount.incrementAndGet();
+        return true;
+      }
+
+      if (pending == null && pendingUpdates.size() >= maxPendingIssues) {
+        return false;
+      }
+
+      replaced = pending;
+      update = new PendingUpdate(key, context, items, handler);
+      pendingUpdates.put(key, update);
+    }
+
+    if (replaced != null) {
+      // the pending update is handled before this one
+      emit(replaced);
+    }
+
+    final JiraEventLane lane = JiraEventLane.of(attributes);
+
+    scheduler.schedule(new Runnable() {
+      @Override
+      public void run() {
+        close(update, issueKey, lane);
+      }
+    }, windowMillis, TimeUnit.MILLISECONDS);
+
+    return true;
+  }
+
+  /**
+   * Returns the number of events merged into a pending update.
+   */
+  public long getCoalescedCount() {
+    return coalescedCount.get();
+  }
+
+  /**
+   * Returns the number of events handled when the coalescing windows closed.
+   */
+  public long getEmittedCount() {
+    return emittedCount.get();
+  }
+
+  public int getPendingCount() {
+    synchronized (pendingUpdates) {
+      return pendingUpdates.size();
+    }
+  }
+
+  /**
+   * Reads the changelog items of the event, without reading the other fields.
+   */
+  private List<ObjectNode> readChangelogItems(JiraEventContext context) throws IOException {
+    if (context.getAttributes().getChangedFields().isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    JsonNode node = CHANGELOG_PROJECTION.read(context.getPayload().getBody());
+    List<ObjectNode> items = new ArrayList<>();
+
+    for (JsonNode item : node.path(CHANGELOG_PATH).path(ITEMS_PATH)) {
+      if (item instanceof ObjectNode) {
+        items.add((ObjectNode) item);
+      }
+    }
+
+    return items;
+  }
+
+  /**
+   * Handles the pending update of the issue right away, if there is one.
+   */
+  private void release(String key) {
+    PendingUpdate pending;
+
+    synchronized (pendingUpdates) {
+      pending = pendingUpdates.remove(key);
+    }
+
+    if (pending != null) {
+      emit(pending);
+    }
+  }
+
+  /**
+   * Handles the update when its window closes, on the worker of the issue if the asynchronous
+   * ingestion is enabled.
+   */
+  private void close(final PendingUpdate update, String issueKey, JiraEventLane lane) {
+    Runnable task = new Runnable() {
+      @Override
+      public void run() {
+        flush(update);
+      }
+    };
+
+    if (ingestionQueue != null) {
+      ingestionQueue.release(issueKey, lane, task);
+    } else {
+      task.run();
+    }
+  }
+
+  private void flush(PendingUpdate update) {
+    synchronized (pendingUpdates) {
+      if (pendingUpdates.get(update.key) != update) {
+        return;
+      }
+
+      pendingUpdates.remove(update.key);
+    }
+
+    emit(update);
+  }
+
+  private void emit(PendingUpdate update) {
+    try {
+      update.handler.handle(update.build());
+      emittedCount.incrementAndGet();
+    } catch (RuntimeException e) {
+      LOGGER.error("Failed to handle the coalesced JIRA event for " + update.key, e);
+    }
+  }
+
+  /**
+   * Latest state of an issue and the changelog items of all the updates received in the window.
+   */
+  private static class PendingUpdate {
+
+    private final String key;
+
+    private JiraEventContext context;
+
+    private Handler handler;
+
+    private final List<ObjectNode> items = new ArrayList<>();
+
+    private int updates = 1;
+
+    PendingUpdate(String key, JiraEventContext context, List<ObjectNode> items,
+        Handler handler) {
+      this.key = key;
+      this.context = context;
+      this.handler = handler;
+      addItems(items, new HashMap<String, ObjectNode>());
+    }
+
+    /**
+     * Checks if the event has the same event type name of the pending update.
+     */
+    boolean accepts(JiraEventContext context) {
+      return StringUtils.equals(this.context.getEventTypeName(), context.getEventTypeName());
+    }
+
+    void merge(JiraEventContext context, List<ObjectNode> items, Handler handler) {
+      Map<String, ObjectNode> previousItems = new HashMap<>();
+      for (ObjectNode item : this.items) {
+        previousItems.put(item.path(FIELD_PATH).asText(), item);
+      }
+
+      addItems(items, previousItems);
+
+      this.updates++;
+      this.context = context;
+      this.handler = handler;
+    }
+
+    /**
+     * Adds the changelog items of the event. The items that change a field already changed by a
+     * previous update are merged into the previous item.
+     */
+    private void addItems(List<ObjectNode> items, Map<String, ObjectNode> previousItems) {
+      for (ObjectNode item : items) {
+        ObjectNode previous = previousItems.remove(item.path(FIELD_PATH).asText());
+
+        if (previous == null) {
+          this.items.add(item);
+        } else {
+          previous.set(TO_PATH, item.get(TO_PATH));
+          previous.set(TOSTRING_PATH, item.get(TOSTRING_PATH));
+        }
+      }
+    }
+
+    /**
+     * Builds the event with the latest issue state and the merged changelog items.
+     */
+    JiraEventContext build() {
+      if (updates == 1 || (items.isEmpty()
+          && context.getAttributes().getChangedFields().isEmpty())) {
+        return context;
+      }
+
+      ArrayNode mergedItems = JsonNodeFactory.instance.arrayNode();
+
+      for (ObjectNode item : items) {
+        boolean unchanged = item.path(FROM_PATH).equals(item.path(TO_PATH))
+            && item.path(FROMSTRING_PATH).equals(item.path(TOSTRING_PATH));
+
+        if (!unchanged) {
+          mergedItems.add(item);
+        }
+      }
+
+      return new JiraEventContext(context, mergedItems);
+    }
+  }
+
+}
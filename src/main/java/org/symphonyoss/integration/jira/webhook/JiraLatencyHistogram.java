@@ -0,0 +1,101 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with fixed buckets, from 1 millisecond to 1 minute.
+ *
+ * The percentiles are approximated by the upper bound of the bucket they fall in, which is enough
+ * to tell a healthy queue from a backed-up one without keeping the samples.
+ */
+public class JiraLatencyHistogram {
+
+  private static final long[] BUCKET_BOUNDS =
+      { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 20000, 60000 };
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+
+  private final AtomicLong count = new AtomicLong();
+
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records a latency.
+   * @param latency Latency, in milliseconds
+   */
+  public void record(long latency) {
+    int bucket = 0;
+
+    while (bucket < BUCKET_BOUNDS.length && latency > BUCKET_BOUNDS[bucket]) {
+      bucket++;
+    }
+
+    counts.incrementAndGet(bucket);
+    count.incrementAndGet();
+
+    long current = max.get();
+    while (latency > current && !max.compareAndSet(current, latency)) {
+      current = max.get();
+    }
+  }
+
+  /**
+   * Returns the number of latencies recorded.
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Returns the highest latency recorded, in milliseconds.
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns the latency below which the percentage of the recorded latencies fall.
+   * @param percentile Percentile, between 0 and 100
+   * @return Upper bound of the bucket of the percentile, capped by the highest latency recorded,
+   * or zero if nothing was recorded
+   */
+  public long getPercentile(double percentile) {
+    long total = count.get();
+
+    if (total == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+
+    for (int bucket = 0; bucket < BUCKET_BOUNDS.length; bucket++) {
+      seen += counts.get(bucket);
+
+      if (seen >= rank) {
+        return Math.min(BUCKET_BOUNDS[bucket], max.get());
+      }
+    }
+
+    return max.get();
+  }
+
+}
@@ -69,6 +69,8 @@ public final class JiraParserConstants {
 
   public static final String COMMENT_PATH = "comment";
 
+  public static final String TIMESTAMP_PATH = "timestamp";
+
   public static final String UPDATE_AUTHOR_PATH = "updateAuthor";
 
   public static final String BODY_PATH = "body";
@@ -89,6 +91,8 @@ public final class JiraParserConstants {
 
   public static final String FROMSTRING_PATH = "fromString";
 
+  public static final String FROM_PATH = "from";
+
   public static final String ICONURL_PATH = "iconUrl";
 
   public static final String UNKNOWN_PROJECT = "Unknown Project";
@@ -0,0 +1,414 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor that runs the tasks with the same key in the order they were submitted, and the tasks
+ * with different keys in parallel.
+ *
+ * Each stripe has a single thread and a bounded queue, and the key always selects the same stripe,
+ * so the tasks of a key never run concurrently or out of order. Tasks without a key are spread
+ * over the stripes. A slow task delays the other keys of its stripe only.
+ *
+ * The queue of a stripe is split in lanes (see {@link JiraEventLane}), and the thread always takes
+ * the oldest task of the highest lane. A task never overtakes an older task of the same key,
+ * though: it's moved down to the lowest lane the pending tasks of its key are waiting on. The
+ * {@link JiraEventLane#HIGH} tasks have their own capacity, even when they're moved down, so they're
+ * never rejected because the other lanes are full.
+ */
+public class JiraStripedExecutor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JiraStripedExecutor.class);
+
+  private final List<Stripe> stripes;
+
+  private final AtomicInteger nextStripe = new AtomicInteger();
+
+  /**
+   * Creates the stripes. The thread of a stripe is started by its first task and kept alive.
+   * @param threadNamePrefix Thread name prefix
+   * @param stripeCount Number of stripes, i.e. the maximum number of tasks running in parallel
+   * @param stripeQueueSize Maximum number of tasks waiting on each stripe, besides the tasks
+   * submitted to the high lane which can wait up to the same number
+   */
+  public JiraStripedExecutor(String threadNamePrefix, int stripeCount, int stripeQueueSize) {
+    List<Stripe> stripes = new ArrayList<>(stripeCount);
+
+    for (int i = 0; i < stripeCount; i++) {
+      stripes.add(new Stripe(threadNamePrefix + (i + 1), stripeQueueSize));
+    }
+
+    this.stripes = Collections.unmodifiableList(stripes);
+  }
+
+  /**
+   * Queues the task on the normal lane of the stripe of the key.
+   * @see #execute(String, JiraEventLane, Runnable)
+   */
+  public void execute(String key, Runnable task) {
+    execute(key, JiraEventLane.NORMAL, task);
+  }
+
+  /**
+   * Queues the task on the stripe of the key.
+   * @param key Ordering key, or null if the task doesn't need to be ordered
+   * @param lane Lane of the task
+   * @param task Task
+   * @throws RejectedExecutionException The lane of the stripe is full or the executor was shut
+   * down
+   */
+  public void execute(String key, JiraEventLane lane, Runnable task) {
+    getStripe(key).execute(key, lane, task);
+  }
+
+  /**
+   * Stops the threads. The tasks waiting on the queues are discarded.
+   */
+  public void shutdownNow() {
+    for (Stripe stripe : stripes) {
+      stripe.shutdownNow();
+    }
+  }
+
+  public int getStripeCount() {
+    return stripes.size();
+  }
+
+  /**
+   * Returns the stripe that runs the tasks of the key.
+   * @param key Ordering key
+   * @return Stripe index
+   */
+  public int getStripeIndex(String key) {
+    // spreads the hash code bits, the same way HashMap does, before taking the modulo
+    int hash = key.hashCode();
+    hash ^= (hash >>> 16);
+    return (hash & Integer.MAX_VALUE) % stripes.size();
+  }
+
+  /**
+   * Returns the number of tasks waiting on all the stripes.
+   */
+  public int getQueueDepth() {
+    int depth = 0;
+
+    for (Stripe stripe : stripes) {
+      depth += stripe.getQueueDepth();
+    }
+
+    return depth;
+  }
+
+  /**
+   * Returns the number of tasks waiting on the lane of all the stripes.
+   */
+  public int getQueueDepth(JiraEventLane lane) {
+    int depth = 0;
+
+    for (Stripe stripe : stripes) {
+      depth += stripe.getQueueDepth(lane);
+    }
+
+    return depth;
+  }
+
+  /**
+   * Returns the number of tasks waiting on each stripe.
+   */
+  public List<Integer> getStripeQueueDepths() {
+    List<Integer> depths = new ArrayList<>(stripes.size());
+
+    for (Stripe stripe : stripes) {
+      depths.add(stripe.getQueueDepth());
+    }
+
+    return depths;
+  }
+
+  /**
+   * Returns the largest number of tasks that have waited on each stripe.
+   */
+  public List<Integer> getStripeMaxQueueDepths() {
+    List<Integer> depths = new ArrayList<>(stripes.size());
+
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        depths.add(stripe.maxQueueDepth);
+      }
+    }
+
+    return depths;
+  }
+
+  /**
+   * Returns the number of tasks completed by each stripe, including the failed ones.
+   */
+  public List<Long> getStripeCompletedCounts() {
+    List<Long> counts = new ArrayList<>(stripes.size());
+
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        counts.add(stripe.completedCount);
+      }
+    }
+
+    return counts;
+  }
+
+  /**
+   * Returns the number of tasks rejected by each stripe.
+   */
+  public List<Long> getStripeRejectedCounts() {
+    List<Long> counts = new ArrayList<>(stripes.size());
+
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        counts.add(stripe.rejectedCount);
+      }
+    }
+
+    return counts;
+  }
+
+  private Stripe getStripe(String key) {
+    if (key == null) {
+      int index = (nextStripe.getAndIncrement() & Integer.MAX_VALUE) % stripes.size();
+      return stripes.get(index);
+    }
+
+    return stripes.get(getStripeIndex(key));
+  }
+
+  /**
+   * Task waiting on a lane, and whether it was admitted with the capacity of the high lane.
+   */
+  private static class QueuedTask {
+
+    private final String key;
+
+    private final boolean high;
+
+    private final Runnable task;
+
+    QueuedTask(String key, boolean high, Runnable task) {
+      this.key = key;
+      this.high = high;
+      this.task = task;
+    }
+  }
+
+  /**
+   * Lowest lane and number of the tasks of a key waiting on a stripe.
+   */
+  private static class PendingKey {
+
+    private JiraEventLane lane;
+
+    private int count;
+  }
+
+  /**
+   * Single thread and its lanes. The lanes are guarded by the stripe lock.
+   */
+  private static class Stripe implements Runnable {
+
+    private final String threadName;
+
+    private final int queueSize;
+
+    private final Map<JiraEventLane, ArrayDeque<QueuedTask>> lanes =
+        new EnumMap<>(JiraEventLane.class);
+
+    private final Map<String, PendingKey> pendingKeys = new HashMap<>();
+
+    private int highCount;
+
+    private Thread thread;
+
+    private boolean shutdown;
+
+    private int maxQueueDepth;
+
+    private long completedCount;
+
+    private long rejectedCount;
+
+    Stripe(String threadName, int queueSize) {
+      this.threadName = threadName;
+      this.queueSize = queueSize;
+
+      for (JiraEventLane lane : JiraEventLane.values()) {
+        lanes.put(lane, new ArrayDeque<QueuedTask>());
+      }
+    }
+
+    synchronized void execute(String key, JiraEventLane lane, Runnable task) {
+      if (shutdown) {
+        rejectedCount++;
+        throw new RejectedExecutionException("Executor was shut down");
+      }
+
+      // the high tasks are admitted with the capacity of the high lane even when moved down
+      boolean high = lane == JiraEventLane.HIGH;
+      int depth = getQueueDepth();
+
+      boolean full = high ? highCount >= queueSize : depth - highCount >= queueSize;
+
+      if (full) {
+        rejectedCount++;
+        throw new RejectedExecutionException(lane + " lane of " + threadName + " is full");
+      }
+
+      PendingKey pending = key != null ? pendingKeys.get(key) : null;
+
+      if (pending != null && pending.lane.compareTo(lane) > 0) {
+        lane = pending.lane;
+      }
+
+      lanes.get(lane).addLast(new QueuedTask(key, high, task));
+
+      if (high) {
+        highCount++;
+      }
+
+      if (key != null) {
+        if (pending == null) {
+          pending = new PendingKey();
+          pendingKeys.put(key, pending);
+        }
+
+        pending.lane = lane;
+        pending.count++;
+      }
+
+      maxQueueDepth = Math.max(maxQueueDepth, depth + 1);
+
+      if (thread == null) {
+        thread = new Thread(this, threadName);
+        thread.setDaemon(true);
+        thread.start();
+      }
+
+      notifyAll();
+    }
+
+    synchronized void shutdownNow() {
+      shutdown = true;
+
+      for (ArrayDeque<QueuedTask> queue : lanes.values()) {
+        queue.clear();
+      }
+
+      pendingKeys.clear();
+      highCount = 0;
+
+      if (thread != null) {
+        thread.interrupt();
+      }
+
+      notifyAll();
+    }
+
+    @Override
+    public void run() {
+      QueuedTask next;
+
+      while ((next = take()) != null) {
+        try {
+          next.task.run();
+        } catch (RuntimeException e) {
+          LOGGER.error("Failed to run the task on " + threadName, e);
+        }
+
+        synchronized (this) {
+          completedCount++;
+        }
+      }
+    }
+
+    /**
+     * Waits for the oldest task of the highest lane.
+     * @return Task or null if the stripe was shut down
+     */
+    private synchronized QueuedTask take() {
+      while (!shutdown) {
+        for (ArrayDeque<QueuedTask> queue : lanes.values()) {
+          QueuedTask task = queue.pollFirst();
+
+          if (task != null) {
+            release(task);
+            return task;
+          }
+        }
+
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return null;
+        }
+      }
+
+      return null;
+    }
+
+    private void release(QueuedTask task) {
+      if (task.high) {
+        highCount--;
+      }
+
+      if (task.key == null) {
+        return;
+      }
+
+      PendingKey pending = pendingKeys.get(task.key);
+
+      if (pending != null && --pending.count == 0) {
+        pendingKeys.remove(task.key);
+      }
+    }
+
+    synchronized int getQueueDepth() {
+      int depth = 0;
+
+      for (ArrayDeque<QueuedTask> queue : lanes.values()) {
+        depth += queue.size();
+      }
+
+      return depth;
+    }
+
+    synchronized int getQueueDepth(JiraEventLane lane) {
+      return lanes.get(lane).size();
+    }
+  }
+
+}
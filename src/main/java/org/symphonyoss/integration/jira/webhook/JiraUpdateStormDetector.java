@@ -0,0 +1,494 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook;
+
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_ISSUE_UPDATED;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.jira.webhook.model.JiraIssue;
+import org.symphonyoss.integration.jira.webhook.model.JiraUpdateStorm;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventAttributes;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventContext;
+import org.symphonyoss.integration.jira.webhook.parser.v2.JiraUpdateStormMetadataParser;
+import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Detects bursts of issue updates in a project, usually caused by a JIRA bulk change or a workflow
+ * migration, and posts a single summary of the burst instead of one message per issue.
+ *
+ * The 'jira:issue_updated' events are counted per instance and project. When a project receives
+ * 'applications.jira.storm.threshold' updates within 'applications.jira.storm.windowMillis', it
+ * switches to storm mode: the following updates of the project are suppressed, and only the
+ * number of updates, the fields changed and a few issue keys are kept. The updates received
+ * before the threshold was reached are posted as usual. The storm ends when the project receives
+ * no updates for 'applications.jira.storm.quietMillis', or when it lasts longer than
+ * 'applications.jira.storm.maxDurationMillis', and the summary is posted. The updates of the
+ * {@link JiraEventLane#HIGH} lane are neither counted nor suppressed. Storm detection is disabled
+ * when the threshold is zero.
+ *
+ * The summary is handled as a payload with the header {@link #STORM_ID_HEADER}, which is rendered
+ * by {@link #render(WebHookPayload)} instead of the JIRA parsers. The scheduler that ends the
+ * storms is created when the first update is counted, so it's never created when storm detection
+ * is disabled.
+ */
+@Component
+public class JiraUpdateStormDetector {
+
+  public static final String STORM_ID_HEADER = "x-jira-storm-id";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JiraUpdateStormDetector.class);
+
+  private static final String THREAD_NAME = "jira-update-storm";
+
+  private static final String KEY_SEPARATOR = ":";
+
+  private static final String STORM_BODY = "{}";
+
+  @Value("${applications.jira.storm.threshold:0}")
+  private Integer threshold;
+
+  @Value("${applications.jira.storm.windowMillis:10000}")
+  private Long windowMillis;
+
+  @Value("${applications.jira.storm.quietMillis:30000}")
+  private Long quietMillis;
+
+  @Value("${applications.jira.storm.maxDurationMillis:600000}")
+  private Long maxDurationMillis;
+
+  @Value("${applications.jira.storm.sampleSize:5}")
+  private Integer sampleSize;
+
+  @Autowired
+  private JiraUpdateStormMetadataParser stormParser;
+
+  @Autowired
+  private JiraWebHookIngestionQueue ingestionQueue;
+
+  private ScheduledExecutorService scheduler;
+
+  private boolean destroyed;
+
+  private final Map<String, ProjectRate> projects = new HashMap<>();
+
+  private final ConcurrentMap<String, Storm> closedStorms = new ConcurrentHashMap<>();
+
+  private final AtomicLong stormCount = new AtomicLong();
+
+  private final AtomicLong suppressedCount = new AtomicLong();
+
+  private final AtomicLong emittedCount = new AtomicLong();
+
+  /**
+   * Handles the summary payload when the storm ends.
+   */
+  public interface Handler {
+
+    void handle(WebHookPayload payload);
+
+  }
+
+  /**
+   * Handles the summaries of the ongoing storms right away and stops the scheduler.
+   */
+  @PreDestroy
+  public void destroy() {
+    synchronized (projects) {
+      destroyed = true;
+
+      if (scheduler != null) {
+        scheduler.shutdownNow();
+      }
+    }
+
+    sweep(Long.MAX_VALUE);
+  }
+
+  /**
+   * Checks if storm detection is enabled.
+   * @return true if the threshold is greater than zero
+   */
+  public boolean isEnabled() {
+    return threshold != null && threshold > 0;
+  }
+
+  /**
+   * Counts the issue update and suppresses it if the project is in storm mode.
+   * @param instanceId Configuration instance identifier
+   * @param context Event context
+   * @param handler Handles the summary payload when the storm ends
+   * @return true if the event was suppressed, false if it must be handled right away
+   */
+  public boolean offer(String instanceId, JiraEventContext context, Handler handler) {
+    if (!isEnabled()) {
+      return false;
+    }
+
+    String projectKey = getProjectKey(context);
+    if (projectKey == null) {
+      return false;
+    }
+
+    String key = instanceId + KEY_SEPARATOR + projectKey;
+    long now = System.currentTimeMillis();
+
+    Storm storm;
+
+    synchronized (projects) {
+      if (destroyed) {
+        return false;
+      }
+
+      startSweeping();
+
+      ProjectRate rate = projects.get(key);
+
+      if (rate == null) {
+        rate = new ProjectRate();
+        projects.put(key, rate);
+      }
+
+      rate.record(now, windowMillis, threshold);
+
+      if (rate.storm == null) {
+        if (!rate.isAboveThreshold(now, windowMillis, threshold)) {
+          return false;
+        }
+
+        rate.storm = new Storm(key, projectKey, handler, now, sampleSize);
+        stormCount.incrementAndGet();
+
+        LOGGER.info("Update storm detected on JIRA project {} of instance {}", projectKey,
+            instanceId);
+      }
+
+      storm = rate.storm;
+    }
+
+    // the storm won't end while it's being updated out of the lock
+    if (!storm.add(context.getAttributes())) {
+      return false;
+    }
+
+    suppressedCount.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Renders the summary of a storm handled as a payload.
+   * @param payload Webhook payload
+   * @return Summary message or null if the payload isn't a storm summary
+   */
+  public Message render(WebHookPayload payload) {
+    Map<String, String> headers = payload.getHeaders();
+    String id = headers != null ? headers.get(STORM_ID_HEADER) : null;
+
+    if (id == null) {
+      return null;
+    }
+
+    Storm storm = closedStorms.remove(id);
+
+    if (storm == null) {
+      return null;
+    }
+
+    emittedCount.incrementAndGet();
+    return stormParser.parse(storm.build());
+  }
+
+  /**
+   * Returns the number of storms detected.
+   */
+  public long getStormCount() {
+    return stormCount.get();
+  }
+
+  /**
+   * Returns the number of issue updates suppressed during storms.
+   */
+  public long getSuppressedCount() {
+    return suppressedCount.get();
+  }
+
+  /**
+   * Returns the number of storm summaries rendered.
+   */
+  public long getEmittedCount() {
+    return emittedCount.get();
+  }
+
+  public int getActiveStormCount() {
+    synchronized (projects) {
+      int count = 0;
+
+      for (ProjectRate rate : projects.values()) {
+        if (rate.storm != null) {
+          count++;
+        }
+      }
+
+      return count;
+    }
+  }
+
+  /**
+   * Ends the storms that have been quiet or lasted too long and forgets the projects without
+   * recent updates.
+   * @param now Current time, or {@link Long#MAX_VALUE} to end every storm
+   */
+  void sweep(long now) {
+    List<Storm> ended = new ArrayList<>();
+
+    synchronized (projects) {
+      Iterator<ProjectRate> iterator = projects.values().iterator();
+
+      while (iterator.hasNext()) {
+        ProjectRate rate = iterator.next();
+        Storm storm = rate.storm;
+
+        if (storm != null) {
+          boolean quiet = now - rate.lastUpdate >= quietMillis;
+
+          if (quiet || now - storm.startTime >= maxDurationMillis) {
+            // a storm that lasted too long restarts with the next update if the rate is still high
+            rate.storm = null;
+            ended.add(storm);
+          }
+        }
+
+        if (rate.storm == null && now - rate.lastUpdate >= windowMillis) {
+          iterator.remove();
+        }
+      }
+    }
+
+    for (Storm storm : ended) {
+      close(storm);
+    }
+  }
+
+  /**
+   * Schedules the sweep of the storms. The scheduler is created on the first call, so it's never
+   * created if storm detection is disabled. Must be called holding the lock of the projects.
+   */
+  private void startSweeping() {
+    if (scheduler != null) {
+      return;
+    }
+
+    scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+
+    long period = Math.max(1, Math.min(windowMillis, quietMillis));
+
+    scheduler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        sweep(System.currentTimeMillis());
+      }
+    }, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns the project of the issue update, unless it's a high lane update (e.g. a severity 1
+   * incident), which is never suppressed.
+   */
+  private String getProjectKey(JiraEventContext context) {
+    JiraEventAttributes attributes = context.getAttributes();
+
+    if (attributes != null && JIRA_ISSUE_UPDATED.equals(attributes.getWebHookEvent())
+        && StringUtils.isNotEmpty(attributes.getProjectKey())
+        && JiraEventLane.of(attributes) != JiraEventLane.HIGH) {
+      return attributes.getProjectKey();
+    }
+
+    return null;
+  }
+
+  /**
+   * Handles the summary of the storm that has ended, on a worker if the asynchronous ingestion is
+   * enabled. The summaries of a project are released on the same worker.
+   */
+  private void close(final Storm storm) {
+    Runnable task = new Runnable() {
+      @Override
+      public void run() {
+        flush(storm);
+      }
+    };
+
+    if (ingestionQueue != null) {
+      ingestionQueue.release(storm.key, JiraEventLane.NORMAL, task);
+    } else {
+      task.run();
+    }
+  }
+
+  /**
+   * Ends the storm and handles its summary. The storm is kept only while the handler runs, so it
+   * isn't kept forever when the summary isn't rendered.
+   */
+  private void flush(Storm storm) {
+    storm.close();
+
+    closedStorms.put(storm.id, storm);
+
+    Map<String, String> headers = Collections.singletonMap(STORM_ID_HEADER, storm.id);
+    WebHookPayload payload =
+        new WebHookPayload(Collections.<String, String>emptyMap(), headers, STORM_BODY);
+
+    try {
+      storm.handler.handle(payload);
+    } catch (RuntimeException e) {
+      LOGGER.error("Failed to handle the JIRA update storm summary for " + storm.key, e);
+    } finally {
+      closedStorms.remove(storm.id);
+    }
+  }
+
+  /**
+   * Recent issue updates of a project. Only the last 'threshold' update times are kept.
+   */
+  private static class ProjectRate {
+
+    private final ArrayDeque<Long> updates = new ArrayDeque<>();
+
+    private long lastUpdate;
+
+    private Storm storm;
+
+    void record(long now, long window, int threshold) {
+      updates.addLast(now);
+
+      while (!updates.isEmpty()
+          && (updates.size() > threshold || now - updates.peekFirst() >= window)) {
+        updates.removeFirst();
+      }
+
+      lastUpdate = now;
+    }
+
+    boolean isAboveThreshold(long now, long window, int threshold) {
+      return updates.size() >= threshold && now - updates.peekFirst() < window;
+    }
+  }
+
+  /**
+   * Issue updates of a project suppressed during a storm.
+   */
+  private static class Storm {
+
+    private final String id = UUID.randomUUID().toString();
+
+    private final String key;
+
+    private final String projectKey;
+
+    private final Handler handler;
+
+    private final long startTime;
+
+    private final int sampleSize;
+
+    private final Set<String> changedFields = new LinkedHashSet<>();
+
+    private final Set<String> issueKeys = new HashSet<>();
+
+    private final List<JiraIssue> sampleIssues = new ArrayList<>();
+
+    private int eventCount;
+
+    private boolean closed;
+
+    Storm(String key, String projectKey, Handler handler, long startTime, int sampleSize) {
+      this.key = key;
+      this.projectKey = projectKey;
+      this.handler = handler;
+      this.startTime = startTime;
+      this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Adds the update to the storm. Only the issue key and URL and the names of the fields changed
+     * are kept, as they were read when the event was received.
+     * @return false if the storm has already ended
+     */
+    synchronized boolean add(JiraEventAttributes attributes) {
+      if (closed) {
+        return false;
+      }
+
+      eventCount++;
+
+      String issueKey = attributes.getIssueKey();
+
+      if (StringUtils.isNotEmpty(issueKey) && issueKeys.add(issueKey)
+          && sampleIssues.size() < sampleSize) {
+        sampleIssues.add(new JiraIssue(attributes.getIssueSelf(), issueKey, null));
+      }
+
+      changedFields.addAll(attributes.getChangedFields());
+
+      return true;
+    }
+
+    synchronized void close() {
+      closed = true;
+    }
+
+    synchronized JiraUpdateStorm build() {
+      return new JiraUpdateStorm(projectKey, eventCount, issueKeys.size(), changedFields,
+          sampleIssues);
+    }
+  }
+
+}
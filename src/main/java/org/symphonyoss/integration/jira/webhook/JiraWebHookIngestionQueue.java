@@ -0,0 +1,349 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook;
+
+import static org.symphonyoss.integration.jira.properties.JiraErrorMessageKeys.BUNDLE_FILENAME;
+import static org.symphonyoss.integration.jira.properties.JiraErrorMessageKeys.INGESTION_QUEUE_FULL;
+import static org.symphonyoss.integration.jira.properties.JiraErrorMessageKeys.INGESTION_QUEUE_FULL_SOLUTION;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.exception.IntegrationUnavailableException;
+import org.symphonyoss.integration.logging.MessageUtils;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Bounded in-memory queue to process the JIRA events out of the webhook delivery thread.
+ *
+ * When enabled, the webhook request is acknowledged as soon as the event is queued and a pool of
+ * workers parses and posts the events. JIRA retries the deliveries that time out, so processing the
+ * events on the delivery thread makes a slow Symphony API even slower. If the queue is full, the
+ * event is rejected with {@link IntegrationUnavailableException} and JIRA is told to try again
+ * later.
+ *
+ * The events are keyed by issue, and the events of the same issue are processed one at a time in
+ * the order they were received (see {@link JiraStripedExecutor}), so a comment is never posted
+ * before the issue it belongs to. The events of different issues are processed in parallel, by one
+ * worker per available processor unless 'applications.jira.ingestion.workers' is set. Each worker
+ * has its own share of the queue. The events held by {@link JiraIssueUpdateCoalescer} and
+ * {@link JiraEventDigest}, and the summaries of {@link JiraUpdateStormDetector}, are released on
+ * the same workers (see {@link #release(String, JiraEventLane, Runnable)}), so they keep their
+ * place in that order.
+ *
+ * The events are also sorted by {@link JiraEventLane}, so a severity 1 incident doesn't wait
+ * behind the comment edits queued before it. The high lane has its own share of the queue, so
+ * those events aren't rejected when the queue is full of less important events.
+ *
+ * The queue depth, per worker, per lane and in total, the time the events wait to be processed,
+ * the latency percentiles of each lane and the number of events rejected are kept in memory and
+ * can be read from the getters below. Like the counters of the other stages (e.g.
+ * {@link JiraIssueUpdateCoalescer#getCoalescedCount()}), they aren't reported to any health or
+ * metrics endpoint.
+ */
+@Component
+public class JiraWebHookIngestionQueue {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JiraWebHookIngestionQueue.class);
+
+  private static final MessageUtils MSG = new MessageUtils(BUNDLE_FILENAME);
+
+  private static final String COMPONENT = "JIRA Webhook";
+
+  private static final String THREAD_NAME_PREFIX = "jira-webhook-worker-";
+
+  @Value("${applications.jira.ingestion.async:false}")
+  private Boolean async;
+
+  @Value("${applications.jira.ingestion.workers:0}")
+  private Integer workers;
+
+  @Value("${applications.jira.ingestion.queueSize:1000}")
+  private Integer queueSize;
+
+  private JiraStripedExecutor executor;
+
+  private final AtomicLong acceptedCount = new AtomicLong();
+
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  private final AtomicLong processedCount = new AtomicLong();
+
+  private final AtomicLong failedCount = new AtomicLong();
+
+  private final AtomicLong totalWaitTime = new AtomicLong();
+
+  private final AtomicLong maxWaitTime = new AtomicLong();
+
+  private final Map<JiraEventLane, JiraLatencyHistogram> laneLatencies =
+      new EnumMap<>(JiraEventLane.class);
+
+  public JiraWebHookIngestionQueue() {
+    for (JiraEventLane lane : JiraEventLane.values()) {
+      laneLatencies.put(lane, new JiraLatencyHistogram());
+    }
+  }
+
+  @PostConstruct
+  public void init() {
+    if (!isEnabled()) {
+      return;
+    }
+
+    int workerCount = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+    int workerQueueSize = Math.max(1, (queueSize + workerCount - 1) / workerCount);
+
+    this.executor = new JiraStripedExecutor(THREAD_NAME_PREFIX, workerCount, workerQueueSize);
+
+    LOGGER.info("JIRA events will be processed asynchronously by {} workers, queue size {}",
+        workerCount, workerQueueSize * workerCount);
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns true if the events should be queued instead of processed on the delivery thread.
+   */
+  public boolean isEnabled() {
+    return Boolean.TRUE.equals(async);
+  }
+
+  /**
+   * Queues an event that doesn't need to be ordered with the other events on the normal lane.
+   * @param task Event processing
+   * @throws IntegrationUnavailableException The queue is full
+   * @see #submit(String, JiraEventLane, Runnable)
+   */
+  public void submit(Runnable task) {
+    submit(null, JiraEventLane.NORMAL, task);
+  }
+
+  /**
+   * Queues the event on the normal lane.
+   * @param issueKey Issue key, or null if the event doesn't belong to an issue
+   * @param task Event processing
+   * @throws IntegrationUnavailableException The queue of the worker is full
+   * @see #submit(String, JiraEventLane, Runnable)
+   */
+  public void submit(String issueKey, Runnable task) {
+    submit(issueKey, JiraEventLane.NORMAL, task);
+  }
+
+  /**
+   * Queues the event to be processed by the workers after the previous events of the same issue,
+   * and before the events of the lower lanes. Without workers (i.e. the asynchronous mode is
+   * disabled), the event is processed on the caller thread.
+   * @param issueKey Issue key, or null if the event doesn't belong to an issue
+   * @param lane Event lane
+   * @param task Event processing
+   * @throws IntegrationUnavailableException The lane of the worker is full
+   */
+  public void submit(String issueKey, JiraEventLane lane, Runnable task) {
+    if (executor == null) {
+      task.run();
+      return;
+    }
+
+    try {
+      executor.execute(issueKey, lane, new QueuedEvent(lane, task));
+      acceptedCount.incrementAndGet();
+    } catch (RejectedExecutionException e) {
+      rejectedCount.incrementAndGet();
+      LOGGER.warn("JIRA event rejected, {} events waiting to be processed", getQueueDepth());
+
+      throw new IntegrationUnavailableException(COMPONENT,
+          MSG.getMessage(INGESTION_QUEUE_FULL), MSG.getMessage(INGESTION_QUEUE_FULL_SOLUTION));
+    }
+  }
+
+  /**
+   * Queues the release of the events held by {@link JiraIssueUpdateCoalescer} or
+   * {@link JiraEventDigest} when their window closes, or of the summary of
+   * {@link JiraUpdateStormDetector} when the storm ends. The task runs on the worker of the key, so
+   * the held events are processed after the events of the key queued before and before the events
+   * queued after. The held events were already accepted, so they're never rejected: if the queue
+   * is disabled or the worker is full, the task runs on the caller thread.
+   * @param issueKey Issue key, or the key of the instance or project the held events belong to
+   * @param lane Lane of the held events
+   * @param task Releases the held events
+   */
+  public void release(String issueKey, JiraEventLane lane, Runnable task) {
+    if (executor != null) {
+      try {
+        executor.execute(issueKey, lane, task);
+        return;
+      } catch (RejectedExecutionException e) {
+        LOGGER.warn("JIRA held events released out of the queue, {} events waiting to be "
+            + "processed", getQueueDepth());
+      }
+    }
+
+    task.run();
+  }
+
+  /**
+   * Returns the number of events waiting to be processed.
+   */
+  public int getQueueDepth() {
+    return executor != null ? executor.getQueueDepth() : 0;
+  }
+
+  /**
+   * Returns the number of events of the lane waiting to be processed.
+   */
+  public int getQueueDepth(JiraEventLane lane) {
+    return executor != null ? executor.getQueueDepth(lane) : 0;
+  }
+
+  /**
+   * Returns the time, in milliseconds, within which the percentage of the events of the lane were
+   * processed, from the moment they were queued.
+   * @param lane Event lane
+   * @param percentile Percentile, between 0 and 100 (e.g. 50, 95, 99)
+   * @return Latency percentile (see {@link JiraLatencyHistogram#getPercentile(double)})
+   */
+  public long getLatencyPercentile(JiraEventLane lane, double percentile) {
+    return laneLatencies.get(lane).getPercentile(percentile);
+  }
+
+  /**
+   * Returns the number of events of the lane processed, including the failed ones.
+   */
+  public long getProcessedCount(JiraEventLane lane) {
+    return laneLatencies.get(lane).getCount();
+  }
+
+  /**
+   * Returns the number of events waiting to be processed by each worker.
+   */
+  public List<Integer> getWorkerQueueDepths() {
+    return executor != null ? executor.getStripeQueueDepths() : Collections.<Integer>emptyList();
+  }
+
+  /**
+   * Returns the largest number of events that have waited to be processed by each worker.
+   */
+  public List<Integer> getWorkerMaxQueueDepths() {
+    return executor != null ? executor.getStripeMaxQueueDepths()
+        : Collections.<Integer>emptyList();
+  }
+
+  /**
+   * Returns the number of events processed by each worker, including the failed ones.
+   */
+  public List<Long> getWorkerCompletedCounts() {
+    return executor != null ? executor.getStripeCompletedCounts()
+        : Collections.<Long>emptyList();
+  }
+
+  /**
+   * Returns the number of events rejected by each worker because its queue was full.
+   */
+  public List<Long> getWorkerRejectedCounts() {
+    return executor != null ? executor.getStripeRejectedCounts() : Collections.<Long>emptyList();
+  }
+
+  public long getAcceptedCount() {
+    return acceptedCount.get();
+  }
+
+  public long getRejectedCount() {
+    return rejectedCount.get();
+  }
+
+  public long getProcessedCount() {
+    return processedCount.get();
+  }
+
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  /**
+   * Returns the average time, in milliseconds, the events waited on the queue.
+   */
+  public long getAverageWaitTime() {
+    long processed = processedCount.get() + failedCount.get();
+    return processed == 0 ? 0 : totalWaitTime.get() / processed;
+  }
+
+  /**
+   * Returns the longest time, in milliseconds, an event waited on the queue.
+   */
+  public long getMaxWaitTime() {
+    return maxWaitTime.get();
+  }
+
+  private void recordWaitTime(long waitTime) {
+    totalWaitTime.addAndGet(waitTime);
+
+    long max = maxWaitTime.get();
+    while (waitTime > max && !maxWaitTime.compareAndSet(max, waitTime)) {
+      max = maxWaitTime.get();
+    }
+  }
+
+  /**
+   * Event waiting on the queue. Keeps the time it was queued to measure the wait time and the
+   * latency of its lane.
+   */
+  private class QueuedEvent implements Runnable {
+
+    private final JiraEventLane lane;
+
+    private final Runnable task;
+
+    private final long queuedAt = System.currentTimeMillis();
+
+    QueuedEvent(JiraEventLane lane, Runnable task) {
+      this.lane = lane;
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      recordWaitTime(System.currentTimeMillis() - queuedAt);
+
+      try {
+        task.run();
+        processedCount.incrementAndGet();
+      } catch (RuntimeException e) {
+        failedCount.incrementAndGet();
+        LOGGER.error("Failed to process the JIRA event", e);
+      } finally {
+        laneLatencies.get(lane).record(System.currentTimeMillis() - queuedAt);
+      }
+    }
+  }
+
+}
@@ -29,6 +29,9 @@ import org.symphonyoss.integration.authorization.oauth.v1.OAuth1MissingParameter
 import org.symphonyoss.integration.authorization.oauth.v1.OAuth1Provider;
 import org.symphonyoss.integration.jira.authorization.JiraAuthorizationManager;
 import org.symphonyoss.integration.jira.authorization.oauth.v1.JiraOAuth1Exception;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventAttributes;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventContext;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventDeduplicator;
 import org.symphonyoss.integration.jira.webhook.parser.JiraParserFactory;
 import org.symphonyoss.integration.jira.webhook.parser.JiraParserResolver;
 import org.symphonyoss.integration.logging.MessageUtils;
@@ -39,6 +42,7 @@ import org.symphonyoss.integration.webhook.WebHookIntegration;
 import org.symphonyoss.integration.webhook.WebHookPayload;
 import org.symphonyoss.integration.webhook.exception.WebHookParseException;
 import org.symphonyoss.integration.webhook.parser.WebHookParser;
+import org.symphonyoss.integration.webhook.parser.WebHookParserFactory;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -84,11 +88,33 @@ public class JiraWebHookIntegration extends WebHookIntegration implements Author
   @Autowired
   private JiraAuthorizationManager authManager;
 
+  @Autowired
+  private JiraWebHookIngestionQueue ingestionQueue;
+
+  @Autowired
+  private JiraIssueUpdateCoalescer issueUpdateCoalescer;
+
+  @Autowired
+  private JiraEventDigest eventDigest;
+
+  @Autowired
+  private JiraUpdateStormDetector stormDetector;
+
+  @Autowired
+  private JiraEventDeduplicator deduplicator;
+
+  /**
+   * Event being processed by the current thread.
+   */
+  private final ThreadLocal<JiraEventContext> currentEvent = new ThreadLocal<>();
+
   @Override
   public void onCreate(String integrationUser) {
     super.onCreate(integrationUser);
 
     registerApp(integrationUser);
+
+    authManager.loadKeys(integrationUser);
   }
 
   /**
@@ -102,17 +128,196 @@ public class JiraWebHookIntegration extends WebHookIntegration implements Author
     for (JiraParserFactory factory : factories) {
       factory.onConfigChange(settings);
     }
+
+    authManager.onConfigChange(settings);
+  }
+
+  /**
+   * Handle the event received from JIRA. The event attributes are read once into a
+   * {@link JiraEventContext}, which is passed through the handling stages up to the parser. The
+   * events filtered out by the instance rules are skipped before anything else (see
+   * {@link JiraParserFactory#isEventAccepted}), then the events redelivered by JIRA are skipped by
+   * {@link JiraEventDeduplicator}. The issue updates of a project going through a bulk change are
+   * suppressed by {@link JiraUpdateStormDetector}, which posts a summary when the burst ends. When
+   * digest mode is enabled for the instance, the issue events are collected by
+   * {@link JiraEventDigest} and posted together when the window closes. Otherwise, the issue
+   * updates may be held by {@link JiraIssueUpdateCoalescer} to be merged with the next updates of
+   * the same issue. When the asynchronous ingestion is enabled, the event is queued by
+   * {@link JiraWebHookIngestionQueue} before those stages, so the events of an issue go through the
+   * stages and are processed in the order they were received, even when some of them are held.
+   * @param instanceId Configuration instance identifier
+   * @param integrationUser Integration username
+   * @param payload Message received from JIRA
+   * @throws WebHookParseException Failure to parse the incoming payload
+   */
+  @Override
+  public void handle(final String instanceId, final String integrationUser,
+      WebHookPayload payload) throws WebHookParseException {
+    JiraEventContext context = JiraEventContext.read(payload);
+
+    WebHookParserFactory factory = parserResolver.getFactory();
+    if (factory instanceof JiraParserFactory
+        && !((JiraParserFactory) factory).isEventAccepted(instanceId, context)) {
+      return;
+    }
+
+    if (deduplicator != null && deduplicator.isDuplicate(instanceId, context)) {
+      return;
+    }
+
+    try {
+      ingest(instanceId, integrationUser, context);
+    } catch (RuntimeException e) {
+      // JIRA retries the event, so it must not be skipped as a duplicate
+      if (deduplicator != null) {
+        deduplicator.forget(instanceId, context);
+      }
+
+      throw e;
+    }
+  }
+
+  /**
+   * Offers the event to the stages on the caller thread, or on a worker when the asynchronous
+   * ingestion is enabled.
+   */
+  private void ingest(final String instanceId, final String integrationUser,
+      final JiraEventContext context) {
+    submit(context, new Runnable() {
+      @Override
+      public void run() {
+        offer(instanceId, integrationUser, context);
+      }
+    });
+  }
+
+  /**
+   * Offers the event to the stages that may suppress, collect or hold it, then processes it. The
+   * events held by the stages are processed on the thread that releases them, which is the worker
+   * of the issue when the asynchronous ingestion is enabled.
+   */
+  private void offer(final String instanceId, final String integrationUser,
+      JiraEventContext context) {
+    if (stormDetector != null && stormDetector.isEnabled()) {
+      boolean suppressed = stormDetector.offer(instanceId, context,
+          new JiraUpdateStormDetector.Handler() {
+            @Override
+            public void handle(WebHookPayload summaryPayload) {
+              process(instanceId, integrationUser, JiraEventContext.read(summaryPayload));
+            }
+          });
+
+      if (suppressed) {
+        return;
+      }
+    }
+
+    if (eventDigest != null && eventDigest.isEnabled(instanceId)) {
+      boolean digested = eventDigest.offer(instanceId, integrationUser, context,
+          new JiraEventDigest.Handler() {
+            @Override
+            public void handle(WebHookPayload digestPayload) {
+              process(instanceId, integrationUser, JiraEventContext.read(digestPayload));
+            }
+          });
+
+      if (digested) {
+        return;
+      }
+    }
+
+    if (issueUpdateCoalescer != null && issueUpdateCoalescer.isEnabled()) {
+      boolean held = issueUpdateCoalescer.offer(instanceId, context,
+          new JiraIssueUpdateCoalescer.Handler() {
+            @Override
+            public void handle(JiraEventContext coalescedContext) {
+              process(instanceId, integrationUser, coalescedContext);
+            }
+          });
+
+      if (held) {
+        return;
+      }
+    }
+
+    process(instanceId, integrationUser, context);
+  }
+
+  /**
+   * Runs the task on the caller thread or queues it when the asynchronous ingestion is enabled.
+   * The queued tasks of the same issue run in the order they were received, and the tasks of the
+   * higher lanes (see {@link JiraEventLane}) run first.
+   */
+  private void submit(JiraEventContext context, Runnable task) {
+    if (ingestionQueue == null || !ingestionQueue.isEnabled()) {
+      task.run();
+      return;
+    }
+
+    String issueKey = null;
+    JiraEventLane lane = JiraEventLane.NORMAL;
+
+    JiraEventAttributes attributes = context.getAttributes();
+
+    if (attributes != null) {
+      issueKey = attributes.getIssueKey();
+      lane = JiraEventLane.of(attributes);
+    }
+
+    ingestionQueue.submit(issueKey, lane, task);
+  }
+
+  /**
+   * Parses and posts the event. The event context is kept while the event is processed, so the
+   * parser reuses it instead of reading the payload body again.
+   */
+  private void process(String instanceId, String integrationUser, JiraEventContext context) {
+    currentEvent.set(context);
+
+    try {
+      super.handle(instanceId, integrationUser, context.getPayload());
+    } finally {
+      currentEvent.remove();
+    }
   }
 
   /**
    * Parse message received from JIRA according to the event type and MessageML version supported.
+   * The digests built by {@link JiraEventDigest} and the storm summaries built by
+   * {@link JiraUpdateStormDetector} are rendered by the components that built them.
    * @param input Message received from JIRA
    * @return Message to be posted
    * @throws WebHookParseException Failure to parse the incoming payload
    */
   @Override
   public Message parse(WebHookPayload input) throws WebHookParseException {
-    WebHookParser parser = parserResolver.getFactory().getParser(input);
+    if (eventDigest != null) {
+      Message digest = eventDigest.render(input);
+
+      if (digest != null) {
+        return digest;
+      }
+    }
+
+    if (stormDetector != null) {
+      Message summary = stormDetector.render(input);
+
+      if (summary != null) {
+        return summary;
+      }
+    }
+
+    WebHookParserFactory factory = parserResolver.getFactory();
+    JiraEventContext context = currentEvent.get();
+
+    WebHookParser parser;
+    if (factory instanceof JiraParserFactory && context != null
+        && context.getPayload() == input) {
+      parser = ((JiraParserFactory) factory).getParser(context);
+    } else {
+      parser = factory.getParser(input);
+    }
+
     return parser.parse(input);
   }
 
@@ -199,6 +404,19 @@ public class JiraWebHookIntegration extends WebHookIntegration implements Author
     return null;
   }
 
+  /**
+   * Removes the cached access token of a user. Must be called when JIRA rejects the token.
+   * @param url Integration URL.
+   * @param userId User id.
+   */
+  public void invalidateAccessToken(String url, Long userId) {
+    IntegrationSettings settings = getSettings();
+
+    if (settings != null) {
+      authManager.invalidateAccessToken(settings, url, userId);
+    }
+  }
+
   /**
    * Get an OAuth1 provider for user to perform calls to an external system resource.
    * @param url Integration URL.
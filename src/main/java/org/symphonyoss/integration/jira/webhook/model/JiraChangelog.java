@@ -0,0 +1,63 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fields changed by an issue update.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class JiraChangelog {
+
+  private final List<JiraChangelogItem> items;
+
+  @JsonCreator
+  public JiraChangelog(@JsonProperty("items") List<JiraChangelogItem> items) {
+    if (items == null) {
+      this.items = Collections.emptyList();
+    } else {
+      this.items = Collections.unmodifiableList(new ArrayList<>(items));
+    }
+  }
+
+  public List<JiraChangelogItem> getItems() {
+    return items;
+  }
+
+  /**
+   * Returns the new value of the first change of the field, skipping the changes that cleared it.
+   * @param field Field name
+   * @return New value or null if the field wasn't set
+   */
+  public String getNewValue(String field) {
+    for (JiraChangelogItem item : items) {
+      if (item != null && field.equals(item.getField()) && item.getToString() != null) {
+        return item.getToString();
+      }
+    }
+
+    return null;
+  }
+
+}
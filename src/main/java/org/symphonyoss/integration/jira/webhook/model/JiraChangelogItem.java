@@ -0,0 +1,56 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Field changed by an issue update.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class JiraChangelogItem {
+
+  private final String field;
+
+  private final String fromString;
+
+  private final String toString;
+
+  @JsonCreator
+  public JiraChangelogItem(@JsonProperty("field") String field,
+      @JsonProperty("fromString") String fromString,
+      @JsonProperty("toString") String toString) {
+    this.field = field;
+    this.fromString = fromString;
+    this.toString = toString;
+  }
+
+  public String getField() {
+    return field;
+  }
+
+  public String getFromString() {
+    return fromString;
+  }
+
+  public String getToString() {
+    return toString;
+  }
+
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Issue comment.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class JiraComment {
+
+  private final String id;
+
+  private final String body;
+
+  private final JiraUser updateAuthor;
+
+  private final boolean restricted;
+
+  @JsonCreator
+  public JiraComment(@JsonProperty("id") String id, @JsonProperty("body") String body,
+      @JsonProperty("updateAuthor") JiraUser updateAuthor,
+      @JsonProperty("visibility") JsonNode visibility) {
+    this.id = id;
+    this.body = body;
+    this.updateAuthor = updateAuthor;
+    this.restricted = visibility != null;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getBody() {
+    return body;
+  }
+
+  /**
+   * Returns the user that last updated the comment.
+   * @return JIRA user or null if the payload doesn't have it
+   */
+  public JiraUser getUpdateAuthor() {
+    return updateAuthor;
+  }
+
+  /**
+   * JIRA comments may be restricted to certain user groups, which is indicated by the presence of
+   * the 'visibility' attribute, regardless of its content.
+   * @return true if the comment is restricted
+   */
+  public boolean isRestricted() {
+    return restricted;
+  }
+
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.model;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Events of an integration instance received during a digest window, grouped by issue.
+ *
+ * Each issue keeps the latest event received, which has the current state of the issue, and the
+ * actions performed by all the events, in the order they were received.
+ */
+public final class JiraDigest {
+
+  private final int eventCount;
+
+  private final List<Issue> issues;
+
+  public JiraDigest(int eventCount, List<Issue> issues) {
+    this.eventCount = eventCount;
+    this.issues = Collections.unmodifiableList(new ArrayList<>(issues));
+  }
+
+  public int getEventCount() {
+    return eventCount;
+  }
+
+  public List<Issue> getIssues() {
+    return issues;
+  }
+
+  /**
+   * Returns the users that performed the actions and have an email address.
+   * @return Users in the order the actions were performed
+   */
+  public List<JiraUser> getUsers() {
+    List<JiraUser> users = new ArrayList<>();
+
+    for (Issue issue : issues) {
+      for (Action action : issue.getActions()) {
+        JiraUser user = action.getUser();
+
+        if (user != null && StringUtils.isNotEmpty(user.getEmailAddress())) {
+          users.add(user);
+        }
+      }
+    }
+
+    return users;
+  }
+
+  /**
+   * Returns the email addresses of the users that performed the actions, so each user is looked
+   * up only once for the whole digest.
+   * @return Email addresses
+   */
+  public Set<String> getEmailAddresses() {
+    Set<String> emails = new LinkedHashSet<>();
+
+    for (JiraUser user : getUsers()) {
+      emails.add(user.getEmailAddress());
+    }
+
+    return emails;
+  }
+
+  /**
+   * Issue changed during the digest window.
+   */
+  public static final class Issue {
+
+    private final JiraEvent latestEvent;
+
+    private final List<Action> actions;
+
+    public Issue(JiraEvent latestEvent, List<Action> actions) {
+      this.latestEvent = latestEvent;
+      this.actions = Collections.unmodifiableList(new ArrayList<>(actions));
+    }
+
+    /**
+     * Returns the latest event received for the issue.
+     */
+    public JiraEvent getLatestEvent() {
+      return latestEvent;
+    }
+
+    public List<Action> getActions() {
+      return actions;
+    }
+
+  }
+
+  /**
+   * Action performed by an event, and the user that performed it.
+   */
+  public static final class Action {
+
+    private final String name;
+
+    private final JiraUser user;
+
+    public Action(String name, JiraUser user) {
+      this.name = name;
+      this.user = user;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public JiraUser getUser() {
+      return user;
+    }
+
+  }
+
+}
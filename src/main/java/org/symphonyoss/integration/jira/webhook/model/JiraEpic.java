@@ -0,0 +1,45 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.model;
+
+/**
+ * Epic the issue was linked to, taken from the 'Epic Link' custom field changes.
+ */
+public final class JiraEpic {
+
+  private final String name;
+
+  private final String link;
+
+  public JiraEpic(String name, String link) {
+    this.name = name;
+    this.link = link;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the URL to browse the epic.
+   * @return Browse epic URL or empty string if the issue URL is invalid
+   */
+  public String getLink() {
+    return link;
+  }
+
+}
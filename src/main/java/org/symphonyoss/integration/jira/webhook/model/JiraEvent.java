@@ -0,0 +1,179 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.model;
+
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.EPIC_LINK_PATH;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Immutable view of the JIRA event required to render the message.
+ *
+ * The event is read once from the JSON payload and the values derived from it (accent, token
+ * color, issue link, base URL and epic) are computed when the event is built, so the payload tree
+ * is never modified and can be shared by the parsers.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class JiraEvent {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final String webhookEvent;
+
+  private final String issueEventTypeName;
+
+  private final JiraUser user;
+
+  private final JiraIssue issue;
+
+  private final JiraComment comment;
+
+  private final JiraChangelog changelog;
+
+  private final String accent;
+
+  private final String tokenColor;
+
+  private final String link;
+
+  private final String baseUrl;
+
+  private final JiraEpic epic;
+
+  @JsonCreator
+  public JiraEvent(@JsonProperty("webhookEvent") String webhookEvent,
+      @JsonProperty("issue_event_type_name") String issueEventTypeName,
+      @JsonProperty("user") JiraUser user,
+      @JsonProperty("issue") JiraIssue issue,
+      @JsonProperty("comment") JiraComment comment,
+      @JsonProperty("changelog") JiraChangelog changelog) {
+    this.webhookEvent = webhookEvent;
+    this.issueEventTypeName = issueEventTypeName;
+    this.user = user;
+    this.issue = issue;
+    this.comment = comment;
+    this.changelog = changelog;
+
+    JiraIssueFields fields = issue != null ? issue.getFields() : null;
+    JiraStatus status = fields != null ? fields.getStatus() : null;
+
+    this.accent = fields != null ? fields.getAccent() : null;
+    this.tokenColor = status != null ? status.getTokenColor() : JiraStatus.DEFAULT_TOKEN_COLOR;
+    this.link = issue != null ? issue.getLink() : StringUtils.EMPTY;
+    this.baseUrl = issue != null ? issue.getBaseUrl() : StringUtils.EMPTY;
+    this.epic = getEpic(issue, changelog);
+  }
+
+  /**
+   * Reads the event from the JSON payload.
+   * @param node JSON payload
+   * @return JIRA event
+   * @throws JsonProcessingException Payload doesn't match the event model
+   */
+  public static JiraEvent read(JsonNode node) throws JsonProcessingException {
+    return MAPPER.treeToValue(node, JiraEvent.class);
+  }
+
+  private static JiraEpic getEpic(JiraIssue issue, JiraChangelog changelog) {
+    if (changelog == null) {
+      return null;
+    }
+
+    String name = changelog.getNewValue(EPIC_LINK_PATH);
+    if (StringUtils.isEmpty(name)) {
+      return null;
+    }
+
+    String link = issue != null ? issue.getBrowseUrl(name) : StringUtils.EMPTY;
+    return new JiraEpic(name, link);
+  }
+
+  public String getWebhookEvent() {
+    return webhookEvent;
+  }
+
+  public String getIssueEventTypeName() {
+    return issueEventTypeName;
+  }
+
+  /**
+   * Returns the user that performed the action.
+   * @return JIRA user or null if the payload has no user
+   */
+  public JiraUser getUser() {
+    return user;
+  }
+
+  public JiraIssue getIssue() {
+    return issue;
+  }
+
+  public JiraComment getComment() {
+    return comment;
+  }
+
+  public JiraChangelog getChangelog() {
+    return changelog;
+  }
+
+  /**
+   * Returns the accent according to the issue type.
+   * @return Accent or null if the issue type has no accent
+   */
+  public String getAccent() {
+    return accent;
+  }
+
+  /**
+   * Returns the token color according to the issue status category.
+   * @return Token color (blue, yellow, green or gray)
+   */
+  public String getTokenColor() {
+    return tokenColor;
+  }
+
+  /**
+   * Returns the URL to browse the issue.
+   * @return Browse issue URL or empty string if the issue URL is invalid
+   */
+  public String getLink() {
+    return link;
+  }
+
+  /**
+   * Returns the JIRA base URL, i.e. the issue URL without the API call.
+   * @return JIRA base URL or empty string
+   */
+  public String getBaseUrl() {
+    return baseUrl;
+  }
+
+  /**
+   * Returns the epic the issue was linked to by this event.
+   * @return JIRA epic or null if the epic link wasn't changed
+   */
+  public JiraEpic getEpic() {
+    return epic;
+  }
+
+}
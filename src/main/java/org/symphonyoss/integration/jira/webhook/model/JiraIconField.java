@@ -0,0 +1,48 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Issue field identified by name and rendered with an icon, i.e. the issue type and priority.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class JiraIconField {
+
+  private final String name;
+
+  private final String iconUrl;
+
+  @JsonCreator
+  public JiraIconField(@JsonProperty("name") String name,
+      @JsonProperty("iconUrl") String iconUrl) {
+    this.name = name;
+    this.iconUrl = iconUrl;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getIconUrl() {
+    return iconUrl;
+  }
+
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.commons.lang3.StringUtils;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * JIRA issue.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class JiraIssue {
+
+  private static final String BASE_API_REGEX = "(\\/rest\\/api.*)";
+
+  private final String self;
+
+  private final String key;
+
+  private final JiraIssueFields fields;
+
+  private final String link;
+
+  private final String baseUrl;
+
+  @JsonCreator
+  public JiraIssue(@JsonProperty("self") String self, @JsonProperty("key") String key,
+      @JsonProperty("fields") JiraIssueFields fields) {
+    this.self = self;
+    this.key = key;
+    this.fields = fields;
+    this.link = getBrowseUrl(key);
+    this.baseUrl = StringUtils.defaultString(self).replaceAll(BASE_API_REGEX, StringUtils.EMPTY);
+  }
+
+  public String getSelf() {
+    return self;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public JiraIssueFields getFields() {
+    return fields;
+  }
+
+  /**
+   * Returns the URL to browse the issue.
+   * @return Browse issue URL or empty string if the issue URL is invalid
+   */
+  public String getLink() {
+    return link;
+  }
+
+  /**
+   * Returns the JIRA base URL, i.e. the issue URL without the API call.
+   * @return JIRA base URL or empty string
+   */
+  public String getBaseUrl() {
+    return baseUrl;
+  }
+
+  /**
+   * Returns the URL to browse an issue hosted on the same JIRA instance of this issue.
+   * @param issueKey Issue key
+   * @return Browse issue URL or empty string if the issue URL is invalid
+   */
+  public String getBrowseUrl(String issueKey) {
+    if (StringUtils.isEmpty(self) || StringUtils.isEmpty(issueKey)) {
+      return StringUtils.EMPTY;
+    }
+
+    try {
+      URL url = new URL(self);
+
+      StringBuilder issueUrl = new StringBuilder();
+
+      issueUrl.append(url.getProtocol());
+      issueUrl.append("://");
+      issueUrl.append(url.getHost());
+
+      if (url.getPort() != -1) {
+        issueUrl.append(":");
+        issueUrl.append(url.getPort());
+      }
+
+      issueUrl.append("/browse/");
+      issueUrl.append(issueKey);
+
+      return issueUrl.toString();
+    } catch (MalformedURLException e) {
+      // if the url is not valid, will only mention the issue key on a comment.
+      return StringUtils.EMPTY;
+    }
+  }
+
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.model;
+
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.BUG_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.CHANGE_REQUEST_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.DOCUMENTATION_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.EPIC_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.IMPROVEMENT_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants
+    .INCIDENT_SEVERITY_1_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants
+    .INCIDENT_SEVERITY_2_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants
+    .INCIDENT_SEVERITY_3_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants
+    .INCIDENT_SEVERITY_4_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.INCIDENT_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.NEW_FEATURE_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.PROBLEM_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.SPIKE_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.STORY_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.SUPPORT_ISSUE_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.TASK_TYPE;
+import static org.symphonyoss.integration.jira.webhook.JiraParserAccentConstants.BLUE_ACCENT;
+import static org.symphonyoss.integration.jira.webhook.JiraParserAccentConstants.GREEN_ACCENT;
+import static org.symphonyoss.integration.jira.webhook.JiraParserAccentConstants.ORANGE_ACCENT;
+import static org.symphonyoss.integration.jira.webhook.JiraParserAccentConstants.PURPLE_ACCENT;
+import static org.symphonyoss.integration.jira.webhook.JiraParserAccentConstants.RED_ACCENT;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Issue fields required to render the message. Custom fields are ignored.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class JiraIssueFields {
+
+  private static final Map<String, String> ACCENTS;
+
+  static {
+    Map<String, String> accents = new HashMap<>();
+
+    accents.put(BUG_TYPE, RED_ACCENT);
+    accents.put(INCIDENT_TYPE, RED_ACCENT);
+    accents.put(SUPPORT_ISSUE_TYPE, RED_ACCENT);
+    accents.put(INCIDENT_SEVERITY_1_TYPE, RED_ACCENT);
+
+    accents.put(EPIC_TYPE, PURPLE_ACCENT);
+    accents.put(INCIDENT_SEVERITY_4_TYPE, PURPLE_ACCENT);
+    accents.put(DOCUMENTATION_TYPE, PURPLE_ACCENT);
+
+    accents.put(STORY_TYPE, GREEN_ACCENT);
+    accents.put(NEW_FEATURE_TYPE, GREEN_ACCENT);
+    accents.put(IMPROVEMENT_TYPE, GREEN_ACCENT);
+    accents.put(CHANGE_REQUEST_TYPE, GREEN_ACCENT);
+
+    accents.put(SPIKE_TYPE, ORANGE_ACCENT);
+    accents.put(PROBLEM_TYPE, ORANGE_ACCENT);
+    accents.put(INCIDENT_SEVERITY_2_TYPE, ORANGE_ACCENT);
+    accents.put(INCIDENT_SEVERITY_3_TYPE, ORANGE_ACCENT);
+
+    accents.put(TASK_TYPE, BLUE_ACCENT);
+
+    ACCENTS = Collections.unmodifiableMap(accents);
+  }
+
+  private final String summary;
+
+  private final String description;
+
+  private final JiraIconField issueType;
+
+  private final JiraIconField priority;
+
+  private final JiraStatus status;
+
+  private final JiraUser assignee;
+
+  private final List<String> labels;
+
+  private final String accent;
+
+  @JsonCreator
+  public JiraIssueFields(@JsonProperty("summary") String summary,
+      @JsonProperty("description") String description,
+      @JsonProperty("issuetype") JiraIconField issueType,
+      @JsonProperty("priority") JiraIconField priority,
+      @JsonProperty("status") JiraStatus status,
+      @JsonProperty("assignee") JiraUser assignee,
+      @JsonProperty("labels") List<String> labels) {
+    this.summary = summary;
+    this.description = description;
+    this.issueType = issueType;
+    this.priority = priority;
+    this.status = status;
+    this.assignee = assignee;
+    this.labels = labels != null ? labels : Collections.<String>emptyList();
+    this.accent = getAccent(issueType);
+  }
+
+  private static String getAccent(JiraIconField issueType) {
+    return issueType != null ? getAccent(issueType.getName()) : null;
+  }
+
+  /**
+   * Returns the accent of the issue type.
+   * @param issueTypeName Issue type name
+   * @return Accent or null if the issue type has no accent
+   */
+  public static String getAccent(String issueTypeName) {
+    if (StringUtils.isEmpty(issueTypeName)) {
+      return null;
+    }
+
+    return ACCENTS.get(issueTypeName.toLowerCase());
+  }
+
+  public String getSummary() {
+    return summary;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public JiraIconField getIssueType() {
+    return issueType;
+  }
+
+  public JiraIconField getPriority() {
+    return priority;
+  }
+
+  public JiraStatus getStatus() {
+    return status;
+  }
+
+  public JiraUser getAssignee() {
+    return assignee;
+  }
+
+  public List<String> getLabels() {
+    return labels;
+  }
+
+  /**
+   * Returns the accent according to the issue type.
+   * @return Accent or null if the issue type has no accent
+   */
+  public String getAccent() {
+    return accent;
+  }
+
+}
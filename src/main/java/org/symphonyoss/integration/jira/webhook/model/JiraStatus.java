@@ -0,0 +1,117 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.model;
+
+import static org.symphonyoss.integration.jira.webhook.JiraColorNameConstants.BLUE;
+import static org.symphonyoss.integration.jira.webhook.JiraColorNameConstants.GREEN;
+import static org.symphonyoss.integration.jira.webhook.JiraColorNameConstants.YELLOW;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Issue status.
+ *
+ * JIRA's payload categorizes the issues according to three parent categories:<br/>
+ * <ul>
+ * <li>To Do</li>
+ * <li>In Progress</li>
+ * <li>Done</li>
+ * </ul>
+ *
+ * And each one has an associated color, given by the value of
+ * issue/status/statusCategory/colorName in JIRA's payload:
+ * <ul>
+ * <li>To Do: blue(blue-gray in the payload)</li>
+ * <li>In Progress: yellow</li>
+ * <li>Done: green</li>
+ * </ul>
+ * @see
+ * <a href="https://confluence.atlassian.com/adminjiracloud/defining-status-field-values-776636353.html">
+ * Defining JIRA's status fields values</a>
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class JiraStatus {
+
+  static final String DEFAULT_TOKEN_COLOR = "gray";
+
+  private final String name;
+
+  private final String tokenColor;
+
+  @JsonCreator
+  public JiraStatus(@JsonProperty("name") String name,
+      @JsonProperty("statusCategory") Category statusCategory) {
+    this.name = name;
+    this.tokenColor = getTokenColor(statusCategory != null ? statusCategory.colorName : null);
+  }
+
+  private static String getTokenColor(String colorName) {
+    if (colorName == null) {
+      return DEFAULT_TOKEN_COLOR;
+    }
+
+    switch (colorName) {
+      case BLUE:
+        return "blue";
+      case YELLOW:
+        return "yellow";
+      case GREEN:
+        return "green";
+      default:
+        return DEFAULT_TOKEN_COLOR;
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the status name in upper case, as displayed by the renderer.
+   * @return Status name in upper case or empty string
+   */
+  public String getDisplayName() {
+    return StringUtils.upperCase(StringUtils.defaultString(name));
+  }
+
+  /**
+   * Returns the token color according to the status category.
+   * @return Token color (blue, yellow, green or gray)
+   */
+  public String getTokenColor() {
+    return tokenColor;
+  }
+
+  /**
+   * Status category, only the color is required.
+   */
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static final class Category {
+
+    private final String colorName;
+
+    @JsonCreator
+    public Category(@JsonProperty("colorName") String colorName) {
+      this.colorName = colorName;
+    }
+
+  }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Summary of a burst of issue updates in a project, usually caused by a JIRA bulk change or a
+ * workflow migration.
+ */
+public final class JiraUpdateStorm {
+
+  private final String projectKey;
+
+  private final int eventCount;
+
+  private final int issueCount;
+
+  private final Set<String> changedFields;
+
+  private final List<JiraIssue> sampleIssues;
+
+  public JiraUpdateStorm(String projectKey, int eventCount, int issueCount,
+      Set<String> changedFields, List<JiraIssue> sampleIssues) {
+    this.projectKey = projectKey;
+    this.eventCount = eventCount;
+    this.issueCount = issueCount;
+    this.changedFields = Collections.unmodifiableSet(new LinkedHashSet<>(changedFields));
+    this.sampleIssues = Collections.unmodifiableList(new ArrayList<>(sampleIssues));
+  }
+
+  public String getProjectKey() {
+    return projectKey;
+  }
+
+  /**
+   * Returns the number of updates received during the burst.
+   */
+  public int getEventCount() {
+    return eventCount;
+  }
+
+  /**
+   * Returns the number of distinct issues updated during the burst.
+   */
+  public int getIssueCount() {
+    return issueCount;
+  }
+
+  /**
+   * Returns the names of the fields changed by the updates, in the order they were first changed.
+   */
+  public Set<String> getChangedFields() {
+    return changedFields;
+  }
+
+  /**
+   * Returns the first issues updated during the burst.
+   */
+  public List<JiraIssue> getSampleIssues() {
+    return sampleIssues;
+  }
+
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * JIRA user, i.e. the user that performed the action or the issue assignee.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class JiraUser {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final String name;
+
+  private final String key;
+
+  private final String emailAddress;
+
+  private final String displayName;
+
+  @JsonCreator
+  public JiraUser(@JsonProperty("name") String name,
+      @JsonProperty("key") String key,
+      @JsonProperty("emailAddress") String emailAddress,
+      @JsonProperty("displayName") String displayName) {
+    this.name = name;
+    this.key = key;
+    this.emailAddress = StringUtils.trimToEmpty(emailAddress);
+    this.displayName = displayName;
+  }
+
+  /**
+   * Reads the user from the JSON payload.
+   * @param node JSON node of the user
+   * @return JIRA user
+   * @throws JsonProcessingException Node doesn't match the user model
+   */
+  public static JiraUser read(JsonNode node) throws JsonProcessingException {
+    return MAPPER.treeToValue(node, JiraUser.class);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the key of the user, which JIRA keeps when the username changes.
+   * @return User key or null if the payload doesn't have it
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Returns the email address without leading and trailing whitespaces. This is the only place the
+   * email addresses sent by JIRA are trimmed, every user lookup reads them from here.
+   * @return Email address or empty string
+   */
+  public String getEmailAddress() {
+    return emailAddress;
+  }
+
+  public String getDisplayName() {
+    return displayName;
+  }
+
+}
@@ -0,0 +1,329 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.ISSUE_EVENT_TYPE_NAME;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.WEBHOOK_EVENT;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.CHANGELOG_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.COMMENT_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.FIELDS_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.FIELD_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ID_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ISSUETYPE_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ISSUE_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ITEMS_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.KEY_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.NAME_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.PRIORITY_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.PROJECT_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.SELF_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.TIMESTAMP_PATH;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.commons.lang3.StringUtils;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Attributes of a JIRA event used to filter, deduplicate and route the events, read without
+ * building the JSON tree.
+ *
+ * Besides the event type and the issue key, the project key, issue type name and priority name
+ * are read from 'issue.fields', and the timestamp and the ids of the issue, comment and changelog
+ * identify the event (see {@link JiraEventFingerprint}). The issue URL and the names of the fields
+ * changed by the changelog items are read to summarize the event without building the JSON tree.
+ * The values of the other fields are skipped by the streaming parser, and the reading stops as
+ * soon as all the top-level fields above are read.
+ *
+ * The attributes not found, as well as the null, object and array values, are null. The same
+ * convention is followed by {@link JiraEventTypeSniffer}.
+ */
+public class JiraEventAttributes {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  /**
+   * Number of top-level fields read: the event type, the event type name, the timestamp, the
+   * comment, the changelog and the issue.
+   */
+  private static final int TOP_LEVEL_FIELDS = 6;
+
+  private String webHookEvent;
+
+  private String eventTypeName;
+
+  private String timestamp;
+
+  private String issueId;
+
+  private String issueKey;
+
+  private String issueSelf;
+
+  private String projectKey;
+
+  private String issueType;
+
+  private String priority;
+
+  private String commentId;
+
+  private String changelogId;
+
+  private final List<String> changedFields = new ArrayList<>();
+
+  private boolean issueEvent;
+
+  /**
+   * Reads the attributes of the payload.
+   * @param payload Webhook payload
+   * @return Event attributes, the attributes not found are null
+   * @throws IOException Payload body isn't a JSON object
+   */
+  public static JiraEventAttributes read(WebHookPayload payload) throws IOException {
+    String body = payload.getBody();
+
+    if (StringUtils.isBlank(body)) {
+      throw new IOException("Empty payload body");
+    }
+
+    JsonParser parser = JSON_FACTORY.createParser(body);
+
+    try {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException(parser, "Payload body must be a JSON object");
+      }
+
+      JiraEventAttributes attributes = new JiraEventAttributes();
+      int fieldsRead = 0;
+
+      while (fieldsRead < TOP_LEVEL_FIELDS && parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+
+        if (WEBHOOK_EVENT.equals(fieldName)) {
+          attributes.webHookEvent = readValue(parser, token);
+        } else if (ISSUE_EVENT_TYPE_NAME.equals(fieldName)) {
+          attributes.eventTypeName = readValue(parser, token);
+        } else if (TIMESTAMP_PATH.equals(fieldName)) {
+          attributes.timestamp = readValue(parser, token);
+        } else if (COMMENT_PATH.equals(fieldName)) {
+          attributes.commentId = readField(parser, token, ID_PATH);
+        } else if (CHANGELOG_PATH.equals(fieldName)) {
+          readChangelog(parser, token, attributes);
+        } else if (ISSUE_PATH.equals(fieldName)) {
+          readIssue(parser, token, attributes);
+        } else {
+          parser.skipChildren();
+          continue;
+        }
+
+        fieldsRead++;
+      }
+
+      return attributes;
+    } finally {
+      parser.close();
+    }
+  }
+
+  private static void readIssue(JsonParser parser, JsonToken startToken,
+      JiraEventAttributes attributes) throws IOException {
+    if (startToken != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return;
+    }
+
+    attributes.issueEvent = true;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+
+      if (ID_PATH.equals(fieldName)) {
+        attributes.issueId = readValue(parser, token);
+      } else if (KEY_PATH.equals(fieldName)) {
+        attributes.issueKey = readValue(parser, token);
+      } else if (SELF_PATH.equals(fieldName)) {
+        attributes.issueSelf = readValue(parser, token);
+      } else if (FIELDS_PATH.equals(fieldName) && token == JsonToken.START_OBJECT) {
+        readIssueFields(parser, attributes);
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  private static void readIssueFields(JsonParser parser, JiraEventAttributes attributes)
+      throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+
+      if (PROJECT_PATH.equals(fieldName)) {
+        attributes.projectKey = readField(parser, token, KEY_PATH);
+      } else if (ISSUETYPE_PATH.equals(fieldName)) {
+        attributes.issueType = readField(parser, token, NAME_PATH);
+      } else if (PRIORITY_PATH.equals(fieldName)) {
+        attributes.priority = readField(parser, token, NAME_PATH);
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  private static void readChangelog(JsonParser parser, JsonToken startToken,
+      JiraEventAttributes attributes) throws IOException {
+    if (startToken != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return;
+    }
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+
+      if (ID_PATH.equals(fieldName)) {
+        attributes.changelogId = readValue(parser, token);
+      } else if (ITEMS_PATH.equals(fieldName) && token == JsonToken.START_ARRAY) {
+        readChangelogItems(parser, attributes);
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  private static void readChangelogItems(JsonParser parser, JiraEventAttributes attributes)
+      throws IOException {
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+      String field = readField(parser, token, FIELD_PATH);
+
+      if (StringUtils.isNotEmpty(field)) {
+        attributes.changedFields.add(field);
+      }
+    }
+  }
+
+  /**
+   * Reads a field of the current object, skipping the other fields.
+   */
+  private static String readField(JsonParser parser, JsonToken token, String name)
+      throws IOException {
+    if (token != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return null;
+    }
+
+    String value = null;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      JsonToken valueToken = parser.nextToken();
+
+      if (name.equals(fieldName)) {
+        value = readValue(parser, valueToken);
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    return value;
+  }
+
+  /**
+   * Reads the current scalar value as text. Objects, arrays and nulls are skipped.
+   * @return Value as text or null if it isn't a scalar value
+   */
+  static String readValue(JsonParser parser, JsonToken token) throws IOException {
+    if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+      return parser.getText();
+    }
+
+    parser.skipChildren();
+    return null;
+  }
+
+  public String getWebHookEvent() {
+    return webHookEvent;
+  }
+
+  public String getEventTypeName() {
+    return eventTypeName;
+  }
+
+  public String getTimestamp() {
+    return timestamp;
+  }
+
+  public String getIssueId() {
+    return issueId;
+  }
+
+  public String getIssueKey() {
+    return issueKey;
+  }
+
+  /**
+   * Returns the issue URL on the JIRA REST API, used to build the links to the issue.
+   */
+  public String getIssueSelf() {
+    return issueSelf;
+  }
+
+  public String getProjectKey() {
+    return projectKey;
+  }
+
+  public String getIssueType() {
+    return issueType;
+  }
+
+  public String getPriority() {
+    return priority;
+  }
+
+  public String getCommentId() {
+    return commentId;
+  }
+
+  public String getChangelogId() {
+    return changelogId;
+  }
+
+  /**
+   * Returns the names of the fields changed by the changelog items, in the order they were sent.
+   */
+  public List<String> getChangedFields() {
+    return changedFields;
+  }
+
+  /**
+   * Returns true if the event has an issue, i.e. it isn't a user, project or sprint event.
+   */
+  public boolean isIssueEvent() {
+    return issueEvent;
+  }
+
+}
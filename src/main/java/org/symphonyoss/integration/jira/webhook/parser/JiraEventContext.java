@@ -0,0 +1,172 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.ISSUE_EVENT_TYPE_NAME;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.WEBHOOK_EVENT;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.CHANGELOG_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ITEMS_PATH;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.lang3.StringUtils;
+import org.symphonyoss.integration.json.JsonUtils;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Holds a JIRA event received through the webhook. The context is built when the event is
+ * received, reading the event attributes (see {@link JiraEventAttributes}) with a single scan of
+ * the payload body, and it's passed through the handling stages up to the parser. The payload body
+ * is read into a JSON tree only when the parser requests it. The tree is built once and it's
+ * never changed by the parsers.
+ *
+ * A context holds a single event, so the stages that replace the event create another context.
+ * The stages that only replace the changelog items of the event (see
+ * {@link #JiraEventContext(JiraEventContext, ArrayNode)}) keep the payload, and the items are set
+ * when the tree is built.
+ */
+public class JiraEventContext {
+
+  private final WebHookPayload payload;
+
+  private final String webHookEvent;
+
+  private final String eventTypeName;
+
+  private JiraEventAttributes attributes;
+
+  private ArrayNode changelogItems;
+
+  private JsonNode node;
+
+  public JiraEventContext(WebHookPayload payload, String webHookEvent, String eventTypeName) {
+    this.payload = payload;
+    this.webHookEvent = webHookEvent;
+    this.eventTypeName = eventTypeName;
+  }
+
+  public JiraEventContext(WebHookPayload payload, JiraEventAttributes attributes) {
+    this(payload, StringUtils.defaultString(attributes.getWebHookEvent()),
+        StringUtils.defaultString(attributes.getEventTypeName()));
+    this.attributes = attributes;
+  }
+
+  public JiraEventContext(WebHookPayload payload, JsonNode node) {
+    this(payload, node.path(WEBHOOK_EVENT).asText(), node.path(ISSUE_EVENT_TYPE_NAME).asText());
+    this.node = node;
+  }
+
+  /**
+   * Builds the context of the same event with other changelog items.
+   * @param context Event context
+   * @param changelogItems Changelog items set when the tree is built
+   */
+  public JiraEventContext(JiraEventContext context, ArrayNode changelogItems) {
+    this(context.payload, context.webHookEvent, context.eventTypeName);
+    this.attributes = context.attributes;
+    this.changelogItems = changelogItems;
+  }
+
+  /**
+   * Reads the event attributes and builds the event context. The payload body that isn't a JSON
+   * object has no attributes, the failure is reported when the parser reads it.
+   * @param payload Webhook payload
+   * @return Event context
+   */
+  public static JiraEventContext read(WebHookPayload payload) {
+    try {
+      return new JiraEventContext(payload, JiraEventAttributes.read(payload));
+    } catch (IOException e) {
+      return new JiraEventContext(payload, null, null);
+    }
+  }
+
+  /**
+   * Reads the payload body and builds the event context.
+   * @param payload Webhook payload
+   * @return Event context
+   * @throws IOException Failure to read the payload body
+   */
+  public static JiraEventContext readPayload(WebHookPayload payload) throws IOException {
+    JsonNode node = JsonUtils.readTree(payload.getBody());
+    return new JiraEventContext(payload, node);
+  }
+
+  public WebHookPayload getPayload() {
+    return payload;
+  }
+
+  public Map<String, String> getParameters() {
+    return payload.getParameters();
+  }
+
+  /**
+   * Returns the event attributes read when the event was received.
+   * @return Event attributes or null if they weren't read
+   */
+  public JiraEventAttributes getAttributes() {
+    return attributes;
+  }
+
+  /**
+   * Returns the JSON tree of the payload body, reading it on the first call.
+   * @return JSON tree of the payload body
+   * @throws IOException Failure to read the payload body
+   */
+  public JsonNode getNode() throws IOException {
+    if (node == null) {
+      setNode(JsonUtils.readTree(payload.getBody()));
+    }
+
+    return node;
+  }
+
+  /**
+   * Returns the JSON tree of the payload body, reading only the projected fields on the first call.
+   * @param projection Paths read by the parser or null to read the whole payload body
+   * @return JSON tree of the payload body
+   * @throws IOException Failure to read the payload body
+   */
+  public JsonNode getNode(JiraPayloadProjection projection) throws IOException {
+    if (node == null && projection != null) {
+      setNode(projection.read(payload.getBody()));
+    }
+
+    return getNode();
+  }
+
+  private void setNode(JsonNode node) {
+    if (changelogItems != null && node instanceof ObjectNode) {
+      ((ObjectNode) node).with(CHANGELOG_PATH).set(ITEMS_PATH, changelogItems);
+    }
+
+    this.node = node;
+  }
+
+  public String getWebHookEvent() {
+    return webHookEvent;
+  }
+
+  public String getEventTypeName() {
+    return eventTypeName;
+  }
+
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Drops the JIRA events redelivered by JIRA after a timeout.
+ *
+ * The fingerprints of the events received (see {@link JiraEventFingerprint}) are kept for
+ * 'ttlSeconds', up to 'maxSize' fingerprints. An event with a known fingerprint is a duplicate and
+ * it's skipped before being handled. The events without fingerprint are never considered
+ * duplicates.
+ *
+ * The fingerprint of an event that fails to be handled must be removed (see
+ * {@link #forget(String, JiraEventContext)}), so the event retried by JIRA is handled again.
+ */
+@Component
+public class JiraEventDeduplicator {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JiraEventDeduplicator.class);
+
+  @Value("${applications.jira.deduplication.maxSize:10000}")
+  private Integer maxSize;
+
+  @Value("${applications.jira.deduplication.ttlSeconds:600}")
+  private Long ttlSeconds;
+
+  private final AtomicLong checkedCount = new AtomicLong();
+
+  private final AtomicLong duplicateCount = new AtomicLong();
+
+  /**
+   * Fingerprints by the time they were received, in the order they were received.
+   */
+  private Map<String, Long> fingerprints;
+
+  @PostConstruct
+  public void init() {
+    this.fingerprints = new LinkedHashMap<String, Long>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Checks if the event was already received by the configuration instance and registers its
+   * fingerprint otherwise.
+   * @param instanceId Configuration instance identifier
+   * @param context Event context
+   * @return true if the event is a duplicate
+   */
+  public boolean isDuplicate(String instanceId, JiraEventContext context) {
+    String fingerprint = getFingerprint(instanceId, context);
+
+    if (fingerprint == null) {
+      return false;
+    }
+
+    checkedCount.incrementAndGet();
+
+    long now = System.currentTimeMillis();
+    long expiration = now - TimeUnit.SECONDS.toMillis(ttlSeconds);
+
+    synchronized (fingerprints) {
+      removeExpired(expiration);
+
+      if (fingerprints.containsKey(fingerprint)) {
+        duplicateCount.incrementAndGet();
+        LOGGER.info("Skipping JIRA event already received: {}", fingerprint);
+        return true;
+      }
+
+      fingerprints.put(fingerprint, now);
+    }
+
+    return false;
+  }
+
+  /**
+   * Removes the fingerprint of an event that failed to be handled, so the event is handled again
+   * when JIRA retries it.
+   * @param instanceId Configuration instance identifier
+   * @param context Event context
+   */
+  public void forget(String instanceId, JiraEventContext context) {
+    String fingerprint = getFingerprint(instanceId, context);
+
+    if (fingerprint == null) {
+      return;
+    }
+
+    synchronized (fingerprints) {
+      fingerprints.remove(fingerprint);
+    }
+  }
+
+  /**
+   * Returns the event fingerprint.
+   * @return Event fingerprint or null if the deduplication is disabled or the event doesn't have
+   * fingerprint
+   */
+  private String getFingerprint(String instanceId, JiraEventContext context) {
+    if (fingerprints == null || maxSize <= 0 || context.getAttributes() == null) {
+      return null;
+    }
+
+    return JiraEventFingerprint.of(instanceId, context.getAttributes());
+  }
+
+  /**
+   * Removes the fingerprints received before the expiration time. They are kept in the order they
+   * were received, so only the eldest ones are visited.
+   */
+  private void removeExpired(long expiration) {
+    Iterator<Long> iterator = fingerprints.values().iterator();
+
+    while (iterator.hasNext() && iterator.next() < expiration) {
+      iterator.remove();
+    }
+  }
+
+  public long getCheckedCount() {
+    return checkedCount.get();
+  }
+
+  public long getDuplicateCount() {
+    return duplicateCount.get();
+  }
+
+  /**
+   * Returns the rate of the events checked that were duplicates.
+   */
+  public double getDuplicateRate() {
+    long checked = checkedCount.get();
+    return checked == 0 ? 0 : (double) duplicateCount.get() / checked;
+  }
+
+}
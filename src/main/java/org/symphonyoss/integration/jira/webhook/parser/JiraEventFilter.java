@@ -0,0 +1,171 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Filter rules of an integration instance, compiled into the conditions an event must match to be
+ * posted.
+ *
+ * Each rule is a comma-separated list of accepted values: project keys, issue type names (e.g.
+ * 'bug', 'story'), priority names and event types ('webhookEvent' or 'issue_event_type_name').
+ * The values are compared ignoring case, and the rules not informed accept any value. The project,
+ * issue type and priority rules only apply to the events with an issue, the other events (e.g.
+ * 'user_updated') are checked against the event types only.
+ */
+public class JiraEventFilter {
+
+  /**
+   * Filter of the instances without rules.
+   */
+  public static final JiraEventFilter ACCEPT_ALL =
+      new JiraEventFilter(Collections.<Condition>emptyList());
+
+  private static final String SEPARATOR = ",";
+
+  private final List<Condition> conditions;
+
+  private JiraEventFilter(List<Condition> conditions) {
+    this.conditions = conditions;
+  }
+
+  /**
+   * Compiles the filter rules.
+   * @param projects Accepted project keys
+   * @param issueTypes Accepted issue type names
+   * @param priorities Accepted priority names
+   * @param events Accepted event types
+   * @return Compiled filter
+   */
+  public static JiraEventFilter compile(String projects, String issueTypes, String priorities,
+      String events) {
+    List<Condition> conditions = new ArrayList<>();
+
+    final Set<String> eventSet = split(events);
+    if (!eventSet.isEmpty()) {
+      conditions.add(new Condition() {
+        @Override
+        public boolean matches(JiraEventAttributes event) {
+          return contains(eventSet, event.getWebHookEvent())
+              || contains(eventSet, event.getEventTypeName());
+        }
+      });
+    }
+
+    final Set<String> projectSet = split(projects);
+    if (!projectSet.isEmpty()) {
+      conditions.add(new IssueCondition() {
+        @Override
+        protected boolean matchesIssue(JiraEventAttributes event) {
+          return contains(projectSet, event.getProjectKey());
+        }
+      });
+    }
+
+    final Set<String> issueTypeSet = split(issueTypes);
+    if (!issueTypeSet.isEmpty()) {
+      conditions.add(new IssueCondition() {
+        @Override
+        protected boolean matchesIssue(JiraEventAttributes event) {
+          return contains(issueTypeSet, event.getIssueType());
+        }
+      });
+    }
+
+    final Set<String> prioritySet = split(priorities);
+    if (!prioritySet.isEmpty()) {
+      conditions.add(new IssueCondition() {
+        @Override
+        protected boolean matchesIssue(JiraEventAttributes event) {
+          return contains(prioritySet, event.getPriority());
+        }
+      });
+    }
+
+    return conditions.isEmpty() ? ACCEPT_ALL : new JiraEventFilter(conditions);
+  }
+
+  /**
+   * Returns true if the filter accepts any event.
+   */
+  public boolean isAcceptAll() {
+    return conditions.isEmpty();
+  }
+
+  /**
+   * Checks if the event matches all the rules.
+   * @param event Event attributes
+   * @return true if the event should be posted
+   */
+  public boolean accept(JiraEventAttributes event) {
+    for (Condition condition : conditions) {
+      if (!condition.matches(event)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static Set<String> split(String values) {
+    Set<String> result = new HashSet<>();
+
+    for (String value : StringUtils.split(StringUtils.defaultString(values), SEPARATOR)) {
+      if (StringUtils.isNotBlank(value)) {
+        result.add(value.trim().toLowerCase());
+      }
+    }
+
+    return result;
+  }
+
+  private static boolean contains(Set<String> values, String value) {
+    return value != null && values.contains(value.toLowerCase());
+  }
+
+  /**
+   * Condition compiled from a filter rule.
+   */
+  private interface Condition {
+
+    boolean matches(JiraEventAttributes event);
+
+  }
+
+  /**
+   * Condition compiled from a rule on the issue fields, the events without issue always match.
+   */
+  private abstract static class IssueCondition implements Condition {
+
+    @Override
+    public boolean matches(JiraEventAttributes event) {
+      return !event.isIssueEvent() || matchesIssue(event);
+    }
+
+    protected abstract boolean matchesIssue(JiraEventAttributes event);
+
+  }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the compiled filter rules of each integration instance.
+ *
+ * The rules are read from the application properties 'applications.jira.filters.[instanceId]',
+ * with the keys 'projects', 'issueTypes', 'priorities' and 'events'. They are compiled the first
+ * time an event of the instance is received, and compiled again after the integration
+ * configuration changes.
+ */
+@Component
+public class JiraEventFilterRegistry {
+
+  private static final String FILTER_TEMPLATE = "applications.jira.filters.%s.%s";
+
+  private static final String PROJECTS = "projects";
+
+  private static final String ISSUE_TYPES = "issueTypes";
+
+  private static final String PRIORITIES = "priorities";
+
+  private static final String EVENTS = "events";
+
+  @Autowired
+  private Environment environment;
+
+  private final ConcurrentMap<String, JiraEventFilter> filters = new ConcurrentHashMap<>();
+
+  private final AtomicLong filteredCount = new AtomicLong();
+
+  /**
+   * Returns the compiled filter of the instance.
+   * @param instanceId Configuration instance identifier
+   * @return Compiled filter, {@link JiraEventFilter#ACCEPT_ALL} if the instance has no rules
+   */
+  public JiraEventFilter getFilter(String instanceId) {
+    if (instanceId == null) {
+      return JiraEventFilter.ACCEPT_ALL;
+    }
+
+    JiraEventFilter filter = filters.get(instanceId);
+
+    if (filter == null) {
+      filter = JiraEventFilter.compile(getRule(instanceId, PROJECTS),
+          getRule(instanceId, ISSUE_TYPES), getRule(instanceId, PRIORITIES),
+          getRule(instanceId, EVENTS));
+      filters.put(instanceId, filter);
+    }
+
+    return filter;
+  }
+
+  /**
+   * Replaces the filter rules of the instance.
+   * @param instanceId Configuration instance identifier
+   * @param filter Compiled filter
+   */
+  public void setFilter(String instanceId, JiraEventFilter filter) {
+    filters.put(instanceId, filter);
+  }
+
+  /**
+   * Discards the compiled filters, so the rules are read again from the application properties
+   * when the next events are received.
+   */
+  public void onConfigChange() {
+    filters.clear();
+  }
+
+  /**
+   * Counts an event filtered out.
+   */
+  public void countFiltered() {
+    filteredCount.incrementAndGet();
+  }
+
+  public long getFilteredCount() {
+    return filteredCount.get();
+  }
+
+  private String getRule(String instanceId, String rule) {
+    return environment.getProperty(String.format(FILTER_TEMPLATE, instanceId, rule));
+  }
+
+}
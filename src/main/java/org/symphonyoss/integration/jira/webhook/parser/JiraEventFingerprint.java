@@ -0,0 +1,58 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Builds the identity of a JIRA event from the attributes read while routing it (see
+ * {@link JiraEventAttributes}).
+ *
+ * The fingerprint is made of the configuration instance that received the event plus
+ * 'webhookEvent', 'timestamp', 'issue.id', 'comment.id' and 'changelog.id'. JIRA keeps those
+ * fields when it redelivers an event, so two payloads with the same fingerprint are the same
+ * event. The same event delivered to two instances has two fingerprints.
+ */
+public final class JiraEventFingerprint {
+
+  private static final char SEPARATOR = '|';
+
+  private JiraEventFingerprint() {}
+
+  /**
+   * Builds the fingerprint of the event.
+   * @param instanceId Configuration instance identifier
+   * @param attributes Event attributes
+   * @return Event fingerprint or null if the event doesn't have the event type or timestamp
+   */
+  public static String of(String instanceId, JiraEventAttributes attributes) {
+    if (StringUtils.isEmpty(attributes.getWebHookEvent())
+        || StringUtils.isEmpty(attributes.getTimestamp())) {
+      return null;
+    }
+
+    return new StringBuilder(StringUtils.defaultString(instanceId))
+        .append(SEPARATOR).append(attributes.getWebHookEvent())
+        .append(SEPARATOR).append(attributes.getTimestamp())
+        .append(SEPARATOR).append(StringUtils.defaultString(attributes.getIssueId()))
+        .append(SEPARATOR).append(StringUtils.defaultString(attributes.getCommentId()))
+        .append(SEPARATOR).append(StringUtils.defaultString(attributes.getChangelogId()))
+        .toString();
+  }
+
+}
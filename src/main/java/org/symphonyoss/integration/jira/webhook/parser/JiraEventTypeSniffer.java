@@ -0,0 +1,95 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.ISSUE_EVENT_TYPE_NAME;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.WEBHOOK_EVENT;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.commons.lang3.StringUtils;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.io.IOException;
+
+/**
+ * Reads the event type of a JIRA payload without building the JSON tree.
+ *
+ * Only the top-level fields 'webhookEvent' and 'issue_event_type_name' are read, the value of
+ * the other fields are skipped by the streaming parser. The reading stops as soon as both fields
+ * are found.
+ *
+ * The values are read the same way {@link JiraEventAttributes} reads them: the fields not found, as
+ * well as the null, object and array values, are empty in the event context.
+ */
+public final class JiraEventTypeSniffer {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private JiraEventTypeSniffer() {}
+
+  /**
+   * Reads the event type of the payload.
+   * @param payload Webhook payload
+   * @return Event context. The JSON tree is built only when the parser requests it.
+   * @throws IOException Payload body isn't a JSON object
+   */
+  public static JiraEventContext sniff(WebHookPayload payload) throws IOException {
+    String body = payload.getBody();
+
+    if (StringUtils.isBlank(body)) {
+      throw new IOException("Empty payload body");
+    }
+
+    JsonParser parser = JSON_FACTORY.createParser(body);
+
+    try {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException(parser, "Payload body must be a JSON object");
+      }
+
+      String webHookEvent = null;
+      String eventTypeName = null;
+      boolean webHookEventFound = false;
+      boolean eventTypeNameFound = false;
+
+      while ((!webHookEventFound || !eventTypeNameFound)
+          && parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+
+        if (WEBHOOK_EVENT.equals(fieldName)) {
+          webHookEvent = JiraEventAttributes.readValue(parser, token);
+          webHookEventFound = true;
+        } else if (ISSUE_EVENT_TYPE_NAME.equals(fieldName)) {
+          eventTypeName = JiraEventAttributes.readValue(parser, token);
+          eventTypeNameFound = true;
+        } else {
+          parser.skipChildren();
+        }
+      }
+
+      return new JiraEventContext(payload, StringUtils.defaultString(webHookEvent),
+          StringUtils.defaultString(eventTypeName));
+    } finally {
+      parser.close();
+    }
+  }
+
+}
@@ -0,0 +1,588 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+/**
+ * Strips the JIRA wiki markup from a text.
+ *
+ * It replaces the sequence of regular expressions previously applied by
+ * {@link JiraParserUtils#stripJiraFormatting(String)}. The rules are still applied one after
+ * another, in the same order, so a markup formed by the text another rule rewrote is stripped the
+ * same way. Each rule is a hand-written linear scan instead of a regular expression, though: no
+ * pattern is compiled, nothing is backtracked and the text isn't copied by the rules that have
+ * nothing to strip.
+ *
+ * The searches for a closing tag in the same line (code, noformat and panel titles) remember the
+ * lines known to have no closing tag, so the opening tags repeated in a line don't search it again.
+ */
+public final class JiraMarkupStripper {
+
+  /**
+   * Linebreak constant to build a messageML.
+   */
+  private static final String MESSAGEML_LINEBREAK = "<br></br>";
+
+  private static final String ESCAPED_LINEBREAK = "\\r\\n";
+
+  private static final String CRLF = "\r\n";
+
+  private static final String MENTION_START = "[~";
+
+  private static final String[] EMOTICONS =
+      {"y", "n", "i", "/", "x", "!", "+", "-", "?", "on", "off", "flag", "flagoff"};
+
+  private static final String EFFECT_SINGLE_OPENERS = "^+*_~-";
+
+  private static final String EFFECT_SINGLE_CLOSERS = "^+*_~]-";
+
+  private static final String COLOR_START = "{color:";
+  private static final String COLOR_END = "{color}";
+
+  private static final String QUOTE = "{quote}";
+
+  private static final String LINK_START = "[link title|";
+
+  private static final String MAILTO_START = "[mailto:";
+
+  private static final String CODE_START = "{code:";
+  private static final String CODE_END = "{code}";
+
+  private static final String NOFORMAT = "{noformat}";
+
+  private static final String PANEL_START = "{panel:title=";
+  private static final String PANEL_END = "{panel}";
+
+  /**
+   * Characters allowed in the text enclosed by each markup, besides the word and space characters.
+   */
+  private static final String NO_EXTRA_CHARS = "";
+
+  private static final String COLOR_TAG_CHARS = "#";
+
+  private static final String LINK_CHARS = "%./:";
+
+  private static final String MAILTO_CHARS = "./:@";
+
+  private JiraMarkupStripper() {}
+
+  /**
+   * Strips the JIRA wiki markup from a text.
+   * @param text Text with JIRA wiki markup
+   * @return Text without markup
+   */
+  public static String strip(String text) {
+    if (text == null || text.isEmpty()) {
+      return text;
+    }
+
+    // remove header, paragraph
+    String result = new Rule("hb") {
+      @Override
+      int match(String text, int start, StringBuilder output) {
+        return text.charAt(start) == 'h' ? matchHeading(text, start) : matchBlockQuote(text, start);
+      }
+    }.apply(text);
+
+    // replace the line breaks
+    result = new Rule("\\\r") {
+      @Override
+      int match(String text, int start, StringBuilder output) {
+        String lineBreak = text.charAt(start) == '\\' ? ESCAPED_LINEBREAK : CRLF;
+
+        if (!text.startsWith(lineBreak, start)) {
+          return -1;
+        }
+
+        output.append(MESSAGEML_LINEBREAK);
+        return start + lineBreak.length();
+      }
+    }.apply(result);
+
+    // remove emoticons
+    result = new Rule(";(") {
+      @Override
+      int match(String text, int start, StringBuilder output) {
+        return matchEmoticon(text, start);
+      }
+    }.apply(result);
+
+    // remove any mention jira tags not substituted yet
+    result = new Rule("[") {
+      @Override
+      int match(String text, int start, StringBuilder output) {
+        return matchMention(text, start, output);
+      }
+    }.apply(result);
+
+    // remove markup for strong, emphasized, underlined, superscript, subscript, deleted,
+    // citation, anchor, monospaced text
+    result = new Rule("{^+*_~?[-") {
+      @Override
+      int match(String text, int start, StringBuilder output) {
+        return matchEffect(text, start, output);
+      }
+    }.apply(result);
+
+    // remove colors
+    result = new Rule("{") {
+      @Override
+      int match(String text, int start, StringBuilder output) {
+        if (!text.startsWith(COLOR_START, start)) {
+          return -1;
+        }
+
+        int contentStart = matchTagParameter(text, start + COLOR_START.length(), COLOR_TAG_CHARS);
+        return matchEnclosed(text, contentStart, NO_EXTRA_CHARS, COLOR_END, output);
+      }
+    }.apply(result);
+
+    result = new EnclosingRule(QUOTE, NO_EXTRA_CHARS, QUOTE).apply(result);
+    result = new EnclosingRule(LINK_START, LINK_CHARS, "]").apply(result);
+    result = new EnclosingRule(MAILTO_START, MAILTO_CHARS, "]").apply(result);
+
+    // remove code
+    result = new LineRule("{") {
+      @Override
+      int match(String text, int start, StringBuilder output) {
+        if (!text.startsWith(CODE_START, start)) {
+          return -1;
+        }
+
+        int contentStart = matchTagParameter(text, start + CODE_START.length(), NO_EXTRA_CHARS);
+        return matchInLine(text, contentStart, CODE_END, 1, output);
+      }
+    }.apply(result);
+
+    // remove noformat
+    result = new LineRule("{") {
+      @Override
+      int match(String text, int start, StringBuilder output) {
+        if (!text.startsWith(NOFORMAT, start)) {
+          return -1;
+        }
+
+        return matchInLine(text, start + NOFORMAT.length(), NOFORMAT, 1, output);
+      }
+    }.apply(result);
+
+    // remove panels
+    result = new LineRule("{") {
+      @Override
+      int match(String text, int start, StringBuilder output) {
+        if (!text.startsWith(PANEL_START, start)) {
+          return -1;
+        }
+
+        return matchInLine(text, start + PANEL_START.length(), "}", 0, output);
+      }
+    }.apply(result);
+
+    result = new Rule("{") {
+      @Override
+      int match(String text, int start, StringBuilder output) {
+        return text.startsWith(PANEL_END, start) ? start + PANEL_END.length() : -1;
+      }
+    }.apply(result);
+
+    // remove tables and put line breaks back
+    return new Rule("|<") {
+      @Override
+      int match(String text, int start, StringBuilder output) {
+        if (text.charAt(start) == '|') {
+          output.append(' ');
+          return start + 1;
+        }
+
+        if (!text.startsWith(MESSAGEML_LINEBREAK, start)) {
+          return -1;
+        }
+
+        output.append('\n');
+        return start + MESSAGEML_LINEBREAK.length();
+      }
+    }.apply(result);
+  }
+
+  /**
+   * Matches 'h[0-6]. '
+   */
+  private static int matchHeading(String text, int start) {
+    if (start + 3 < text.length()) {
+      char level = text.charAt(start + 1);
+
+      if (level >= '0' && level <= '6' && isAnyChar(text.charAt(start + 2))
+          && text.charAt(start + 3) == ' ') {
+        return start + 4;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Matches 'bq. '
+   */
+  private static int matchBlockQuote(String text, int start) {
+    if (start + 3 < text.length() && text.charAt(start + 1) == 'q'
+        && isAnyChar(text.charAt(start + 2)) && text.charAt(start + 3) == ' ') {
+      return start + 4;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Matches the emoticons, like ';)', '(y)', '(on)', '(flagoff)' and '(*r)'.
+   */
+  private static int matchEmoticon(String text, int start) {
+    int length = text.length();
+
+    if (text.charAt(start) == ';') {
+      return start + 1 < length && text.charAt(start + 1) == ')' ? start + 2 : -1;
+    }
+
+    int nameStart = start + 1;
+
+    for (String emoticon : EMOTICONS) {
+      int end = nameStart + emoticon.length();
+
+      if (text.startsWith(emoticon, nameStart) && end < length && text.charAt(end) == ')') {
+        return end + 1;
+      }
+    }
+
+    if (nameStart < length && text.charAt(nameStart) == '*') {
+      int i = nameStart + 1;
+
+      while (i < length && "rgby".indexOf(text.charAt(i)) != -1) {
+        i++;
+      }
+
+      if (i < length && text.charAt(i) == ')') {
+        return i + 1;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Matches the mention tags, like '[~username]', and keeps the username.
+   */
+  private static int matchMention(String text, int start, StringBuilder output) {
+    if (!text.startsWith(MENTION_START, start)) {
+      return -1;
+    }
+
+    int nameStart = start + MENTION_START.length();
+    int i = nameStart;
+
+    while (i < text.length() && (isWordChar(text.charAt(i)) || text.charAt(i) == '.')) {
+      i++;
+    }
+
+    if (i == nameStart || i >= text.length() || text.charAt(i) != ']') {
+      return -1;
+    }
+
+    output.append(text, nameStart, i);
+    return i + 1;
+  }
+
+  /**
+   * Matches the text effects: monospaced, strong, emphasized, underlined, superscript, subscript,
+   * deleted, citation and anchor. The opening and closing tags don't need to be the same.
+   */
+  private static int matchEffect(String text, int start, StringBuilder output) {
+    int contentStart = matchEffectOpener(text, start);
+
+    if (contentStart == -1) {
+      return -1;
+    }
+
+    int contentEnd = skipAllowed(text, contentStart, NO_EXTRA_CHARS);
+
+    if (contentEnd == contentStart) {
+      return -1;
+    }
+
+    int end = matchEffectCloser(text, contentEnd);
+
+    if (end == -1) {
+      // the underscore is also a word character, so it may close a shorter text
+      do {
+        contentEnd--;
+      } while (contentEnd > contentStart && text.charAt(contentEnd) != '_');
+
+      if (contentEnd == contentStart) {
+        return -1;
+      }
+
+      end = contentEnd + 1;
+    }
+
+    output.append(text, contentStart, contentEnd);
+    return end;
+  }
+
+  private static int matchEffectOpener(String text, int start) {
+    if (EFFECT_SINGLE_OPENERS.indexOf(text.charAt(start)) != -1) {
+      return start + 1;
+    }
+
+    if (text.startsWith("{{", start) || text.startsWith("??", start)
+        || text.startsWith("[#", start)) {
+      return start + 2;
+    }
+
+    return -1;
+  }
+
+  private static int matchEffectCloser(String text, int start) {
+    if (start >= text.length()) {
+      return -1;
+    }
+
+    if (EFFECT_SINGLE_CLOSERS.indexOf(text.charAt(start)) != -1) {
+      return start + 1;
+    }
+
+    if (text.startsWith("??", start) || text.startsWith("}}", start)) {
+      return start + 2;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Matches a tag parameter followed by '}', like the language of a code block or a color.
+   * @param start Position after the tag name
+   * @param extraChars Characters allowed besides the word and space characters
+   * @return Position after the tag or -1 if the tag doesn't match
+   */
+  private static int matchTagParameter(String text, int start, String extraChars) {
+    int end = skipAllowed(text, start, extraChars);
+
+    if (end > start && end < text.length() && text.charAt(end) == '}') {
+      return end + 1;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Matches the enclosed text, made of the allowed characters only, and the closing tag, and keeps
+   * the enclosed text.
+   * @param contentStart Position after the opening tag or -1 if the opening tag doesn't match
+   * @param extraChars Characters allowed besides the word and space characters
+   * @param closingTag Closing tag
+   * @return Position after the closing tag or -1 if the markup doesn't match
+   */
+  private static int matchEnclosed(String text, int contentStart, String extraChars,
+      String closingTag, StringBuilder output) {
+    if (contentStart == -1) {
+      return -1;
+    }
+
+    int contentEnd = skipAllowed(text, contentStart, extraChars);
+
+    if (contentEnd == contentStart || !text.startsWith(closingTag, contentEnd)) {
+      return -1;
+    }
+
+    output.append(text, contentStart, contentEnd);
+    return contentEnd + closingTag.length();
+  }
+
+  /**
+   * Returns the position of the first character, from the start, that isn't a word or space
+   * character or one of the extra characters.
+   */
+  private static int skipAllowed(String text, int start, String extraChars) {
+    int i = start;
+
+    while (i < text.length()
+        && (isWordOrSpace(text.charAt(i)) || extraChars.indexOf(text.charAt(i)) != -1)) {
+      i++;
+    }
+
+    return i;
+  }
+
+  private static boolean isWordChar(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+  }
+
+  private static boolean isWordOrSpace(char c) {
+    return isWordChar(c) || c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f'
+        || c == '\r';
+  }
+
+  /**
+   * Same as the regular expression '.', any character but the line terminators.
+   */
+  private static boolean isAnyChar(char c) {
+    return !isLineTerminator(c);
+  }
+
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+
+  /**
+   * Rule applied over the whole text, from left to right. Each match is replaced by the text the
+   * rule keeps, and the scan goes on after the match, the same way a regular expression replaces
+   * all of its matches.
+   */
+  private abstract static class Rule {
+
+    /**
+     * Characters a markup of the rule may start with.
+     */
+    private final String startChars;
+
+    Rule(String startChars) {
+      this.startChars = startChars;
+    }
+
+    /**
+     * Matches the markup on the given position.
+     * @param text Text
+     * @param start Position of a character the markup may start with
+     * @param output Builder to append the text kept from the markup
+     * @return Position after the markup, or -1 if there is no markup on the position
+     */
+    abstract int match(String text, int start, StringBuilder output);
+
+    /**
+     * Applies the rule.
+     * @param text Text
+     * @return Text with the markup replaced, or the same text if there is no markup
+     */
+    String apply(String text) {
+      StringBuilder output = null;
+      boolean matched = false;
+      int copied = 0;
+      int i = 0;
+
+      while (i < text.length()) {
+        if (startChars.indexOf(text.charAt(i)) == -1) {
+          i++;
+          continue;
+        }
+
+        if (output == null) {
+          output = new StringBuilder(text.length());
+        }
+
+        output.append(text, copied, i);
+        copied = i;
+
+        int mark = output.length();
+        int end = match(text, i, output);
+
+        if (end == -1) {
+          output.setLength(mark);
+          i++;
+        } else {
+          matched = true;
+          copied = end;
+          i = end;
+        }
+      }
+
+      if (!matched) {
+        return text;
+      }
+
+      return output.append(text, copied, text.length()).toString();
+    }
+  }
+
+  /**
+   * Rule for the markups enclosing only the allowed characters, like quotes, links and mailto.
+   */
+  private static class EnclosingRule extends Rule {
+
+    private final String openingTag;
+
+    private final String extraChars;
+
+    private final String closingTag;
+
+    EnclosingRule(String openingTag, String extraChars, String closingTag) {
+      super(openingTag.substring(0, 1));
+      this.openingTag = openingTag;
+      this.extraChars = extraChars;
+      this.closingTag = closingTag;
+    }
+
+    @Override
+    int match(String text, int start, StringBuilder output) {
+      if (!text.startsWith(openingTag, start)) {
+        return -1;
+      }
+
+      return matchEnclosed(text, start + openingTag.length(), extraChars, closingTag, output);
+    }
+  }
+
+  /**
+   * Rule for the markups whose closing tag must be in the same line, like code and noformat.
+   */
+  private abstract static class LineRule extends Rule {
+
+    /**
+     * End of the line known to have no closing tag. The rule scans the text from left to right,
+     * so the searches starting before it don't need to run again.
+     */
+    private int missUntil = -1;
+
+    LineRule(String startChars) {
+      super(startChars);
+    }
+
+    /**
+     * Matches the text up to the first closing tag in the same line, and keeps the text.
+     * @param contentStart Position after the opening tag or -1 if the opening tag doesn't match
+     * @param closingTag Closing tag
+     * @param minLength Minimum length of the enclosed text
+     * @return Position after the closing tag or -1 if the markup doesn't match
+     */
+    int matchInLine(String text, int contentStart, String closingTag, int minLength,
+        StringBuilder output) {
+      if (contentStart == -1 || contentStart < missUntil) {
+        return -1;
+      }
+
+      int i = contentStart;
+
+      while (i < text.length() && !isLineTerminator(text.charAt(i))) {
+        if (i >= contentStart + minLength && text.startsWith(closingTag, i)) {
+          output.append(text, contentStart, i);
+          return i + closingTag.length();
+        }
+
+        i++;
+      }
+
+      missUntil = i;
+      return -1;
+    }
+  }
+
+}
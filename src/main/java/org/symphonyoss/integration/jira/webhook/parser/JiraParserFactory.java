@@ -23,7 +23,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.symphonyoss.integration.json.JsonUtils;
 import org.symphonyoss.integration.model.config.IntegrationSettings;
 import org.symphonyoss.integration.webhook.WebHookPayload;
 import org.symphonyoss.integration.webhook.parser.WebHookParser;
@@ -49,6 +48,9 @@ public abstract class JiraParserFactory implements WebHookParserFactory {
   @Autowired
   private NullJiraParser defaultJiraParser;
 
+  @Autowired
+  private JiraEventFilterRegistry filterRegistry;
+
   /**
    * Map the event type to the parser.
    */
@@ -64,7 +66,7 @@ public abstract class JiraParserFactory implements WebHookParserFactory {
 
   /**
    * Update the integration username on each parser class. This process is required to know which user
-   * must be used to query the Symphony API's.
+   * must be used to query the Symphony API's. The filter rules are compiled again as well.
    * @param settings Integration settings
    */
   @Override
@@ -74,24 +76,79 @@ public abstract class JiraParserFactory implements WebHookParserFactory {
     for (JiraParser parser : getBeans()) {
       parser.setIntegrationUser(jiraUser);
     }
+
+    if (filterRegistry != null) {
+      filterRegistry.onConfigChange();
+    }
   }
 
+  /**
+   * Get the parser based on the event received from JIRA. Only the event type is read to select
+   * the parser, the events not supported are skipped before building the JSON tree. The parser
+   * builds the JSON tree through the {@link JiraEventContext}.
+   * @param payload Webhook payload
+   * @return Parser to handle the event
+   */
   @Override
   public WebHookParser getParser(WebHookPayload payload) {
     try {
-      JsonNode rootNode = JsonUtils.readTree(payload.getBody());
-      JiraParser parser = getParser(rootNode);
-
-      if (parser == null) {
-        parser = defaultJiraParser;
-      }
-
-      return new JiraWebHookParserAdapter(parser);
+      return getParser(JiraEventTypeSniffer.sniff(payload));
     } catch (IOException e) {
       throw new JiraParserException("Cannot retrieve the payload event", e);
     }
   }
 
+  /**
+   * Get the parser based on the event context built when the event was received, so the payload
+   * body isn't read again to select the parser.
+   * @param context Event context
+   * @return Parser to handle the event
+   */
+  public WebHookParser getParser(JiraEventContext context) {
+    if (context.getWebHookEvent() == null) {
+      // the payload body couldn't be read when the event was received
+      return getParser(context.getPayload());
+    }
+
+    JiraParser parser = getParser(context.getWebHookEvent(), context.getEventTypeName());
+
+    if (parser == null) {
+      return defaultJiraParser;
+    }
+
+    return new JiraWebHookParserAdapter(parser, context);
+  }
+
+  /**
+   * Checks the event against the filter rules of the integration instance. The rules are checked
+   * against the attributes read when the event was received, so the events filtered out are never
+   * parsed.
+   * @param instanceId Configuration instance identifier
+   * @param context Event context
+   * @return true if the event should be handled, false if it's filtered out
+   */
+  public boolean isEventAccepted(String instanceId, JiraEventContext context) {
+    if (filterRegistry == null) {
+      return true;
+    }
+
+    JiraEventFilter filter = filterRegistry.getFilter(instanceId);
+
+    if (filter.isAcceptAll() || context.getAttributes() == null) {
+      // the failure to read the attributes is reported by the parser
+      return true;
+    }
+
+    if (filter.accept(context.getAttributes())) {
+      return true;
+    }
+
+    filterRegistry.countFiltered();
+    LOGGER.debug("Event filtered out for the instance {}", instanceId);
+
+    return false;
+  }
+
   /**
    * Get the parser class based on the event received from JIRA.
    *
@@ -104,6 +161,16 @@ public abstract class JiraParserFactory implements WebHookParserFactory {
     String webHookEvent = node.path(WEBHOOK_EVENT).asText();
     String eventTypeName = node.path(ISSUE_EVENT_TYPE_NAME).asText();
 
+    return getParser(webHookEvent, eventTypeName);
+  }
+
+  /**
+   * Get the parser class based on the 'webhookEvent' and 'issue_event_type_name' fields.
+   * @param webHookEvent Webhook event
+   * @param eventTypeName Issue event type name
+   * @return Parser class to handle the event or null if the event is not supported
+   */
+  public JiraParser getParser(String webHookEvent, String eventTypeName) {
     JiraParser result = parsers.get(eventTypeName);
 
     if (result == null) {
@@ -0,0 +1,208 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.lang3.StringUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+/**
+ * Set of JSON paths a parser reads from the JIRA payload.
+ *
+ * The payload is read by the streaming parser and only the projected fields are materialized in
+ * the JSON tree, so the custom fields, rendered fields and the other fields not used to render the
+ * message are never kept in memory. A projected path keeps the whole subtree under it. Arrays in
+ * the middle of a path have the projection applied to each element.
+ *
+ * The paths are usually taken from the metadata file of the parser (the 'value' attribute of each
+ * 'field' element) plus the paths read while pre-processing the input data.
+ */
+public class JiraPayloadProjection {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final JsonNodeFactory NODE_FACTORY = JsonNodeFactory.instance;
+
+  private static final String PATH_SEPARATOR = ".";
+
+  private static final String FIELD_ELEMENT = "field";
+
+  private static final String VALUE_ATTRIBUTE = "value";
+
+  private final PathNode root = new PathNode();
+
+  /**
+   * Includes the path and the whole subtree under it.
+   * @param path Path separated by dots, e.g. 'issue.fields.summary'
+   * @return This projection
+   */
+  public JiraPayloadProjection include(String path) {
+    PathNode node = root;
+
+    for (String name : StringUtils.split(path, PATH_SEPARATOR)) {
+      if (node.whole) {
+        return this;
+      }
+
+      node = node.child(name);
+    }
+
+    if (node != root) {
+      node.whole = true;
+      node.children.clear();
+    }
+
+    return this;
+  }
+
+  /**
+   * Includes the paths read by the metadata file.
+   * @param metadata Metadata file content
+   * @return This projection
+   * @throws IOException Failure to read the metadata file
+   */
+  public JiraPayloadProjection includeMetadata(InputStream metadata) throws IOException {
+    try {
+      DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+      factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+
+      DocumentBuilder builder = factory.newDocumentBuilder();
+      Document document = builder.parse(metadata);
+
+      NodeList fields = document.getElementsByTagName(FIELD_ELEMENT);
+      for (int i = 0; i < fields.getLength(); i++) {
+        String path = ((Element) fields.item(i)).getAttribute(VALUE_ATTRIBUTE);
+
+        if (StringUtils.isNotEmpty(path)) {
+          include(path);
+        }
+      }
+
+      return this;
+    } catch (ParserConfigurationException | SAXException e) {
+      throw new IOException("Cannot read the metadata file", e);
+    }
+  }
+
+  /**
+   * Reads the projected fields of the payload body. If the body isn't a JSON object, it's read
+   * entirely.
+   * @param body Payload body
+   * @return JSON tree with the projected fields only
+   * @throws IOException Failure to read the payload body
+   */
+  public JsonNode read(String body) throws IOException {
+    JsonParser parser = MAPPER.getFactory().createParser(body);
+
+    try {
+      JsonToken token = parser.nextToken();
+
+      if (token != JsonToken.START_OBJECT) {
+        return MAPPER.readTree(body);
+      }
+
+      return readObject(parser, root);
+    } finally {
+      parser.close();
+    }
+  }
+
+  private ObjectNode readObject(JsonParser parser, PathNode projection) throws IOException {
+    ObjectNode result = NODE_FACTORY.objectNode();
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      PathNode child = projection.children.get(name);
+
+      if (child == null) {
+        parser.skipChildren();
+      } else {
+        result.set(name, readValue(parser, token, child));
+      }
+    }
+
+    return result;
+  }
+
+  private ArrayNode readArray(JsonParser parser, PathNode projection) throws IOException {
+    ArrayNode result = NODE_FACTORY.arrayNode();
+
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+      result.add(readValue(parser, token, projection));
+    }
+
+    return result;
+  }
+
+  private JsonNode readValue(JsonParser parser, JsonToken token, PathNode projection)
+      throws IOException {
+    if (projection.whole || token.isScalarValue()) {
+      JsonNode value = parser.readValueAsTree();
+      return value != null ? value : NullNode.getInstance();
+    }
+
+    if (token == JsonToken.START_OBJECT) {
+      return readObject(parser, projection);
+    }
+
+    return readArray(parser, projection);
+  }
+
+  /**
+   * Node of the projected paths.
+   */
+  private static class PathNode {
+
+    private final Map<String, PathNode> children = new HashMap<>();
+
+    private boolean whole;
+
+    PathNode child(String name) {
+      PathNode node = children.get(name);
+
+      if (node == null) {
+        node = new PathNode();
+        children.put(name, node);
+      }
+
+      return node;
+    }
+  }
+
+}
@@ -0,0 +1,32 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+/**
+ * JIRA parser that reads only a known set of paths from the payload. The payload is read with the
+ * parser projection instead of building the whole JSON tree.
+ */
+public interface JiraProjectedParser extends JiraParser {
+
+  /**
+   * Retrieve the paths read by the parser.
+   * @return Payload projection or null to read the whole payload
+   */
+  JiraPayloadProjection getProjection();
+
+}
@@ -23,10 +23,22 @@ public class JiraWebHookParserAdapter implements WebHookParser {
 
   private JiraParser parser;
 
+  private JiraEventContext context;
+
   public JiraWebHookParserAdapter(JiraParser parser) {
     this.parser = parser;
   }
 
+  /**
+   * Builds the adapter reusing the event context used to select the parser.
+   * @param parser JIRA parser
+   * @param context Event context built when the event was received
+   */
+  public JiraWebHookParserAdapter(JiraParser parser, JiraEventContext context) {
+    this.parser = parser;
+    this.context = context;
+  }
+
   @Override
   public List<String> getEvents() {
     return parser.getEvents();
@@ -35,7 +47,7 @@ public class JiraWebHookParserAdapter implements WebHookParser {
   @Override
   public Message parse(WebHookPayload payload) throws WebHookParseException {
     try {
-      JsonNode rootNode = JsonUtils.readTree(payload.getBody());
+      JsonNode rootNode = getRootNode(payload);
       Map<String, String> parameters = payload.getParameters();
 
       return parser.parse(parameters, rootNode);
@@ -45,4 +57,37 @@ public class JiraWebHookParserAdapter implements WebHookParser {
     }
   }
 
+  /**
+   * Returns the JSON tree of the event context built for the same payload, if any. The context
+   * holds a single event, so it's released after the first use. When the parser has a projection,
+   * only the fields it reads are materialized.
+   * @param payload Webhook payload
+   * @return JSON tree of the payload body
+   * @throws IOException Failure to read the payload body
+   */
+  private JsonNode getRootNode(WebHookPayload payload) throws IOException {
+    JiraEventContext eventContext = this.context;
+    this.context = null;
+
+    JiraPayloadProjection projection = getProjection();
+
+    if (eventContext != null && eventContext.getPayload() == payload) {
+      return eventContext.getNode(projection);
+    }
+
+    if (projection != null) {
+      return projection.read(payload.getBody());
+    }
+
+    return JsonUtils.readTree(payload.getBody());
+  }
+
+  private JiraPayloadProjection getProjection() {
+    if (parser instanceof JiraProjectedParser) {
+      return ((JiraProjectedParser) parser).getProjection();
+    }
+
+    return null;
+  }
+
 }
@@ -19,17 +19,24 @@ package org.symphonyoss.integration.jira.webhook.parser;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.stereotype.Component;
 import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+import org.symphonyoss.integration.webhook.exception.WebHookParseException;
+import org.symphonyoss.integration.webhook.parser.WebHookParser;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Parser to skip incoming requests from JIRA
+ * Parser to skip incoming requests from JIRA.
+ *
+ * It's also returned directly by {@link JiraParserFactory} as {@link WebHookParser} for the events
+ * not supported, so the payload body of those events is never read into a JSON tree.
+ *
  * Created by rsanchez on 28/07/16.
  */
 @Component
-public class NullJiraParser implements JiraParser {
+public class NullJiraParser implements JiraParser, WebHookParser {
 
   @Override
   public List<String> getEvents() {
@@ -46,4 +53,9 @@ public class NullJiraParser implements JiraParser {
     return null;
   }
 
+  @Override
+  public Message parse(WebHookPayload payload) throws WebHookParseException {
+    return null;
+  }
+
 }
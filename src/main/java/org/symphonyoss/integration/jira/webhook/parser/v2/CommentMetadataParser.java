@@ -19,16 +19,15 @@ package org.symphonyoss.integration.jira.webhook.parser.v2;
 import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_COMMENT_ADDED;
 import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_COMMENT_DELETED;
 import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_COMMENT_UPDATED;
-import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.WEBHOOK_EVENT;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ACTION_ENTITY_FIELD;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.BODY_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.COMMENT_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.VISIBILITY_PATH;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.jira.webhook.model.JiraComment;
+import org.symphonyoss.integration.jira.webhook.model.JiraEvent;
+import org.symphonyoss.integration.jira.webhook.model.JiraUser;
 import org.symphonyoss.integration.jira.webhook.parser.JiraParserException;
 import org.symphonyoss.integration.model.message.Message;
 import org.symphonyoss.integration.model.yaml.IntegrationProperties;
@@ -87,40 +86,53 @@ public class CommentMetadataParser extends JiraMetadataParser {
   }
 
   @Override
-  protected void preProcessInputData(JsonNode input) {
-    super.preProcessInputData(input);
-    processCommentAction(input);
-    processCommentBody(input);
+  protected void preProcessInputData(JiraInputData input, JiraEvent event,
+      JiraUserDirectory users) {
+    super.preProcessInputData(input, event, users);
+    processComment(input, event, users);
   }
 
-  /**
-   * This method adds an action field to the metadata json with a text indicating the performed
-   * comment action (add, edit, delete)
-   * @param input The root json node
-   */
-  private void processCommentAction(JsonNode input) {
-    String webHookEvent = input.path(WEBHOOK_EVENT).asText();
-    ObjectNode commentNode = (ObjectNode) input.with(COMMENT_PATH);
-    if (commentNode != null) {
-      commentNode.put(ACTION_ENTITY_FIELD, actions.get(webHookEvent));
+  @Override
+  protected List<String> getProjectedPaths() {
+    List<String> paths = super.getProjectedPaths();
+    paths.add(COMMENT_PATH);
+    return paths;
+  }
+
+  @Override
+  protected List<String> getTextFields(JiraEvent event) {
+    List<String> textFields = super.getTextFields(event);
+
+    JiraComment comment = event.getComment();
+    if (comment != null) {
+      textFields.add(truncateTextContent(comment.getBody()));
     }
+
+    return textFields;
+  }
+
+  @Override
+  public String getAction(JiraEvent event) {
+    return actions.get(event.getWebhookEvent());
   }
 
   /**
-   * This searches through the comment body and replaces
-   * @param input
+   * This method adds the comment to the input data, with the formatted comment body and a text
+   * indicating the performed comment action (add, edit, delete)
+   * @param input Input data
+   * @param event JIRA event
+   * @param users Symphony users required by the event
    */
-  private void processCommentBody(JsonNode input) {
-    ObjectNode commentNode = getCommentNode(input);
+  private void processComment(JiraInputData input, JiraEvent event, JiraUserDirectory users) {
+    JiraComment comment = event.getComment();
+    String body = comment != null ? comment.getBody() : null;
+    JiraUser author = comment != null ? comment.getUpdateAuthor() : null;
 
-    if (commentNode != null) {
-      String comment = formatTextContent(commentNode.path(BODY_PATH).asText(), true).toString();
-      commentNode.put(BODY_PATH, comment);
-    }
-  }
+    JiraInputData.UserData updateAuthor = author != null
+        ? new JiraInputData.UserData(author.getEmailAddress(), author.getDisplayName()) : null;
 
-  private ObjectNode getCommentNode(JsonNode input) {
-    return input.hasNonNull(COMMENT_PATH) ? (ObjectNode) input.path(COMMENT_PATH) : null;
+    input.setComment(new JiraInputData.Comment(formatLongTextContent(body, event, users),
+        getAction(event), updateAuthor));
   }
 
   /**
@@ -18,14 +18,10 @@ package org.symphonyoss.integration.jira.webhook.parser.v2;
 
 import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_ISSUE_CREATED;
 import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_ISSUE_UPDATED;
-import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.WEBHOOK_EVENT;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ACTION_ENTITY_FIELD;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ISSUE_PATH;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.jira.webhook.model.JiraEvent;
 import org.symphonyoss.integration.model.yaml.IntegrationProperties;
 import org.symphonyoss.integration.service.UserService;
 
@@ -73,19 +69,24 @@ public class IssueStateMetadataParser extends JiraMetadataParser {
   }
 
   @Override
-  protected void preProcessInputData(JsonNode input) {
-    super.preProcessInputData(input);
-    processIssueAction(input);
+  protected void preProcessInputData(JiraInputData input, JiraEvent event,
+      JiraUserDirectory users) {
+    super.preProcessInputData(input, event, users);
+    processIssueAction(input, event);
+  }
+
+  @Override
+  public String getAction(JiraEvent event) {
+    return actions.get(event.getWebhookEvent());
   }
 
   /**
    * This method adds an action field to the metadata json with a text indicating the performed
    * action (create, update)
-   * @param input The root json node
+   * @param input Input data
+   * @param event JIRA event
    */
-  private void processIssueAction(JsonNode input) {
-    String webHookEvent = input.path(WEBHOOK_EVENT).asText();
-    ObjectNode issueNode = (ObjectNode) input.with(ISSUE_PATH);
-    issueNode.put(ACTION_ENTITY_FIELD, actions.get(webHookEvent));
+  private void processIssueAction(JiraInputData input, JiraEvent event) {
+    input.getIssue().setAction(getAction(event));
   }
 }
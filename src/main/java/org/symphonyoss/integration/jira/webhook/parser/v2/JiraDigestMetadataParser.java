@@ -0,0 +1,280 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import static org.symphonyoss.integration.entity.model.EntityConstants.USER_ID;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ACCENT_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ACTION_ENTITY_FIELD;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.BASE_URL;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.DISPLAY_NAME_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.EMAIL_ADDRESS_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ICON_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.KEY_ENTITY_FIELD;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.STATUS_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.SUBJECT_ENTITY_FIELD;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.TOKEN_COLOR_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.URL_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.USERNAME_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.USER_ENTITY_FIELD;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.entity.model.User;
+import org.symphonyoss.integration.jira.webhook.model.JiraDigest;
+import org.symphonyoss.integration.jira.webhook.model.JiraEvent;
+import org.symphonyoss.integration.jira.webhook.model.JiraIssueFields;
+import org.symphonyoss.integration.jira.webhook.model.JiraUser;
+import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.model.yaml.IntegrationProperties;
+import org.symphonyoss.integration.parser.ParserUtils;
+import org.symphonyoss.integration.service.UserService;
+import org.symphonyoss.integration.webhook.parser.metadata.EntityObject;
+import org.symphonyoss.integration.webhook.parser.metadata.MetadataParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders the digest of the issue events received by an integration instance during a window
+ * (see {@link org.symphonyoss.integration.jira.webhook.JiraEventDigest}) as a single message.
+ *
+ * The issues are listed with the current summary, status and accent, followed by the actions
+ * performed on them. The users that performed the actions are looked up once for the whole digest.
+ */
+@Component
+public class JiraDigestMetadataParser extends MetadataParser {
+
+  private static final String METADATA_FILE = "metadataIssueDigest.xml";
+
+  private static final String TEMPLATE_FILE = "templateIssueDigest.xml";
+
+  private static final String INTEGRATION_NAME = "jira";
+
+  private static final String IMG_SUBPATH = "img";
+
+  private static final String JIRA_LOGO_PNG = "jira_logo_rounded.png";
+
+  private static final String ISSUE_TYPE = "com.symphony.integration.jira.issue";
+
+  private static final String ACTION_TYPE = "com.symphony.integration.jira.action";
+
+  private static final String USER_TYPE = "com.symphony.integration.user";
+
+  private static final String EVENT_COUNT_PATH = "eventCount";
+
+  private static final String ISSUE_COUNT_PATH = "issueCount";
+
+  private static final String ISSUES_ENTITY_FIELD = "issues";
+
+  private static final String ACTIONS_ENTITY_FIELD = "actions";
+
+  private static final JiraUserResolver DEFAULT_USER_RESOLVER = new JiraUserResolver();
+
+  private final UserService userService;
+
+  private final IntegrationProperties integrationProperties;
+
+  @Autowired
+  private JiraUserResolver userResolver;
+
+  @Autowired
+  public JiraDigestMetadataParser(UserService userService,
+      IntegrationProperties integrationProperties) {
+    this.userService = userService;
+    this.integrationProperties = integrationProperties;
+  }
+
+  @Override
+  protected String getTemplateFile() {
+    return TEMPLATE_FILE;
+  }
+
+  @Override
+  protected String getMetadataFile() {
+    return METADATA_FILE;
+  }
+
+  /**
+   * Renders the digest.
+   * @param digest Events received during the window
+   * @param integrationUser Integration username
+   * @return Message to be posted
+   */
+  public Message parse(JiraDigest digest, String integrationUser) {
+    JiraUserResolver resolver = userResolver != null ? userResolver : DEFAULT_USER_RESOLVER;
+
+    for (JiraUser user : digest.getUsers()) {
+      resolver.register(user);
+    }
+
+    JiraUserDirectory users = resolver.resolve(userService, integrationUser,
+        digest.getEmailAddresses(), Collections.<String>emptyList());
+
+    ObjectNode input = JsonNodeFactory.instance.objectNode();
+    input.put(EVENT_COUNT_PATH, digest.getEventCount());
+    input.put(ISSUE_COUNT_PATH, digest.getIssues().size());
+    input.with(ICON_PATH).put(URL_PATH, getIconUrl());
+
+    if (!digest.getIssues().isEmpty()) {
+      input.put(BASE_URL, digest.getIssues().get(0).getLatestEvent().getBaseUrl());
+    }
+
+    ArrayNode issues = input.putArray(ISSUES_ENTITY_FIELD);
+
+    for (JiraDigest.Issue issue : digest.getIssues()) {
+      issues.add(buildIssue(issue, users));
+    }
+
+    return parse(input);
+  }
+
+  @Override
+  protected void preProcessInputData(JsonNode input) {
+    // the input is built from the digest
+  }
+
+  /**
+   * Adds the issues to the entity, since the metadata file doesn't support lists.
+   */
+  @Override
+  protected void postProcessOutputData(EntityObject output, JsonNode input) {
+    List<EntityObject> issues = new ArrayList<>();
+
+    for (JsonNode issue : input.path(ISSUES_ENTITY_FIELD)) {
+      EntityObject issueObject = buildEntity(ISSUE_TYPE, issue);
+
+      List<EntityObject> actions = new ArrayList<>();
+
+      for (JsonNode action : issue.path(ACTIONS_ENTITY_FIELD)) {
+        EntityObject actionObject = buildEntity(ACTION_TYPE, action);
+
+        if (action.has(USER_ENTITY_FIELD)) {
+          actionObject.addContent(USER_ENTITY_FIELD,
+              buildEntity(USER_TYPE, action.path(USER_ENTITY_FIELD)));
+        }
+
+        actions.add(actionObject);
+      }
+
+      issueObject.addContent(ACTIONS_ENTITY_FIELD, actions);
+      issues.add(issueObject);
+    }
+
+    output.addContent(ISSUES_ENTITY_FIELD, issues);
+  }
+
+  /**
+   * Builds an entity object with the text fields of the node.
+   */
+  private EntityObject buildEntity(String type, JsonNode node) {
+    EntityObject entity = new EntityObject(type, getVersion());
+
+    Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+
+      if (field.getValue().isValueNode()) {
+        entity.addContent(field.getKey(), field.getValue().asText());
+      }
+    }
+
+    return entity;
+  }
+
+  /**
+   * Builds the issue with the current summary, status and accent, and the actions performed on
+   * it. The text fields are escaped.
+   */
+  private ObjectNode buildIssue(JiraDigest.Issue issue, JiraUserDirectory users) {
+    JiraEvent event = issue.getLatestEvent();
+    JiraIssueFields fields = event.getIssue().getFields();
+
+    ObjectNode issueNode = JsonNodeFactory.instance.objectNode();
+    issueNode.put(KEY_ENTITY_FIELD, escape(event.getIssue().getKey()));
+    issueNode.put(URL_PATH, event.getLink());
+    issueNode.put(ACCENT_PATH, event.getAccent());
+    issueNode.put(TOKEN_COLOR_PATH, event.getTokenColor());
+
+    if (fields != null) {
+      issueNode.put(SUBJECT_ENTITY_FIELD,
+          JiraTextFormatter.format(fields.getSummary(), false, users));
+
+      if (fields.getStatus() != null) {
+        issueNode.put(STATUS_PATH, escape(fields.getStatus().getDisplayName()));
+      }
+    }
+
+    ArrayNode actions = issueNode.putArray(ACTIONS_ENTITY_FIELD);
+
+    for (JiraDigest.Action action : issue.getActions()) {
+      ObjectNode actionNode = actions.addObject();
+      actionNode.put(ACTION_ENTITY_FIELD, escape(action.getName()));
+
+      if (action.getUser() != null) {
+        buildUser(actionNode.putObject(USER_ENTITY_FIELD), action.getUser(), users);
+      }
+    }
+
+    return issueNode;
+  }
+
+  /**
+   * Builds the user that performed an action, with the Symphony user details if the user was
+   * found.
+   */
+  private void buildUser(ObjectNode userNode, JiraUser jiraUser, JiraUserDirectory users) {
+    userNode.put(DISPLAY_NAME_PATH, escape(jiraUser.getDisplayName()));
+
+    User user = users.getUserByEmail(jiraUser.getEmailAddress());
+
+    if (user != null) {
+      userNode.put(USER_ID, String.valueOf(user.getId()));
+      userNode.put(EMAIL_ADDRESS_PATH, user.getEmailAddress());
+      userNode.put(USERNAME_PATH, user.getUsername());
+      userNode.put(DISPLAY_NAME_PATH, escape(user.getDisplayName()));
+    }
+  }
+
+  private String getIconUrl() {
+    String baseUrl = integrationProperties.getApplicationUrl(INTEGRATION_NAME);
+
+    if (StringUtils.isEmpty(baseUrl)) {
+      return StringUtils.EMPTY;
+    }
+
+    return String.format("%s/%s/%s", baseUrl, IMG_SUBPATH, JIRA_LOGO_PNG);
+  }
+
+  private String escape(String text) {
+    if (text == null) {
+      return StringUtils.EMPTY;
+    }
+
+    return ParserUtils.escapeAndAddLineBreaks(text).toString();
+  }
+
+}
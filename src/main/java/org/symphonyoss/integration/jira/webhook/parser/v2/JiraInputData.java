@@ -0,0 +1,407 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.List;
+
+/**
+ * Input data rendered by the JIRA metadata parsers, built from the typed JIRA event. The property
+ * names are the paths read by the metadata files, and the properties not set are left out of the
+ * JSON tree.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JiraInputData {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private String accent;
+
+  private String tokenColor;
+
+  private String baseUrl;
+
+  private Icon icon;
+
+  private UserData user;
+
+  private final Issue issue = new Issue();
+
+  private Comment comment;
+
+  /**
+   * Builds the JSON tree read by the metadata parser.
+   * @return JSON input data
+   */
+  public JsonNode toJson() {
+    return MAPPER.valueToTree(this);
+  }
+
+  public String getAccent() {
+    return accent;
+  }
+
+  public void setAccent(String accent) {
+    this.accent = accent;
+  }
+
+  public String getTokenColor() {
+    return tokenColor;
+  }
+
+  public void setTokenColor(String tokenColor) {
+    this.tokenColor = tokenColor;
+  }
+
+  public String getBaseUrl() {
+    return baseUrl;
+  }
+
+  public void setBaseUrl(String baseUrl) {
+    this.baseUrl = baseUrl;
+  }
+
+  public Icon getIcon() {
+    return icon;
+  }
+
+  public void setIcon(Icon icon) {
+    this.icon = icon;
+  }
+
+  public UserData getUser() {
+    return user;
+  }
+
+  public void setUser(UserData user) {
+    this.user = user;
+  }
+
+  public Issue getIssue() {
+    return issue;
+  }
+
+  public Comment getComment() {
+    return comment;
+  }
+
+  public void setComment(Comment comment) {
+    this.comment = comment;
+  }
+
+  /**
+   * Integration icon.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static class Icon {
+
+    private final String url;
+
+    public Icon(String url) {
+      this.url = url;
+    }
+
+    public String getUrl() {
+      return url;
+    }
+
+  }
+
+  /**
+   * JIRA user, with the details of the Symphony user when it's found.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static class UserData {
+
+    private Long id;
+
+    private String emailAddress;
+
+    private String username;
+
+    private String displayName;
+
+    public UserData(String emailAddress, String displayName) {
+      this.emailAddress = emailAddress;
+      this.displayName = displayName;
+    }
+
+    /**
+     * Replaces the JIRA user details by the Symphony user details.
+     */
+    public void setSymphonyUser(Long id, String emailAddress, String username,
+        String displayName) {
+      this.id = id;
+      this.emailAddress = emailAddress;
+      this.username = username;
+      this.displayName = displayName;
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public String getEmailAddress() {
+      return emailAddress;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public String getDisplayName() {
+      return displayName;
+    }
+
+  }
+
+  /**
+   * Issue and the action performed on it.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static class Issue {
+
+    private String key;
+
+    private String link;
+
+    private String action;
+
+    private Epic epic;
+
+    private final Fields fields = new Fields();
+
+    public String getKey() {
+      return key;
+    }
+
+    public void setKey(String key) {
+      this.key = key;
+    }
+
+    public String getLink() {
+      return link;
+    }
+
+    public void setLink(String link) {
+      this.link = link;
+    }
+
+    public String getAction() {
+      return action;
+    }
+
+    public void setAction(String action) {
+      this.action = action;
+    }
+
+    public Epic getEpic() {
+      return epic;
+    }
+
+    public void setEpic(Epic epic) {
+      this.epic = epic;
+    }
+
+    public Fields getFields() {
+      return fields;
+    }
+
+  }
+
+  /**
+   * Issue fields, already formatted.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static class Fields {
+
+    private String summary;
+
+    private String description;
+
+    private Status status;
+
+    private IconField issuetype;
+
+    private IconField priority;
+
+    private UserData assignee;
+
+    private List<String> labels;
+
+    public String getSummary() {
+      return summary;
+    }
+
+    public void setSummary(String summary) {
+      this.summary = summary;
+    }
+
+    public String getDescription() {
+      return description;
+    }
+
+    public void setDescription(String description) {
+      this.description = description;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    public void setStatus(Status status) {
+      this.status = status;
+    }
+
+    public IconField getIssuetype() {
+      return issuetype;
+    }
+
+    public void setIssuetype(IconField issuetype) {
+      this.issuetype = issuetype;
+    }
+
+    public IconField getPriority() {
+      return priority;
+    }
+
+    public void setPriority(IconField priority) {
+      this.priority = priority;
+    }
+
+    public UserData getAssignee() {
+      return assignee;
+    }
+
+    public void setAssignee(UserData assignee) {
+      this.assignee = assignee;
+    }
+
+    public List<String> getLabels() {
+      return labels;
+    }
+
+    public void setLabels(List<String> labels) {
+      this.labels = labels;
+    }
+
+  }
+
+  /**
+   * Issue status, as displayed by the renderer.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static class Status {
+
+    private final String name;
+
+    public Status(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+  }
+
+  /**
+   * Issue type or priority.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static class IconField {
+
+    private final String name;
+
+    private final String iconUrl;
+
+    public IconField(String name, String iconUrl) {
+      this.name = name;
+      this.iconUrl = iconUrl;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getIconUrl() {
+      return iconUrl;
+    }
+
+  }
+
+  /**
+   * Epic the issue was linked to by the event.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static class Epic {
+
+    private final String name;
+
+    private final String link;
+
+    public Epic(String name, String link) {
+      this.name = name;
+      this.link = link;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getLink() {
+      return link;
+    }
+
+  }
+
+  /**
+   * Issue comment and the action performed on it.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static class Comment {
+
+    private final String body;
+
+    private final String action;
+
+    private final UserData updateAuthor;
+
+    public Comment(String body, String action, UserData updateAuthor) {
+      this.body = body;
+      this.action = action;
+      this.updateAuthor = updateAuthor;
+    }
+
+    public String getBody() {
+      return body;
+    }
+
+    public String getAction() {
+      return action;
+    }
+
+    public UserData getUpdateAuthor() {
+      return updateAuthor;
+    }
+
+  }
+
+}
@@ -17,97 +17,59 @@
 package org.symphonyoss.integration.jira.webhook.parser.v2;
 
 import static org.apache.commons.lang3.StringUtils.EMPTY;
-import static org.symphonyoss.integration.entity.model.EntityConstants.USER_ID;
-import static org.symphonyoss.integration.jira.webhook.JiraColorNameConstants.BLUE;
-import static org.symphonyoss.integration.jira.webhook.JiraColorNameConstants.GREEN;
-import static org.symphonyoss.integration.jira.webhook.JiraColorNameConstants.YELLOW;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.BUG_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.CHANGE_REQUEST_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.DOCUMENTATION_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.EPIC_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.IMPROVEMENT_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants
-    .INCIDENT_SEVERITY_1_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants
-    .INCIDENT_SEVERITY_2_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants
-    .INCIDENT_SEVERITY_3_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants
-    .INCIDENT_SEVERITY_4_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.INCIDENT_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.NEW_FEATURE_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.PROBLEM_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.SPIKE_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.STORY_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.SUPPORT_ISSUE_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraIssueTypeConstants.TASK_TYPE;
-import static org.symphonyoss.integration.jira.webhook.JiraParserAccentConstants.BLUE_ACCENT;
-import static org.symphonyoss.integration.jira.webhook.JiraParserAccentConstants.GREEN_ACCENT;
-import static org.symphonyoss.integration.jira.webhook.JiraParserAccentConstants.ORANGE_ACCENT;
-import static org.symphonyoss.integration.jira.webhook.JiraParserAccentConstants.PURPLE_ACCENT;
-import static org.symphonyoss.integration.jira.webhook.JiraParserAccentConstants.RED_ACCENT;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ACCENT_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.ISSUE_EVENT_TYPE_NAME;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.WEBHOOK_EVENT;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ASSIGNEE_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.CHANGELOG_PATH;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.COLOR_NAME_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.DESCRIPTION_PATH;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.DISPLAY_NAME_PATH;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.EMAIL_ADDRESS_PATH;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.EPIC_LINK_PATH;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.EPIC_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.FIELDS_PATH;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.FIELD_PATH;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ICONURL_PATH;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ICON_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ISSUETYPE_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ISSUE_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ITEMS_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.KEY_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.LABELS_ENTITY_FIELD;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.LABELS_PATH;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.LINK_ENTITY_FIELD;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.NAME_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.PRIORITY_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.SELF_PATH;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.STATUS_CATEGORY_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.STATUS_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.SUMMARY_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.TEXT_ENTITY_FIELD;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.TOKEN_COLOR_PATH;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.TOSTRING_PATH;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.URL_PATH;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.USERNAME_PATH;
 import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.USER_PATH;
-import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.BASE_URL;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.symphonyoss.integration.entity.model.User;
-import org.symphonyoss.integration.jira.webhook.parser.JiraParser;
+import org.symphonyoss.integration.jira.webhook.model.JiraEpic;
+import org.symphonyoss.integration.jira.webhook.model.JiraEvent;
+import org.symphonyoss.integration.jira.webhook.model.JiraIconField;
+import org.symphonyoss.integration.jira.webhook.model.JiraIssue;
+import org.symphonyoss.integration.jira.webhook.model.JiraIssueFields;
+import org.symphonyoss.integration.jira.webhook.model.JiraStatus;
+import org.symphonyoss.integration.jira.webhook.model.JiraUser;
 import org.symphonyoss.integration.jira.webhook.parser.JiraParserException;
-import org.symphonyoss.integration.jira.webhook.parser.JiraParserUtils;
+import org.symphonyoss.integration.jira.webhook.parser.JiraPayloadProjection;
+import org.symphonyoss.integration.jira.webhook.parser.JiraProjectedParser;
 import org.symphonyoss.integration.model.message.Message;
 import org.symphonyoss.integration.model.yaml.IntegrationProperties;
 import org.symphonyoss.integration.parser.ParserUtils;
-import org.symphonyoss.integration.parser.SafeString;
 import org.symphonyoss.integration.service.UserService;
 import org.symphonyoss.integration.webhook.parser.metadata.EntityObject;
 import org.symphonyoss.integration.webhook.parser.metadata.MetadataParser;
 
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Abstract JIRA parser responsible to augment the JIRA input data querying the user API and
@@ -115,29 +77,63 @@ import java.util.regex.Pattern;
  *
  * Created by rsanchez on 10/04/17.
  */
-public abstract class JiraMetadataParser extends MetadataParser implements JiraParser {
+public abstract class JiraMetadataParser extends MetadataParser implements JiraProjectedParser {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JiraMetadataParser.class);
 
-  private static final Logger logger = LoggerFactory.getLogger(JiraMetadataParser.class);
-  private static final Pattern userCommentPattern = Pattern.compile("(\\[~)([\\w.]+)(])");
   private static final String LABELS_TYPE = "com.symphony.integration.jira.label";
   private static final String INTEGRATION_NAME = "jira";
   private static final String IMG_SUBPATH = "img";
   private static final String JIRA_LOGO_PNG = "jira_logo_rounded.png";
-  private static final String MENTION_MARKUP = "<mention email=\"%s\"/>";
-  public static final String BEGIN_MENTION = "[~";
-  public static final String END_MENTION = "]";
-  public static final String BASE_API_REGEX = "(\\/rest\\/api.*)";
+
+  /**
+   * Used when the parser is built outside the Spring context, runs the user lookups on the caller
+   * thread.
+   */
+  private static final JiraUserResolver DEFAULT_USER_RESOLVER = new JiraUserResolver();
+
+  private static final String METADATA_DIR = "metadata/";
+
+  private static final String TRUNCATED_TEXT = "...";
+
+  private static final String TRUNCATED_TEXT_LINK = "... <a href=\"%s\">view in JIRA</a>";
+
+  /**
+   * Paths read while pre-processing the input data, besides the ones read by the metadata file.
+   */
+  private static final String[] PROJECTED_PATHS = { WEBHOOK_EVENT, ISSUE_EVENT_TYPE_NAME,
+      USER_PATH,
+      ISSUE_PATH + "." + SELF_PATH,
+      ISSUE_PATH + "." + KEY_PATH,
+      ISSUE_PATH + "." + FIELDS_PATH + "." + SUMMARY_PATH,
+      ISSUE_PATH + "." + FIELDS_PATH + "." + DESCRIPTION_PATH,
+      ISSUE_PATH + "." + FIELDS_PATH + "." + ISSUETYPE_PATH,
+      ISSUE_PATH + "." + FIELDS_PATH + "." + PRIORITY_PATH,
+      ISSUE_PATH + "." + FIELDS_PATH + "." + STATUS_PATH,
+      ISSUE_PATH + "." + FIELDS_PATH + "." + ASSIGNEE_PATH,
+      ISSUE_PATH + "." + FIELDS_PATH + "." + LABELS_PATH,
+      CHANGELOG_PATH + "." + ITEMS_PATH };
 
   private UserService userService;
   private IntegrationProperties integrationProperties;
+
+  @Autowired
+  private JiraUserResolver userResolver;
+
+  /**
+   * Maximum length of the description and comments. Zero or negative disables the truncation.
+   */
+  @Value("${applications.jira.parser.maxTextLength:0}")
+  private Integer maxTextLength;
+
   private String integrationUser;
-  private Map<String, String> accentMap = new HashMap<>();
+
+  private volatile JiraPayloadProjection projection;
 
   @Autowired
   public JiraMetadataParser(UserService userService, IntegrationProperties integrationProperties) {
     this.userService = userService;
     this.integrationProperties = integrationProperties;
-    initializeAccentMap();
   }
 
   @Override
@@ -145,221 +141,287 @@ public abstract class JiraMetadataParser extends MetadataParser implements JiraP
     this.integrationUser = integrationUser;
   }
 
+  /**
+   * Reads the typed JIRA event, starts the Symphony user lookups, builds the input data that
+   * doesn't depend on the users while the lookups are in progress, and then waits for the users to
+   * build the remaining fields.
+   *
+   * The event is read once from the payload, which is shared by the parsers and never modified.
+   * The input data is built from the event only.
+   */
   @Override
   public Message parse(Map<String, String> parameters, JsonNode node) throws JiraParserException {
-    return parse(node);
+    JiraEvent event = readEvent(node);
+
+    JiraUserLookup userLookup = lookupUsers(event);
+
+    JiraInputData input = new JiraInputData();
+
+    processAccent(input, event);
+    processIconUrl(input);
+    processIssue(input, event);
+    processStatus(input, event);
+    processStatusColor(input, event);
+    processEpicLink(input, event);
+    processIconUrls(input, event);
+    processLabels(input, event);
+    processBaseUrl(input, event);
+
+    preProcessInputData(input, event, userLookup.join());
+
+    return parse(input.toJson());
   }
 
+  /**
+   * Returns the paths read by the metadata file and the pre-processing steps. The projection is
+   * built on the first call.
+   * @return Payload projection or null if the metadata file can't be read
+   */
   @Override
-  protected void preProcessInputData(JsonNode input) {
-    processAccent(input);
-    processIconUrl(input);
-    processIssueLink(input);
-    processSummary(input);
-    processDescription(input);
-    processStatus(input);
-    processStatusColor(input);
-    processUser(input);
-    processAssignee(input);
-    processEpicLink(input);
-    processIconUrls(input);
-    processBaseUrl(input);
-  }
-
-  private void initializeAccentMap() {
-    accentMap.put(BUG_TYPE, RED_ACCENT);
-    accentMap.put(INCIDENT_TYPE, RED_ACCENT);
-    accentMap.put(SUPPORT_ISSUE_TYPE, RED_ACCENT);
-    accentMap.put(INCIDENT_SEVERITY_1_TYPE, RED_ACCENT);
-
-    accentMap.put(EPIC_TYPE, PURPLE_ACCENT);
-    accentMap.put(INCIDENT_SEVERITY_4_TYPE, PURPLE_ACCENT);
-    accentMap.put(DOCUMENTATION_TYPE, PURPLE_ACCENT);
-
-    accentMap.put(STORY_TYPE, GREEN_ACCENT);
-    accentMap.put(NEW_FEATURE_TYPE, GREEN_ACCENT);
-    accentMap.put(IMPROVEMENT_TYPE, GREEN_ACCENT);
-    accentMap.put(CHANGE_REQUEST_TYPE, GREEN_ACCENT);
-
-    accentMap.put(SPIKE_TYPE, ORANGE_ACCENT);
-    accentMap.put(PROBLEM_TYPE, ORANGE_ACCENT);
-    accentMap.put(INCIDENT_SEVERITY_2_TYPE, ORANGE_ACCENT);
-    accentMap.put(INCIDENT_SEVERITY_3_TYPE, ORANGE_ACCENT);
-
-    accentMap.put(TASK_TYPE, BLUE_ACCENT);
-  }
-
-  /**
-   * This method puts in the Jira's payload JSON the accent according to the issue type, defined in
-   * the accentMap initialization
-   * @param input
-   */
-  private void processAccent(JsonNode input) {
-    JsonNode fieldsNode = input.path(ISSUE_PATH).path(FIELDS_PATH);
-    String issueName = fieldsNode.path(ISSUETYPE_PATH).path(NAME_PATH).asText();
-    if (StringUtils.isNotEmpty(issueName)) {
-      issueName = issueName.toLowerCase();
-
-      if (accentMap.containsKey(issueName)) {
-        ((ObjectNode) input).put(ACCENT_PATH, accentMap.get(issueName));
+  public JiraPayloadProjection getProjection() {
+    if (projection == null) {
+      synchronized (this) {
+        if (projection == null) {
+          this.projection = buildProjection();
+        }
       }
     }
+
+    return projection;
   }
 
-  /**
-   * This method parses the issue description to avoid invalid characters
-   * @param input
-   */
-  private void processSummary(JsonNode input) {
-    JsonNode fieldsNode = input.path(ISSUE_PATH).path(FIELDS_PATH);
-    JsonNode summaryNode = fieldsNode.path(SUMMARY_PATH);
+  private JiraPayloadProjection buildProjection() {
+    InputStream metadata =
+        getClass().getClassLoader().getResourceAsStream(METADATA_DIR + getMetadataFile());
+
+    if (metadata == null) {
+      return null;
+    }
+
+    try {
+      JiraPayloadProjection result = new JiraPayloadProjection().includeMetadata(metadata);
+
+      for (String path : getProjectedPaths()) {
+        result.include(path);
+      }
 
-    if (summaryNode != null) {
-      String summary = formatTextContent(summaryNode.asText(), false);
-      ((ObjectNode) fieldsNode).put(SUMMARY_PATH, summary.toString());
+      return result;
+    } catch (IOException e) {
+      LOGGER.warn("Cannot build the payload projection from " + getMetadataFile(), e);
+      return null;
+    } finally {
+      IOUtils.closeQuietly(metadata);
     }
   }
 
   /**
-   * Retrieve the jira logo absolute path to be used in the template sponsor container
-   * @param input root json node
+   * Returns the paths read while pre-processing the input data.
+   * @return Paths separated by dots
    */
-  private void processIconUrl(JsonNode input) {
-    String baseUrl = integrationProperties.getApplicationUrl(INTEGRATION_NAME);
-    String iconUrl = StringUtils.EMPTY;
+  protected List<String> getProjectedPaths() {
+    return new ArrayList<>(Arrays.asList(PROJECTED_PATHS));
+  }
 
-    if (!StringUtils.isEmpty(baseUrl)) {
-      String urlFormat = "%s/%s/%s";
-      iconUrl = String.format(urlFormat, baseUrl, IMG_SUBPATH, JIRA_LOGO_PNG);
-    }
+  /**
+   * The input data is built from the JIRA event by {@link #parse(Map, JsonNode)}.
+   */
+  @Override
+  protected void preProcessInputData(JsonNode input) {
+    // the input data is already built
+  }
 
-    ObjectNode iconNode = (ObjectNode) input.with(ICON_PATH);
-    iconNode.put(URL_PATH, iconUrl);
+  /**
+   * Builds the fields that depend on the Symphony users already looked up.
+   * @param input Input data
+   * @param event JIRA event
+   * @param users Symphony users required by the event
+   */
+  protected void preProcessInputData(JiraInputData input, JiraEvent event,
+      JiraUserDirectory users) {
+    processSummary(input, event, users);
+    processDescription(input, event, users);
+    processUser(input, event, users);
+    processAssignee(input, event, users);
   }
 
-  @Override
-  protected void postProcessOutputData(EntityObject output, JsonNode input) {
-    includeLabels(output, input);
+  private JiraEvent readEvent(JsonNode node) {
+    try {
+      return JiraEvent.read(node);
+    } catch (JsonProcessingException e) {
+      throw new JiraParserException("Cannot read the JIRA event", e);
+    }
   }
 
   /**
-   * This method change the issue status to uppercase.
-   * @param input JSON input payload
+   * Collects the email addresses and usernames required by the event and starts looking them up
+   * at once.
+   * @param event JIRA event
+   * @return Pending lookups
    */
-  private void processStatus(JsonNode input) {
-    JsonNode statusNode = getStatusNode(input);
+  private JiraUserLookup lookupUsers(JiraEvent event) {
+    Set<String> emails = new LinkedHashSet<>();
+
+    if (event.getUser() != null) {
+      addEmailAddress(event.getUser(), emails);
+    }
+
+    JiraUser assignee = getAssignee(event);
+    if (assignee != null) {
+      addEmailAddress(assignee, emails);
+    }
 
-    String issueStatus = statusNode.path(NAME_PATH).asText(EMPTY);
+    Set<String> userNames = new LinkedHashSet<>();
 
-    if (StringUtils.isNotEmpty(issueStatus)) {
-      ((ObjectNode) statusNode).put(NAME_PATH, issueStatus.toUpperCase());
+    for (String textField : getTextFields(event)) {
+      JiraTextFormatter.findMentions(textField, userNames);
     }
+
+    return getUserResolver().lookup(userService, integrationUser, emails, userNames);
   }
 
-  /**
-   * JIRA's payload categorizes the issues according to three parent categories:<br/>
-   * <ul>
-   * <li>To Do</li>
-   * <li>In Progress</li>
-   * <li>Done</li>
-   * </ul>
-   *
-   * And each one has an associated color, given by the value of
-   * issue/status/statusCategory/colorName in JIRA's payload:
-   * <ul>
-   * <li>To Do: blue(blue-gray in the payload)</li>
-   * <li>In Progress: yellow</li>
-   * <li>Done: green</li>
-   * </ul>
-   * <br/><br/>
-   * @param input the root node
-   * @see
-   * <a href="https://confluence.atlassian.com/adminjiracloud/defining-status-field-values-776636353.html">
-   * Defining JIRA's status fields values</a>
-   */
-  private void processStatusColor(JsonNode input) {
-    JsonNode statusCategory = getStatusNode(input).path(STATUS_CATEGORY_PATH);
-    String colorName = statusCategory.path(COLOR_NAME_PATH).asText();
-
-    String token;
-    switch (colorName) {
-      case BLUE:
-        token = "blue";
-        break;
-      case YELLOW:
-        token = "yellow";
-        break;
-      case GREEN:
-        token = "green";
-        break;
-      default:
-        token = "gray";
+  private void addEmailAddress(JiraUser user, Set<String> emails) {
+    if (StringUtils.isNotEmpty(user.getEmailAddress())) {
+      emails.add(user.getEmailAddress());
+      getUserResolver().register(user);
     }
+  }
+
+  private JiraUserResolver getUserResolver() {
+    return userResolver != null ? userResolver : DEFAULT_USER_RESOLVER;
+  }
 
-    ((ObjectNode) input).put(TOKEN_COLOR_PATH, token);
+  /**
+   * Returns the action performed by the event, as displayed to the users.
+   * @param event JIRA event
+   * @return Action name or null if the parser doesn't display an action
+   */
+  public String getAction(JiraEvent event) {
+    return null;
   }
 
-  private JsonNode getStatusNode(JsonNode input) {
-    return input.path(ISSUE_PATH).path(FIELDS_PATH).path(STATUS_PATH);
+  /**
+   * Returns the issue fields of the event.
+   * @param event JIRA event
+   * @return Issue fields or null if the event has no issue fields
+   */
+  protected JiraIssueFields getFields(JiraEvent event) {
+    JiraIssue issue = event.getIssue();
+    return issue != null ? issue.getFields() : null;
   }
 
   /**
-   * Retrieves the issue link from JIRA payload and creates a new field named 'link'.
-   * @param input JSON input data
+   * Returns the issue assignee, if the issue is assigned.
+   */
+  private JiraUser getAssignee(JiraEvent event) {
+    JiraIssueFields fields = getFields(event);
+    JiraUser assignee = fields != null ? fields.getAssignee() : null;
+
+    if (assignee != null && StringUtils.isNotEmpty(assignee.getDisplayName())) {
+      return assignee;
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns the text fields that may mention users. The mentioned users are looked up before the
+   * fields are formatted.
+   * @param event JIRA event
+   * @return Issue summary and description, truncated to the maximum length
    */
-  private void processIssueLink(JsonNode input) {
-    ObjectNode issueNode = (ObjectNode) input.path(ISSUE_PATH);
+  protected List<String> getTextFields(JiraEvent event) {
+    JiraIssueFields fields = getFields(event);
 
-    String linkedIssueField = getLinkedIssueField(issueNode);
+    List<String> textFields = new ArrayList<>();
 
-    issueNode.put(LINK_ENTITY_FIELD, linkedIssueField);
+    if (fields != null) {
+      textFields.add(fields.getSummary());
+      textFields.add(truncateTextContent(fields.getDescription()));
+    }
+
+    return textFields;
   }
 
   /**
-   * Return the URL from JIRA payload
-   * @param issueNode the issue node of a JIRA payload
-   * @return
+   * This method puts in the input data the accent according to the issue type.
+   * @param input Input data
+   * @param event JIRA event
    */
-  protected String getLinkedIssueField(JsonNode issueNode) {
-    String selfPath = issueNode.path(SELF_PATH).asText();
-    String issueKey = issueNode.path(KEY_PATH).asText();
+  private void processAccent(JiraInputData input, JiraEvent event) {
+    input.setAccent(event.getAccent());
+  }
 
-    return getLinkedIssueField(selfPath, issueKey);
+  /**
+   * This method parses the issue summary to avoid invalid characters
+   * @param input Input data
+   * @param event JIRA event
+   * @param users Symphony users required by the event
+   */
+  private void processSummary(JiraInputData input, JiraEvent event, JiraUserDirectory users) {
+    JiraIssueFields fields = getFields(event);
+    String summary = fields != null ? fields.getSummary() : null;
+
+    input.getIssue().getFields().setSummary(formatTextContent(summary, false, users));
   }
 
   /**
-   * Return the URL from JIRA payload
-   * @param selfPath Issue URL
-   * @param key Issue Key
-   * @return Browse issue URL or null if the selfPath is and invalid URL
+   * Retrieve the jira logo absolute path to be used in the template sponsor container
+   * @param input Input data
    */
-  protected String getLinkedIssueField(String selfPath, String key) {
-    if (StringUtils.isEmpty(selfPath) || StringUtils.isEmpty(key)) {
-      return EMPTY;
+  private void processIconUrl(JiraInputData input) {
+    String baseUrl = integrationProperties.getApplicationUrl(INTEGRATION_NAME);
+    String iconUrl = StringUtils.EMPTY;
+
+    if (!StringUtils.isEmpty(baseUrl)) {
+      String urlFormat = "%s/%s/%s";
+      iconUrl = String.format(urlFormat, baseUrl, IMG_SUBPATH, JIRA_LOGO_PNG);
     }
 
-    try {
-      URL url = new URL(selfPath);
+    input.setIcon(new JiraInputData.Icon(iconUrl));
+  }
 
-      StringBuilder issueUrl = new StringBuilder();
+  @Override
+  protected void postProcessOutputData(EntityObject output, JsonNode input) {
+    includeLabels(output, input);
+  }
 
-      issueUrl.append(url.getProtocol());
-      issueUrl.append("://");
-      issueUrl.append(url.getHost());
+  /**
+   * This method change the issue status to uppercase.
+   * @param input Input data
+   * @param event JIRA event
+   */
+  private void processStatus(JiraInputData input, JiraEvent event) {
+    JiraIssueFields fields = getFields(event);
+    JiraStatus status = fields != null ? fields.getStatus() : null;
 
-      if (url.getPort() != -1) {
-        issueUrl.append(":");
-        issueUrl.append(url.getPort());
-      }
+    if (status != null && StringUtils.isNotEmpty(status.getName())) {
+      input.getIssue().getFields().setStatus(new JiraInputData.Status(status.getDisplayName()));
+    }
+  }
+
+  /**
+   * Puts the token color according to the issue status category.
+   * @param input Input data
+   * @param event JIRA event
+   * @see JiraStatus
+   */
+  private void processStatusColor(JiraInputData input, JiraEvent event) {
+    input.setTokenColor(event.getTokenColor());
+  }
 
-      issueUrl.append("/browse/");
-      issueUrl.append(key);
+  /**
+   * Puts the issue key and the URL to browse the issue in a field named 'link'.
+   * @param input Input data
+   * @param event JIRA event
+   */
+  private void processIssue(JiraInputData input, JiraEvent event) {
+    JiraIssue issue = event.getIssue();
 
-      return issueUrl.toString();
-    } catch (MalformedURLException e) {
-      // if the url is not valid, will only mention the issue key on a comment.
-      return EMPTY;
+    if (issue != null) {
+      input.getIssue().setKey(issue.getKey());
     }
+
+    input.getIssue().setLink(event.getLink());
   }
 
   /**
@@ -368,199 +430,202 @@ public abstract class JiraMetadataParser extends MetadataParser implements JiraP
    * Jira's RTE syntax are not supported yet, for that reason, all jira formatting is removed in
    * this method, and the user mentions are replaced by Nexus soft mention ([~user])
    * @param fieldContent The field content without formatting
+   * @param users Symphony users required by the event
    * @return Comment supported by MessageML v2 syntax
+   * @see JiraTextFormatter
    */
-  protected String formatTextContent(String fieldContent, boolean stripJiraFormatting) {
-    if (StringUtils.isNotEmpty(fieldContent)) {
-      SafeString safeFieldContent = ParserUtils.escapeAndAddLineBreaks(fieldContent);
+  protected String formatTextContent(String fieldContent, boolean stripJiraFormatting,
+      JiraUserDirectory users) {
+    return JiraTextFormatter.format(fieldContent, stripJiraFormatting, users);
+  }
 
-      Map<String, User> usersToMention = determineUserMentions(safeFieldContent.toString());
-      if (usersToMention != null && !usersToMention.isEmpty()) {
-        for (Map.Entry<String, User> userToMention : usersToMention.entrySet()) {
-          User user = userToMention.getValue();
+  /**
+   * Truncates a text field that can be arbitrarily large, like the description and comments.
+   * @param fieldContent The field content
+   * @return Field content truncated to the maximum length, or the same content if the truncation
+   * is disabled
+   * @see JiraTextTruncator
+   */
+  protected String truncateTextContent(String fieldContent) {
+    if (!isTruncated(fieldContent)) {
+      return fieldContent;
+    }
 
-          safeFieldContent.safeReplace(
-              new SafeString(BEGIN_MENTION + userToMention.getKey() + END_MENTION),
-              ParserUtils.presentationFormat(MENTION_MARKUP, user.getEmailAddress()));
-        }
-      }
+    return JiraTextTruncator.truncate(fieldContent, maxTextLength);
+  }
 
-      String finalDescription;
-      if (stripJiraFormatting) {
-        finalDescription = JiraParserUtils.stripJiraFormatting(safeFieldContent.toString());
-      } else {
-        finalDescription = safeFieldContent.toString();
-      }
+  /**
+   * Formats a text field that can be arbitrarily large, like the description and comments. When the
+   * truncation is enabled, text longer than the maximum length is truncated before formatting, and
+   * ends with a link to view the whole text on JIRA.
+   * @param fieldContent The field content
+   * @param event JIRA event
+   * @param users Symphony users required by the event
+   * @return Field content supported by MessageML v2 syntax
+   */
+  protected String formatLongTextContent(String fieldContent, JiraEvent event,
+      JiraUserDirectory users) {
+    if (!isTruncated(fieldContent)) {
+      return formatTextContent(fieldContent, true, users);
+    }
+
+    LOGGER.debug("Truncating text field with {} characters", fieldContent.length());
 
-      return ParserUtils.markupLinks(finalDescription);
+    String truncated = JiraTextTruncator.truncate(fieldContent, maxTextLength);
+    String content = formatTextContent(truncated, true, users);
 
+    if (StringUtils.isEmpty(event.getLink())) {
+      return content + TRUNCATED_TEXT;
     }
-    return EMPTY;
+
+    return content + ParserUtils.presentationFormat(TRUNCATED_TEXT_LINK, event.getLink());
   }
 
-  private Map<String, User> determineUserMentions(String comment) {
-    Set<String> userMentions = new HashSet<>();
-    Map<String, User> usersToMention = new HashMap<>();
-    Matcher matcher = userCommentPattern.matcher(comment);
-    while (matcher.find()) {
-      userMentions.add(matcher.group(2));
-    }
-    for (String userName : userMentions) {
-      User user = getUserByUserName(userName);
-      if (user != null && StringUtils.isNotEmpty(user.getEmailAddress())) {
-        usersToMention.put(userName, user);
-      }
-    }
-    return usersToMention;
+  private boolean isTruncated(String fieldContent) {
+    return maxTextLength != null && maxTextLength > 0
+        && JiraTextTruncator.isTruncated(fieldContent, maxTextLength);
   }
 
+
   /**
    * Process issue description removing the JIRA formatting and replacing line break to <br/>
-   * tags. It also escapes special characters.
-   * @param input JSON input data
+   * tags. It also escapes special characters. Long descriptions are truncated.
+   * @param input Input data
+   * @param event JIRA event
+   * @param users Symphony users required by the event
    */
-  private void processDescription(JsonNode input) {
-    ObjectNode fieldsNode = (ObjectNode) input.path(ISSUE_PATH).path(FIELDS_PATH);
-    String description = fieldsNode.path(DESCRIPTION_PATH).asText(EMPTY);
+  private void processDescription(JiraInputData input, JiraEvent event,
+      JiraUserDirectory users) {
+    JiraIssueFields fields = getFields(event);
+    String description = fields != null ? fields.getDescription() : null;
 
-    fieldsNode.put(DESCRIPTION_PATH, formatTextContent(description, true));
+    input.getIssue().getFields().setDescription(
+        formatLongTextContent(description, event, users));
   }
 
   /**
    * Augment user information.
-   * @param input JSON input payload
+   * @param input Input data
+   * @param event JIRA event
+   * @param users Symphony users required by the event
    */
-  private void processUser(JsonNode input) {
+  private void processUser(JiraInputData input, JiraEvent event, JiraUserDirectory users) {
     // Get user that performs the action
-    JsonNode userNode = input.path(USER_PATH);
-    if(userNode instanceof ObjectNode) {
-      augmentUserInformation((ObjectNode) userNode);
+    JiraUser user = event.getUser();
+    if (user != null) {
+      input.setUser(buildUser(user, users));
     }
   }
 
   /**
    * Augment user assignee information.
-   * @param input JSON input payload
+   * @param input Input data
+   * @param event JIRA event
+   * @param users Symphony users required by the event
    */
-  private void processAssignee(JsonNode input) {
+  private void processAssignee(JiraInputData input, JiraEvent event, JiraUserDirectory users) {
     // Get user assignee
-    ObjectNode fieldsNode = (ObjectNode) input.path(ISSUE_PATH).path(FIELDS_PATH);
-    String assignee = fieldsNode.path(ASSIGNEE_PATH).path(DISPLAY_NAME_PATH).asText();
+    JiraUser assignee = getAssignee(event);
 
-    if (!StringUtils.isEmpty(assignee)) {
-      ObjectNode assigneeNode = (ObjectNode) fieldsNode.path(ASSIGNEE_PATH);
-      augmentUserInformation(assigneeNode);
+    if (assignee != null) {
+      input.getIssue().getFields().setAssignee(buildUser(assignee, users));
     } else {
-      ObjectNode assigneeNode = fieldsNode.putObject(ASSIGNEE_PATH);
-      assigneeNode.put(DISPLAY_NAME_PATH, UNASSIGNED);
+      input.getIssue().getFields().setAssignee(new JiraInputData.UserData(null, UNASSIGNED));
     }
   }
 
   /**
-   * Queries the user API using email address to get more information about the user.
-   * @param userNode JSON node that contains user information provided by JIRA.
+   * Builds the user information, augmented with the Symphony user found by email address.
+   * @param jiraUser JIRA user
+   * @param users Symphony users required by the event
+   * @return User information
    */
-  private void augmentUserInformation(ObjectNode userNode) {
-    JsonNode emailAddressNode = userNode.path(EMAIL_ADDRESS_PATH);
+  private JiraInputData.UserData buildUser(JiraUser jiraUser, JiraUserDirectory users) {
+    JiraInputData.UserData userData =
+        new JiraInputData.UserData(jiraUser.getEmailAddress(), jiraUser.getDisplayName());
 
-    User user = userService.getUserByEmail(integrationUser, emailAddressNode.asText(EMPTY).trim());
+    User user = users.getUserByEmail(jiraUser.getEmailAddress());
 
-    if ((user != null) && (user.getId() != null)) {
-      userNode.put(USER_ID, user.getId());
-      userNode.put(EMAIL_ADDRESS_PATH, user.getEmailAddress());
-      userNode.put(USERNAME_PATH, user.getUsername());
-      userNode.put(DISPLAY_NAME_PATH, user.getDisplayName());
+    if (user != null) {
+      userData.setSymphonyUser(user.getId(), user.getEmailAddress(), user.getUsername(),
+          user.getDisplayName());
     }
+
+    return userData;
   }
 
   /**
    * Process custom field 'Epic'.
    *
-   * If the JSON input payload have epic custom field this method should include the epic name and
-   * epic link to be displayed by the renderer.
-   * @param input JSON input payload
+   * If the event changed the epic link this method should include the epic name and epic link to
+   * be displayed by the renderer.
+   * @param input Input data
+   * @param event JIRA event
    */
-  private void processEpicLink(JsonNode input) {
-    String epic = getEpicName(input);
-
-    if (StringUtils.isNotEmpty(epic)) {
-      ObjectNode issueNode = (ObjectNode) input.path(ISSUE_PATH);
-
-      ObjectNode epicNode = issueNode.putObject(EPIC_PATH);
-      epicNode.put(NAME_PATH, epic);
-
-      String selfPath = issueNode.path(SELF_PATH).asText();
-      String epicLink = getLinkedIssueField(selfPath, epic);
+  private void processEpicLink(JiraInputData input, JiraEvent event) {
+    JiraEpic epic = event.getEpic();
 
-      if (StringUtils.isNotEmpty(epicLink)) {
-        epicNode.put(LINK_ENTITY_FIELD, epicLink);
-      }
+    if (epic != null) {
+      String link = StringUtils.isNotEmpty(epic.getLink()) ? epic.getLink() : null;
+      input.getIssue().setEpic(new JiraInputData.Epic(epic.getName(), link));
     }
   }
 
   /**
-   * Returns epic name from a custom field.
-   * @param input JSON input payload
-   * @return Epic name or empty string
+   * Perform any needed processing on the icon urls
+   * @param input Input data
+   * @param event JIRA event
    */
-  private String getEpicName(JsonNode input) {
-    JsonNode items = input.path(CHANGELOG_PATH).path(ITEMS_PATH);
-    if (items.size() == 0) {
-      return EMPTY;
-    }
+  private void processIconUrls(JiraInputData input, JiraEvent event) {
+    JiraIssueFields fields = getFields(event);
 
-    for (int i = 0; i < items.size(); i++) {
-      JsonNode item = items.get(i);
-      String field = item.get(FIELD_PATH).asText();
-      if (EPIC_LINK_PATH.equals(field)) {
-        JsonNode toStringNode = item.get(TOSTRING_PATH);
-        if (!toStringNode.isNull()) {
-          return toStringNode.asText();
-        }
-      }
+    if (fields != null) {
+      input.getIssue().getFields().setIssuetype(formatIconUrl(fields.getIssueType()));
+      input.getIssue().getFields().setPriority(formatIconUrl(fields.getPriority()));
     }
-
-    return EMPTY;
   }
 
   /**
-   * Perform any needed processing on the icon urls
-   * @param input
+   * Puts the issue labels, included in the output by {@link #includeLabels(EntityObject, JsonNode)}.
+   * @param input Input data
+   * @param event JIRA event
    */
-  private void processIconUrls(JsonNode input) {
-    JsonNode fieldsPath = input.path(ISSUE_PATH).path(FIELDS_PATH);
+  private void processLabels(JiraInputData input, JiraEvent event) {
+    JiraIssueFields fields = getFields(event);
 
-    if (fieldsPath != null) {
-      formatIconUrl((ObjectNode) fieldsPath.path(ISSUETYPE_PATH));
-      formatIconUrl((ObjectNode) fieldsPath.path(PRIORITY_PATH));
+    if (fields != null && !fields.getLabels().isEmpty()) {
+      input.getIssue().getFields().setLabels(fields.getLabels());
     }
   }
 
   /**
    * Process custom field BaseUrl, uses the issue's link and removes the API call
    * from the URL.
-   * @param input JSON node that contains user information provided by JIRA
+   * @param input Input data
+   * @param event JIRA event
    */
-  private void processBaseUrl(JsonNode input) {
-    String selfPath = input.path(ISSUE_PATH).path(SELF_PATH).asText();
-    selfPath = selfPath.replaceAll(BASE_API_REGEX, "");
-
-    ((ObjectNode) input).put(BASE_URL, selfPath);
+  private void processBaseUrl(JiraInputData input, JiraEvent event) {
+    input.setBaseUrl(event.getBaseUrl());
   }
 
   /**
    * Since the & is not supported by MessageML - since it's expected to be a special character code
    * - this method will replace all & occurrences by &amp;
-   * @param node
-   */
-  private void formatIconUrl(ObjectNode node) {
-    if (node != null) {
-      String iconUrl = node.path(ICONURL_PATH).asText();
-      if (!StringUtils.isEmpty(iconUrl)) {
-        iconUrl = iconUrl.replace("&", "&amp;");
-        node.put(ICONURL_PATH, iconUrl);
-      }
+   * @param field Issue field
+   * @return Issue field with the icon URL formatted or null if the issue doesn't have the field
+   */
+  private JiraInputData.IconField formatIconUrl(JiraIconField field) {
+    if (field == null) {
+      return null;
     }
+
+    String iconUrl = field.getIconUrl();
+
+    if (!StringUtils.isEmpty(iconUrl)) {
+      iconUrl = iconUrl.replace("&", "&amp;");
+    }
+
+    return new JiraInputData.IconField(field.getName(), iconUrl);
   }
 
   /**
@@ -593,23 +658,4 @@ public abstract class JiraMetadataParser extends MetadataParser implements JiraP
     outputIssue.addContent(LABELS_ENTITY_FIELD, list);
   }
 
-  /**
-   * Returns the user e-mail if it exists, null otherwise.
-   * @param userKey the user key
-   * @return the user e-mail if it exists, null otherwise.
-   */
-  protected User getUserByUserName(String userKey) {
-    if (StringUtils.isEmpty(userKey)) {
-      return null;
-    }
-
-    User user = userService.getUserByUserName(integrationUser, userKey);
-    if (user == null || user.getId() == null) {
-      logger.warn("User for " + userKey + " not found");
-      return null;
-    }
-
-    return user;
-  }
-
 }
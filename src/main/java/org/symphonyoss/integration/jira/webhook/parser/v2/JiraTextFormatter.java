@@ -0,0 +1,140 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import org.apache.commons.lang3.StringUtils;
+import org.symphonyoss.integration.entity.model.User;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParserUtils;
+import org.symphonyoss.integration.parser.ParserUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Formats the fields that support JIRA's RTE formatting (summary, description and comments).
+ *
+ * The text is escaped, the user mentions are replaced by Symphony mentions, the JIRA markup is
+ * optionally removed and the URLs are converted to links. Each of these steps is a separate scan of
+ * the text. Escaping and link markup are defined by {@link ParserUtils}, and the markup removal by
+ * {@link JiraParserUtils#stripJiraFormatting(String)}.
+ *
+ * The mentions of all the users are replaced in the same scan, instead of one scan for each
+ * mentioned user.
+ */
+public final class JiraTextFormatter {
+
+  private static final Pattern MENTION_PATTERN = Pattern.compile("(\\[~)([\\w.]+)(])");
+
+  private static final String BEGIN_MENTION = "[~";
+
+  private static final String MENTION_MARKUP = "<mention email=\"%s\"/>";
+
+  private JiraTextFormatter() {}
+
+  /**
+   * Formats the field content, changing it to the format supported by MessageML v2.<br/>
+   * JIRA's RTE syntax is not supported yet, for that reason, all JIRA formatting may be removed,
+   * and the user mentions are replaced by Symphony mentions.
+   * @param fieldContent The field content
+   * @param stripJiraFormatting Whether the JIRA formatting should be removed
+   * @param users Symphony users required by the event
+   * @return Field content supported by MessageML v2 syntax or empty string
+   */
+  public static String format(String fieldContent, boolean stripJiraFormatting,
+      JiraUserDirectory users) {
+    if (StringUtils.isEmpty(fieldContent)) {
+      return StringUtils.EMPTY;
+    }
+
+    String content = ParserUtils.escapeAndAddLineBreaks(fieldContent).toString();
+    content = replaceMentions(content, users);
+
+    if (stripJiraFormatting) {
+      content = JiraParserUtils.stripJiraFormatting(content);
+    }
+
+    return ParserUtils.markupLinks(content);
+  }
+
+  /**
+   * Collects the usernames mentioned by the text.
+   * @param text Text that may mention users
+   * @param userNames Collection to add the usernames to
+   */
+  public static void findMentions(String text, Collection<String> userNames) {
+    if (text == null || !text.contains(BEGIN_MENTION)) {
+      return;
+    }
+
+    Matcher matcher = MENTION_PATTERN.matcher(text);
+    while (matcher.find()) {
+      userNames.add(matcher.group(2));
+    }
+  }
+
+  /**
+   * Replaces the mentions of users found on Symphony by the mention markup. Mentions of users not
+   * found, or found without an email address, are kept.
+   * @param text Escaped text
+   * @param users Symphony users required by the event
+   * @return Text with the mentions replaced or the same text if there is nothing to replace
+   */
+  static String replaceMentions(String text, JiraUserDirectory users) {
+    if (!text.contains(BEGIN_MENTION)) {
+      return text;
+    }
+
+    Matcher matcher = MENTION_PATTERN.matcher(text);
+    StringBuilder output = null;
+    Map<String, String> markups = null;
+    int last = 0;
+
+    while (matcher.find()) {
+      String userName = matcher.group(2);
+      User user = users.getUserByUserName(userName);
+
+      if (user == null || StringUtils.isEmpty(user.getEmailAddress())) {
+        continue;
+      }
+
+      if (output == null) {
+        output = new StringBuilder(text.length() + MENTION_MARKUP.length());
+        markups = new HashMap<>();
+      }
+
+      String markup = markups.get(userName);
+      if (markup == null) {
+        markup = ParserUtils.presentationFormat(MENTION_MARKUP, user.getEmailAddress()).toString();
+        markups.put(userName, markup);
+      }
+
+      output.append(text, last, matcher.start()).append(markup);
+      last = matcher.end();
+    }
+
+    if (output == null) {
+      return text;
+    }
+
+    output.append(text, last, text.length());
+    return output.toString();
+  }
+
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Truncates the text fields that can be arbitrarily large (description and comments) before they
+ * are formatted, so the cost to look up the mentioned users and format the field is bounded by the
+ * maximum length instead of the payload.
+ *
+ * The text is truncated at a boundary that doesn't break the JIRA markup:
+ * <ul>
+ * <li>Mentions, links and markup tags are kept whole or removed.</li>
+ * <li>Words, line breaks (escaped or not) and surrogate pairs are kept whole.</li>
+ * <li>Block markup left open (code, noformat, quote, panel and color) is closed, so the markup
+ * can still be removed by the formatter.</li>
+ * </ul>
+ * Only the last characters before the maximum length are searched for a boundary.
+ */
+public final class JiraTextTruncator {
+
+  /**
+   * Maximum number of characters removed to find a boundary.
+   */
+  private static final int MAX_LOOKBACK = 256;
+
+  private static final String ESCAPED_LINEBREAK = "\\r\\n";
+
+  private static final String[] BLOCK_TAGS = { "code", "noformat", "quote", "panel", "color" };
+
+  private JiraTextTruncator() {}
+
+  /**
+   * Truncates the text if it's longer than the maximum length.
+   * @param text Field content
+   * @param maxLength Maximum length
+   * @return Truncated text or the same text if it's not longer than the maximum length. Closing
+   * tags appended to the truncated text don't count towards the maximum length.
+   */
+  public static String truncate(String text, int maxLength) {
+    if (!isTruncated(text, maxLength)) {
+      return text;
+    }
+
+    int end = findBoundary(text, Math.max(maxLength, 0));
+    String truncated = text.substring(0, end);
+
+    return closeBlocks(truncated);
+  }
+
+  /**
+   * Checks if the text is longer than the maximum length.
+   * @param text Field content
+   * @param maxLength Maximum length
+   * @return true if the text must be truncated
+   */
+  public static boolean isTruncated(String text, int maxLength) {
+    return text != null && text.length() > maxLength;
+  }
+
+  /**
+   * Finds the position to truncate the text, not greater than the maximum length.
+   */
+  private static int findBoundary(String text, int maxLength) {
+    int end = maxLength;
+
+    if (end > 0 && Character.isHighSurrogate(text.charAt(end - 1))) {
+      end--;
+    }
+
+    int lookbackStart = Math.max(0, end - MAX_LOOKBACK);
+
+    end = skipOpenTag(text, lookbackStart, end, '[', ']');
+    end = skipOpenTag(text, lookbackStart, end, '{', '}');
+
+    int whitespace = lastWhitespace(text, lookbackStart, end);
+
+    if (whitespace > lookbackStart) {
+      end = whitespace;
+    } else {
+      end = skipEscapedLinebreak(text, end);
+    }
+
+    while (end > 0 && Character.isWhitespace(text.charAt(end - 1))) {
+      end--;
+    }
+
+    return end;
+  }
+
+  /**
+   * Moves the end before an opening character that isn't closed until the end.
+   */
+  private static int skipOpenTag(String text, int from, int end, char open, char close) {
+    for (int i = end - 1; i >= from; i--) {
+      char c = text.charAt(i);
+
+      if (c == close) {
+        return end;
+      }
+
+      if (c == open) {
+        return i;
+      }
+    }
+
+    return end;
+  }
+
+  private static int lastWhitespace(String text, int from, int end) {
+    for (int i = end - 1; i >= from; i--) {
+      if (Character.isWhitespace(text.charAt(i))) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Moves the end before an escaped line break that would be split.
+   */
+  private static int skipEscapedLinebreak(String text, int end) {
+    int from = Math.max(0, end - ESCAPED_LINEBREAK.length() + 1);
+
+    for (int i = from; i < end; i++) {
+      if (text.startsWith(ESCAPED_LINEBREAK, i) && i + ESCAPED_LINEBREAK.length() > end) {
+        return i;
+      }
+    }
+
+    return end;
+  }
+
+  /**
+   * Appends the closing tags of the block markup left open, the most recent first. The opening
+   * and closing tags of these blocks only differ by the parameters, so each tag found toggles the
+   * block.
+   */
+  private static String closeBlocks(String text) {
+    List<String> openBlocks = new ArrayList<>();
+    int index = text.indexOf('{');
+
+    while (index != -1) {
+      String block = getBlockTag(text, index);
+
+      if (block != null && !openBlocks.remove(block)) {
+        openBlocks.add(block);
+      }
+
+      index = text.indexOf('{', index + 1);
+    }
+
+    if (openBlocks.isEmpty()) {
+      return text;
+    }
+
+    StringBuilder result = new StringBuilder(text);
+
+    for (int i = openBlocks.size() - 1; i >= 0; i--) {
+      result.append('{').append(openBlocks.get(i)).append('}');
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Returns the block tag starting at the given position, followed by its parameters or the
+   * closing brace.
+   */
+  private static String getBlockTag(String text, int index) {
+    for (String block : BLOCK_TAGS) {
+      int end = index + 1 + block.length();
+
+      if (text.startsWith(block, index + 1) && end < text.length()) {
+        char next = text.charAt(end);
+
+        if (next == '}' || next == ':') {
+          return block;
+        }
+      }
+    }
+
+    return null;
+  }
+
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.BASE_URL;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.ICON_PATH;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.KEY_ENTITY_FIELD;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.PROJECT_ENTITY_FIELD;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.URL_PATH;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.jira.webhook.model.JiraIssue;
+import org.symphonyoss.integration.jira.webhook.model.JiraUpdateStorm;
+import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.model.yaml.IntegrationProperties;
+import org.symphonyoss.integration.parser.ParserUtils;
+import org.symphonyoss.integration.webhook.parser.metadata.EntityObject;
+import org.symphonyoss.integration.webhook.parser.metadata.MetadataParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders the summary of a burst of issue updates in a project (see
+ * {@link org.symphonyoss.integration.jira.webhook.JiraUpdateStormDetector}) as a single message.
+ *
+ * The summary shows the number of updates and issues, the fields changed and a sample of the
+ * issues updated. No user is looked up.
+ */
+@Component
+public class JiraUpdateStormMetadataParser extends MetadataParser {
+
+  private static final String METADATA_FILE = "metadataIssueStorm.xml";
+
+  private static final String TEMPLATE_FILE = "templateIssueStorm.xml";
+
+  private static final String INTEGRATION_NAME = "jira";
+
+  private static final String IMG_SUBPATH = "img";
+
+  private static final String JIRA_LOGO_PNG = "jira_logo_rounded.png";
+
+  private static final String ISSUE_TYPE = "com.symphony.integration.jira.issue";
+
+  private static final String EVENT_COUNT_PATH = "eventCount";
+
+  private static final String ISSUE_COUNT_PATH = "issueCount";
+
+  private static final String OTHER_ISSUE_COUNT_PATH = "otherIssueCount";
+
+  private static final String FIELDS_ENTITY_FIELD = "fields";
+
+  private static final String ISSUES_ENTITY_FIELD = "issues";
+
+  private static final String FIELD_SEPARATOR = ", ";
+
+  private final IntegrationProperties integrationProperties;
+
+  @Autowired
+  public JiraUpdateStormMetadataParser(IntegrationProperties integrationProperties) {
+    this.integrationProperties = integrationProperties;
+  }
+
+  @Override
+  protected String getTemplateFile() {
+    return TEMPLATE_FILE;
+  }
+
+  @Override
+  protected String getMetadataFile() {
+    return METADATA_FILE;
+  }
+
+  /**
+   * Renders the summary of the storm.
+   * @param storm Issue updates suppressed during the storm
+   * @return Message to be posted
+   */
+  public Message parse(JiraUpdateStorm storm) {
+    ObjectNode input = JsonNodeFactory.instance.objectNode();
+    input.put(PROJECT_ENTITY_FIELD, escape(storm.getProjectKey()));
+    input.put(EVENT_COUNT_PATH, storm.getEventCount());
+    input.put(ISSUE_COUNT_PATH, storm.getIssueCount());
+
+    int otherIssueCount = storm.getIssueCount() - storm.getSampleIssues().size();
+    if (otherIssueCount > 0) {
+      input.put(OTHER_ISSUE_COUNT_PATH, otherIssueCount);
+    }
+
+    if (!storm.getChangedFields().isEmpty()) {
+      input.put(FIELDS_ENTITY_FIELD,
+          escape(StringUtils.join(storm.getChangedFields(), FIELD_SEPARATOR)));
+    }
+
+    input.with(ICON_PATH).put(URL_PATH, getIconUrl());
+
+    ArrayNode issues = input.putArray(ISSUES_ENTITY_FIELD);
+
+    for (JiraIssue issue : storm.getSampleIssues()) {
+      if (!input.has(BASE_URL)) {
+        input.put(BASE_URL, issue.getBaseUrl());
+      }
+
+      ObjectNode issueNode = issues.addObject();
+      issueNode.put(KEY_ENTITY_FIELD, escape(issue.getKey()));
+      issueNode.put(URL_PATH, issue.getLink());
+    }
+
+    return parse(input);
+  }
+
+  @Override
+  protected void preProcessInputData(JsonNode input) {
+    // the input is built from the storm
+  }
+
+  /**
+   * Adds the sample issues to the entity, since the metadata file doesn't support lists.
+   */
+  @Override
+  protected void postProcessOutputData(EntityObject output, JsonNode input) {
+    List<EntityObject> issues = new ArrayList<>();
+
+    for (JsonNode issue : input.path(ISSUES_ENTITY_FIELD)) {
+      EntityObject issueObject = new EntityObject(ISSUE_TYPE, getVersion());
+      issueObject.addContent(KEY_ENTITY_FIELD, issue.path(KEY_ENTITY_FIELD).asText());
+      issueObject.addContent(URL_PATH, issue.path(URL_PATH).asText());
+      issues.add(issueObject);
+    }
+
+    output.addContent(ISSUES_ENTITY_FIELD, issues);
+  }
+
+  private String getIconUrl() {
+    String baseUrl = integrationProperties.getApplicationUrl(INTEGRATION_NAME);
+
+    if (StringUtils.isEmpty(baseUrl)) {
+      return StringUtils.EMPTY;
+    }
+
+    return String.format("%s/%s/%s", baseUrl, IMG_SUBPATH, JIRA_LOGO_PNG);
+  }
+
+  private String escape(String text) {
+    if (text == null) {
+      return StringUtils.EMPTY;
+    }
+
+    return ParserUtils.escapeAndAddLineBreaks(text).toString();
+  }
+
+}
@@ -0,0 +1,242 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.entity.model.User;
+import org.symphonyoss.integration.jira.cache.JiraLruCache;
+import org.symphonyoss.integration.jira.webhook.model.JiraUser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * In-memory cache of the Symphony users looked up by the JIRA parsers, by email address and by
+ * username.
+ *
+ * Each map keeps up to 'maxSize' entries and evicts the least recently used ones (see
+ * {@link JiraLruCache}). Users found expire after 'ttlSeconds', and users not found are cached as well, expiring after
+ * 'notFoundTtlSeconds'. The entries of a JIRA user are invalidated when JIRA notifies the user was
+ * updated or deleted. The notification has the current username and email address only, so the
+ * parsers register the JIRA users they look up (see {@link #register(JiraUser)}) to invalidate the
+ * previous ones as well.
+ *
+ * The keys are the values read from {@link JiraUser}, which trims the email addresses, both to
+ * look up and to invalidate the entries.
+ *
+ * The parsers always query the user API with the integration user, so it isn't part of the key.
+ */
+@Component
+public class JiraUserCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JiraUserCache.class);
+
+  @Value("${applications.jira.parser.userCache.maxSize:1000}")
+  private Integer maxSize;
+
+  @Value("${applications.jira.parser.userCache.ttlSeconds:600}")
+  private Long ttlSeconds;
+
+  @Value("${applications.jira.parser.userCache.notFoundTtlSeconds:60}")
+  private Long notFoundTtlSeconds;
+
+  /**
+   * Shared by both maps, as the lookups by email address and by username read a single generation.
+   */
+  private final AtomicLong generation = new AtomicLong();
+
+  private JiraLruCache<Entry> usersByEmail;
+
+  private JiraLruCache<Entry> usersByUserName;
+
+  /**
+   * JIRA users registered by the parsers, by user key (or username when the key is missing).
+   */
+  private Map<String, JiraUser> jiraUsers;
+
+  @PostConstruct
+  public void init() {
+    this.usersByEmail = new JiraLruCache<>(maxSize, generation);
+    this.usersByUserName = new JiraLruCache<>(maxSize, generation);
+    this.jiraUsers = new LinkedHashMap<String, JiraUser>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, JiraUser> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached lookup by email address.
+   * @param emailAddress User email address
+   * @return Cached lookup or null if the lookup isn't cached or has expired
+   */
+  public Entry getByEmail(String emailAddress) {
+    return usersByEmail.get(emailAddress);
+  }
+
+  /**
+   * Returns the cached lookup by username.
+   * @param userName JIRA username
+   * @return Cached lookup or null if the lookup isn't cached or has expired
+   */
+  public Entry getByUserName(String userName) {
+    return usersByUserName.get(userName);
+  }
+
+  /**
+   * Caches the lookup by email address.
+   * @param emailAddress User email address
+   * @param user Symphony user or null if the user was not found
+   * @param lookupGeneration Generation when the lookup started
+   */
+  public void putByEmail(String emailAddress, User user, long lookupGeneration) {
+    put(usersByEmail, emailAddress, user, lookupGeneration);
+  }
+
+  /**
+   * Caches the lookup by username.
+   * @param userName JIRA username
+   * @param user Symphony user or null if the user was not found
+   * @param lookupGeneration Generation when the lookup started
+   */
+  public void putByUserName(String userName, User user, long lookupGeneration) {
+    put(usersByUserName, userName, user, lookupGeneration);
+  }
+
+  /**
+   * Returns the current generation. Must be read before starting the lookups to be cached.
+   * @return Current generation
+   */
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * Registers the username and email address of a JIRA user looked up by the parsers, so they are
+   * invalidated when JIRA notifies the user was updated, even if they have changed.
+   * @param user JIRA user
+   */
+  public void register(JiraUser user) {
+    String id = getUserId(user);
+
+    if (StringUtils.isEmpty(id)) {
+      return;
+    }
+
+    synchronized (jiraUsers) {
+      jiraUsers.put(id, user);
+    }
+  }
+
+  /**
+   * Removes the entries of a JIRA user, by the current and the registered username, user key and
+   * email address.
+   * @param user JIRA user
+   */
+  public void invalidate(JiraUser user) {
+    String id = getUserId(user);
+    JiraUser previous = null;
+
+    if (StringUtils.isNotEmpty(id)) {
+      synchronized (jiraUsers) {
+        previous = jiraUsers.remove(id);
+      }
+    }
+
+    remove(user);
+
+    if (previous != null) {
+      remove(previous);
+    }
+
+    LOGGER.debug("Cached user {} invalidated", id);
+  }
+
+  public long getHitCount() {
+    return usersByEmail.getHitCount() + usersByUserName.getHitCount();
+  }
+
+  public long getMissCount() {
+    return usersByEmail.getMissCount() + usersByUserName.getMissCount();
+  }
+
+  public long getEvictionCount() {
+    return usersByEmail.getEvictionCount() + usersByUserName.getEvictionCount();
+  }
+
+  /**
+   * Returns the ratio of lookups served by the cache.
+   * @return Hit rate, from 0 to 1
+   */
+  public double getHitRate() {
+    long hits = getHitCount();
+    long total = hits + getMissCount();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  private void remove(JiraUser user) {
+    remove(usersByUserName, user.getName());
+    remove(usersByUserName, user.getKey());
+    remove(usersByEmail, user.getEmailAddress());
+  }
+
+  private void remove(JiraLruCache<Entry> users, String key) {
+    if (StringUtils.isNotEmpty(key)) {
+      users.invalidate(key);
+    }
+  }
+
+  private static String getUserId(JiraUser user) {
+    return StringUtils.isNotEmpty(user.getKey()) ? user.getKey() : user.getName();
+  }
+
+  private void put(JiraLruCache<Entry> users, String key, User user, long lookupGeneration) {
+    long ttl = user != null ? ttlSeconds : notFoundTtlSeconds;
+    users.put(key, new Entry(user), TimeUnit.SECONDS.toMillis(ttl), lookupGeneration);
+  }
+
+  /**
+   * Cached lookup.
+   */
+  public static class Entry {
+
+    private final User user;
+
+    private Entry(User user) {
+      this.user = user;
+    }
+
+    /**
+     * Returns the Symphony user.
+     * @return Symphony user or null if the user was not found
+     */
+    public User getUser() {
+      return user;
+    }
+
+  }
+
+}
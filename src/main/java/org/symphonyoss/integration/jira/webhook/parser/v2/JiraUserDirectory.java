@@ -0,0 +1,59 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import org.symphonyoss.integration.entity.model.User;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Symphony users found for a JIRA event. Holds the users looked up by email address (the user that
+ * performed the action and the assignee) and by username (the user mentions).
+ *
+ * Users not found on Symphony aren't included.
+ */
+public class JiraUserDirectory {
+
+  private final Map<String, User> usersByEmail;
+
+  private final Map<String, User> usersByUserName;
+
+  public JiraUserDirectory(Map<String, User> usersByEmail, Map<String, User> usersByUserName) {
+    this.usersByEmail = Collections.unmodifiableMap(usersByEmail);
+    this.usersByUserName = Collections.unmodifiableMap(usersByUserName);
+  }
+
+  /**
+   * Returns the user that owns the email address.
+   * @param emailAddress User email address
+   * @return Symphony user or null if the user was not found
+   */
+  public User getUserByEmail(String emailAddress) {
+    return usersByEmail.get(emailAddress);
+  }
+
+  /**
+   * Returns the user mentioned by username.
+   * @param userName JIRA username
+   * @return Symphony user or null if the user was not found
+   */
+  public User getUserByUserName(String userName) {
+    return usersByUserName.get(userName);
+  }
+
+}
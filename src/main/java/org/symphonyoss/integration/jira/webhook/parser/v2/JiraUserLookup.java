@@ -0,0 +1,157 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.symphonyoss.integration.entity.model.User;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParserException;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * User lookups started by {@link JiraUserResolver} for a single JIRA event.
+ *
+ * The lookups run in background while the parser pre-processes the fields that don't depend on
+ * the Symphony users. {@link #join()} waits for all of them and returns the users found.
+ */
+public class JiraUserLookup {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JiraUserLookup.class);
+
+  private final Map<String, User> usersByEmail;
+
+  private final Map<String, User> usersByUserName;
+
+  private final Map<String, Future<User>> emailLookups;
+
+  private final Map<String, Future<User>> userNameLookups;
+
+  private final JiraUserCache userCache;
+
+  private final long generation;
+
+  private JiraUserDirectory result;
+
+  /**
+   * @param usersByEmail Users already found by email address
+   * @param usersByUserName Users already found by username
+   * @param emailLookups Pending lookups by email address
+   * @param userNameLookups Pending lookups by username
+   * @param userCache Cache to be updated with the results or null if the lookups aren't cached
+   * @param generation Cache generation when the lookups were started
+   */
+  JiraUserLookup(Map<String, User> usersByEmail, Map<String, User> usersByUserName,
+      Map<String, Future<User>> emailLookups, Map<String, Future<User>> userNameLookups,
+      JiraUserCache userCache, long generation) {
+    this.usersByEmail = usersByEmail;
+    this.usersByUserName = usersByUserName;
+    this.emailLookups = emailLookups;
+    this.userNameLookups = userNameLookups;
+    this.userCache = userCache;
+    this.generation = generation;
+  }
+
+  /**
+   * Waits for the pending lookups. If any of them fails, the others are cancelled and the failure
+   * is thrown to the caller.
+   * @return Users found
+   */
+  public JiraUserDirectory join() {
+    if (result != null) {
+      return result;
+    }
+
+    try {
+      for (Map.Entry<String, Future<User>> lookup : emailLookups.entrySet()) {
+        User user = getResult(lookup.getValue());
+        boolean found = addUser(usersByEmail, lookup.getKey(), user);
+
+        if (userCache != null) {
+          userCache.putByEmail(lookup.getKey(), found ? user : null, generation);
+        }
+      }
+
+      for (Map.Entry<String, Future<User>> lookup : userNameLookups.entrySet()) {
+        User user = getResult(lookup.getValue());
+        boolean found = addUser(usersByUserName, lookup.getKey(), user);
+
+        if (!found) {
+          LOGGER.warn("User for " + lookup.getKey() + " not found");
+        }
+
+        if (userCache != null) {
+          userCache.putByUserName(lookup.getKey(), found ? user : null, generation);
+        }
+      }
+
+      this.result = new JiraUserDirectory(usersByEmail, usersByUserName);
+      return result;
+    } finally {
+      cancel(emailLookups);
+      cancel(userNameLookups);
+    }
+  }
+
+  /**
+   * Adds the user to the map, the users without identifier are ignored.
+   * @return true if the user was added
+   */
+  static boolean addUser(Map<String, User> users, String key, User user) {
+    if (user != null && user.getId() != null) {
+      users.put(key, user);
+      return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Waits for the lookup. Failures are thrown to the caller, the same way they would be if the
+   * user API was called on the caller thread.
+   */
+  private User getResult(Future<User> lookup) {
+    try {
+      return lookup.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new JiraParserException("Interrupted while looking up the Symphony users", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+
+      throw new JiraParserException("Cannot look up the Symphony users", (Exception) cause);
+    }
+  }
+
+  private void cancel(Map<String, Future<User>> lookups) {
+    for (Future<User> lookup : lookups.values()) {
+      lookup.cancel(true);
+    }
+  }
+
+}
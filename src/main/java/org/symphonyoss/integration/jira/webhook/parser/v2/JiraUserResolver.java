@@ -0,0 +1,196 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.entity.model.User;
+import org.symphonyoss.integration.jira.webhook.model.JiraUser;
+import org.symphonyoss.integration.service.UserService;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Looks up the Symphony users required to render a JIRA event.
+ *
+ * The parsers collect every email address and username the event needs before querying the user
+ * API, so each user is looked up only once per event. Symphony doesn't provide a bulk lookup, so
+ * the lookups are submitted together to a bounded thread pool, and the parser pre-processes the
+ * fields that don't depend on the users before waiting for them. When the pool is full, the
+ * lookups run on the caller thread.
+ *
+ * Lookups are cached by {@link JiraUserCache}, including the users not found. The email
+ * addresses must be read through {@link org.symphonyoss.integration.jira.webhook.model.JiraUser},
+ * which trims them, so the lookups, the cache and {@link JiraUserDirectory} use the same keys.
+ */
+@Component
+public class JiraUserResolver {
+
+  private static final String THREAD_NAME_PREFIX = "jira-user-lookup-";
+
+  private static final long KEEP_ALIVE_SECONDS = 60L;
+
+  @Value("${applications.jira.parser.userLookupPoolSize:8}")
+  private Integer poolSize;
+
+  @Value("${applications.jira.parser.userLookupQueueSize:256}")
+  private Integer queueSize;
+
+  @Autowired
+  private JiraUserCache userCache;
+
+  private ThreadPoolExecutor executor;
+
+  @PostConstruct
+  public void init() {
+    final AtomicInteger threadCount = new AtomicInteger();
+
+    ThreadFactory threadFactory = new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    };
+
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize), threadFactory,
+        new ThreadPoolExecutor.CallerRunsPolicy());
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Registers a JIRA user to be looked up by email address, so the cached lookup is invalidated
+   * when JIRA notifies the user was updated, even if the email address has changed.
+   * @param user JIRA user
+   * @see JiraUserCache#register(JiraUser)
+   */
+  public void register(JiraUser user) {
+    if (userCache != null) {
+      userCache.register(user);
+    }
+  }
+
+  /**
+   * Looks up the users by email address and username at once and waits for the results. The users
+   * available on the cache aren't looked up again.
+   * @param userService User API
+   * @param integrationUser Integration username
+   * @param emails Email addresses to look up
+   * @param userNames Usernames to look up
+   * @return Users found
+   */
+  public JiraUserDirectory resolve(UserService userService, String integrationUser,
+      Collection<String> emails, Collection<String> userNames) {
+    return lookup(userService, integrationUser, emails, userNames).join();
+  }
+
+  /**
+   * Starts the lookups by email address and username without waiting for them. The users
+   * available on the cache aren't looked up again.
+   *
+   * Without a thread pool (i.e. the resolver wasn't initialized by Spring), the lookups run one
+   * after another on the caller thread before this method returns.
+   * @param userService User API
+   * @param integrationUser Integration username
+   * @param emails Email addresses to look up
+   * @param userNames Usernames to look up
+   * @return Pending lookups
+   */
+  public JiraUserLookup lookup(final UserService userService, final String integrationUser,
+      Collection<String> emails, Collection<String> userNames) {
+    long generation = userCache != null ? userCache.getGeneration() : 0;
+
+    Map<String, User> usersByEmail = new HashMap<>();
+    Map<String, User> usersByUserName = new HashMap<>();
+
+    Map<String, Future<User>> emailLookups = new LinkedHashMap<>();
+    Map<String, Future<User>> userNameLookups = new LinkedHashMap<>();
+
+    for (final String email : emails) {
+      JiraUserCache.Entry entry = userCache != null ? userCache.getByEmail(email) : null;
+
+      if (entry != null) {
+        JiraUserLookup.addUser(usersByEmail, email, entry.getUser());
+        continue;
+      }
+
+      emailLookups.put(email, submit(new Callable<User>() {
+        @Override
+        public User call() throws Exception {
+          return userService.getUserByEmail(integrationUser, email);
+        }
+      }));
+    }
+
+    for (final String userName : userNames) {
+      JiraUserCache.Entry entry = userCache != null ? userCache.getByUserName(userName) : null;
+
+      if (entry != null) {
+        JiraUserLookup.addUser(usersByUserName, userName, entry.getUser());
+        continue;
+      }
+
+      userNameLookups.put(userName, submit(new Callable<User>() {
+        @Override
+        public User call() throws Exception {
+          return userService.getUserByUserName(integrationUser, userName);
+        }
+      }));
+    }
+
+    return new JiraUserLookup(usersByEmail, usersByUserName, emailLookups, userNameLookups,
+        userCache, generation);
+  }
+
+  /**
+   * Submits the lookup to the thread pool, or runs it on the caller thread when there is no pool.
+   */
+  private Future<User> submit(Callable<User> lookup) {
+    if (executor != null) {
+      return executor.submit(lookup);
+    }
+
+    FutureTask<User> task = new FutureTask<>(lookup);
+    task.run();
+    return task;
+  }
+
+}
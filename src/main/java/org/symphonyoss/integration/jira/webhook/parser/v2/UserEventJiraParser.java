@@ -0,0 +1,74 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.USER_DELETED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.USER_UPDATED;
+import static org.symphonyoss.integration.jira.webhook.JiraParserConstants.USER_PATH;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.jira.webhook.model.JiraUser;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParser;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParserException;
+import org.symphonyoss.integration.model.message.Message;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class handles the events 'user_updated' and 'user_deleted' sent by JIRA Webhook. No message
+ * is posted, the cached lookups of the user are invalidated so the next events look up the user
+ * again. The lookups by the previous username and email address are invalidated as well.
+ */
+@Component
+public class UserEventJiraParser implements JiraParser {
+
+  @Autowired
+  private JiraUserCache userCache;
+
+  @Override
+  public List<String> getEvents() {
+    return Arrays.asList(USER_UPDATED, USER_DELETED);
+  }
+
+  @Override
+  public void setIntegrationUser(String integrationUser) {
+    // Do nothing
+  }
+
+  @Override
+  public Message parse(Map<String, String> parameters, JsonNode node) throws JiraParserException {
+    JsonNode userNode = node.path(USER_PATH);
+
+    if (!userNode.isObject()) {
+      return null;
+    }
+
+    try {
+      userCache.invalidate(JiraUser.read(userNode));
+    } catch (JsonProcessingException e) {
+      throw new JiraParserException("Invalid user in the JIRA event", e);
+    }
+
+    return null;
+  }
+
+}
@@ -37,6 +37,9 @@ public class V2JiraParserFactory extends JiraParserFactory {
   @Autowired
   private List<JiraMetadataParser> beans;
 
+  @Autowired
+  private UserEventJiraParser userEventJiraParser;
+
   @Override
   public boolean accept(MessageMLVersion version) {
     return MessageMLVersion.V2.equals(version);
@@ -44,6 +47,8 @@ public class V2JiraParserFactory extends JiraParserFactory {
 
   @Override
   protected List<JiraParser> getBeans() {
-    return new ArrayList<JiraParser>(beans);
+    List<JiraParser> result = new ArrayList<JiraParser>(beans);
+    result.add(userEventJiraParser);
+    return result;
   }
 }
@@ -17,8 +17,11 @@
 package org.symphonyoss.integration.jira.api;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -294,4 +297,31 @@ public class JiraApiResourceTest {
     assertEquals(HttpStatus.OK, issueInfo.getStatusCode());
     assertEquals(SAMPLE_ISSUE, issueInfo.getBody());
   }
+
+  @Test
+  public void testGetIssueInfoUnauthorized() {
+    doThrow(JiraAuthorizationException.class).when(issueSearchService)
+        .getIssueInfo(ACCESS_TOKEN, provider, JIRA_INTEGRATION_URL, ISSUE_KEY);
+
+    try {
+      jiraApiResource.getIssueInfo(ISSUE_KEY, AUTHORIZATION_HEADER, JIRA_INTEGRATION_URL);
+      fail();
+    } catch (JiraAuthorizationException e) {
+      verify(jiraWebHookIntegration, times(1)).invalidateAccessToken(JIRA_INTEGRATION_URL,
+          USER_ID);
+    }
+  }
+
+  @Test
+  public void testNullAccessTokenNotInvalidated() {
+    doReturn(0L).when(jwtAuthentication)
+        .getUserIdFromAuthorizationHeader(CONFIGURATION_ID, AUTHORIZATION_HEADER);
+
+    try {
+      jiraApiResource.getIssueInfo(ISSUE_KEY, AUTHORIZATION_HEADER, JIRA_INTEGRATION_URL);
+      fail();
+    } catch (JiraAuthorizationException e) {
+      verify(jiraWebHookIntegration, times(0)).invalidateAccessToken(JIRA_INTEGRATION_URL, 0L);
+    }
+  }
 }
@@ -0,0 +1,136 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.authorization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit tests for {@link JiraAccessTokenCache}
+ */
+public class JiraAccessTokenCacheTest {
+
+  private static final String CONFIGURATION_ID = "57756bca4b54433738037005";
+
+  private static final String URL = "https://test.symphony.com";
+
+  private static final Long USER_ID = 123L;
+
+  private static final String ACCESS_TOKEN = "accessToken";
+
+  private JiraAccessTokenCache cache = new JiraAccessTokenCache();
+
+  @Before
+  public void init() {
+    initCache(1000, 300L);
+  }
+
+  @Test
+  public void testMiss() {
+    assertNull(cache.get(CONFIGURATION_ID, URL, USER_ID));
+
+    assertEquals(0, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(0, cache.getHitRate(), 0);
+  }
+
+  @Test
+  public void testHit() {
+    cache.put(CONFIGURATION_ID, URL, USER_ID, ACCESS_TOKEN, cache.getGeneration());
+
+    assertEquals(ACCESS_TOKEN, cache.get(CONFIGURATION_ID, URL, USER_ID));
+    assertNull(cache.get(CONFIGURATION_ID, URL, 456L));
+    assertNull(cache.get(CONFIGURATION_ID, "https://other.symphony.com", USER_ID));
+    assertNull(cache.get("other", URL, USER_ID));
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(3, cache.getMissCount());
+    assertEquals(0.25, cache.getHitRate(), 0);
+  }
+
+  @Test
+  public void testTokenNotFound() {
+    cache.put(CONFIGURATION_ID, URL, USER_ID, null, cache.getGeneration());
+
+    assertNull(cache.get(CONFIGURATION_ID, URL, USER_ID));
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void testExpiration() {
+    initCache(1000, 0L);
+
+    cache.put(CONFIGURATION_ID, URL, USER_ID, ACCESS_TOKEN, cache.getGeneration());
+
+    assertNull(cache.get(CONFIGURATION_ID, URL, USER_ID));
+  }
+
+  @Test
+  public void testEviction() {
+    initCache(2, 300L);
+
+    cache.put(CONFIGURATION_ID, URL, 1L, ACCESS_TOKEN, cache.getGeneration());
+    cache.put(CONFIGURATION_ID, URL, 2L, ACCESS_TOKEN, cache.getGeneration());
+
+    // user 1 becomes the most recently used
+    assertEquals(ACCESS_TOKEN, cache.get(CONFIGURATION_ID, URL, 1L));
+
+    cache.put(CONFIGURATION_ID, URL, 3L, ACCESS_TOKEN, cache.getGeneration());
+
+    assertEquals(ACCESS_TOKEN, cache.get(CONFIGURATION_ID, URL, 1L));
+    assertNull(cache.get(CONFIGURATION_ID, URL, 2L));
+    assertEquals(ACCESS_TOKEN, cache.get(CONFIGURATION_ID, URL, 3L));
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  public void testInvalidate() {
+    cache.put(CONFIGURATION_ID, URL, USER_ID, ACCESS_TOKEN, cache.getGeneration());
+    cache.put(CONFIGURATION_ID, URL, 456L, ACCESS_TOKEN, cache.getGeneration());
+
+    cache.invalidate(CONFIGURATION_ID, URL, USER_ID);
+
+    assertNull(cache.get(CONFIGURATION_ID, URL, USER_ID));
+    assertEquals(ACCESS_TOKEN, cache.get(CONFIGURATION_ID, URL, 456L));
+
+    cache.invalidateAll();
+
+    assertNull(cache.get(CONFIGURATION_ID, URL, 456L));
+  }
+
+  @Test
+  public void testReadStartedBeforeInvalidation() {
+    long generation = cache.getGeneration();
+
+    cache.invalidate(CONFIGURATION_ID, URL, USER_ID);
+    cache.put(CONFIGURATION_ID, URL, USER_ID, ACCESS_TOKEN, generation);
+
+    assertNull(cache.get(CONFIGURATION_ID, URL, USER_ID));
+  }
+
+  private void initCache(int maxSize, long ttlSeconds) {
+    ReflectionTestUtils.setField(cache, "maxSize", maxSize);
+    ReflectionTestUtils.setField(cache, "ttlSeconds", ttlSeconds);
+    cache.init();
+  }
+
+}
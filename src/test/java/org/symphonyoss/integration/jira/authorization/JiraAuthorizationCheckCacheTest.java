@@ -0,0 +1,247 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.authorization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.symphonyoss.integration.authorization.AuthorizationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link JiraAuthorizationCheckCache}
+ */
+public class JiraAuthorizationCheckCacheTest {
+
+  private static final String CONFIGURATION_ID = "57756bca4b54433738037005";
+
+  private static final String URL = "https://test.symphony.com";
+
+  private static final Long USER_ID = 123L;
+
+  private JiraAuthorizationCheckCache cache = new JiraAuthorizationCheckCache();
+
+  @Before
+  public void init() {
+    initCache(60L, 10L);
+  }
+
+  @Test
+  public void testAuthorizedCached() throws AuthorizationException {
+    CountingCheck check = new CountingCheck(true);
+
+    assertTrue(cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, check));
+    assertTrue(cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, check));
+
+    assertEquals(1, check.count.get());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(0.5, cache.getHitRate(), 0);
+  }
+
+  @Test
+  public void testNotAuthorizedCached() throws AuthorizationException {
+    CountingCheck check = new CountingCheck(false);
+
+    assertFalse(cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, check));
+    assertFalse(cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, check));
+
+    assertEquals(1, check.count.get());
+  }
+
+  @Test
+  public void testNotAuthorizedExpiration() throws AuthorizationException {
+    initCache(60L, 0L);
+
+    CountingCheck check = new CountingCheck(false);
+
+    cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, check);
+    cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, check);
+
+    assertEquals(2, check.count.get());
+  }
+
+  @Test
+  public void testFailureNotCached() throws AuthorizationException {
+    JiraAuthorizationCheckCache.Check failure = new JiraAuthorizationCheckCache.Check() {
+      @Override
+      public boolean run() throws AuthorizationException {
+        throw new AuthorizationException("Fail");
+      }
+    };
+
+    try {
+      cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, failure);
+      fail();
+    } catch (AuthorizationException e) {
+      // expected
+    }
+
+    CountingCheck check = new CountingCheck(true);
+
+    assertTrue(cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, check));
+    assertEquals(1, check.count.get());
+  }
+
+  @Test
+  public void testInvalidate() throws AuthorizationException {
+    CountingCheck check = new CountingCheck(true);
+
+    cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, check);
+    cache.invalidate(CONFIGURATION_ID, URL, USER_ID);
+    cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, check);
+
+    cache.invalidateAll();
+    cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, check);
+
+    assertEquals(3, check.count.get());
+  }
+
+  @Test
+  public void testInvalidatedWhileChecking() throws AuthorizationException {
+    final CountingCheck check = new CountingCheck(true);
+
+    JiraAuthorizationCheckCache.Check invalidating = new JiraAuthorizationCheckCache.Check() {
+      @Override
+      public boolean run() throws AuthorizationException {
+        cache.invalidate(CONFIGURATION_ID, URL, USER_ID);
+        return false;
+      }
+    };
+
+    assertFalse(cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, invalidating));
+    assertTrue(cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, check));
+    assertEquals(1, check.count.get());
+  }
+
+  @Test
+  public void testOtherUserInvalidatedWhileChecking() throws AuthorizationException {
+    final CountingCheck check = new CountingCheck(true);
+
+    JiraAuthorizationCheckCache.Check invalidating = new JiraAuthorizationCheckCache.Check() {
+      @Override
+      public boolean run() throws AuthorizationException {
+        cache.invalidate(CONFIGURATION_ID, URL, USER_ID + 1);
+        return false;
+      }
+    };
+
+    assertFalse(cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, invalidating));
+    assertFalse(cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, check));
+    assertEquals(0, check.count.get());
+  }
+
+  @Test
+  public void testConcurrentChecksShared() throws Exception {
+    int threads = 8;
+
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger count = new AtomicInteger();
+
+    final JiraAuthorizationCheckCache.Check blocking = new JiraAuthorizationCheckCache.Check() {
+      @Override
+      public boolean run() throws AuthorizationException {
+        count.incrementAndGet();
+        started.countDown();
+
+        try {
+          release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+
+        return true;
+      }
+    };
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() throws Exception {
+            return cache.isUserAuthorized(CONFIGURATION_ID, URL, USER_ID, blocking);
+          }
+        }));
+      }
+
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+
+      // gives the other threads time to join the check in progress
+      long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+      while (cache.getSharedCount() < threads - 1 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+
+      release.countDown();
+
+      for (Future<Boolean> result : results) {
+        assertTrue(result.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, count.get());
+    assertEquals(threads - 1, cache.getSharedCount());
+  }
+
+  private void initCache(long ttlSeconds, long notAuthorizedTtlSeconds) {
+    ReflectionTestUtils.setField(cache, "maxSize", 1000);
+    ReflectionTestUtils.setField(cache, "ttlSeconds", ttlSeconds);
+    ReflectionTestUtils.setField(cache, "notAuthorizedTtlSeconds", notAuthorizedTtlSeconds);
+    cache.init();
+  }
+
+  private static class CountingCheck implements JiraAuthorizationCheckCache.Check {
+
+    private final boolean authorized;
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    private CountingCheck(boolean authorized) {
+      this.authorized = authorized;
+    }
+
+    @Override
+    public boolean run() {
+      count.incrementAndGet();
+      return authorized;
+    }
+
+  }
+
+}
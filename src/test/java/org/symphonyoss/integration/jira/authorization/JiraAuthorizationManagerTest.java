@@ -20,11 +20,17 @@ import static junit.framework.TestCase.assertFalse;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.symphonyoss.integration.jira.authorization.JiraAuthorizationManager
     .PRIVATE_KEY_FILENAME;
 import static org.symphonyoss.integration.jira.authorization.JiraAuthorizationManager.PUBLIC_KEY;
@@ -36,9 +42,12 @@ import static org.symphonyoss.integration.jira.authorization.JiraAuthorizationMa
 import com.google.api.client.http.HttpMethods;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -77,8 +86,10 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
@@ -98,7 +109,8 @@ import java.util.UUID;
 @RunWith(SpringRunner.class)
 @SpringBootTest
 @EnableConfigurationProperties
-@ContextConfiguration(classes = {IntegrationProperties.class, JiraAuthorizationManager.class})
+@ContextConfiguration(classes = {IntegrationProperties.class, JiraAuthorizationManager.class,
+    JiraAccessTokenCache.class, JiraBotKeyCache.class, JiraAuthorizationCheckCache.class})
 @ActiveProfiles("jira")
 public class JiraAuthorizationManagerTest {
 
@@ -160,6 +172,11 @@ public class JiraAuthorizationManagerTest {
 
   private static final String MOCK_URL_MYSELF = MOCK_URL + "/rest/api/2/myself";
 
+  private static final String RELOADED_PRIVATE_KEY = "jira_reload_app.pkcs8";
+
+  @Rule
+  public TemporaryFolder certsFolder = new TemporaryFolder();
+
   @Autowired
   private IntegrationProperties properties;
 
@@ -184,6 +201,15 @@ public class JiraAuthorizationManagerTest {
   @Autowired
   private JiraAuthorizationManager authManager;
 
+  @Autowired
+  private JiraAccessTokenCache accessTokenCache;
+
+  @Autowired
+  private JiraBotKeyCache botKeyCache;
+
+  @Autowired
+  private JiraAuthorizationCheckCache authorizationCheckCache;
+
   @MockBean
   private UserService userService;
 
@@ -201,13 +227,21 @@ public class JiraAuthorizationManagerTest {
 
   @Before
   public void init() {
-    ReflectionTestUtils.setField(authManager, "publicKey", null);
-    ReflectionTestUtils.setField(authManager, "privateKey", null);
+    ReflectionTestUtils.setField(authManager, "keys", JiraApplicationKeys.EMPTY);
+    accessTokenCache.invalidateAll();
+    botKeyCache.invalidateAll();
+    authorizationCheckCache.invalidateAll();
+    authManager.onConfigChange(SETTINGS);
     UserKeyManagerData userKeyManagerData = new UserKeyManagerData();
     userKeyManagerData.setPrivateKey(MOCK_PRIVATE_KEY);
     doReturn(userKeyManagerData).when(userService).getBotUserAccountKeyData(anyString());
   }
 
+  @After
+  public void tearDown() {
+    authManager.destroy();
+  }
+
   @Test(expected = IntegrationRuntimeException.class)
   public void testInvalidPublicKeyData() {
     String invalidPk = "invalid";
@@ -322,6 +356,12 @@ public class JiraAuthorizationManagerTest {
         .makeAuthorizedRequest(MOCK_TOKEN, new URL(MOCK_URL_MYSELF), HttpMethods.GET, null);
 
     assertFalse(authManager.isUserAuthorized(SETTINGS, MOCK_URL, MOCK_USER));
+
+    // the rejected token is invalidated, but the user not authorized is cached
+    assertFalse(authManager.isUserAuthorized(SETTINGS, MOCK_URL, MOCK_USER));
+
+    verify(jiraOAuth1Provider, times(1)).makeAuthorizedRequest(MOCK_TOKEN,
+        new URL(MOCK_URL_MYSELF), HttpMethods.GET, null);
   }
 
   @Test(expected = JiraOAuth1Exception.class)
@@ -481,21 +521,343 @@ public class JiraAuthorizationManagerTest {
     assertEquals(MOCK_ACCESS_TOKEN, accessToken);
   }
 
+  @Test
+  public void testGetAccessTokenCached() throws AuthorizationException, CryptoException {
+    mockAccessToken();
+
+    assertEquals(MOCK_ACCESS_TOKEN, authManager.getAccessToken(SETTINGS, MOCK_URL, MOCK_USER));
+    assertEquals(MOCK_ACCESS_TOKEN, authManager.getAccessToken(SETTINGS, MOCK_URL, MOCK_USER));
+
+    verify(authRepoService, times(1)).find(JIRA_APP_TYPE, JIRA_APP_ID, MOCK_URL, MOCK_USER);
+    verify(cryptoService, times(1)).decrypt(MOCK_TOKEN, MOCK_PRIVATE_KEY);
+    assertTrue(accessTokenCache.getHitCount() > 0);
+  }
+
+  @Test
+  public void testInvalidateAccessToken() throws AuthorizationException, CryptoException {
+    mockAccessToken();
+
+    authManager.getAccessToken(SETTINGS, MOCK_URL, MOCK_USER);
+    authManager.invalidateAccessToken(SETTINGS, MOCK_URL, MOCK_USER);
+    authManager.getAccessToken(SETTINGS, MOCK_URL, MOCK_USER);
+
+    verify(authRepoService, times(2)).find(JIRA_APP_TYPE, JIRA_APP_ID, MOCK_URL, MOCK_USER);
+  }
+
+  @Test
+  public void testAuthorizeTemporaryTokenInvalidatesAccessToken()
+      throws AuthorizationException, URISyntaxException, CryptoException {
+    mockAccessToken();
+
+    authManager.getAccessToken(SETTINGS, MOCK_URL, MOCK_USER);
+    testAuthorizeTemporaryToken();
+
+    assertNull(accessTokenCache.get(JIRA_APP_ID, MOCK_URL, MOCK_USER));
+  }
+
+  @Test
+  public void testUnauthorizedInvalidatesAccessToken()
+      throws AuthorizationException, URISyntaxException, CryptoException,
+      MalformedURLException {
+    accessTokenCache.put(JIRA_APP_ID, MOCK_URL, MOCK_USER, MOCK_TOKEN,
+        accessTokenCache.getGeneration());
+
+    testIsUserUnauthorized();
+
+    assertNull(accessTokenCache.get(JIRA_APP_ID, MOCK_URL, MOCK_USER));
+  }
+
+  @Test
+  public void testBotKeyCached() throws AuthorizationException, CryptoException {
+    mockAccessToken();
+
+    authManager.getAccessToken(SETTINGS, MOCK_URL, MOCK_USER);
+    authManager.invalidateAccessToken(SETTINGS, MOCK_URL, MOCK_USER);
+    authManager.getAccessToken(SETTINGS, MOCK_URL, MOCK_USER);
+
+    verify(cryptoService, times(2)).decrypt(MOCK_TOKEN, MOCK_PRIVATE_KEY);
+    verify(userService, times(1)).getBotUserAccountKeyData(JIRA_APP_ID);
+  }
+
+  @Test
+  public void testBotKeyChanged() throws AuthorizationException, CryptoException {
+    mockAccessToken();
+
+    authManager.getAccessToken(SETTINGS, MOCK_URL, MOCK_USER);
+    authManager.invalidateAccessToken(SETTINGS, MOCK_URL, MOCK_USER);
+
+    UserKeyManagerData newKeyData = new UserKeyManagerData();
+    newKeyData.setPrivateKey(MOCK_PUBLIC_KEY);
+    doReturn(newKeyData).when(userService).getBotUserAccountKeyData(JIRA_APP_ID);
+
+    doThrow(CryptoException.class).when(cryptoService).decrypt(MOCK_TOKEN, MOCK_PRIVATE_KEY);
+    doReturn(MOCK_ACCESS_TOKEN).when(cryptoService).decrypt(MOCK_TOKEN, MOCK_PUBLIC_KEY);
+
+    long refreshCount = botKeyCache.getRefreshCount();
+
+    assertEquals(MOCK_ACCESS_TOKEN, authManager.getAccessToken(SETTINGS, MOCK_URL, MOCK_USER));
+    assertEquals(refreshCount + 1, botKeyCache.getRefreshCount());
+  }
+
+  @Test
+  public void testUndecryptableTokenRefreshThrottled()
+      throws AuthorizationException, CryptoException {
+    mockAccessToken();
+    doThrow(CryptoException.class).when(cryptoService).decrypt(MOCK_TOKEN, MOCK_PRIVATE_KEY);
+
+    assertNull(authManager.getAccessToken(SETTINGS, MOCK_URL, MOCK_USER));
+    assertNull(authManager.getAccessToken(SETTINGS, MOCK_URL, MOCK_USER));
+    assertNull(authManager.getAccessToken(SETTINGS, MOCK_URL, MOCK_USER));
+
+    // one retrieval to load the key and one refresh after the first failure
+    verify(userService, times(2)).getBotUserAccountKeyData(JIRA_APP_ID);
+  }
+
+  @Test
+  public void testOnConfigChange() throws AuthorizationException, CryptoException {
+    mockAccessToken();
+
+    authManager.getAccessToken(SETTINGS, MOCK_URL, MOCK_USER);
+    authManager.invalidateAccessToken(SETTINGS, MOCK_URL, MOCK_USER);
+    authManager.onConfigChange(SETTINGS);
+    authManager.getAccessToken(SETTINGS, MOCK_URL, MOCK_USER);
+
+    verify(userService, times(2)).getBotUserAccountKeyData(JIRA_APP_ID);
+  }
+
+  @Test
+  public void testProviderCached() throws AuthorizationException {
+    mockPrivateKeyData();
+
+    JiraOAuth1Provider provider = authManager.getJiraOAuth1Provider(SETTINGS, MOCK_URL);
+
+    assertSame(provider, authManager.getJiraOAuth1Provider(SETTINGS, MOCK_URL));
+    assertSame(provider, authManager.getJiraOAuth1Provider(SETTINGS, MOCK_URL + "/"));
+
+    verify(jiraOAuth1Provider, times(1)).configure(anyString(), eq(EXPECTED_PRIVATE_KEY),
+        eq(MOCK_URL), anyString());
+  }
+
+  @Test
+  public void testProviderDiscardedOnConfigChange() throws AuthorizationException {
+    mockPrivateKeyData();
+
+    authManager.getJiraOAuth1Provider(SETTINGS, MOCK_URL);
+    authManager.onConfigChange(SETTINGS);
+    authManager.getJiraOAuth1Provider(SETTINGS, MOCK_URL);
+
+    verify(jiraOAuth1Provider, times(2)).configure(anyString(), eq(EXPECTED_PRIVATE_KEY),
+        eq(MOCK_URL), anyString());
+  }
+
+  @Test
+  public void testProviderReconfiguredOnPrivateKeyChange() throws AuthorizationException {
+    mockPrivateKeyData();
+
+    authManager.getJiraOAuth1Provider(SETTINGS, MOCK_URL);
+
+    ReflectionTestUtils.setField(authManager, "keys", new JiraApplicationKeys(null, MOCK_TOKEN));
+
+    authManager.getJiraOAuth1Provider(SETTINGS, MOCK_URL);
+    authManager.getJiraOAuth1Provider(SETTINGS, MOCK_URL);
+
+    verify(jiraOAuth1Provider, times(1)).configure(anyString(), eq(MOCK_TOKEN), eq(MOCK_URL),
+        anyString());
+  }
+
+  @Test
+  public void testIsUserUnauthorizedCached()
+      throws AuthorizationException, URISyntaxException, CryptoException,
+      MalformedURLException {
+    testIsUserUnauthorized();
+
+    assertFalse(authManager.isUserAuthorized(SETTINGS, MOCK_URL, MOCK_USER));
+
+    verify(authRepoService, times(1)).find(JIRA_APP_TYPE, JIRA_APP_ID, MOCK_URL, MOCK_USER);
+  }
+
+  @Test
+  public void testAuthorizationCheckInvalidated()
+      throws AuthorizationException, URISyntaxException, CryptoException,
+      MalformedURLException {
+    testIsUserUnauthorized();
+
+    authManager.invalidateAccessToken(SETTINGS, MOCK_URL, MOCK_USER);
+    authManager.isUserAuthorized(SETTINGS, MOCK_URL, MOCK_USER);
+
+    verify(authRepoService, times(2)).find(JIRA_APP_TYPE, JIRA_APP_ID, MOCK_URL, MOCK_USER);
+  }
+
+  @Test
+  public void testLoadKeys() throws URISyntaxException, AuthorizationException {
+    URL pkURL = getClass().getClassLoader().getResource(MOCK_PRIVATE_KEY);
+    Path pkPath = Paths.get(pkURL.toURI());
+
+    String certsDirectory = pkPath.getParent().toAbsolutePath() + File.separator;
+    doReturn(certsDirectory).when(utils).getCertsDirectory();
+
+    Application application = properties.getApplication(SETTINGS.getType());
+    Map<String, Object> authProperties = application.getAuthorization().getProperties();
+    authProperties.put(PRIVATE_KEY_FILENAME, MOCK_PRIVATE_KEY);
+    authProperties.put(PUBLIC_KEY_FILENAME, MOCK_PUBLIC_KEY);
+
+    doReturn(EXPECTED_PUBLIC_KEY).when(rsaKeyUtils).trimPublicKey(anyString());
+    doReturn(publicKey).when(rsaKeyUtils).getPublicKey(anyString());
+    doReturn(EXPECTED_PRIVATE_KEY).when(rsaKeyUtils).trimPrivateKey(anyString());
+    doReturn(privateKey).when(rsaKeyUtils).getPrivateKey(anyString());
+
+    try {
+      authManager.loadKeys(JIRA_APP_TYPE);
+
+      assertEquals(EXPECTED_PUBLIC_KEY, getLoadedKeys().getPublicKey());
+      assertEquals(EXPECTED_PRIVATE_KEY, getLoadedKeys().getPrivateKey());
+
+      authManager.getAuthorizationModel(SETTINGS);
+      authManager.getJiraOAuth1Provider(SETTINGS, MOCK_URL);
+
+      verify(rsaKeyUtils, times(1)).getPublicKey(anyString());
+      verify(rsaKeyUtils, times(1)).getPrivateKey(anyString());
+    } finally {
+      authProperties.remove(PUBLIC_KEY_FILENAME);
+    }
+  }
+
+  @Test
+  public void testLoadInvalidKeys() {
+    String invalidPk = "invalid";
+    String pk = Base64.encodeBase64String(invalidPk.getBytes());
+
+    doReturn(pk).when(environment).getProperty("apps.jira.public_key.data");
+    doReturn(invalidPk).when(rsaKeyUtils).trimPublicKey(invalidPk);
+    doThrow(RuntimeException.class).when(rsaKeyUtils).getPublicKey(invalidPk);
+
+    authManager.loadKeys(JIRA_APP_TYPE);
+
+    assertNull(getLoadedKeys().getPublicKey());
+  }
+
+  @Test
+  public void testReloadKeysOnFileChange() throws IOException, InterruptedException {
+    Path keyPath = certsFolder.newFile(RELOADED_PRIVATE_KEY).toPath();
+    Files.write(keyPath, MOCK_TOKEN.getBytes());
+
+    doReturn(certsFolder.getRoot().getAbsolutePath() + File.separator).when(utils)
+        .getCertsDirectory();
+
+    Application application = properties.getApplication(SETTINGS.getType());
+    Map<String, Object> authProperties = application.getAuthorization().getProperties();
+    Object previousFilename = authProperties.put(PRIVATE_KEY_FILENAME, RELOADED_PRIVATE_KEY);
+
+    doAnswer(returnsFirstArg()).when(rsaKeyUtils).trimPrivateKey(anyString());
+    doReturn(privateKey).when(rsaKeyUtils).getPrivateKey(anyString());
+
+    try {
+      authManager.loadKeys(JIRA_APP_TYPE);
+      assertEquals(MOCK_TOKEN, getLoadedKeys().getPrivateKey());
+
+      Files.write(keyPath, MOCK_ACCESS_TOKEN.getBytes());
+
+      long deadline = System.currentTimeMillis() + 10000L;
+      while (!MOCK_ACCESS_TOKEN.equals(getLoadedKeys().getPrivateKey())
+          && System.currentTimeMillis() < deadline) {
+        Thread.sleep(50L);
+      }
+
+      assertEquals(MOCK_ACCESS_TOKEN, getLoadedKeys().getPrivateKey());
+    } finally {
+      if (previousFilename == null) {
+        authProperties.remove(PRIVATE_KEY_FILENAME);
+      } else {
+        authProperties.put(PRIVATE_KEY_FILENAME, previousFilename);
+      }
+    }
+  }
+
+  @Test
+  public void testReloadKeysOnLinkSwap() throws IOException, InterruptedException {
+    Path root = certsFolder.getRoot().toPath();
+
+    Path firstVersion = certsFolder.newFolder("v1").toPath();
+    Files.write(firstVersion.resolve(RELOADED_PRIVATE_KEY), MOCK_TOKEN.getBytes());
+
+    Path secondVersion = certsFolder.newFolder("v2").toPath();
+    Files.write(secondVersion.resolve(RELOADED_PRIVATE_KEY), MOCK_ACCESS_TOKEN.getBytes());
+
+    // same layout as a Kubernetes secret volume, only the '..data' link changes
+    Path dataLink = Files.createSymbolicLink(root.resolve("..data"), firstVersion);
+    Files.createSymbolicLink(root.resolve(RELOADED_PRIVATE_KEY),
+        dataLink.resolve(RELOADED_PRIVATE_KEY));
+
+    doReturn(root.toAbsolutePath() + File.separator).when(utils).getCertsDirectory();
+
+    Application application = properties.getApplication(SETTINGS.getType());
+    Map<String, Object> authProperties = application.getAuthorization().getProperties();
+    Object previousFilename = authProperties.put(PRIVATE_KEY_FILENAME, RELOADED_PRIVATE_KEY);
+
+    doAnswer(returnsFirstArg()).when(rsaKeyUtils).trimPrivateKey(anyString());
+    doReturn(privateKey).when(rsaKeyUtils).getPrivateKey(anyString());
+
+    try {
+      authManager.loadKeys(JIRA_APP_TYPE);
+      assertEquals(MOCK_TOKEN, getLoadedKeys().getPrivateKey());
+
+      Path tmpLink = Files.createSymbolicLink(root.resolve("..data_tmp"), secondVersion);
+      Files.move(tmpLink, dataLink, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+
+      long deadline = System.currentTimeMillis() + 10000L;
+      while (!MOCK_ACCESS_TOKEN.equals(getLoadedKeys().getPrivateKey())
+          && System.currentTimeMillis() < deadline) {
+        Thread.sleep(50L);
+      }
+
+      assertEquals(MOCK_ACCESS_TOKEN, getLoadedKeys().getPrivateKey());
+    } finally {
+      if (previousFilename == null) {
+        authProperties.remove(PRIVATE_KEY_FILENAME);
+      } else {
+        authProperties.put(PRIVATE_KEY_FILENAME, previousFilename);
+      }
+    }
+  }
+
+  private JiraApplicationKeys getLoadedKeys() {
+    return (JiraApplicationKeys) ReflectionTestUtils.getField(authManager, "keys");
+  }
+
+  private void mockPrivateKeyData() {
+    String pk = Base64.encodeBase64String(EXPECTED_PRIVATE_KEY.getBytes());
+
+    doReturn(pk).when(environment).getProperty("apps.jira.private_key.data");
+    doReturn(EXPECTED_PRIVATE_KEY).when(rsaKeyUtils).trimPrivateKey(EXPECTED_PRIVATE_KEY);
+    doReturn(privateKey).when(rsaKeyUtils).getPrivateKey(EXPECTED_PRIVATE_KEY);
+  }
+
+  private void mockAccessToken() throws AuthorizationException, CryptoException {
+    JiraOAuth1Data jiraOAuth1Data = new JiraOAuth1Data();
+    jiraOAuth1Data.setAccessToken(MOCK_TOKEN);
+
+    UserAuthorizationData authorizationData = new UserAuthorizationData();
+    authorizationData.setData(jiraOAuth1Data);
+
+    doReturn(authorizationData).when(authRepoService).find(JIRA_APP_TYPE, JIRA_APP_ID,
+        MOCK_URL, MOCK_USER);
+
+    doReturn(MOCK_ACCESS_TOKEN).when(cryptoService).decrypt(MOCK_TOKEN, MOCK_PRIVATE_KEY);
+  }
+
   @Test
   public void testKeysCache() throws URISyntaxException, AuthorizationException {
     testAuthorizationModel();
     testGetAuthorizationUrl();
 
-    Object publicKey =
-        ReflectionTestUtils.getField(authManager, JiraAuthorizationManager.class, "publicKey");
-    Object privateKey =
-        ReflectionTestUtils.getField(authManager, JiraAuthorizationManager.class, "privateKey");
+    JiraApplicationKeys keys = getLoadedKeys();
 
-    assertNotNull(publicKey);
-    assertNotNull(privateKey);
+    assertNotNull(keys.getPublicKey());
+    assertNotNull(keys.getPrivateKey());
 
-    assertEquals(EXPECTED_PUBLIC_KEY, publicKey.toString());
-    assertEquals(EXPECTED_PRIVATE_KEY, privateKey.toString());
+    assertEquals(EXPECTED_PUBLIC_KEY, keys.getPublicKey());
+    assertEquals(EXPECTED_PRIVATE_KEY, keys.getPrivateKey());
   }
 
   @Test
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.authorization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.symphonyoss.integration.model.UserKeyManagerData;
+import org.symphonyoss.integration.service.UserService;
+
+/**
+ * Unit tests for {@link JiraBotKeyCache}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class JiraBotKeyCacheTest {
+
+  private static final String CONFIGURATION_ID = "57756bca4b54433738037005";
+
+  private static final String PRIVATE_KEY = "privateKey";
+
+  private static final String NEW_PRIVATE_KEY = "newPrivateKey";
+
+  @Mock
+  private UserService userService;
+
+  @InjectMocks
+  private JiraBotKeyCache cache;
+
+  private UserKeyManagerData keyData = new UserKeyManagerData();
+
+  @Before
+  public void init() {
+    ReflectionTestUtils.setField(cache, "ttlSeconds", 600L);
+    ReflectionTestUtils.setField(cache, "refreshIntervalSeconds", 30L);
+
+    keyData.setPrivateKey(PRIVATE_KEY);
+    doReturn(keyData).when(userService).getBotUserAccountKeyData(CONFIGURATION_ID);
+  }
+
+  @Test
+  public void testHit() {
+    assertEquals(keyData, cache.getKeyData(CONFIGURATION_ID));
+    assertEquals(keyData, cache.getKeyData(CONFIGURATION_ID));
+
+    verify(userService, times(1)).getBotUserAccountKeyData(CONFIGURATION_ID);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void testExpiration() {
+    ReflectionTestUtils.setField(cache, "ttlSeconds", 0L);
+
+    cache.getKeyData(CONFIGURATION_ID);
+    cache.getKeyData(CONFIGURATION_ID);
+
+    verify(userService, times(2)).getBotUserAccountKeyData(CONFIGURATION_ID);
+  }
+
+  @Test
+  public void testKeyNotFound() {
+    doReturn(null).when(userService).getBotUserAccountKeyData(CONFIGURATION_ID);
+
+    assertNull(cache.getKeyData(CONFIGURATION_ID));
+    assertNull(cache.getKeyData(CONFIGURATION_ID));
+
+    verify(userService, times(2)).getBotUserAccountKeyData(CONFIGURATION_ID);
+  }
+
+  @Test
+  public void testRefresh() {
+    cache.getKeyData(CONFIGURATION_ID);
+
+    UserKeyManagerData newKeyData = new UserKeyManagerData();
+    newKeyData.setPrivateKey(NEW_PRIVATE_KEY);
+    doReturn(newKeyData).when(userService).getBotUserAccountKeyData(CONFIGURATION_ID);
+
+    assertEquals(newKeyData, cache.refresh(CONFIGURATION_ID));
+    assertEquals(newKeyData, cache.getKeyData(CONFIGURATION_ID));
+    assertEquals(1, cache.getRefreshCount());
+  }
+
+  @Test
+  public void testRefreshAfterFailureThrottled() {
+    cache.getKeyData(CONFIGURATION_ID);
+
+    assertEquals(keyData, cache.refreshAfterFailure(CONFIGURATION_ID));
+    assertEquals(keyData, cache.refreshAfterFailure(CONFIGURATION_ID));
+    assertEquals(keyData, cache.refreshAfterFailure(CONFIGURATION_ID));
+
+    verify(userService, times(2)).getBotUserAccountKeyData(CONFIGURATION_ID);
+    assertEquals(1, cache.getRefreshCount());
+    assertEquals(2, cache.getThrottledCount());
+  }
+
+  @Test
+  public void testRefreshAfterFailureInterval() {
+    ReflectionTestUtils.setField(cache, "refreshIntervalSeconds", 0L);
+
+    cache.getKeyData(CONFIGURATION_ID);
+    cache.refreshAfterFailure(CONFIGURATION_ID);
+    cache.refreshAfterFailure(CONFIGURATION_ID);
+
+    verify(userService, times(3)).getBotUserAccountKeyData(CONFIGURATION_ID);
+    assertEquals(0, cache.getThrottledCount());
+  }
+
+  @Test
+  public void testInvalidate() {
+    cache.getKeyData(CONFIGURATION_ID);
+    cache.invalidate(CONFIGURATION_ID);
+    cache.getKeyData(CONFIGURATION_ID);
+
+    cache.invalidateAll();
+    cache.getKeyData(CONFIGURATION_ID);
+
+    verify(userService, times(3)).getBotUserAccountKeyData(CONFIGURATION_ID);
+  }
+
+}
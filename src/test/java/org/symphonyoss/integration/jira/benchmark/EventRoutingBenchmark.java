@@ -0,0 +1,88 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventContext;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventTypeSniffer;
+import org.symphonyoss.integration.json.JsonUtils;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost to find out the event type of a JIRA payload. 'readTree' builds the whole
+ * JSON tree, as the parser factory used to do, while 'sniff' uses the streaming parser.
+ *
+ * The 'jira:worklog_updated' event isn't handled by any parser, so the sniffer cost is the whole
+ * cost paid for it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class EventRoutingBenchmark {
+
+  @Param({"jira:issue_updated", "jira:worklog_updated"})
+  private String webHookEvent;
+
+  @Param({"20000", "200000"})
+  private int payloadSize;
+
+  private WebHookPayload payload;
+
+  @Setup
+  public void setup() throws IOException {
+    String body = JiraPayloadCorpus.inflatePayload(JiraPayloadCorpus.ISSUE_UPDATED, payloadSize);
+
+    ObjectNode node = (ObjectNode) JsonUtils.readTree(body);
+    node.put("webhookEvent", webHookEvent);
+
+    Map<String, String> emptyMap = Collections.emptyMap();
+    this.payload = new WebHookPayload(emptyMap, emptyMap, JsonUtils.writeValueAsString(node));
+  }
+
+  @Benchmark
+  public String readTree() throws IOException {
+    JsonNode node = JsonUtils.readTree(payload.getBody());
+    return node.path("webhookEvent").asText();
+  }
+
+  @Benchmark
+  public String sniff() throws IOException {
+    JiraEventContext context = JiraEventTypeSniffer.sniff(payload);
+    return context.getWebHookEvent();
+  }
+
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.symphonyoss.integration.json.JsonUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds realistic JIRA payloads used by the benchmarks.
+ *
+ * JIRA instances with many custom fields send 20 KB to 200 KB bodies for a single issue event.
+ * The sample payloads available on the test resources are inflated with custom fields until they
+ * reach the requested size.
+ */
+public final class JiraPayloadCorpus {
+
+  public static final String ISSUE_CREATED =
+      "parser/issueCreatedJiraParser/jiraCallbackSampleIssueCreated.json";
+
+  public static final String ISSUE_UPDATED =
+      "parser/issueUpdatedJiraParser/jiraCallbackSampleIssueUpdated.json";
+
+  public static final String COMMENT_ADDED =
+      "parser/commentJiraParser/jiraCallbackSampleCommentAddedWithMentions.json";
+
+  public static final String MARKUP_CORPUS = "parser/markup/jiraMarkupCorpus.txt";
+
+  private static final String CUSTOM_FIELD_PREFIX = "customfield_";
+
+  private static final int FIRST_CUSTOM_FIELD = 11000;
+
+  private static final String LOREM_IPSUM = "Lorem ipsum dolor sit amet, consectetur adipiscing "
+      + "elit, sed do eiusmod tempor incididunt ut labore et dolore magna aliqua. ";
+
+  private JiraPayloadCorpus() {}
+
+  /**
+   * Reads a sample payload from the test resources.
+   * @param filename Resource filename
+   * @return JSON tree of the sample payload
+   * @throws IOException Failure to read the resource
+   */
+  public static JsonNode readPayload(String filename) throws IOException {
+    ClassLoader classLoader = JiraPayloadCorpus.class.getClassLoader();
+
+    try (InputStream inputStream = classLoader.getResourceAsStream(filename)) {
+      return JsonUtils.readTree(inputStream);
+    }
+  }
+
+  /**
+   * Builds a text with JIRA wiki markup, repeating the lines of the markup corpus until the text
+   * reaches the requested size. The lines are joined by escaped line breaks, the same way JIRA
+   * sends them.
+   * @param size Minimum text size, in characters
+   * @return Text with JIRA wiki markup
+   * @throws IOException Failure to read the resource
+   */
+  public static String buildMarkupText(int size) throws IOException {
+    List<String> lines = new ArrayList<>();
+    ClassLoader classLoader = JiraPayloadCorpus.class.getClassLoader();
+
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        classLoader.getResourceAsStream(MARKUP_CORPUS), StandardCharsets.UTF_8))) {
+      String line;
+
+      while ((line = reader.readLine()) != null) {
+        lines.add(line);
+      }
+    }
+
+    StringBuilder text = new StringBuilder(size);
+
+    for (int i = 0; text.length() < size; i++) {
+      text.append(lines.get(i % lines.size())).append("\\r\\n");
+    }
+
+    return text.toString();
+  }
+
+  /**
+   * Reads a sample payload and adds custom fields to the issue until the payload body reaches
+   * the requested size.
+   * @param filename Resource filename
+   * @param size Minimum payload size, in bytes
+   * @return Payload body
+   * @throws IOException Failure to read the resource
+   */
+  public static String inflatePayload(String filename, int size) throws IOException {
+    return inflatePayload(readPayload(filename), size);
+  }
+
+  /**
+   * Reads a sample payload, replaces the issue description and the comment body (if any) by a
+   * text with JIRA wiki markup and user mentions, and adds custom fields to the issue until the
+   * payload body reaches the requested size.
+   * @param filename Resource filename
+   * @param size Minimum payload size, in bytes
+   * @param textSize Minimum size of the description and comment body, in characters
+   * @return Payload body
+   * @throws IOException Failure to read the resource
+   */
+  public static String inflatePayload(String filename, int size, int textSize)
+      throws IOException {
+    JsonNode node = readPayload(filename);
+    String text = buildMarkupText(textSize);
+
+    ((ObjectNode) node.path("issue").path("fields")).put("description", text);
+
+    if (node.path("comment").isObject()) {
+      ((ObjectNode) node.path("comment")).put("body", text);
+    }
+
+    return inflatePayload(node, size);
+  }
+
+  private static String inflatePayload(JsonNode node, int size) throws IOException {
+    ObjectNode fieldsNode = (ObjectNode) node.path("issue").path("fields");
+
+    String body = JsonUtils.writeValueAsString(node);
+    int fieldId = FIRST_CUSTOM_FIELD;
+
+    while (body.length() < size) {
+      // custom fields have a few hundred bytes each, so this batch never overshoots the size
+      int fields = Math.max(1, (size - body.length()) / 1024 + 1);
+
+      for (int i = 0; i < fields; i++, fieldId++) {
+        addCustomField(fieldsNode, fieldId);
+      }
+
+      body = JsonUtils.writeValueAsString(node);
+    }
+
+    return body;
+  }
+
+  /**
+   * Adds a custom field to the issue. Alternates between the common shapes of JIRA custom fields:
+   * option, text, list and empty fields.
+   * @param fieldsNode Issue fields
+   * @param fieldId Custom field identifier
+   */
+  private static void addCustomField(ObjectNode fieldsNode, int fieldId) {
+    String fieldName = CUSTOM_FIELD_PREFIX + fieldId;
+
+    switch (fieldId % 4) {
+      case 0:
+        ObjectNode option = fieldsNode.putObject(fieldName);
+        option.put("self", "https://jira.atlassian.com/rest/api/2/customFieldOption/" + fieldId);
+        option.put("value", "Option " + fieldId);
+        option.put("id", String.valueOf(fieldId));
+        break;
+      case 1:
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+          text.append(LOREM_IPSUM);
+        }
+        fieldsNode.put(fieldName, text.toString());
+        break;
+      case 2:
+        fieldsNode.putArray(fieldName).add("value-" + fieldId).add("other-" + fieldId);
+        break;
+      default:
+        fieldsNode.putNull(fieldName);
+    }
+  }
+
+}
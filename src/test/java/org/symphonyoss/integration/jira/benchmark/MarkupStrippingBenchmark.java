@@ -0,0 +1,70 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.symphonyoss.integration.jira.webhook.parser.JiraMarkupStripper;
+import org.symphonyoss.integration.jira.webhook.parser.RegexJiraMarkupStripper;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost to strip the JIRA wiki markup. 'regex' applies the sequence of regular
+ * expressions previously used, while 'tokenizer' uses {@link JiraMarkupStripper}.
+ *
+ * The texts have 1 KB, 64 KB and 1 MB, built from the markup corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MarkupStrippingBenchmark {
+
+  @Param({"1024", "65536", "1048576"})
+  private int textSize;
+
+  private String text;
+
+  @Setup
+  public void setup() throws IOException {
+    this.text = JiraPayloadCorpus.buildMarkupText(textSize);
+  }
+
+  @Benchmark
+  public String regex() {
+    return RegexJiraMarkupStripper.strip(text);
+  }
+
+  @Benchmark
+  public String tokenizer() {
+    return JiraMarkupStripper.strip(text);
+  }
+
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.benchmark;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.symphonyoss.integration.entity.model.User;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParser;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParserFactory;
+import org.symphonyoss.integration.jira.webhook.parser.v2.CommentMetadataParser;
+import org.symphonyoss.integration.jira.webhook.parser.v2.IssueStateMetadataParser;
+import org.symphonyoss.integration.jira.webhook.parser.v2.JiraMetadataParser;
+import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.model.message.MessageMLVersion;
+import org.symphonyoss.integration.model.yaml.IntegrationProperties;
+import org.symphonyoss.integration.service.UserService;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+import org.symphonyoss.integration.webhook.parser.WebHookParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the whole webhook parsing hot path: 'getParser' selects the parser for the payload,
+ * while 'parseIssueUpdated' and 'parseCommentAdded' also render the message with
+ * {@link IssueStateMetadataParser} and {@link CommentMetadataParser}.
+ *
+ * The user API is stubbed and answers immediately, so the benchmark measures the parsing cost
+ * only. The payloads range from a small event (5 KB) to a huge one (1 MB) with many custom fields,
+ * and the description and comment body have JIRA wiki markup and user mentions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MetadataParsingBenchmark {
+
+  private static final String INTEGRATION_USER = "jirawebhook";
+
+  @Param({"5000", "50000", "200000", "1000000"})
+  private int payloadSize;
+
+  @Param({"256", "16384"})
+  private int textSize;
+
+  private WebHookPayload issueUpdated;
+
+  private WebHookPayload commentAdded;
+
+  private JiraParserFactory factory;
+
+  @Setup
+  public void setup() throws IOException {
+    Map<String, String> emptyMap = Collections.emptyMap();
+
+    String body = JiraPayloadCorpus.inflatePayload(JiraPayloadCorpus.ISSUE_UPDATED, payloadSize,
+        textSize);
+    this.issueUpdated = new WebHookPayload(emptyMap, emptyMap, body);
+
+    body = JiraPayloadCorpus.inflatePayload(JiraPayloadCorpus.COMMENT_ADDED, payloadSize,
+        textSize);
+    this.commentAdded = new WebHookPayload(emptyMap, emptyMap, body);
+
+    UserService userService = mockUserService();
+    IntegrationProperties integrationProperties = mock(IntegrationProperties.class);
+
+    List<JiraMetadataParser> parsers = new ArrayList<>();
+    parsers.add(new IssueStateMetadataParser(userService, integrationProperties));
+    parsers.add(new CommentMetadataParser(userService, integrationProperties));
+
+    for (JiraMetadataParser parser : parsers) {
+      parser.init();
+      parser.setIntegrationUser(INTEGRATION_USER);
+    }
+
+    this.factory = new BenchmarkParserFactory(parsers);
+    this.factory.init();
+  }
+
+  private UserService mockUserService() {
+    User user = new User();
+    user.setId(123456L);
+    user.setUserName("integrationuser");
+    user.setDisplayName("Integration User");
+    user.setEmailAddress("integrationuser@symphony.com");
+
+    UserService userService = mock(UserService.class);
+    doReturn(user).when(userService).getUserByEmail(anyString(), anyString());
+    doReturn(user).when(userService).getUserByUserName(anyString(), anyString());
+
+    return userService;
+  }
+
+  @Benchmark
+  public WebHookParser getParser() {
+    return factory.getParser(issueUpdated);
+  }
+
+  @Benchmark
+  public Message parseIssueUpdated() {
+    return factory.getParser(issueUpdated).parse(issueUpdated);
+  }
+
+  @Benchmark
+  public Message parseCommentAdded() {
+    return factory.getParser(commentAdded).parse(commentAdded);
+  }
+
+  /**
+   * Parser factory that only knows the metadata parsers.
+   */
+  private static class BenchmarkParserFactory extends JiraParserFactory {
+
+    private final List<JiraParser> parsers;
+
+    BenchmarkParserFactory(List<? extends JiraParser> parsers) {
+      this.parsers = new ArrayList<>(parsers);
+    }
+
+    @Override
+    public boolean accept(MessageMLVersion version) {
+      return MessageMLVersion.V2.equals(version);
+    }
+
+    @Override
+    protected List<JiraParser> getBeans() {
+      return parsers;
+    }
+  }
+
+}
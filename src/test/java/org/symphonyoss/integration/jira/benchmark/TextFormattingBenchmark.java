@@ -0,0 +1,94 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.symphonyoss.integration.entity.model.User;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParserUtils;
+import org.symphonyoss.integration.jira.webhook.parser.v2.JiraTextFormatter;
+import org.symphonyoss.integration.jira.webhook.parser.v2.JiraUserDirectory;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost to format the text fields (summary, description and comments) of a JIRA
+ * event. 'stripJiraFormatting' only removes the JIRA wiki markup, while 'formatTextContent' runs
+ * the whole pipeline used by the metadata parsers: escaping, user mentions, markup removal and
+ * links.
+ *
+ * The texts have 1 KB, 64 KB and 1 MB, built from the markup corpus, and mention users found on
+ * Symphony.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TextFormattingBenchmark {
+
+  private static final String[] MENTIONED_USERS =
+      {"john.doe", "mary_smith", "user_name", "another.user", "third"};
+
+  @Param({"1024", "65536", "1048576"})
+  private int textSize;
+
+  private String text;
+
+  private JiraUserDirectory users;
+
+  @Setup
+  public void setup() throws IOException {
+    this.text = JiraPayloadCorpus.buildMarkupText(textSize);
+
+    Map<String, User> usersByUserName = new HashMap<>();
+
+    for (String userName : MENTIONED_USERS) {
+      User user = new User();
+      user.setUserName(userName);
+      user.setEmailAddress(userName + "@symphony.com");
+      usersByUserName.put(userName, user);
+    }
+
+    this.users = new JiraUserDirectory(Collections.<String, User>emptyMap(), usersByUserName);
+  }
+
+  @Benchmark
+  public String stripJiraFormatting() {
+    return JiraParserUtils.stripJiraFormatting(text);
+  }
+
+  @Benchmark
+  public String formatTextContent() {
+    return JiraTextFormatter.format(text, true, users);
+  }
+
+}
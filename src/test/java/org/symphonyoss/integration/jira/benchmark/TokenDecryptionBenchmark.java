@@ -0,0 +1,112 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.benchmark;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.symphonyoss.integration.exception.CryptoException;
+import org.symphonyoss.integration.jira.authorization.JiraBotKeyCache;
+import org.symphonyoss.integration.model.UserKeyManagerData;
+import org.symphonyoss.integration.service.CryptoService;
+import org.symphonyoss.integration.service.UserService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of the access token decryption. 'keyLookup' retrieves the bot user key
+ * data on every decryption, as the authorization manager used to do, while 'cachedKey' uses
+ * {@link JiraBotKeyCache}.
+ *
+ * The key manager call is simulated by burning 'lookupCost' CPU tokens, and the decryption itself
+ * is stubbed, so the results show the cost of the key retrieval only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TokenDecryptionBenchmark {
+
+  private static final String CONFIGURATION_ID = "57756bca4b54433738037005";
+
+  private static final String ENCRYPTED_TOKEN = "encryptedToken";
+
+  @Param({"0", "100000"})
+  private long lookupCost;
+
+  private UserService userService;
+
+  private CryptoService cryptoService;
+
+  private JiraBotKeyCache keyCache;
+
+  @Setup
+  public void setup() throws CryptoException {
+    final UserKeyManagerData keyData = new UserKeyManagerData();
+    keyData.setPrivateKey("privateKey");
+
+    this.userService = mock(UserService.class, withSettings().stubOnly());
+    doAnswer(new Answer<UserKeyManagerData>() {
+      @Override
+      public UserKeyManagerData answer(InvocationOnMock invocation) throws Throwable {
+        Blackhole.consumeCPU(lookupCost);
+        return keyData;
+      }
+    }).when(userService).getBotUserAccountKeyData(anyString());
+
+    this.cryptoService = mock(CryptoService.class, withSettings().stubOnly());
+    doReturn("accessToken").when(cryptoService).decrypt(anyString(), anyString());
+
+    this.keyCache = new JiraBotKeyCache();
+    ReflectionTestUtils.setField(keyCache, "ttlSeconds", 600L);
+    ReflectionTestUtils.setField(keyCache, "userService", userService);
+  }
+
+  @Benchmark
+  public String keyLookup() throws CryptoException {
+    UserKeyManagerData keyData = userService.getBotUserAccountKeyData(CONFIGURATION_ID);
+    return cryptoService.decrypt(ENCRYPTED_TOKEN, keyData.getPrivateKey());
+  }
+
+  @Benchmark
+  public String cachedKey() throws CryptoException {
+    UserKeyManagerData keyData = keyCache.getKeyData(CONFIGURATION_ID);
+    return cryptoService.decrypt(ENCRYPTED_TOKEN, keyData.getPrivateKey());
+  }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParser;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParserException;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParserFactory;
+import org.symphonyoss.integration.jira.webhook.parser.JiraWebHookParserAdapter;
+import org.symphonyoss.integration.json.JsonUtils;
+import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.model.message.MessageMLVersion;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost to route and hand over a JIRA payload to its parser.
+ *
+ * 'parseTwice' reproduces the previous behaviour, where the payload body was read once to select
+ * the parser and once again by the parser adapter. 'parseOnce' goes through the
+ * {@link JiraParserFactory}, which shares the JSON tree with the parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class WebHookPayloadParsingBenchmark {
+
+  @Param({"20000", "80000", "200000"})
+  private int payloadSize;
+
+  private WebHookPayload payload;
+
+  private JiraParserFactory factory;
+
+  private JiraParser parser;
+
+  @Setup
+  public void setup() throws IOException {
+    Map<String, String> emptyMap = Collections.emptyMap();
+    String body = JiraPayloadCorpus.inflatePayload(JiraPayloadCorpus.ISSUE_UPDATED, payloadSize);
+
+    this.payload = new WebHookPayload(emptyMap, emptyMap, body);
+    this.parser = new TreeConsumerParser();
+    this.factory = new BenchmarkParserFactory(parser);
+    this.factory.init();
+  }
+
+  @Benchmark
+  public Message parseTwice() throws IOException {
+    JsonNode node = JsonUtils.readTree(payload.getBody());
+    JiraParser selected = factory.getParser(node);
+
+    return new JiraWebHookParserAdapter(selected).parse(payload);
+  }
+
+  @Benchmark
+  public Message parseOnce() {
+    return factory.getParser(payload).parse(payload);
+  }
+
+  /**
+   * Parser factory that only knows the benchmark parser.
+   */
+  private static class BenchmarkParserFactory extends JiraParserFactory {
+
+    private final JiraParser parser;
+
+    BenchmarkParserFactory(JiraParser parser) {
+      this.parser = parser;
+    }
+
+    @Override
+    public boolean accept(MessageMLVersion version) {
+      return true;
+    }
+
+    @Override
+    protected List<JiraParser> getBeans() {
+      return Collections.singletonList(parser);
+    }
+  }
+
+  /**
+   * Parser that walks the JSON tree without rendering a message, so the benchmark measures the
+   * payload handling only.
+   */
+  private static class TreeConsumerParser implements JiraParser {
+
+    private int fields;
+
+    @Override
+    public List<String> getEvents() {
+      return Collections.singletonList("jira:issue_updated");
+    }
+
+    @Override
+    public void setIntegrationUser(String integrationUser) {
+      // Do nothing
+    }
+
+    @Override
+    public Message parse(Map<String, String> parameters, JsonNode node)
+        throws JiraParserException {
+      fields += node.path("issue").path("fields").size();
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for {@link JiraLruCache}
+ */
+public class JiraLruCacheTest {
+
+  private static final long TTL = TimeUnit.MINUTES.toMillis(1);
+
+  private JiraLruCache<String> cache = new JiraLruCache<>(2);
+
+  @Test
+  public void testOtherKeyInvalidatedWhileReading() {
+    long generation = cache.getGeneration();
+
+    cache.invalidate("key2");
+    cache.put("key1", "value1", TTL, generation);
+    cache.put("key2", "value2", TTL, generation);
+
+    assertEquals("value1", cache.get("key1"));
+    assertNull(cache.get("key2"));
+  }
+
+  @Test
+  public void testInvalidatedBeforeReading() {
+    cache.invalidate("key1");
+    cache.put("key1", "value1", TTL, cache.getGeneration());
+
+    assertEquals("value1", cache.get("key1"));
+  }
+
+  @Test
+  public void testInvalidateAllWhileReading() {
+    long generation = cache.getGeneration();
+
+    cache.invalidateAll();
+    cache.put("key1", "value1", TTL, generation);
+
+    assertNull(cache.get("key1"));
+  }
+
+  @Test
+  public void testInvalidationEvicted() {
+    long generation = cache.getGeneration();
+
+    cache.invalidate("key1");
+    cache.invalidate("key2");
+    cache.invalidate("key3");
+
+    // the invalidation of key1 is no longer kept, so any value read before it is discarded
+    cache.put("key4", "value4", TTL, generation);
+    assertNull(cache.get("key4"));
+
+    cache.put("key4", "value4", TTL, cache.getGeneration());
+    assertEquals("value4", cache.get("key4"));
+  }
+
+  @Test
+  public void testSharedGeneration() {
+    AtomicLong generation = new AtomicLong();
+    JiraLruCache<String> other = new JiraLruCache<>(2, generation);
+    JiraLruCache<String> shared = new JiraLruCache<>(2, generation);
+
+    long readGeneration = shared.getGeneration();
+
+    other.invalidate("key1");
+    shared.put("key1", "value1", TTL, readGeneration);
+
+    assertEquals(readGeneration + 1, shared.getGeneration());
+    assertEquals("value1", shared.get("key1"));
+  }
+
+}
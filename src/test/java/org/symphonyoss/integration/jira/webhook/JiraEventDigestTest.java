@@ -0,0 +1,327 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_COMMENT_ADDED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_ISSUE_CREATED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_ISSUE_UPDATED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.USER_UPDATED;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.symphonyoss.integration.jira.webhook.model.JiraDigest;
+import org.symphonyoss.integration.jira.webhook.model.JiraEvent;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventContext;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParserResolver;
+import org.symphonyoss.integration.jira.webhook.parser.v2.CommentMetadataParser;
+import org.symphonyoss.integration.jira.webhook.parser.v2.IssueStateMetadataParser;
+import org.symphonyoss.integration.jira.webhook.parser.v2.JiraDigestMetadataParser;
+import org.symphonyoss.integration.jira.webhook.parser.v2.UserEventJiraParser;
+import org.symphonyoss.integration.jira.webhook.parser.v2.V2JiraParserFactory;
+import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link JiraEventDigest}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class JiraEventDigestTest {
+
+  private static final String MOCK_INSTANCE = "mockInstance";
+
+  private static final String MOCK_OTHER_INSTANCE = "mockOtherInstance";
+
+  private static final String MOCK_INTEGRATION_USER = "mockUser";
+
+  private static final long LONG_WINDOW = TimeUnit.MINUTES.toMillis(10);
+
+  @Mock
+  private Environment environment;
+
+  @Mock
+  private JiraParserResolver parserResolver;
+
+  @Mock
+  private V2JiraParserFactory factory;
+
+  @Mock
+  private IssueStateMetadataParser issueStateParser;
+
+  @Mock
+  private CommentMetadataParser commentParser;
+
+  @Mock
+  private UserEventJiraParser userEventParser;
+
+  @Mock
+  private JiraDigestMetadataParser digestParser;
+
+  @InjectMocks
+  private JiraEventDigest digest;
+
+  private final List<WebHookPayload> handled = new ArrayList<>();
+
+  private final List<Message> rendered = new ArrayList<>();
+
+  /**
+   * Renders the digest while it's handled, as the integration does.
+   */
+  private final JiraEventDigest.Handler handler = new JiraEventDigest.Handler() {
+    @Override
+    public void handle(WebHookPayload payload) {
+      handled.add(payload);
+      rendered.add(digest.render(payload));
+    }
+  };
+
+  @Before
+  public void init() {
+    doReturn(factory).when(parserResolver).getFactory();
+    doReturn(issueStateParser).when(factory).getParser(eq(JIRA_ISSUE_CREATED), anyString());
+    doReturn(issueStateParser).when(factory).getParser(eq(JIRA_ISSUE_UPDATED), anyString());
+    doReturn(commentParser).when(factory).getParser(eq(JIRA_COMMENT_ADDED), anyString());
+    doReturn(userEventParser).when(factory).getParser(eq(USER_UPDATED), anyString());
+
+    doReturn("Updated").when(issueStateParser).getAction(any(JiraEvent.class));
+    doReturn("Commented").when(commentParser).getAction(any(JiraEvent.class));
+  }
+
+  @After
+  public void tearDown() {
+    digest.destroy();
+  }
+
+  @Test
+  public void testDisabled() {
+    initDigest(0L, 10);
+
+    assertFalse(digest.isEnabled(MOCK_INSTANCE));
+    assertFalse(digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER,
+        issueEvent(JIRA_ISSUE_UPDATED, "SAM-1"), handler));
+    assertNull(ReflectionTestUtils.getField(digest, "scheduler"));
+  }
+
+  @Test
+  public void testInstanceWindow() {
+    initDigest(0L, 10);
+    doReturn("60000").when(environment)
+        .getProperty("applications.jira.digest." + MOCK_INSTANCE + ".windowMillis");
+
+    assertTrue(digest.isEnabled(MOCK_INSTANCE));
+    assertFalse(digest.isEnabled(MOCK_OTHER_INSTANCE));
+  }
+
+  @Test
+  public void testSkipOtherEvents() {
+    initDigest(LONG_WINDOW, 10);
+
+    JiraEventContext invalid = event("{");
+
+    assertFalse(digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER, issueEvent(USER_UPDATED, "SAM-1"),
+        handler));
+    assertFalse(digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER, issueEvent(JIRA_ISSUE_UPDATED,
+        ""), handler));
+    assertFalse(digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER, invalid, handler));
+    assertEquals(0, digest.getPendingCount());
+  }
+
+  @Test
+  public void testDigestEvents() {
+    initDigest(LONG_WINDOW, 10);
+
+    assertTrue(digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER,
+        issueEvent(JIRA_ISSUE_CREATED, "SAM-1"), handler));
+    assertTrue(digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER,
+        issueEvent(JIRA_COMMENT_ADDED, "SAM-2"), handler));
+    assertTrue(digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER,
+        issueEvent(JIRA_ISSUE_UPDATED, "SAM-1"), handler));
+
+    assertEquals(1, digest.getPendingCount());
+    assertEquals(3, digest.getDigestedCount());
+    assertTrue(handled.isEmpty());
+
+    Message message = new Message();
+    doReturn(message).when(digestParser).parse(any(JiraDigest.class), eq(MOCK_INTEGRATION_USER));
+
+    digest.destroy();
+
+    assertEquals(1, handled.size());
+    assertEquals(Collections.singletonList(message), rendered);
+    assertNull(digest.render(handled.get(0)));
+    assertEquals(1, digest.getEmittedCount());
+
+    ArgumentCaptor<JiraDigest> captor = ArgumentCaptor.forClass(JiraDigest.class);
+    verify(digestParser).parse(captor.capture(), eq(MOCK_INTEGRATION_USER));
+
+    JiraDigest result = captor.getValue();
+    assertEquals(3, result.getEventCount());
+    assertEquals(2, result.getIssues().size());
+
+    JiraDigest.Issue issue = result.getIssues().get(0);
+    assertEquals("SAM-1", issue.getLatestEvent().getIssue().getKey());
+    assertEquals(JIRA_ISSUE_UPDATED, issue.getLatestEvent().getWebhookEvent());
+    assertEquals(2, issue.getActions().size());
+    assertEquals("Updated", issue.getActions().get(0).getName());
+    assertEquals("john.doe@example.com", issue.getActions().get(0).getUser().getEmailAddress());
+
+    assertEquals("Commented", result.getIssues().get(1).getActions().get(0).getName());
+    assertEquals(Collections.singleton("john.doe@example.com"), result.getEmailAddresses());
+  }
+
+  @Test
+  public void testMaxEvents() {
+    initDigest(LONG_WINDOW, 2);
+
+    digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER, issueEvent(JIRA_ISSUE_UPDATED, "SAM-1"),
+        handler);
+    assertTrue(handled.isEmpty());
+
+    digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER, issueEvent(JIRA_ISSUE_UPDATED, "SAM-2"),
+        handler);
+    assertEquals(1, handled.size());
+    assertEquals(0, digest.getPendingCount());
+  }
+
+  @Test
+  public void testOtherEventOfDigestedIssue() {
+    initDigest(LONG_WINDOW, 10);
+
+    assertTrue(digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER,
+        issueEvent(JIRA_ISSUE_UPDATED, "SAM-1"), handler));
+    assertFalse(digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER,
+        issueEvent(USER_UPDATED, "SAM-2"), handler));
+    assertTrue(handled.isEmpty());
+
+    // the digest is handled before the event, which is handled by the caller
+    assertFalse(digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER,
+        issueEvent(USER_UPDATED, "SAM-1"), handler));
+    assertEquals(1, handled.size());
+    assertEquals(0, digest.getPendingCount());
+  }
+
+  @Test
+  public void testWindowCloses() throws InterruptedException {
+    initDigest(50L, 10);
+
+    final CountDownLatch emitted = new CountDownLatch(1);
+
+    digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER, issueEvent(JIRA_ISSUE_UPDATED, "SAM-1"),
+        new JiraEventDigest.Handler() {
+          @Override
+          public void handle(WebHookPayload payload) {
+            emitted.countDown();
+          }
+        });
+
+    assertTrue(emitted.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testDigestNotRendered() {
+    initDigest(LONG_WINDOW, 10);
+
+    final List<WebHookPayload> skipped = new ArrayList<>();
+
+    digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER, issueEvent(JIRA_ISSUE_UPDATED, "SAM-1"),
+        new JiraEventDigest.Handler() {
+          @Override
+          public void handle(WebHookPayload payload) {
+            skipped.add(payload);
+          }
+        });
+
+    digest.destroy();
+
+    // the digest isn't kept once handled, even if it wasn't rendered
+    assertEquals(1, skipped.size());
+    assertNull(digest.render(skipped.get(0)));
+    verify(digestParser, never()).parse(any(JiraDigest.class), anyString());
+  }
+
+  @Test
+  public void testWindowClosesOnInstanceWorker() {
+    initDigest(50L, 10);
+
+    JiraWebHookIngestionQueue ingestionQueue = mock(JiraWebHookIngestionQueue.class);
+    ReflectionTestUtils.setField(digest, "ingestionQueue", ingestionQueue);
+
+    digest.offer(MOCK_INSTANCE, MOCK_INTEGRATION_USER, issueEvent(JIRA_ISSUE_UPDATED, "SAM-1"),
+        handler);
+
+    verify(ingestionQueue, timeout(5000)).release(eq(MOCK_INSTANCE), eq(JiraEventLane.NORMAL),
+        any(Runnable.class));
+  }
+
+  @Test
+  public void testRenderOtherPayloads() {
+    initDigest(LONG_WINDOW, 10);
+
+    assertNull(digest.render(issueEvent(JIRA_ISSUE_UPDATED, "SAM-1").getPayload()));
+
+    WebHookPayload unknown = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.singletonMap(JiraEventDigest.DIGEST_ID_HEADER, "unknown"), "{}");
+    assertNull(digest.render(unknown));
+
+    verify(digestParser, never()).parse(any(JiraDigest.class), anyString());
+  }
+
+  private void initDigest(Long windowMillis, Integer maxEvents) {
+    ReflectionTestUtils.setField(digest, "windowMillis", windowMillis);
+    ReflectionTestUtils.setField(digest, "maxEvents", maxEvents);
+  }
+
+  private JiraEventContext issueEvent(String webhookEvent, String issueKey) {
+    String body = "{\"webhookEvent\":\"" + webhookEvent + "\",\"user\":{\"name\":\"john.doe\","
+        + "\"emailAddress\":\"john.doe@example.com\",\"displayName\":\"John Doe\"},"
+        + "\"issue\":{\"key\":\"" + issueKey + "\",\"fields\":{\"summary\":\"Summary\"}}}";
+
+    return event(body);
+  }
+
+  private JiraEventContext event(String body) {
+    return JiraEventContext.read(new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), body));
+  }
+
+}
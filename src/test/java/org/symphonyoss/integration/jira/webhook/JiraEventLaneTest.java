@@ -0,0 +1,74 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventAttributes;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Unit tests for {@link JiraEventLane}
+ */
+public class JiraEventLaneTest {
+
+  @Test
+  public void testHighLane() throws IOException {
+    assertEquals(JiraEventLane.HIGH, lane("jira:issue_created", "Incident Severity 1", "Medium"));
+    assertEquals(JiraEventLane.HIGH, lane("jira:issue_updated", "Bug", "Highest"));
+    assertEquals(JiraEventLane.HIGH, lane("jira:issue_created", "Incident", "Critical"));
+  }
+
+  @Test
+  public void testNormalLane() throws IOException {
+    assertEquals(JiraEventLane.NORMAL, lane("jira:issue_created", "Story", "Highest"));
+    assertEquals(JiraEventLane.NORMAL, lane("jira:issue_updated", "Bug", "Medium"));
+    assertEquals(JiraEventLane.NORMAL, lane("comment_created", "Bug", "Medium"));
+    assertEquals(JiraEventLane.NORMAL, read("{\"webhookEvent\":\"sprint_started\"}"));
+    assertEquals(JiraEventLane.NORMAL, read("{}"));
+  }
+
+  @Test
+  public void testLowLane() throws IOException {
+    assertEquals(JiraEventLane.LOW, lane("comment_updated", "Incident Severity 1", "Highest"));
+    assertEquals(JiraEventLane.LOW, lane("comment_deleted", "Bug", "Medium"));
+    assertEquals(JiraEventLane.LOW, lane("worklog_created", "Task", "Medium"));
+    assertEquals(JiraEventLane.LOW, lane("jira:issue_created", "Task", "Lowest"));
+    assertEquals(JiraEventLane.LOW, read("{\"webhookEvent\":\"jira:issue_updated\","
+        + "\"issue_event_type_name\":\"issue_comment_edited\"}"));
+  }
+
+  private JiraEventLane lane(String webhookEvent, String issueType, String priority)
+      throws IOException {
+    return read("{\"webhookEvent\":\"" + webhookEvent + "\",\"issue\":{\"key\":\"SAM-1\","
+        + "\"fields\":{\"issuetype\":{\"name\":\"" + issueType + "\"},"
+        + "\"priority\":{\"name\":\"" + priority + "\"}}}}");
+  }
+
+  private JiraEventLane read(String body) throws IOException {
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), body);
+
+    return JiraEventLane.of(JiraEventAttributes.read(payload));
+  }
+
+}
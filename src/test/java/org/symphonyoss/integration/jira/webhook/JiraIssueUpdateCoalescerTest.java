@@ -0,0 +1,222 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventContext;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link JiraIssueUpdateCoalescer}
+ */
+public class JiraIssueUpdateCoalescerTest {
+
+  private static final String MOCK_INSTANCE = "mockInstance";
+
+  private static final long LONG_WINDOW = TimeUnit.MINUTES.toMillis(10);
+
+  private JiraIssueUpdateCoalescer coalescer = new JiraIssueUpdateCoalescer();
+
+  private final List<JiraEventContext> handled = new ArrayList<>();
+
+  private final JiraIssueUpdateCoalescer.Handler handler = new JiraIssueUpdateCoalescer.Handler() {
+    @Override
+    public void handle(JiraEventContext context) {
+      handled.add(context);
+    }
+  };
+
+  @After
+  public void tearDown() {
+    coalescer.destroy();
+  }
+
+  @Test
+  public void testDisabled() {
+    initCoalescer(0L);
+
+    assertFalse(coalescer.isEnabled());
+    assertFalse(coalescer.offer(MOCK_INSTANCE, issueUpdated("SAM-1", "status", "1", "2"), handler));
+  }
+
+  @Test
+  public void testSkipOtherEvents() {
+    initCoalescer(LONG_WINDOW);
+
+    JiraEventContext created =
+        event("{\"webhookEvent\":\"jira:issue_created\",\"issue\":{\"key\":\"SAM-1\"}}");
+    JiraEventContext invalid = event("{");
+
+    assertFalse(coalescer.offer(MOCK_INSTANCE, created, handler));
+    assertFalse(coalescer.offer(MOCK_INSTANCE, invalid, handler));
+    assertEquals(0, coalescer.getPendingCount());
+  }
+
+  @Test
+  public void testSingleUpdate() {
+    initCoalescer(LONG_WINDOW);
+
+    JiraEventContext context = issueUpdated("SAM-1", "status", "1", "1");
+    assertTrue(coalescer.offer(MOCK_INSTANCE, context, handler));
+
+    coalescer.destroy();
+
+    assertEquals(1, handled.size());
+    assertEquals(context, handled.get(0));
+  }
+
+  @Test
+  public void testCoalesceUpdates() throws IOException {
+    initCoalescer(LONG_WINDOW);
+
+    JiraEventContext latest = issueUpdated("SAM-1", "priority", "1", "3");
+
+    assertTrue(coalescer.offer(MOCK_INSTANCE, issueUpdated("SAM-1", "status", "1", "2"), handler));
+    assertTrue(coalescer.offer(MOCK_INSTANCE, issueUpdated("SAM-1", "priority", "3", "1"), handler));
+    assertTrue(coalescer.offer(MOCK_INSTANCE, issueUpdated("SAM-1", "status", "2", "3"), handler));
+    assertTrue(coalescer.offer(MOCK_INSTANCE, latest, handler));
+    assertTrue(coalescer.offer(MOCK_INSTANCE, issueUpdated("SAM-2", "status", "1", "2"), handler));
+
+    assertEquals(2, coalescer.getPendingCount());
+    assertEquals(3, coalescer.getCoalescedCount());
+
+    coalescer.destroy();
+
+    assertEquals(2, handled.size());
+    assertEquals(2, coalescer.getEmittedCount());
+
+    JsonNode merged = null;
+    for (JiraEventContext context : handled) {
+      JsonNode node = context.getNode();
+      if ("SAM-1".equals(node.path("issue").path("key").asText())) {
+        // the latest payload is handled with the merged items, it's not written again
+        assertSame(latest.getPayload(), context.getPayload());
+        merged = node;
+      }
+    }
+
+    // the priority was changed back to the original value
+    JsonNode items = merged.path("changelog").path("items");
+    assertEquals(1, items.size());
+    assertEquals("status", items.get(0).path("field").asText());
+    assertEquals("1", items.get(0).path("from").asText());
+    assertEquals("3", items.get(0).path("to").asText());
+    assertEquals("Status 3", items.get(0).path("toString").asText());
+  }
+
+  @Test
+  public void testOtherEventTypeName() {
+    initCoalescer(LONG_WINDOW);
+
+    JiraEventContext assigned = issueUpdated("SAM-1", "issue_assigned", "assignee", "1", "2");
+    JiraEventContext generic = issueUpdated("SAM-1", "issue_generic", "status", "1", "2");
+
+    assertTrue(coalescer.offer(MOCK_INSTANCE, assigned, handler));
+    assertTrue(coalescer.offer(MOCK_INSTANCE, generic, handler));
+
+    // the pending update is handled as soon as an update of another type is received
+    assertEquals(1, handled.size());
+    assertSame(assigned, handled.get(0));
+    assertEquals(1, coalescer.getPendingCount());
+    assertEquals(0, coalescer.getCoalescedCount());
+
+    coalescer.destroy();
+
+    assertEquals(2, handled.size());
+    assertSame(generic, handled.get(1));
+  }
+
+  @Test
+  public void testOtherEventOfTheIssue() {
+    initCoalescer(LONG_WINDOW);
+
+    JiraEventContext updated = issueUpdated("SAM-1", "status", "1", "2");
+    JiraEventContext deleted =
+        event("{\"webhookEvent\":\"jira:issue_deleted\",\"issue\":{\"key\":\"SAM-1\"}}");
+    JiraEventContext otherIssue =
+        event("{\"webhookEvent\":\"jira:issue_deleted\",\"issue\":{\"key\":\"SAM-2\"}}");
+
+    assertTrue(coalescer.offer(MOCK_INSTANCE, updated, handler));
+    assertFalse(coalescer.offer(MOCK_INSTANCE, otherIssue, handler));
+    assertEquals(0, handled.size());
+
+    // the pending update is handled before the event, which is handled by the caller
+    assertFalse(coalescer.offer(MOCK_INSTANCE, deleted, handler));
+    assertEquals(1, handled.size());
+    assertSame(updated, handled.get(0));
+    assertEquals(0, coalescer.getPendingCount());
+  }
+
+  @Test
+  public void testWindowCloses() throws InterruptedException {
+    initCoalescer(50L);
+
+    final CountDownLatch emitted = new CountDownLatch(1);
+
+    coalescer.offer(MOCK_INSTANCE, issueUpdated("SAM-1", "status", "1", "2"),
+        new JiraIssueUpdateCoalescer.Handler() {
+          @Override
+          public void handle(JiraEventContext context) {
+            emitted.countDown();
+          }
+        });
+
+    assertTrue(emitted.await(5, TimeUnit.SECONDS));
+  }
+
+  private void initCoalescer(Long windowMillis) {
+    ReflectionTestUtils.setField(coalescer, "windowMillis", windowMillis);
+    ReflectionTestUtils.setField(coalescer, "maxPendingIssues", 10);
+    coalescer.init();
+  }
+
+  private JiraEventContext issueUpdated(String issueKey, String field, String from, String to) {
+    return issueUpdated(issueKey, "issue_updated", field, from, to);
+  }
+
+  private JiraEventContext issueUpdated(String issueKey, String eventTypeName, String field,
+      String from, String to) {
+    String body = "{\"webhookEvent\":\"jira:issue_updated\",\"issue_event_type_name\":\""
+        + eventTypeName + "\",\"issue\":{\"key\":\"" + issueKey + "\"},\"changelog\":{\"items\":"
+        + "[{\"field\":\"" + field + "\",\"from\":\"" + from + "\",\"fromString\":\"Status "
+        + from + "\",\"to\":\"" + to + "\",\"toString\":\"Status " + to + "\"}]}}";
+
+    return event(body);
+  }
+
+  private JiraEventContext event(String body) {
+    return JiraEventContext.read(new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), body));
+  }
+
+}
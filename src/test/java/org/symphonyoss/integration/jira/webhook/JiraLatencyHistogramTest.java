@@ -0,0 +1,67 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link JiraLatencyHistogram}
+ */
+public class JiraLatencyHistogramTest {
+
+  private JiraLatencyHistogram histogram = new JiraLatencyHistogram();
+
+  @Test
+  public void testEmpty() {
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getPercentile(99));
+  }
+
+  @Test
+  public void testPercentiles() {
+    for (int i = 0; i < 90; i++) {
+      histogram.record(3);
+    }
+
+    for (int i = 0; i < 9; i++) {
+      histogram.record(150);
+    }
+
+    histogram.record(1500);
+
+    assertEquals(100, histogram.getCount());
+    assertEquals(1500, histogram.getMax());
+    assertEquals(5, histogram.getPercentile(50));
+    assertEquals(5, histogram.getPercentile(90));
+    assertEquals(200, histogram.getPercentile(95));
+    assertEquals(200, histogram.getPercentile(99));
+    assertEquals(1500, histogram.getPercentile(100));
+  }
+
+  @Test
+  public void testAboveLastBucket() {
+    histogram.record(0);
+    histogram.record(120000);
+
+    assertEquals(1, histogram.getPercentile(50));
+    assertEquals(120000, histogram.getPercentile(100));
+  }
+
+}
@@ -0,0 +1,296 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_ISSUE_CREATED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_ISSUE_UPDATED;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.symphonyoss.integration.jira.webhook.model.JiraUpdateStorm;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventContext;
+import org.symphonyoss.integration.jira.webhook.parser.v2.JiraUpdateStormMetadataParser;
+import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link JiraUpdateStormDetector}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class JiraUpdateStormDetectorTest {
+
+  private static final String MOCK_INSTANCE = "mockInstance";
+
+  private static final long LONG_PERIOD = TimeUnit.MINUTES.toMillis(10);
+
+  @Mock
+  private JiraUpdateStormMetadataParser stormParser;
+
+  @InjectMocks
+  private JiraUpdateStormDetector detector;
+
+  private final List<WebHookPayload> handled = new ArrayList<>();
+
+  private final List<Message> rendered = new ArrayList<>();
+
+  /**
+   * Renders the summary while it's handled, as the integration does.
+   */
+  private final JiraUpdateStormDetector.Handler handler = new JiraUpdateStormDetector.Handler() {
+    @Override
+    public void handle(WebHookPayload payload) {
+      handled.add(payload);
+      rendered.add(detector.render(payload));
+    }
+  };
+
+  @After
+  public void tearDown() {
+    detector.destroy();
+  }
+
+  @Test
+  public void testDisabled() {
+    initDetector(0, LONG_PERIOD, 5);
+
+    assertFalse(detector.isEnabled());
+    assertFalse(detector.offer(MOCK_INSTANCE, issueUpdated("SAM", "SAM-1", "status"), handler));
+    assertNull(ReflectionTestUtils.getField(detector, "scheduler"));
+  }
+
+  @Test
+  public void testSkipOtherEvents() {
+    initDetector(1, LONG_PERIOD, 5);
+
+    JiraEventContext created = event(
+        "{\"webhookEvent\":\"" + JIRA_ISSUE_CREATED + "\",\"issue\":{\"key\":\"SAM-1\","
+            + "\"fields\":{\"project\":{\"key\":\"SAM\"}}}}");
+    JiraEventContext invalid = event("{");
+
+    assertFalse(detector.offer(MOCK_INSTANCE, created, handler));
+    assertFalse(detector.offer(MOCK_INSTANCE, issueUpdated("", "SAM-1", "status"), handler));
+    assertFalse(detector.offer(MOCK_INSTANCE, invalid, handler));
+    assertEquals(0, detector.getStormCount());
+  }
+
+  @Test
+  public void testStorm() {
+    initDetector(3, LONG_PERIOD, 5);
+
+    assertFalse(detector.offer(MOCK_INSTANCE, issueUpdated("SAM", "SAM-1", "status"), handler));
+    assertFalse(detector.offer(MOCK_INSTANCE, issueUpdated("SAM", "SAM-2", "status"), handler));
+    assertTrue(detector.offer(MOCK_INSTANCE, issueUpdated("SAM", "SAM-3", "status"), handler));
+    assertTrue(detector.offer(MOCK_INSTANCE, issueUpdated("SAM", "SAM-4", "priority"), handler));
+    assertTrue(detector.offer(MOCK_INSTANCE, issueUpdated("SAM", "SAM-3", "status"), handler));
+
+    // the other projects aren't affected
+    assertFalse(detector.offer(MOCK_INSTANCE, issueUpdated("OTHER", "OTHER-1", "status"),
+        handler));
+    assertFalse(detector.offer("mockOtherInstance", issueUpdated("SAM", "SAM-5", "status"),
+        handler));
+
+    assertEquals(1, detector.getStormCount());
+    assertEquals(1, detector.getActiveStormCount());
+    assertEquals(3, detector.getSuppressedCount());
+
+    detector.sweep(System.currentTimeMillis());
+    assertTrue(handled.isEmpty());
+
+    Message message = new Message();
+    doReturn(message).when(stormParser).parse(any(JiraUpdateStorm.class));
+
+    detector.sweep(System.currentTimeMillis() + LONG_PERIOD);
+    assertEquals(1, handled.size());
+    assertEquals(0, detector.getActiveStormCount());
+
+    assertEquals(Collections.singletonList(message), rendered);
+    assertNull(detector.render(handled.get(0)));
+    assertEquals(1, detector.getEmittedCount());
+
+    ArgumentCaptor<JiraUpdateStorm> captor = ArgumentCaptor.forClass(JiraUpdateStorm.class);
+    verify(stormParser).parse(captor.capture());
+
+    JiraUpdateStorm storm = captor.getValue();
+    assertEquals("SAM", storm.getProjectKey());
+    assertEquals(3, storm.getEventCount());
+    assertEquals(2, storm.getIssueCount());
+    assertEquals(Arrays.asList("status", "priority"), new ArrayList<>(storm.getChangedFields()));
+    assertEquals(2, storm.getSampleIssues().size());
+    assertEquals("SAM-3", storm.getSampleIssues().get(0).getKey());
+    assertEquals("https://jira.example.com/browse/SAM-3",
+        storm.getSampleIssues().get(0).getLink());
+  }
+
+  @Test
+  public void testHighLaneNotSuppressed() {
+    initDetector(1, LONG_PERIOD, 5);
+
+    JiraEventContext incident = event(
+        "{\"webhookEvent\":\"" + JIRA_ISSUE_UPDATED + "\",\"issue\":{\"key\":\"SAM-1\","
+            + "\"fields\":{\"project\":{\"key\":\"SAM\"},"
+            + "\"issuetype\":{\"name\":\"Incident Severity 1\"}}}}");
+
+    assertTrue(detector.offer(MOCK_INSTANCE, issueUpdated("SAM", "SAM-2", "status"), handler));
+    assertFalse(detector.offer(MOCK_INSTANCE, incident, handler));
+    assertEquals(1, detector.getSuppressedCount());
+  }
+
+  @Test
+  public void testSampleSize() {
+    initDetector(1, LONG_PERIOD, 1);
+
+    detector.offer(MOCK_INSTANCE, issueUpdated("SAM", "SAM-1", "status"), handler);
+    detector.offer(MOCK_INSTANCE, issueUpdated("SAM", "SAM-2", "status"), handler);
+    detector.destroy();
+
+    assertEquals(1, handled.size());
+
+    ArgumentCaptor<JiraUpdateStorm> captor = ArgumentCaptor.forClass(JiraUpdateStorm.class);
+    verify(stormParser).parse(captor.capture());
+
+    assertEquals(2, captor.getValue().getIssueCount());
+    assertEquals(1, captor.getValue().getSampleIssues().size());
+  }
+
+  @Test
+  public void testStormLastsTooLong() {
+    initDetector(1, LONG_PERIOD, 5);
+    ReflectionTestUtils.setField(detector, "maxDurationMillis", 0L);
+
+    assertTrue(detector.offer(MOCK_INSTANCE, issueUpdated("SAM", "SAM-1", "status"), handler));
+
+    detector.sweep(System.currentTimeMillis());
+    assertEquals(1, handled.size());
+
+    // the project is still above the threshold, so a new storm starts
+    assertTrue(detector.offer(MOCK_INSTANCE, issueUpdated("SAM", "SAM-2", "status"), handler));
+    assertEquals(2, detector.getStormCount());
+  }
+
+  @Test
+  public void testStormEnds() throws InterruptedException {
+    initDetector(1, 50L, 5);
+
+    final CountDownLatch emitted = new CountDownLatch(1);
+
+    detector.offer(MOCK_INSTANCE, issueUpdated("SAM", "SAM-1", "status"),
+        new JiraUpdateStormDetector.Handler() {
+          @Override
+          public void handle(WebHookPayload payload) {
+            emitted.countDown();
+          }
+        });
+
+    assertTrue(emitted.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testSummaryNotRendered() {
+    initDetector(1, LONG_PERIOD, 5);
+
+    final List<WebHookPayload> skipped = new ArrayList<>();
+
+    detector.offer(MOCK_INSTANCE, issueUpdated("SAM", "SAM-1", "status"),
+        new JiraUpdateStormDetector.Handler() {
+          @Override
+          public void handle(WebHookPayload payload) {
+            skipped.add(payload);
+          }
+        });
+
+    detector.destroy();
+
+    // the storm isn't kept once handled, even if its summary wasn't rendered
+    assertEquals(1, skipped.size());
+    assertNull(detector.render(skipped.get(0)));
+    verify(stormParser, never()).parse(any(JiraUpdateStorm.class));
+  }
+
+  @Test
+  public void testStormEndsOnProjectWorker() {
+    initDetector(1, 50L, 5);
+
+    JiraWebHookIngestionQueue ingestionQueue = mock(JiraWebHookIngestionQueue.class);
+    ReflectionTestUtils.setField(detector, "ingestionQueue", ingestionQueue);
+
+    detector.offer(MOCK_INSTANCE, issueUpdated("SAM", "SAM-1", "status"), handler);
+
+    verify(ingestionQueue, timeout(5000)).release(eq(MOCK_INSTANCE + ":SAM"),
+        eq(JiraEventLane.NORMAL), any(Runnable.class));
+  }
+
+  @Test
+  public void testRenderOtherPayloads() {
+    initDetector(1, LONG_PERIOD, 5);
+
+    assertNull(detector.render(issueUpdated("SAM", "SAM-1", "status").getPayload()));
+
+    WebHookPayload unknown = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.singletonMap(JiraUpdateStormDetector.STORM_ID_HEADER, "unknown"), "{}");
+    assertNull(detector.render(unknown));
+
+    verify(stormParser, never()).parse(any(JiraUpdateStorm.class));
+  }
+
+  private void initDetector(Integer threshold, Long quietMillis, Integer sampleSize) {
+    ReflectionTestUtils.setField(detector, "threshold", threshold);
+    ReflectionTestUtils.setField(detector, "windowMillis", LONG_PERIOD);
+    ReflectionTestUtils.setField(detector, "quietMillis", quietMillis);
+    ReflectionTestUtils.setField(detector, "maxDurationMillis", LONG_PERIOD);
+    ReflectionTestUtils.setField(detector, "sampleSize", sampleSize);
+  }
+
+  private JiraEventContext issueUpdated(String projectKey, String issueKey, String field) {
+    String body = "{\"webhookEvent\":\"" + JIRA_ISSUE_UPDATED + "\",\"issue\":{\"key\":\""
+        + issueKey + "\",\"self\":\"https://jira.example.com/rest/api/2/issue/1\","
+        + "\"fields\":{\"project\":{\"key\":\"" + projectKey + "\"}}},"
+        + "\"changelog\":{\"items\":[{\"field\":\"" + field + "\"}]}}";
+
+    return event(body);
+  }
+
+  private JiraEventContext event(String body) {
+    return JiraEventContext.read(new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), body));
+  }
+
+}
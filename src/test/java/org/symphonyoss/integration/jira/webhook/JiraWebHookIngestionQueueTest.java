@@ -0,0 +1,461 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.symphonyoss.integration.exception.IntegrationUnavailableException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link JiraWebHookIngestionQueue}
+ */
+public class JiraWebHookIngestionQueueTest {
+
+  private static final long TIMEOUT_SECONDS = 5;
+
+  private JiraWebHookIngestionQueue queue = new JiraWebHookIngestionQueue();
+
+  @After
+  public void tearDown() {
+    queue.destroy();
+  }
+
+  @Test
+  public void testDisabled() {
+    initQueue(false, 1, 1);
+
+    final Thread caller = Thread.currentThread();
+    final boolean[] sameThread = new boolean[1];
+
+    queue.submit(new Runnable() {
+      @Override
+      public void run() {
+        sameThread[0] = Thread.currentThread() == caller;
+      }
+    });
+
+    assertFalse(queue.isEnabled());
+    assertTrue(sameThread[0]);
+    assertEquals(0, queue.getAcceptedCount());
+  }
+
+  @Test
+  public void testProcessEvents() throws InterruptedException {
+    initQueue(true, 2, 10);
+
+    int events = 5;
+    final CountDownLatch processed = new CountDownLatch(events);
+
+    for (int i = 0; i < events; i++) {
+      queue.submit(new Runnable() {
+        @Override
+        public void run() {
+          processed.countDown();
+        }
+      });
+    }
+
+    assertTrue(processed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    waitForProcessedEvents(events);
+
+    assertTrue(queue.isEnabled());
+    assertEquals(events, queue.getAcceptedCount());
+    assertEquals(0, queue.getRejectedCount());
+    assertEquals(0, queue.getQueueDepth());
+  }
+
+  @Test
+  public void testRejectWhenFull() throws InterruptedException {
+    initQueue(true, 1, 1);
+
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch released = new CountDownLatch(1);
+
+    Runnable blockingEvent = new Runnable() {
+      @Override
+      public void run() {
+        started.countDown();
+
+        try {
+          released.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+
+    // the first event holds the only worker and the second one fills the queue
+    queue.submit(blockingEvent);
+    assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    queue.submit(blockingEvent);
+
+    try {
+      queue.submit(blockingEvent);
+      fail();
+    } catch (IntegrationUnavailableException e) {
+      assertEquals(1, queue.getRejectedCount());
+      assertEquals(1, queue.getQueueDepth());
+      assertEquals(Collections.singletonList(1L), queue.getWorkerRejectedCounts());
+    } finally {
+      released.countDown();
+    }
+
+    waitForProcessedEvents(2);
+    assertEquals(2, queue.getAcceptedCount());
+  }
+
+  @Test
+  public void testFailedEvent() throws InterruptedException {
+    initQueue(true, 1, 1);
+
+    queue.submit(new Runnable() {
+      @Override
+      public void run() {
+        throw new IllegalStateException();
+      }
+    });
+
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+    while (queue.getFailedCount() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(1, queue.getFailedCount());
+    assertEquals(0, queue.getProcessedCount());
+  }
+
+  @Test
+  public void testSameIssueSameWorker() throws InterruptedException {
+    initQueue(true, 4, 100);
+
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch released = new CountDownLatch(1);
+
+    queue.submit("SAM-1", new Runnable() {
+      @Override
+      public void run() {
+        started.countDown();
+
+        try {
+          released.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+
+    assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+    // the second event of the issue waits for the first one, even with idle workers
+    final CountDownLatch processed = new CountDownLatch(1);
+
+    queue.submit("SAM-1", new Runnable() {
+      @Override
+      public void run() {
+        processed.countDown();
+      }
+    });
+
+    assertFalse(processed.await(100, TimeUnit.MILLISECONDS));
+
+    List<Integer> depths = queue.getWorkerQueueDepths();
+    assertEquals(4, depths.size());
+    assertEquals(1, queue.getQueueDepth());
+    assertEquals(1, Collections.frequency(depths, 1));
+
+    released.countDown();
+
+    assertTrue(processed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    waitForProcessedEvents(2);
+
+    assertEquals(depths, queue.getWorkerMaxQueueDepths());
+  }
+
+  @Test
+  public void testHighLaneFirst() throws InterruptedException {
+    initQueue(true, 1, 10);
+
+    CountDownLatch released = blockWorker();
+
+    List<String> processed = Collections.synchronizedList(new ArrayList<String>());
+
+    queue.submit("SAM-1", JiraEventLane.LOW, record(processed, "comment edited"));
+    queue.submit("SAM-2", JiraEventLane.NORMAL, record(processed, "issue updated"));
+    queue.submit("SAM-3", JiraEventLane.HIGH, record(processed, "incident created"));
+
+    assertEquals(1, queue.getQueueDepth(JiraEventLane.HIGH));
+    assertEquals(1, queue.getQueueDepth(JiraEventLane.LOW));
+
+    released.countDown();
+    waitForProcessedEvents(4);
+
+    assertEquals(Arrays.asList("incident created", "issue updated", "comment edited"), processed);
+    assertEquals(1, queue.getProcessedCount(JiraEventLane.HIGH));
+    assertEquals(2, queue.getProcessedCount(JiraEventLane.NORMAL));
+    assertEquals(1, queue.getProcessedCount(JiraEventLane.LOW));
+    assertTrue(queue.getLatencyPercentile(JiraEventLane.LOW, 99) > 0);
+  }
+
+  @Test
+  public void testHighLaneKeepsIssueOrder() throws InterruptedException {
+    initQueue(true, 1, 10);
+
+    CountDownLatch released = blockWorker();
+
+    List<String> processed = Collections.synchronizedList(new ArrayList<String>());
+
+    queue.submit("SAM-1", JiraEventLane.LOW, record(processed, "SAM-1 comment edited"));
+    queue.submit("SAM-2", JiraEventLane.NORMAL, record(processed, "SAM-2 issue updated"));
+    queue.submit("SAM-1", JiraEventLane.HIGH, record(processed, "SAM-1 issue updated"));
+    queue.submit("SAM-3", JiraEventLane.HIGH, record(processed, "SAM-3 issue created"));
+
+    released.countDown();
+    waitForProcessedEvents(5);
+
+    // the high lane event of SAM-1 waits for the comment edited before it
+    assertEquals(Arrays.asList("SAM-3 issue created", "SAM-2 issue updated",
+        "SAM-1 comment edited", "SAM-1 issue updated"), processed);
+  }
+
+  @Test
+  public void testHighLaneNotRejected() throws InterruptedException {
+    initQueue(true, 1, 1);
+
+    CountDownLatch released = blockWorker();
+
+    queue.submit("SAM-1", JiraEventLane.LOW, record(new ArrayList<String>(), "comment edited"));
+
+    try {
+      queue.submit("SAM-2", JiraEventLane.NORMAL, record(new ArrayList<String>(), "updated"));
+      fail();
+    } catch (IntegrationUnavailableException e) {
+      assertEquals(1, queue.getRejectedCount());
+    }
+
+    queue.submit("SAM-3", JiraEventLane.HIGH, record(new ArrayList<String>(), "created"));
+
+    released.countDown();
+    waitForProcessedEvents(3);
+  }
+
+  @Test
+  public void testMovedDownHighLaneNotRejected() throws InterruptedException {
+    initQueue(true, 1, 1);
+
+    CountDownLatch released = blockWorker();
+
+    List<String> processed = Collections.synchronizedList(new ArrayList<String>());
+
+    queue.submit("SAM-1", JiraEventLane.LOW, record(processed, "SAM-1 comment edited"));
+
+    // waits on the low lane, behind the comment edited, but with the capacity of the high lane
+    queue.submit("SAM-1", JiraEventLane.HIGH, record(processed, "SAM-1 issue updated"));
+
+    try {
+      queue.submit("SAM-1", JiraEventLane.HIGH, record(processed, "SAM-1 issue resolved"));
+      fail();
+    } catch (IntegrationUnavailableException e) {
+      assertEquals(1, queue.getRejectedCount());
+    }
+
+    released.countDown();
+    waitForProcessedEvents(3);
+
+    assertEquals(Arrays.asList("SAM-1 comment edited", "SAM-1 issue updated"), processed);
+  }
+
+  @Test
+  public void testReleaseHeldEvents() throws InterruptedException {
+    initQueue(true, 1, 2);
+
+    CountDownLatch released = blockWorker();
+
+    final List<String> processed = Collections.synchronizedList(new ArrayList<String>());
+
+    queue.submit("SAM-1", JiraEventLane.NORMAL, record(processed, "SAM-1 comment added"));
+
+    // the held update waits for the events of its issue queued before it
+    queue.release("SAM-1", JiraEventLane.NORMAL, record(processed, "SAM-1 issue updated"));
+
+    // the worker is full, so the held update is released on the caller thread
+    final Thread caller = Thread.currentThread();
+    final boolean[] sameThread = new boolean[1];
+
+    queue.release("SAM-2", JiraEventLane.NORMAL, new Runnable() {
+      @Override
+      public void run() {
+        sameThread[0] = Thread.currentThread() == caller;
+        processed.add("SAM-2 issue updated");
+      }
+    });
+
+    assertTrue(sameThread[0]);
+    assertEquals(0, queue.getRejectedCount());
+
+    released.countDown();
+    waitForProcessedEvents(2);
+
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+    while (processed.size() < 3 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(Arrays.asList("SAM-2 issue updated", "SAM-1 comment added",
+        "SAM-1 issue updated"), processed);
+  }
+
+  /**
+   * Submits events for many issues from several threads and checks each issue sees its events in
+   * the order they were submitted, while the issues are spread over the workers.
+   */
+  @Test
+  public void testOrderedPerIssueUnderLoad() throws InterruptedException {
+    final int producers = 4;
+    final int issuesPerProducer = 25;
+    final int eventsPerIssue = 200;
+    final int events = producers * issuesPerProducer * eventsPerIssue;
+
+    initQueue(true, 8, events);
+
+    final ConcurrentMap<String, AtomicInteger> lastSequences = new ConcurrentHashMap<>();
+    final Set<String> workerNames = Collections.newSetFromMap(
+        new ConcurrentHashMap<String, Boolean>());
+    final AtomicInteger outOfOrder = new AtomicInteger();
+
+    List<Thread> threads = new ArrayList<>();
+
+    for (int p = 0; p < producers; p++) {
+      final int producer = p;
+
+      threads.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int sequence = 0; sequence < eventsPerIssue; sequence++) {
+            for (int issue = 0; issue < issuesPerProducer; issue++) {
+              final String issueKey = "P" + producer + "-" + issue;
+              final int expected = sequence;
+
+              lastSequences.putIfAbsent(issueKey, new AtomicInteger(-1));
+
+              queue.submit(issueKey, new Runnable() {
+                @Override
+                public void run() {
+                  workerNames.add(Thread.currentThread().getName());
+
+                  if (lastSequences.get(issueKey).getAndSet(expected) != expected - 1) {
+                    outOfOrder.incrementAndGet();
+                  }
+                }
+              });
+            }
+          }
+        }
+      }));
+    }
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+
+    for (Thread thread : threads) {
+      thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+    }
+
+    waitForProcessedEvents(events);
+
+    assertEquals(0, outOfOrder.get());
+    assertEquals(0, queue.getRejectedCount());
+    assertTrue(workerNames.size() > 1);
+
+    for (AtomicInteger lastSequence : lastSequences.values()) {
+      assertEquals(eventsPerIssue - 1, lastSequence.get());
+    }
+
+    assertEquals(8, queue.getWorkerCompletedCounts().size());
+    assertEquals(Arrays.asList(0, 0, 0, 0, 0, 0, 0, 0), queue.getWorkerQueueDepths());
+  }
+
+  /**
+   * Holds the only worker until the returned latch is released.
+   */
+  private CountDownLatch blockWorker() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch released = new CountDownLatch(1);
+
+    queue.submit(new Runnable() {
+      @Override
+      public void run() {
+        started.countDown();
+
+        try {
+          released.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+          // the events queued meanwhile wait long enough to be measured
+          Thread.sleep(5);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+
+    assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    return released;
+  }
+
+  private Runnable record(final List<String> processed, final String event) {
+    return new Runnable() {
+      @Override
+      public void run() {
+        processed.add(event);
+      }
+    };
+  }
+
+  private void initQueue(boolean async, int workers, int queueSize) {
+    ReflectionTestUtils.setField(queue, "async", async);
+    ReflectionTestUtils.setField(queue, "workers", workers);
+    ReflectionTestUtils.setField(queue, "queueSize", queueSize);
+    queue.init();
+  }
+
+  private void waitForProcessedEvents(long events) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+    while (queue.getProcessedCount() < events && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(events, queue.getProcessedCount());
+  }
+
+}
@@ -21,10 +21,12 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -34,6 +36,7 @@ import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -46,6 +49,8 @@ import org.symphonyoss.integration.authorization.oauth.v1.OAuth1Provider;
 import org.symphonyoss.integration.entity.model.User;
 import org.symphonyoss.integration.jira.authorization.JiraAuthorizationManager;
 import org.symphonyoss.integration.jira.authorization.oauth.v1.JiraOAuth1Provider;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventContext;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventDeduplicator;
 import org.symphonyoss.integration.jira.webhook.parser.JiraParserFactory;
 import org.symphonyoss.integration.jira.webhook.parser.JiraParserResolver;
 import org.symphonyoss.integration.jira.webhook.parser.JiraWebHookParserAdapter;
@@ -120,6 +125,21 @@ public class JiraWebHookIntegrationTest {
   @Mock
   private JiraAuthorizationManager authManager;
 
+  @Mock
+  private JiraWebHookIngestionQueue ingestionQueue;
+
+  @Mock
+  private JiraIssueUpdateCoalescer issueUpdateCoalescer;
+
+  @Mock
+  private JiraEventDigest eventDigest;
+
+  @Mock
+  private JiraUpdateStormDetector stormDetector;
+
+  @Mock
+  private JiraEventDeduplicator deduplicator;
+
   @InjectMocks
   private JiraWebHookIntegration jiraWhi = new JiraWebHookIntegration();
 
@@ -154,6 +174,7 @@ public class JiraWebHookIntegrationTest {
     commentJiraParser.init();
 
     doReturn(factory).when(parserResolver).getFactory();
+    doReturn(true).when(factory).isEventAccepted(anyString(), any(JiraEventContext.class));
   }
 
   @Test
@@ -163,6 +184,149 @@ public class JiraWebHookIntegrationTest {
     jiraWhi.onConfigChange(settings);
 
     verify(factory, times(1)).onConfigChange(settings);
+    verify(authManager, times(1)).onConfigChange(settings);
+  }
+
+  @Test
+  public void testHandleAsync() throws IOException {
+    doReturn(true).when(ingestionQueue).isEnabled();
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), getBody(ISSUE_CREATED_FILENAME));
+
+    jiraWhi.handle("mockInstance", "mockUser", payload);
+
+    verify(ingestionQueue, times(1)).submit(eq("SAM-25"), eq(JiraEventLane.NORMAL),
+        any(Runnable.class));
+    verify(factory, times(0)).getParser(payload);
+  }
+
+  @Test
+  public void testHandleFilteredOut() throws IOException {
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), getBody(ISSUE_CREATED_FILENAME));
+
+    doReturn(true).when(ingestionQueue).isEnabled();
+    doReturn(false).when(factory).isEventAccepted(eq("mockInstance"),
+        any(JiraEventContext.class));
+
+    jiraWhi.handle("mockInstance", "mockUser", payload);
+
+    verify(ingestionQueue, times(0)).submit(anyString(), any(JiraEventLane.class),
+        any(Runnable.class));
+  }
+
+  @Test
+  public void testHandleDuplicate() throws IOException {
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), getBody(ISSUE_UPDATED_FILENAME));
+
+    doReturn(true).when(ingestionQueue).isEnabled();
+    doReturn(true).when(stormDetector).isEnabled();
+    doReturn(true).when(deduplicator).isDuplicate(eq("mockInstance"),
+        any(JiraEventContext.class));
+
+    jiraWhi.handle("mockInstance", "mockUser", payload);
+
+    verify(stormDetector, times(0)).offer(eq("mockInstance"), any(JiraEventContext.class),
+        any(JiraUpdateStormDetector.Handler.class));
+    verify(ingestionQueue, times(0)).submit(anyString(), any(JiraEventLane.class),
+        any(Runnable.class));
+  }
+
+  @Test
+  public void testHandleFailureForgetsEvent() throws IOException {
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), getBody(ISSUE_UPDATED_FILENAME));
+
+    doReturn(true).when(stormDetector).isEnabled();
+    doThrow(IllegalStateException.class).when(stormDetector).offer(eq("mockInstance"),
+        any(JiraEventContext.class), any(JiraUpdateStormDetector.Handler.class));
+
+    try {
+      jiraWhi.handle("mockInstance", "mockUser", payload);
+      fail();
+    } catch (IllegalStateException e) {
+      verify(deduplicator, times(1)).forget(eq("mockInstance"), any(JiraEventContext.class));
+    }
+  }
+
+  @Test
+  public void testHandleCoalesced() throws IOException {
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), getBody(ISSUE_UPDATED_FILENAME));
+
+    doReturn(true).when(ingestionQueue).isEnabled();
+    doReturn(true).when(issueUpdateCoalescer).isEnabled();
+    doReturn(true).when(issueUpdateCoalescer).offer(eq("mockInstance"),
+        any(JiraEventContext.class), any(JiraIssueUpdateCoalescer.Handler.class));
+
+    jiraWhi.handle("mockInstance", "mockUser", payload);
+    runQueuedEvent();
+
+    verify(factory, times(0)).getParser(any(JiraEventContext.class));
+  }
+
+  @Test
+  public void testHandleDigested() throws IOException {
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), getBody(ISSUE_UPDATED_FILENAME));
+
+    doReturn(true).when(ingestionQueue).isEnabled();
+    doReturn(true).when(issueUpdateCoalescer).isEnabled();
+    doReturn(true).when(eventDigest).isEnabled("mockInstance");
+    doReturn(true).when(eventDigest).offer(eq("mockInstance"), eq("mockUser"),
+        any(JiraEventContext.class), any(JiraEventDigest.Handler.class));
+
+    jiraWhi.handle("mockInstance", "mockUser", payload);
+    runQueuedEvent();
+
+    verify(issueUpdateCoalescer, times(0)).offer(eq("mockInstance"),
+        any(JiraEventContext.class), any(JiraIssueUpdateCoalescer.Handler.class));
+    verify(factory, times(0)).getParser(any(JiraEventContext.class));
+  }
+
+  @Test
+  public void testParseDigest() throws WebHookParseException {
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.singletonMap(JiraEventDigest.DIGEST_ID_HEADER, "mockDigest"), "{}");
+
+    Message digest = new Message();
+    doReturn(digest).when(eventDigest).render(payload);
+
+    assertEquals(digest, jiraWhi.parse(payload));
+    verify(factory, times(0)).getParser(payload);
+  }
+
+  @Test
+  public void testHandleStormSuppressed() throws IOException {
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), getBody(ISSUE_UPDATED_FILENAME));
+
+    doReturn(true).when(ingestionQueue).isEnabled();
+    doReturn(true).when(eventDigest).isEnabled("mockInstance");
+    doReturn(true).when(stormDetector).isEnabled();
+    doReturn(true).when(stormDetector).offer(eq("mockInstance"), any(JiraEventContext.class),
+        any(JiraUpdateStormDetector.Handler.class));
+
+    jiraWhi.handle("mockInstance", "mockUser", payload);
+    runQueuedEvent();
+
+    verify(eventDigest, times(0)).offer(eq("mockInstance"), eq("mockUser"),
+        any(JiraEventContext.class), any(JiraEventDigest.Handler.class));
+    verify(factory, times(0)).getParser(any(JiraEventContext.class));
+  }
+
+  @Test
+  public void testParseStormSummary() throws WebHookParseException {
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.singletonMap(JiraUpdateStormDetector.STORM_ID_HEADER, "mockStorm"), "{}");
+
+    Message summary = new Message();
+    doReturn(summary).when(stormDetector).render(payload);
+
+    assertEquals(summary, jiraWhi.parse(payload));
+    verify(factory, times(0)).getParser(payload);
   }
 
   @Test
@@ -491,6 +655,16 @@ public class JiraWebHookIntegrationTest {
     jiraWhi.getAuthorizationRedirectUrl();
   }
 
+  /**
+   * Runs the event queued by the integration, as the worker would.
+   */
+  private void runQueuedEvent() {
+    ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+    verify(ingestionQueue, times(1)).submit(eq("SAM-24"), any(JiraEventLane.class),
+        captor.capture());
+    captor.getValue().run();
+  }
+
   private String getBody(String filename) throws IOException {
     ClassLoader classLoader = getClass().getClassLoader();
     JsonNode node = JsonUtils.readTree(classLoader.getResourceAsStream(filename));
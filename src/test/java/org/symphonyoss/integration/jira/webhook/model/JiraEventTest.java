@@ -0,0 +1,129 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.symphonyoss.integration.jira.webhook.JiraParserAccentConstants.GREEN_ACCENT;
+import static org.symphonyoss.integration.jira.webhook.JiraParserAccentConstants.RED_ACCENT;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.junit.Test;
+import org.symphonyoss.integration.utils.SimpleFileUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Unit test for {@link JiraEvent}
+ */
+public class JiraEventTest {
+
+  private static final String FILE_ISSUE_CREATED =
+      "parser/issueCreatedJiraParser/jiraCallbackSampleIssueCreated.json";
+
+  private static final String FILE_ISSUE_UPDATED_EPIC_UPDATED =
+      "parser/issueUpdatedJiraParser/jiraCallbackSampleIssueEpicUpdated.json";
+
+  private static final String FILE_ISSUE_UPDATED_EPIC_UPDATED_TO_NULL =
+      "parser/issueUpdatedJiraParser/jiraCallbackSampleIssueEpicUpdatedToNull.json";
+
+  private static final String FILE_ISSUE_UPDATED_EMAIL_WITH_SPACES =
+      "parser/issueUpdatedJiraParser/jiraCallbackSampleEmailAddressWithSpace.json";
+
+  private static final String FILE_COMMENT_RESTRICTED =
+      "parser/commentJiraParser/jiraCallbackSampleCommentAddedRestrictedComment.json";
+
+  private static final String FILE_COMMENT_WITHOUT_ISSUE_TYPE =
+      "parser/commentJiraParser/jiraCallbackSampleCommentAddedWithoutIssueType.json";
+
+  @Test
+  public void testIssueCreated() throws IOException {
+    JiraEvent event = readEvent(FILE_ISSUE_CREATED);
+
+    assertEquals("jira:issue_created", event.getWebhookEvent());
+    assertEquals("SAM-25", event.getIssue().getKey());
+    assertEquals("test@symphony.com", event.getUser().getEmailAddress());
+    assertEquals(GREEN_ACCENT, event.getAccent());
+    assertEquals("blue", event.getTokenColor());
+    assertEquals("https://jira.atlassian.com/browse/SAM-25", event.getLink());
+    assertEquals("https://jira.atlassian.com", event.getBaseUrl());
+    assertNull(event.getComment());
+    assertNull(event.getEpic());
+  }
+
+  @Test
+  public void testEpicUpdated() throws IOException {
+    JiraEvent event = readEvent(FILE_ISSUE_UPDATED_EPIC_UPDATED);
+
+    assertEquals(RED_ACCENT, event.getAccent());
+    assertEquals("green", event.getTokenColor());
+
+    JiraEpic epic = event.getEpic();
+    assertNotNull(epic);
+    assertEquals("EPIC-321", epic.getName());
+    assertEquals("https://jira.atlassian.com/browse/EPIC-321", epic.getLink());
+  }
+
+  @Test
+  public void testEpicUpdatedToNull() throws IOException {
+    assertNull(readEvent(FILE_ISSUE_UPDATED_EPIC_UPDATED_TO_NULL).getEpic());
+  }
+
+  @Test
+  public void testEmailAddressWithSpaces() throws IOException {
+    JiraEvent event = readEvent(FILE_ISSUE_UPDATED_EMAIL_WITH_SPACES);
+    assertEquals("test@symphony.com", event.getUser().getEmailAddress());
+  }
+
+  @Test
+  public void testComment() throws IOException {
+    JiraEvent restricted = readEvent(FILE_COMMENT_RESTRICTED);
+    assertTrue(restricted.getComment().isRestricted());
+
+    JiraEvent event = readEvent(FILE_COMMENT_WITHOUT_ISSUE_TYPE);
+    assertFalse(event.getComment().isRestricted());
+    assertNotNull(event.getComment().getBody());
+    assertEquals("Milton2", event.getComment().getUpdateAuthor().getDisplayName());
+    assertNull(event.getAccent());
+    assertEquals(Arrays.asList("#production", "#test"),
+        event.getIssue().getFields().getLabels());
+  }
+
+  @Test
+  public void testEmptyEvent() throws IOException {
+    JiraEvent event = JiraEvent.read(JsonNodeFactory.instance.objectNode());
+
+    assertNull(event.getUser());
+    assertNull(event.getIssue());
+    assertNull(event.getAccent());
+    assertNull(event.getEpic());
+    assertEquals("gray", event.getTokenColor());
+    assertEquals("", event.getLink());
+    assertEquals("", event.getBaseUrl());
+  }
+
+  private JiraEvent readEvent(String file) throws IOException {
+    JsonNode node = SimpleFileUtils.readJsonFromFile(file);
+    return JiraEvent.read(node);
+  }
+
+}
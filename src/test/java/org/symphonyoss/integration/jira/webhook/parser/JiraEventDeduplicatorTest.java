@@ -0,0 +1,138 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.util.Collections;
+
+/**
+ * Unit tests for {@link JiraEventDeduplicator} and {@link JiraEventFingerprint}
+ */
+public class JiraEventDeduplicatorTest {
+
+  private static final String MOCK_INSTANCE = "mockInstance";
+
+  private static final String MOCK_OTHER_INSTANCE = "mockOtherInstance";
+
+  private static final String COMMENT_CREATED = "{\"timestamp\":1463428118680,"
+      + "\"webhookEvent\":\"comment_created\",\"issue\":{\"id\":\"10100\",\"fields\":{\"id\":\"1\"}},"
+      + "\"comment\":{\"author\":{\"id\":\"2\"},\"id\":\"10200\"}}";
+
+  private static final String ISSUE_UPDATED = "{\"timestamp\":1463428118680,"
+      + "\"webhookEvent\":\"jira:issue_updated\",\"issue\":{\"id\":\"10100\"},"
+      + "\"changelog\":{\"items\":[],\"id\":\"10029\"}}";
+
+  private JiraEventDeduplicator deduplicator = new JiraEventDeduplicator();
+
+  @Before
+  public void init() {
+    ReflectionTestUtils.setField(deduplicator, "maxSize", 2);
+    ReflectionTestUtils.setField(deduplicator, "ttlSeconds", 600L);
+    deduplicator.init();
+  }
+
+  @Test
+  public void testFingerprint() {
+    assertEquals("mockInstance|comment_created|1463428118680|10100|10200|",
+        JiraEventFingerprint.of(MOCK_INSTANCE, event(COMMENT_CREATED).getAttributes()));
+    assertEquals("mockInstance|jira:issue_updated|1463428118680|10100||10029",
+        JiraEventFingerprint.of(MOCK_INSTANCE, event(ISSUE_UPDATED).getAttributes()));
+  }
+
+  @Test
+  public void testFingerprintWithoutTimestamp() {
+    assertNull(JiraEventFingerprint.of(MOCK_INSTANCE,
+        event("{\"webhookEvent\":\"jira:issue_created\"}").getAttributes()));
+  }
+
+  @Test
+  public void testDuplicate() {
+    assertFalse(deduplicator.isDuplicate(MOCK_INSTANCE, event(COMMENT_CREATED)));
+    assertFalse(deduplicator.isDuplicate(MOCK_INSTANCE, event(ISSUE_UPDATED)));
+    assertTrue(deduplicator.isDuplicate(MOCK_INSTANCE, event(COMMENT_CREATED)));
+    assertTrue(deduplicator.isDuplicate(MOCK_INSTANCE, event(ISSUE_UPDATED)));
+
+    assertEquals(4, deduplicator.getCheckedCount());
+    assertEquals(2, deduplicator.getDuplicateCount());
+    assertEquals(0.5, deduplicator.getDuplicateRate(), 0.001);
+  }
+
+  @Test
+  public void testOtherInstance() {
+    assertFalse(deduplicator.isDuplicate(MOCK_INSTANCE, event(COMMENT_CREATED)));
+    assertFalse(deduplicator.isDuplicate(MOCK_OTHER_INSTANCE, event(COMMENT_CREATED)));
+    assertTrue(deduplicator.isDuplicate(MOCK_OTHER_INSTANCE, event(COMMENT_CREATED)));
+  }
+
+  @Test
+  public void testForget() {
+    assertFalse(deduplicator.isDuplicate(MOCK_INSTANCE, event(COMMENT_CREATED)));
+
+    deduplicator.forget(MOCK_INSTANCE, event(COMMENT_CREATED));
+
+    assertFalse(deduplicator.isDuplicate(MOCK_INSTANCE, event(COMMENT_CREATED)));
+    assertTrue(deduplicator.isDuplicate(MOCK_INSTANCE, event(COMMENT_CREATED)));
+  }
+
+  @Test
+  public void testWithoutFingerprint() {
+    String body = "{\"webhookEvent\":\"jira:issue_created\"}";
+
+    assertFalse(deduplicator.isDuplicate(MOCK_INSTANCE, event(body)));
+    assertFalse(deduplicator.isDuplicate(MOCK_INSTANCE, event(body)));
+    assertFalse(deduplicator.isDuplicate(MOCK_INSTANCE, event("{")));
+    assertEquals(0, deduplicator.getCheckedCount());
+  }
+
+  @Test
+  public void testBoundedSize() {
+    String other = COMMENT_CREATED.replace("10200", "10201");
+    String another = COMMENT_CREATED.replace("10200", "10202");
+
+    assertFalse(deduplicator.isDuplicate(MOCK_INSTANCE, event(COMMENT_CREATED)));
+    assertFalse(deduplicator.isDuplicate(MOCK_INSTANCE, event(other)));
+    assertFalse(deduplicator.isDuplicate(MOCK_INSTANCE, event(another)));
+
+    // the eldest fingerprint was evicted
+    assertFalse(deduplicator.isDuplicate(MOCK_INSTANCE, event(COMMENT_CREATED)));
+    assertTrue(deduplicator.isDuplicate(MOCK_INSTANCE, event(another)));
+  }
+
+  @Test
+  public void testExpiredFingerprint() {
+    ReflectionTestUtils.setField(deduplicator, "ttlSeconds", -1L);
+
+    assertFalse(deduplicator.isDuplicate(MOCK_INSTANCE, event(COMMENT_CREATED)));
+    assertFalse(deduplicator.isDuplicate(MOCK_INSTANCE, event(COMMENT_CREATED)));
+  }
+
+  private JiraEventContext event(String body) {
+    return JiraEventContext.read(new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), body));
+  }
+
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Unit tests for {@link JiraEventFilter} and {@link JiraEventAttributes}
+ */
+public class JiraEventFilterTest {
+
+  private static final String ISSUE_UPDATED_FILENAME =
+      "parser/issueUpdatedJiraParser/jiraCallbackSampleIssueUpdated.json";
+
+  private JiraEventAttributes issueUpdated;
+
+  @Before
+  public void init() throws IOException {
+    InputStream resource = getClass().getClassLoader().getResourceAsStream(ISSUE_UPDATED_FILENAME);
+    String body = IOUtils.toString(resource, Charset.forName("UTF-8"));
+
+    this.issueUpdated = JiraEventAttributes.read(buildPayload(body));
+  }
+
+  @Test
+  public void testReadAttributes() {
+    assertEquals("jira:issue_updated", issueUpdated.getWebHookEvent());
+    assertEquals("issue_generic", issueUpdated.getEventTypeName());
+    assertEquals("SAM-24", issueUpdated.getIssueKey());
+    assertEquals("SAM", issueUpdated.getProjectKey());
+    assertEquals("Bug", issueUpdated.getIssueType());
+    assertEquals("Highest", issueUpdated.getPriority());
+    assertTrue(issueUpdated.isIssueEvent());
+  }
+
+  @Test
+  public void testReadEventSummary() {
+    assertEquals("1463428118680", issueUpdated.getTimestamp());
+    assertEquals("10023", issueUpdated.getIssueId());
+    assertEquals("https://jira.atlassian.com/rest/api/2/issue/10023", issueUpdated.getIssueSelf());
+    assertEquals("10029", issueUpdated.getChangelogId());
+    assertEquals(Arrays.asList("resolution", "status"), issueUpdated.getChangedFields());
+  }
+
+  @Test
+  public void testReadAttributesWithoutIssue() throws IOException {
+    String body = "{\"webhookEvent\":\"sprint_started\",\"sprint\":{\"id\":1}}";
+    JiraEventAttributes attributes = JiraEventAttributes.read(buildPayload(body));
+
+    assertEquals("sprint_started", attributes.getWebHookEvent());
+    assertFalse(attributes.isIssueEvent());
+    assertNull(attributes.getIssueKey());
+    assertNull(attributes.getProjectKey());
+    assertNull(attributes.getIssueType());
+    assertNull(attributes.getPriority());
+  }
+
+  @Test
+  public void testReadNonTextualAttributes() throws IOException {
+    String body = "{\"webhookEvent\":{\"name\":\"invalid\"},\"issue_event_type_name\":null,"
+        + "\"changelog\":[],\"issue\":\"SAM-1\"}";
+    JiraEventAttributes attributes = JiraEventAttributes.read(buildPayload(body));
+
+    assertNull(attributes.getWebHookEvent());
+    assertNull(attributes.getEventTypeName());
+    assertNull(attributes.getChangelogId());
+    assertFalse(attributes.isIssueEvent());
+  }
+
+  @Test
+  public void testReadStopsEarly() throws IOException {
+    String body = "{\"timestamp\":1,\"webhookEvent\":\"jira:issue_updated\","
+        + "\"issue_event_type_name\":\"issue_generic\",\"comment\":{\"id\":\"2\"},"
+        + "\"changelog\":{\"id\":\"3\"},\"issue\":{\"key\":\"SAM-1\"},"
+        + "\"user\": { this content is not read";
+    JiraEventAttributes attributes = JiraEventAttributes.read(buildPayload(body));
+
+    assertEquals("jira:issue_updated", attributes.getWebHookEvent());
+    assertEquals("SAM-1", attributes.getIssueKey());
+    assertEquals("3", attributes.getChangelogId());
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadInvalidPayload() throws IOException {
+    JiraEventAttributes.read(buildPayload("[]"));
+  }
+
+  @Test
+  public void testWithoutRules() {
+    JiraEventFilter filter = JiraEventFilter.compile(null, "", " , ", null);
+
+    assertSame(JiraEventFilter.ACCEPT_ALL, filter);
+    assertTrue(filter.isAcceptAll());
+    assertTrue(filter.accept(issueUpdated));
+  }
+
+  @Test
+  public void testProjectRule() {
+    assertTrue(JiraEventFilter.compile("JIRA, sam", null, null, null).accept(issueUpdated));
+    assertFalse(JiraEventFilter.compile("JIRA", null, null, null).accept(issueUpdated));
+  }
+
+  @Test
+  public void testIssueTypeRule() {
+    assertTrue(JiraEventFilter.compile(null, "bug,incident", null, null).accept(issueUpdated));
+    assertFalse(JiraEventFilter.compile(null, "story", null, null).accept(issueUpdated));
+  }
+
+  @Test
+  public void testPriorityRule() {
+    assertTrue(JiraEventFilter.compile(null, null, "Highest,High", null).accept(issueUpdated));
+    assertFalse(JiraEventFilter.compile(null, null, "Low", null).accept(issueUpdated));
+  }
+
+  @Test
+  public void testEventRule() {
+    assertTrue(JiraEventFilter.compile(null, null, null, "jira:issue_updated").accept(issueUpdated));
+    assertTrue(JiraEventFilter.compile(null, null, null, "issue_generic").accept(issueUpdated));
+    assertFalse(JiraEventFilter.compile(null, null, null, "jira:issue_created")
+        .accept(issueUpdated));
+  }
+
+  @Test
+  public void testIssueRulesSkipEventsWithoutIssue() throws IOException {
+    String body = "{\"webhookEvent\":\"user_updated\",\"user\":{\"name\":\"test\"}}";
+    JiraEventAttributes userUpdated = JiraEventAttributes.read(buildPayload(body));
+
+    assertTrue(JiraEventFilter.compile("SAM", "bug", "Highest", null).accept(userUpdated));
+    assertTrue(JiraEventFilter.compile("SAM", null, null, "user_updated").accept(userUpdated));
+    assertFalse(JiraEventFilter.compile("SAM", null, null, "jira:issue_updated")
+        .accept(userUpdated));
+  }
+
+  @Test
+  public void testAllRulesMustMatch() {
+    JiraEventFilter filter = JiraEventFilter.compile("SAM", "bug", "low", null);
+
+    assertFalse(filter.isAcceptAll());
+    assertFalse(filter.accept(issueUpdated));
+  }
+
+  private WebHookPayload buildPayload(String body) {
+    return new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), body);
+  }
+
+}
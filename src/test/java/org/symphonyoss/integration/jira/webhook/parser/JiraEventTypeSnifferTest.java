@@ -0,0 +1,110 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_ISSUE_UPDATED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_SPRINT_STARTED;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Unit test for {@link JiraEventTypeSniffer}
+ */
+public class JiraEventTypeSnifferTest {
+
+  @Test
+  public void testSniffIssueEvent() throws IOException {
+    String body = "{\"timestamp\":1463428118680,\"user\":{\"webhookEvent\":\"nested\"},"
+        + "\"webhookEvent\":\"jira:issue_updated\",\"issue_event_type_name\":\"issue_generic\"}";
+
+    JiraEventContext context = JiraEventTypeSniffer.sniff(buildPayload(body));
+
+    assertEquals(JIRA_ISSUE_UPDATED, context.getWebHookEvent());
+    assertEquals("issue_generic", context.getEventTypeName());
+  }
+
+  @Test
+  public void testSniffWithoutEventTypeName() throws IOException {
+    String body = "{\"timestamp\":1463428118680,\"webhookEvent\":\"sprint_started\","
+        + "\"sprint\":{\"id\":1,\"name\":\"Sprint 1\",\"labels\":[\"a\",\"b\"]}}";
+
+    JiraEventContext context = JiraEventTypeSniffer.sniff(buildPayload(body));
+
+    assertEquals(JIRA_SPRINT_STARTED, context.getWebHookEvent());
+    assertEquals(StringUtils.EMPTY, context.getEventTypeName());
+  }
+
+  @Test
+  public void testSniffNonTextualValues() throws IOException {
+    String body = "{\"webhookEvent\":{\"name\":\"invalid\"},\"issue_event_type_name\":null}";
+
+    JiraEventContext context = JiraEventTypeSniffer.sniff(buildPayload(body));
+
+    assertEquals(StringUtils.EMPTY, context.getWebHookEvent());
+    assertEquals(StringUtils.EMPTY, context.getEventTypeName());
+  }
+
+  @Test
+  public void testSniffStopsEarly() throws IOException {
+    String body = "{\"webhookEvent\":\"jira:issue_updated\",\"issue_event_type_name\":"
+        + "\"issue_generic\",\"issue\": { this content is not read";
+
+    JiraEventContext context = JiraEventTypeSniffer.sniff(buildPayload(body));
+
+    assertEquals(JIRA_ISSUE_UPDATED, context.getWebHookEvent());
+    assertEquals("issue_generic", context.getEventTypeName());
+  }
+
+  @Test
+  public void testSniffBuildsTreeOnDemand() throws IOException {
+    String body = "{\"webhookEvent\":\"jira:issue_updated\",\"issue\":{\"key\":\"SAM-24\"}}";
+
+    JiraEventContext context = JiraEventTypeSniffer.sniff(buildPayload(body));
+
+    assertEquals("SAM-24", context.getNode().path("issue").path("key").asText());
+    assertSame(context.getNode(), context.getNode());
+  }
+
+  @Test(expected = IOException.class)
+  public void testEmptyBody() throws IOException {
+    JiraEventTypeSniffer.sniff(buildPayload(StringUtils.EMPTY));
+  }
+
+  @Test(expected = IOException.class)
+  public void testNonObjectBody() throws IOException {
+    JiraEventTypeSniffer.sniff(buildPayload("[\"webhookEvent\"]"));
+  }
+
+  @Test(expected = IOException.class)
+  public void testMalformedBody() throws IOException {
+    JiraEventTypeSniffer.sniff(buildPayload("{\"webhookEvent\" \"jira:issue_updated\"}"));
+  }
+
+  private WebHookPayload buildPayload(String body) {
+    Map<String, String> emptyMap = Collections.emptyMap();
+    return new WebHookPayload(emptyMap, emptyMap, body);
+  }
+
+}
@@ -0,0 +1,230 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Property and worst-case scaling tests for {@link JiraMarkupStripper}.
+ *
+ * The random texts use fixed seeds, so a failure can be reproduced. The adversarial texts repeat
+ * unclosed markup, which used to make the closing tag searches run again for each opening tag.
+ */
+public class JiraMarkupStripperFuzzTest {
+
+  private static final String CORPUS_FILE = "parser/markup/jiraMarkupCorpus.txt";
+
+  private static final long SEED = 20170518L;
+
+  private static final int ITERATIONS = 5000;
+
+  private static final int DIFFERENTIAL_ITERATIONS = 100000;
+
+  private static final int MAX_TOKENS = 30;
+
+  private static final int SMALL_TEXT_SIZE = 64 * 1024;
+
+  /**
+   * 16 times the small text, so a linear stripping takes about 16 times longer and a quadratic one
+   * 256 times longer.
+   */
+  private static final int LARGE_TEXT_SIZE = 16 * SMALL_TEXT_SIZE;
+
+  /**
+   * Generous limit for the ratio between the large and the small text, so the test doesn't depend
+   * on the build machine.
+   */
+  private static final double MAX_SCALING_RATIO = 64;
+
+  private static final int RUNS = 3;
+
+  /**
+   * Characters that never form a markup. The letter "q" is left out, as "bq" followed by any
+   * character and a space is a block quote.
+   */
+  private static final String PLAIN_CHARACTERS = "abcdefghijklmnoprstuvwxyz ,";
+
+  private static final String[] LINEBREAKS = { "\n", "\r\n", "\\r\\n" };
+
+  private static final String[] TOKENS = { "a", "word", " ", "\n", "\r\n", "\\r\\n", "*", "_", "-",
+      "+", "^", "~", "??", "{{", "}}", "[", "]", "|", "||", "#", ".", "{code}", "{code:java}",
+      "{noformat}", "{quote}", "{color:red}", "{color}", "{panel:title=x}", "{panel}", "bq. ",
+      "h1. ", "(*)", "(y)", ":)", "[~user]", "[link|http://example.com]",
+      "[mailto:support@example.com]", "snake_case", "{", "}", "(", ")", ";", "h", "q", "@", "%",
+      "/", "\t", "\r", "\\", "\u2028", "[#", "[link title|", "[mailto:", "{code:", "{color:",
+      "{panel:title=", "{color:#f00}", "{code:a b}", "(*rg)", "(flagoff)", "bq.x " };
+
+  private static final String[] ADVERSARIAL_PATTERNS = { "{code:a}", "{code:a}\n",
+      "{noformat}x", "{panel:title=", "{code}{panel:title=", "{panel:title=a}{code:b}",
+      "{color:red}aaaa ", "{color:", "{quote}aaa ", "{color:red}{quote}", "[link title|aaa ",
+      "[mailto:a@b", "[~aaaa", "[~", "*aaaa ", "{{aaa ", "(*rrrr", "(*(*(", "_a", "_a_a*",
+      "aaaa_ _", "h1. ", "\\r\\n" };
+
+  @Test
+  public void testRandomCorpusCompositions() throws IOException {
+    List<String> corpus = readCorpus();
+    Random random = new Random(SEED);
+
+    for (int i = 0; i < ITERATIONS; i++) {
+      StringBuilder text = new StringBuilder();
+      int lines = 1 + random.nextInt(6);
+
+      for (int j = 0; j < lines; j++) {
+        text.append(corpus.get(random.nextInt(corpus.size())));
+        text.append(LINEBREAKS[random.nextInt(LINEBREAKS.length)]);
+      }
+
+      String input = text.toString();
+      assertEquals(input, RegexJiraMarkupStripper.strip(input), JiraMarkupStripper.strip(input));
+    }
+  }
+
+  /**
+   * Compares the random markup with the regular expressions previously applied, including the
+   * markup formed only after another rule rewrote the text.
+   */
+  @Test
+  public void testRandomMarkupSameAsRegex() {
+    Random random = new Random(SEED);
+
+    for (int i = 0; i < DIFFERENTIAL_ITERATIONS; i++) {
+      String input = randomMarkup(random);
+      assertEquals(input, RegexJiraMarkupStripper.strip(input), JiraMarkupStripper.strip(input));
+    }
+  }
+
+  @Test
+  public void testRandomMarkupNeverGrows() {
+    Random random = new Random(SEED);
+
+    for (int i = 0; i < ITERATIONS; i++) {
+      String input = randomMarkup(random);
+      String result = JiraMarkupStripper.strip(input);
+
+      assertTrue(input, result.length() <= input.length());
+    }
+  }
+
+  @Test
+  public void testRandomPlainTextUnchanged() {
+    Random random = new Random(SEED);
+
+    for (int i = 0; i < ITERATIONS; i++) {
+      StringBuilder text = new StringBuilder();
+      int length = 1 + random.nextInt(200);
+
+      for (int j = 0; j < length; j++) {
+        text.append(PLAIN_CHARACTERS.charAt(random.nextInt(PLAIN_CHARACTERS.length())));
+      }
+
+      String input = text.toString();
+      assertEquals(input, JiraMarkupStripper.strip(input));
+    }
+  }
+
+  @Test
+  public void testWorstCaseScaling() {
+    double worstRatio = 0;
+    String worstPattern = null;
+
+    for (String pattern : ADVERSARIAL_PATTERNS) {
+      String smallInput = repeat(pattern, SMALL_TEXT_SIZE);
+      String largeInput = repeat(pattern, LARGE_TEXT_SIZE);
+
+      assertFalse(JiraMarkupStripper.strip(largeInput).length() > largeInput.length());
+
+      double ratio = (double) measure(largeInput) / measure(smallInput);
+
+      if (ratio > worstRatio) {
+        worstRatio = ratio;
+        worstPattern = pattern;
+      }
+    }
+
+    assertTrue("Stripping a text " + (LARGE_TEXT_SIZE / SMALL_TEXT_SIZE) + " times larger takes "
+        + worstRatio + " times longer for the pattern " + worstPattern,
+        worstRatio < MAX_SCALING_RATIO);
+  }
+
+  /**
+   * Returns the shortest time to strip the text, in nanoseconds, so the ratio isn't affected by
+   * the JIT compilation or a garbage collection during a single run.
+   */
+  private long measure(String input) {
+    long best = Long.MAX_VALUE;
+
+    for (int i = 0; i < RUNS; i++) {
+      long start = System.nanoTime();
+      JiraMarkupStripper.strip(input);
+      best = Math.min(best, System.nanoTime() - start);
+    }
+
+    return Math.max(best, 1L);
+  }
+
+  private String randomMarkup(Random random) {
+    StringBuilder text = new StringBuilder();
+    int tokens = 1 + random.nextInt(MAX_TOKENS);
+
+    for (int i = 0; i < tokens; i++) {
+      text.append(TOKENS[random.nextInt(TOKENS.length)]);
+    }
+
+    return text.toString();
+  }
+
+  private String repeat(String pattern, int size) {
+    StringBuilder text = new StringBuilder(size + pattern.length());
+
+    while (text.length() < size) {
+      text.append(pattern);
+    }
+
+    return text.toString();
+  }
+
+  private List<String> readCorpus() throws IOException {
+    InputStream stream = getClass().getClassLoader().getResourceAsStream(CORPUS_FILE);
+    List<String> corpus = new ArrayList<>();
+
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+      String line;
+
+      while ((line = reader.readLine()) != null) {
+        corpus.add(line);
+      }
+    }
+
+    return corpus;
+  }
+
+}
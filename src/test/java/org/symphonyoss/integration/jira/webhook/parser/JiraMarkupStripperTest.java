@@ -0,0 +1,139 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link JiraMarkupStripper}.
+ *
+ * The golden corpus has the JIRA wiki markup usually found on issue descriptions and comments.
+ * The output must be the same of the regular expressions previously applied.
+ */
+public class JiraMarkupStripperTest {
+
+  private static final String CORPUS_FILE = "parser/markup/jiraMarkupCorpus.txt";
+
+  private static final String ESCAPED_LINEBREAK = "\\r\\n";
+
+  @Test
+  public void testNullOrEmpty() {
+    assertNull(JiraMarkupStripper.strip(null));
+    assertEquals("", JiraMarkupStripper.strip(""));
+  }
+
+  @Test
+  public void testGoldenCorpus() throws IOException {
+    List<String> corpus = readCorpus();
+    assertFalse(corpus.isEmpty());
+
+    for (String text : corpus) {
+      assertEquals(text, RegexJiraMarkupStripper.strip(text), JiraMarkupStripper.strip(text));
+    }
+  }
+
+  @Test
+  public void testGoldenCorpusWithLinebreaks() throws IOException {
+    for (String line : readCorpus()) {
+      String text = line.replace(ESCAPED_LINEBREAK, "\r\n");
+      assertEquals(text, RegexJiraMarkupStripper.strip(text), JiraMarkupStripper.strip(text));
+    }
+  }
+
+  @Test
+  public void testGoldenCorpusSingleText() throws IOException {
+    StringBuilder text = new StringBuilder();
+
+    for (String line : readCorpus()) {
+      text.append(line).append(ESCAPED_LINEBREAK);
+    }
+
+    String expected = RegexJiraMarkupStripper.strip(text.toString());
+    assertEquals(expected, JiraMarkupStripper.strip(text.toString()));
+  }
+
+  @Test
+  public void testNestedMarkup() {
+    assertEquals("critical", JiraMarkupStripper.strip("{color:red}*critical*{color}"));
+    assertEquals("approved", JiraMarkupStripper.strip("{quote}{color:red}approved{color}{quote}"));
+    assertEquals("quoted bold text",
+        JiraMarkupStripper.strip("{quote}quoted *bold* text{quote}"));
+  }
+
+  @Test
+  public void testMarkupFormedByAnotherRule() {
+    // the monospaced text leaves a panel tag behind
+    assertEquals("", JiraMarkupStripper.strip("bq. {{{panel}}}"));
+    assertEquals("snake_casea", JiraMarkupStripper.strip("{quote}snake_case{{{quote}}}a"));
+    assertEquals("{code}{color:red}-{color}{noformat}{noformat}]", JiraMarkupStripper.strip(
+        "{code}{color:red}-{color}{code:java}{noformat}{code}{noformat}]"));
+    // the heading leaves an emoticon behind
+    assertEquals("", JiraMarkupStripper.strip("(h1. y)"));
+  }
+
+  @Test
+  public void testUnderscoreInsideWords() {
+    assertEquals("snakecasevariable", JiraMarkupStripper.strip("snake_case_variable"));
+    assertEquals("x86_64", JiraMarkupStripper.strip("x86_64"));
+  }
+
+  @Test
+  public void testBlocks() {
+    assertEquals("\n// comment\n",
+        JiraMarkupStripper.strip("{code:java}\\r\\n// comment\\r\\n{code}"));
+    assertEquals("My title\ntext\n",
+        JiraMarkupStripper.strip("{panel:title=My title}\\r\\ntext\\r\\n{panel}"));
+    assertEquals("{code:java}", JiraMarkupStripper.strip("{code:java}"));
+    assertEquals("{noformat}\nlog{noformat}",
+        JiraMarkupStripper.strip("{noformat}\nlog{noformat}"));
+  }
+
+  @Test
+  public void testTables() {
+    assertEquals("  Heading 1  Heading 2  ",
+        JiraMarkupStripper.strip("||Heading 1||Heading 2||"));
+  }
+
+  private List<String> readCorpus() throws IOException {
+    InputStream stream = getClass().getClassLoader().getResourceAsStream(CORPUS_FILE);
+    List<String> corpus = new ArrayList<>();
+
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+      String line;
+
+      while ((line = reader.readLine()) != null) {
+        corpus.add(line);
+      }
+    }
+
+    return corpus;
+  }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.symphonyoss.integration.json.JsonUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Unit tests for {@link JiraPayloadProjection}
+ */
+public class JiraPayloadProjectionTest {
+
+  private static final String ISSUE_UPDATED_FILENAME =
+      "parser/issueUpdatedJiraParser/jiraCallbackSampleIssueUpdated.json";
+
+  private static final String METADATA_FILENAME = "metadata/metadataIssueState.xml";
+
+  private String body;
+
+  @Before
+  public void init() throws IOException {
+    InputStream resource = getClass().getClassLoader().getResourceAsStream(ISSUE_UPDATED_FILENAME);
+    this.body = IOUtils.toString(resource, Charset.forName("UTF-8"));
+  }
+
+  @Test
+  public void testMetadataProjection() throws IOException {
+    InputStream metadata = getClass().getClassLoader().getResourceAsStream(METADATA_FILENAME);
+    JiraPayloadProjection projection = new JiraPayloadProjection().includeMetadata(metadata);
+
+    JsonNode payload = JsonUtils.readTree(body);
+    JsonNode projected = projection.read(body);
+
+    assertEquals(payload.at("/issue/key"), projected.at("/issue/key"));
+    assertEquals(payload.at("/issue/fields/summary"), projected.at("/issue/fields/summary"));
+    assertEquals(payload.at("/issue/fields/status/name"), projected.at("/issue/fields/status/name"));
+    assertEquals(payload.at("/issue/fields/priority/iconUrl"),
+        projected.at("/issue/fields/priority/iconUrl"));
+    assertEquals(payload.at("/user/displayName"), projected.at("/user/displayName"));
+
+    assertTrue(payload.path("issue").path("fields").has("customfield_10020"));
+    assertFalse(projected.path("issue").path("fields").has("customfield_10020"));
+    assertFalse(projected.has("changelog"));
+    assertFalse(projected.at("/issue/fields/status").has("statusCategory"));
+  }
+
+  @Test
+  public void testWholeSubtree() throws IOException {
+    JiraPayloadProjection projection = new JiraPayloadProjection()
+        .include("user.displayName")
+        .include("user")
+        .include("user.name");
+
+    JsonNode payload = JsonUtils.readTree(body);
+    JsonNode projected = projection.read(body);
+
+    assertEquals(payload.path("user"), projected.path("user"));
+    assertEquals(1, projected.size());
+  }
+
+  @Test
+  public void testArrayProjection() throws IOException {
+    JiraPayloadProjection projection = new JiraPayloadProjection().include("changelog.items.field");
+
+    JsonNode projected = projection.read(body);
+    JsonNode items = projected.path("changelog").path("items");
+
+    assertEquals(2, items.size());
+    assertEquals("resolution", items.get(0).path("field").asText());
+    assertEquals(1, items.get(0).size());
+    assertEquals("status", items.get(1).path("field").asText());
+  }
+
+  @Test
+  public void testNullValues() throws IOException {
+    JiraPayloadProjection projection = new JiraPayloadProjection().include("a").include("b.c");
+
+    JsonNode projected = projection.read("{\"a\":null,\"b\":null,\"d\":{\"e\":[1,2]}}");
+
+    assertTrue(projected.path("a").isNull());
+    assertTrue(projected.path("b").isNull());
+    assertFalse(projected.has("d"));
+  }
+
+  @Test
+  public void testNotAnObject() throws IOException {
+    JsonNode projected = new JiraPayloadProjection().include("a").read("[1,2]");
+
+    assertTrue(projected.isArray());
+    assertEquals(2, projected.size());
+  }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_ISSUE_CREATED;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Unit test for {@link JiraWebHookParserAdapter}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class JiraWebHookParserAdapterTest {
+
+  private static final String BODY = "{\"webhookEvent\":\"jira:issue_created\"}";
+
+  @Mock
+  private JiraParser parser;
+
+  private Map<String, String> parameters = Collections.emptyMap();
+
+  private WebHookPayload payload;
+
+  @Before
+  public void init() {
+    this.payload = new WebHookPayload(parameters, Collections.<String, String>emptyMap(), BODY);
+  }
+
+  @Test
+  public void testParseReadingPayload() {
+    JiraWebHookParserAdapter adapter = new JiraWebHookParserAdapter(parser);
+    adapter.parse(payload);
+
+    ArgumentCaptor<JsonNode> captor = ArgumentCaptor.forClass(JsonNode.class);
+    verify(parser, times(1)).parse(eq(parameters), captor.capture());
+
+    assertEquals(JIRA_ISSUE_CREATED, captor.getValue().path("webhookEvent").asText());
+  }
+
+  @Test
+  public void testParseReusingContext() throws IOException {
+    JiraEventContext context = JiraEventContext.readPayload(payload);
+
+    JiraWebHookParserAdapter adapter = new JiraWebHookParserAdapter(parser, context);
+    adapter.parse(payload);
+
+    verify(parser, times(1)).parse(eq(parameters), same(context.getNode()));
+  }
+
+  @Test
+  public void testParseAgainReadsPayload() throws IOException {
+    JiraEventContext context = JiraEventContext.readPayload(payload);
+
+    JiraWebHookParserAdapter adapter = new JiraWebHookParserAdapter(parser, context);
+    adapter.parse(payload);
+    adapter.parse(payload);
+
+    ArgumentCaptor<JsonNode> captor = ArgumentCaptor.forClass(JsonNode.class);
+    verify(parser, times(2)).parse(eq(parameters), captor.capture());
+
+    assertNotSame(captor.getAllValues().get(0), captor.getAllValues().get(1));
+  }
+
+  @Test
+  public void testParseDifferentPayload() throws IOException {
+    JiraEventContext context = JiraEventContext.readPayload(payload);
+    WebHookPayload other =
+        new WebHookPayload(parameters, Collections.<String, String>emptyMap(), BODY);
+
+    JiraWebHookParserAdapter adapter = new JiraWebHookParserAdapter(parser, context);
+    adapter.parse(other);
+
+    ArgumentCaptor<JsonNode> captor = ArgumentCaptor.forClass(JsonNode.class);
+    verify(parser, times(1)).parse(eq(parameters), captor.capture());
+
+    assertNotSame(context.getNode(), captor.getValue());
+  }
+
+}
@@ -79,6 +79,12 @@ public class CommentMetadataParserTest extends JiraParserV2Test<CommentMetadataP
     testParser(FILE_COMMENT_ADDED, FILE_EXPECTED_COMMENT_ADDED_BY_VALID_USER);
   }
 
+  @Test
+  public void testSymphonyUserCommentProjected() throws IOException, JiraParserException {
+    mockUserInfo();
+    testProjectedParser(FILE_COMMENT_ADDED, FILE_EXPECTED_COMMENT_ADDED_BY_VALID_USER);
+  }
+
   @Test
   public void testNoSymphonyUserComment() throws IOException, JiraParserException {
     testParser(FILE_COMMENT_ADDED, FILE_EXPECTED_COMMENT_ADDED_NO_DB_USER);
@@ -118,6 +124,9 @@ public class CommentMetadataParserTest extends JiraParserV2Test<CommentMetadataP
 
     testParser(FILE_COMMENT_ADDED_WITH_MENTIONS, FILE_EXPECTED_MENTIONS);
 
-    verify(userService, times(2)).getUserByEmail(anyString(), anyString());
+    // user and assignee have the same email address, the summary and the comment mention the
+    // same user
+    verify(userService, times(1)).getUserByEmail(anyString(), anyString());
+    verify(userService, times(1)).getUserByUserName(MOCK_INTEGRATION_USER, integrationUser);
   }
 }
\ No newline at end of file
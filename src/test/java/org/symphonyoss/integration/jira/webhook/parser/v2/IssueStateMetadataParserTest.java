@@ -16,6 +16,9 @@
 
 package org.symphonyoss.integration.jira.webhook.parser.v2;
 
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -137,5 +140,20 @@ public class IssueStateMetadataParserTest extends JiraParserV2Test<IssueStateMet
   public void testIssueUpdatedEmailWithSpaces() throws IOException, JiraParserException {
     mockUserInfo();
     testParser(FILE_ISSUE_UPDATED_EMAIL_WITH_SPACES, FILE_EXPECTED_ISSUE_UPDATED_EMAIL_WITH_SPACES);
+
+    verify(userService).getUserByEmail(MOCK_INTEGRATION_USER, "test@symphony.com");
+    verify(userService, never()).getUserByEmail(MOCK_INTEGRATION_USER, "  test@symphony.com  ");
+  }
+
+  @Test
+  public void testIssueUpdatedProjected() throws IOException, JiraParserException {
+    mockUserInfo();
+    testProjectedParser(FILE_ISSUE_UPDATED, FILE_EXPECTED_ISSUE_UPDATED);
+  }
+
+  @Test
+  public void testIssueUpdatedEpicUpdatedProjected() throws IOException, JiraParserException {
+    mockUserInfo();
+    testProjectedParser(FILE_ISSUE_UPDATED_EPIC_UPDATED, FILE_EXPECTED_ISSUE_UPDATED_EPIC_UPDATED);
   }
 }
@@ -77,9 +77,27 @@ public abstract class JiraParserV2Test<T extends JiraMetadataParser> extends Jir
   protected void testParser(String callbackJsonFilename, String expectedEntityJsonFilename)
       throws IOException {
     JsonNode node = SimpleFileUtils.readJsonFromFile(callbackJsonFilename);
+    testParser(node, expectedEntityJsonFilename);
+  }
+
+  /**
+   * Parses the event reading only the fields projected by the parser. The message must be the
+   * same rendered from the whole payload.
+   */
+  protected void testProjectedParser(String callbackJsonFilename,
+      String expectedEntityJsonFilename) throws IOException {
+    JsonNode payload = SimpleFileUtils.readJsonFromFile(callbackJsonFilename);
+    JsonNode node = parser.getProjection().read(JsonUtils.writeValueAsString(payload));
+    testParser(node, expectedEntityJsonFilename);
+  }
+
+  private void testParser(JsonNode node, String expectedEntityJsonFilename) throws IOException {
+    JsonNode payload = node.deepCopy();
+
     Message result = parser.parse(Collections.<String, String>emptyMap(), node);
 
     assertNotNull(result);
+    assertEquals(payload, node);
 
     JsonNode expectedNode = SimpleFileUtils.readJsonFromFile(expectedEntityJsonFilename);
     String expected = JsonUtils.writeValueAsString(expectedNode);
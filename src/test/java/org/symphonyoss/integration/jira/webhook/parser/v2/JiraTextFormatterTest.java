@@ -0,0 +1,186 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+import org.symphonyoss.integration.entity.model.User;
+import org.symphonyoss.integration.jira.webhook.parser.JiraParserUtils;
+import org.symphonyoss.integration.parser.ParserUtils;
+import org.symphonyoss.integration.parser.SafeString;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Unit tests for {@link JiraTextFormatter}.
+ *
+ * The output must be the same of the previous pipeline, which replaced each mention in a separate
+ * scan over the whole text, on the golden corpus and the mention samples.
+ */
+public class JiraTextFormatterTest {
+
+  private static final String CORPUS_FILE = "parser/markup/jiraMarkupCorpus.txt";
+
+  private static final String ESCAPED_LINEBREAK = "\\r\\n";
+
+  private static final Pattern USER_MENTION_PATTERN = Pattern.compile("(\\[~)([\\w.]+)(])");
+
+  private static final String[] SAMPLES = {
+      "[~john.doe] please check it",
+      "Ask [~john.doe], [~mary_smith] or [~unknown] and then [~john.doe] again",
+      "[~no_email] has no email address, [~john.doe] has",
+      "Mention at the end [~mary_smith]",
+      "Broken mentions [~ john.doe] [~john.doe [~] [~[~john.doe]]",
+      "Special <characters> & \"quotes\" with [~john.doe] & http://example.com/?a=1&b=2",
+      "Line one\nLine two [~mary_smith]\r\nLine three",
+      "*bold [~john.doe]* and {color:red}[~mary_smith]{color} see https://jira.atlassian.com/browse/SAM-1"
+  };
+
+  private final JiraUserDirectory users = createUsers();
+
+  @Test
+  public void testEmpty() {
+    assertEquals(StringUtils.EMPTY, JiraTextFormatter.format(null, true, users));
+    assertEquals(StringUtils.EMPTY, JiraTextFormatter.format(StringUtils.EMPTY, false, users));
+  }
+
+  @Test
+  public void testGoldenCorpus() throws IOException {
+    List<String> corpus = readCorpus();
+    assertFalse(corpus.isEmpty());
+
+    for (String text : corpus) {
+      assertFormat(text);
+      assertFormat(text.replace(ESCAPED_LINEBREAK, "\r\n"));
+    }
+  }
+
+  @Test
+  public void testMentions() {
+    for (String text : SAMPLES) {
+      assertFormat(text);
+    }
+  }
+
+  @Test
+  public void testFindMentions() {
+    Set<String> userNames = new LinkedHashSet<>();
+
+    JiraTextFormatter.findMentions(SAMPLES[1], userNames);
+    JiraTextFormatter.findMentions(null, userNames);
+
+    List<String> expected = new ArrayList<>();
+    Collections.addAll(expected, "john.doe", "mary_smith", "unknown");
+
+    assertEquals(expected, new ArrayList<>(userNames));
+  }
+
+  @Test
+  public void testTextWithoutMentionsIsNotCopied() {
+    String text = "Nothing to replace [~unknown]";
+    assertSame(text, JiraTextFormatter.replaceMentions(text, users));
+  }
+
+  private void assertFormat(String text) {
+    assertEquals(text, formatTextContent(text, true), JiraTextFormatter.format(text, true, users));
+    assertEquals(text, formatTextContent(text, false), JiraTextFormatter.format(text, false, users));
+  }
+
+  /**
+   * Previous pipeline.
+   */
+  private String formatTextContent(String fieldContent, boolean stripJiraFormatting) {
+    if (StringUtils.isEmpty(fieldContent)) {
+      return StringUtils.EMPTY;
+    }
+
+    SafeString safeFieldContent = ParserUtils.escapeAndAddLineBreaks(fieldContent);
+
+    Set<String> userMentions = new HashSet<>();
+    Matcher matcher = USER_MENTION_PATTERN.matcher(safeFieldContent.toString());
+    while (matcher.find()) {
+      userMentions.add(matcher.group(2));
+    }
+
+    for (String userName : userMentions) {
+      User user = users.getUserByUserName(userName);
+      if (user != null && StringUtils.isNotEmpty(user.getEmailAddress())) {
+        safeFieldContent.safeReplace(new SafeString("[~" + userName + "]"),
+            ParserUtils.presentationFormat("<mention email=\"%s\"/>", user.getEmailAddress()));
+      }
+    }
+
+    String content = safeFieldContent.toString();
+    if (stripJiraFormatting) {
+      content = JiraParserUtils.stripJiraFormatting(content);
+    }
+
+    return ParserUtils.markupLinks(content);
+  }
+
+  private JiraUserDirectory createUsers() {
+    Map<String, User> usersByUserName = new HashMap<>();
+    usersByUserName.put("john.doe", createUser("john.doe@symphony.com"));
+    usersByUserName.put("mary_smith", createUser("mary&smith@symphony.com"));
+    usersByUserName.put("no_email", createUser(null));
+
+    return new JiraUserDirectory(Collections.<String, User>emptyMap(), usersByUserName);
+  }
+
+  private User createUser(String emailAddress) {
+    User user = new User();
+    user.setEmailAddress(emailAddress);
+    return user;
+  }
+
+  private List<String> readCorpus() throws IOException {
+    InputStream stream = getClass().getClassLoader().getResourceAsStream(CORPUS_FILE);
+    List<String> corpus = new ArrayList<>();
+
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+      String line;
+
+      while ((line = reader.readLine()) != null) {
+        if (!line.isEmpty()) {
+          corpus.add(line);
+        }
+      }
+    }
+
+    return corpus;
+  }
+
+}
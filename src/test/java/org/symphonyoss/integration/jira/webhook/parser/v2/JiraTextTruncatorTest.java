@@ -0,0 +1,95 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link JiraTextTruncator}
+ */
+public class JiraTextTruncatorTest {
+
+  @Test
+  public void testNotTruncated() {
+    assertNull(JiraTextTruncator.truncate(null, 10));
+
+    String text = "short text";
+    assertFalse(JiraTextTruncator.isTruncated(text, 10));
+    assertSame(text, JiraTextTruncator.truncate(text, 10));
+  }
+
+  @Test
+  public void testTruncateAtWhitespace() {
+    String text = "Exception in thread main";
+
+    assertTrue(JiraTextTruncator.isTruncated(text, 15));
+    assertEquals("Exception in", JiraTextTruncator.truncate(text, 15));
+    assertEquals("Exception in", JiraTextTruncator.truncate("Exception in\r\nthread", 13));
+  }
+
+  @Test
+  public void testTruncateWithoutWhitespace() {
+    assertEquals("abcdefghij", JiraTextTruncator.truncate("abcdefghijklmnop", 10));
+    assertEquals("", JiraTextTruncator.truncate("abcdef", 0));
+  }
+
+  @Test
+  public void testKeepMentionsAndLinks() {
+    assertEquals("Ask", JiraTextTruncator.truncate("Ask [~john.doe] for access", 10));
+    assertEquals("See", JiraTextTruncator.truncate("See [link title|http://example.com]", 20));
+    assertEquals("Ask [~john.doe]", JiraTextTruncator.truncate("Ask [~john.doe] for access", 16));
+  }
+
+  @Test
+  public void testKeepEscapedLinebreaks() {
+    assertEquals("first", JiraTextTruncator.truncate("first\\r\\nsecond", 7));
+    assertEquals("first\\r\\n", JiraTextTruncator.truncate("first\\r\\nsecond", 9));
+  }
+
+  @Test
+  public void testKeepSurrogatePairs() {
+    String text = "abc\uD83D\uDE00def";
+    assertEquals("abc", JiraTextTruncator.truncate(text, 4));
+  }
+
+  @Test
+  public void testCloseBlocks() {
+    assertEquals("{code:java}\\r\\npublic{code}",
+        JiraTextTruncator.truncate("{code:java}\\r\\npublic String getFoo()", 21));
+    assertEquals("{quote}{color:red}critical{color}{quote}",
+        JiraTextTruncator.truncate("{quote}{color:red}critical issue{color}{quote}", 28));
+    assertEquals("{noformat}log{noformat} and",
+        JiraTextTruncator.truncate("{noformat}log{noformat} and {code:xml}", 30));
+  }
+
+  @Test
+  public void testLookbackIsBounded() {
+    String text = StringUtils.repeat('a', 1000) + " " + StringUtils.repeat('b', 1000);
+    String truncated = JiraTextTruncator.truncate(text, 1500);
+
+    assertEquals(1500, truncated.length());
+  }
+
+}
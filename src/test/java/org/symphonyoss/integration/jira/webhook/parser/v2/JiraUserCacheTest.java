@@ -0,0 +1,168 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.symphonyoss.integration.entity.model.User;
+import org.symphonyoss.integration.jira.webhook.model.JiraUser;
+
+/**
+ * Unit tests for {@link JiraUserCache}
+ */
+public class JiraUserCacheTest {
+
+  private static final String EMAIL_ADDRESS = "test@symphony.com";
+
+  private static final String USERNAME = "integrationuser";
+
+  private static final String USER_KEY = "integrationuser1";
+
+  private static final String NEW_EMAIL_ADDRESS = "new.test@symphony.com";
+
+  private static final String NEW_USERNAME = "newintegrationuser";
+
+  private JiraUserCache cache = new JiraUserCache();
+
+  private User user = new User();
+
+  @Before
+  public void init() {
+    initCache(1000, 600L, 60L);
+
+    user.setId(123L);
+    user.setEmailAddress(EMAIL_ADDRESS);
+  }
+
+  @Test
+  public void testMiss() {
+    assertNull(cache.getByEmail(EMAIL_ADDRESS));
+    assertNull(cache.getByUserName(USERNAME));
+
+    assertEquals(0, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void testHit() {
+    cache.putByEmail(EMAIL_ADDRESS, user, cache.getGeneration());
+    cache.putByUserName(USERNAME, user, cache.getGeneration());
+
+    assertEquals(user, cache.getByEmail(EMAIL_ADDRESS).getUser());
+    assertEquals(user, cache.getByUserName(USERNAME).getUser());
+
+    assertEquals(2, cache.getHitCount());
+    assertEquals(0, cache.getMissCount());
+    assertEquals(1.0, cache.getHitRate(), 0);
+  }
+
+  @Test
+  public void testUserNotFound() {
+    cache.putByUserName(USERNAME, null, cache.getGeneration());
+
+    JiraUserCache.Entry entry = cache.getByUserName(USERNAME);
+
+    assertNotNull(entry);
+    assertNull(entry.getUser());
+  }
+
+  @Test
+  public void testExpiration() {
+    initCache(1000, 0L, 0L);
+
+    cache.putByEmail(EMAIL_ADDRESS, user, cache.getGeneration());
+    cache.putByUserName(USERNAME, null, cache.getGeneration());
+
+    assertNull(cache.getByEmail(EMAIL_ADDRESS));
+    assertNull(cache.getByUserName(USERNAME));
+  }
+
+  @Test
+  public void testEviction() {
+    initCache(2, 600L, 60L);
+
+    cache.putByUserName("user1", user, cache.getGeneration());
+    cache.putByUserName("user2", user, cache.getGeneration());
+
+    // user1 becomes the most recently used
+    assertNotNull(cache.getByUserName("user1"));
+
+    cache.putByUserName("user3", user, cache.getGeneration());
+
+    assertNotNull(cache.getByUserName("user1"));
+    assertNull(cache.getByUserName("user2"));
+    assertNotNull(cache.getByUserName("user3"));
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  public void testInvalidate() {
+    cache.putByEmail(EMAIL_ADDRESS, user, cache.getGeneration());
+    cache.putByUserName(USERNAME, user, cache.getGeneration());
+
+    cache.invalidate(new JiraUser(USERNAME, USER_KEY, EMAIL_ADDRESS, null));
+
+    assertNull(cache.getByEmail(EMAIL_ADDRESS));
+    assertNull(cache.getByUserName(USERNAME));
+  }
+
+  @Test
+  public void testInvalidatePreviousUser() {
+    cache.register(new JiraUser(USERNAME, USER_KEY, EMAIL_ADDRESS, null));
+    cache.putByEmail(EMAIL_ADDRESS, user, cache.getGeneration());
+    cache.putByUserName(USERNAME, user, cache.getGeneration());
+
+    // JIRA notifies the new username and email address only
+    cache.invalidate(new JiraUser(NEW_USERNAME, USER_KEY, " " + NEW_EMAIL_ADDRESS + " ", null));
+
+    assertNull(cache.getByEmail(EMAIL_ADDRESS));
+    assertNull(cache.getByUserName(USERNAME));
+  }
+
+  @Test
+  public void testInvalidateUnregisteredUser() {
+    cache.register(new JiraUser(USERNAME, USER_KEY, EMAIL_ADDRESS, null));
+    cache.putByEmail(EMAIL_ADDRESS, user, cache.getGeneration());
+
+    cache.invalidate(new JiraUser(NEW_USERNAME, "otherKey", NEW_EMAIL_ADDRESS, null));
+
+    assertNotNull(cache.getByEmail(EMAIL_ADDRESS));
+  }
+
+  @Test
+  public void testLookupStartedBeforeInvalidation() {
+    long generation = cache.getGeneration();
+
+    cache.invalidate(new JiraUser(USERNAME, USER_KEY, EMAIL_ADDRESS, null));
+    cache.putByUserName(USERNAME, user, generation);
+
+    assertNull(cache.getByUserName(USERNAME));
+  }
+
+  private void initCache(int maxSize, long ttlSeconds, long notFoundTtlSeconds) {
+    ReflectionTestUtils.setField(cache, "maxSize", maxSize);
+    ReflectionTestUtils.setField(cache, "ttlSeconds", ttlSeconds);
+    ReflectionTestUtils.setField(cache, "notFoundTtlSeconds", notFoundTtlSeconds);
+    cache.init();
+  }
+
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.symphonyoss.integration.entity.model.User;
+import org.symphonyoss.integration.service.UserService;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link JiraUserResolver}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class JiraUserResolverTest {
+
+  private static final String MOCK_INTEGRATION_USER = "mockUser";
+
+  private static final String EMAIL_ADDRESS = "test@symphony.com";
+
+  private static final String OTHER_EMAIL_ADDRESS = "test2@symphony.com";
+
+  private static final String USERNAME = "integrationuser";
+
+  private static final String OTHER_USERNAME = "user2";
+
+  @Mock
+  private UserService userService;
+
+  private JiraUserResolver resolver = new JiraUserResolver();
+
+  @After
+  public void tearDown() {
+    resolver.destroy();
+  }
+
+  @Test
+  public void testResolveOnCallerThread() {
+    User user = mockUser(1L, EMAIL_ADDRESS);
+    User mentionedUser = mockUser(2L, "mentioned@symphony.com");
+
+    doReturn(user).when(userService).getUserByEmail(MOCK_INTEGRATION_USER, EMAIL_ADDRESS);
+    doReturn(mentionedUser).when(userService).getUserByUserName(MOCK_INTEGRATION_USER, USERNAME);
+
+    JiraUserDirectory users = resolver.resolve(userService, MOCK_INTEGRATION_USER,
+        Arrays.asList(EMAIL_ADDRESS, OTHER_EMAIL_ADDRESS), Arrays.asList(USERNAME, OTHER_USERNAME));
+
+    assertEquals(user, users.getUserByEmail(EMAIL_ADDRESS));
+    assertNull(users.getUserByEmail(OTHER_EMAIL_ADDRESS));
+    assertEquals(mentionedUser, users.getUserByUserName(USERNAME));
+    assertNull(users.getUserByUserName(OTHER_USERNAME));
+
+    verify(userService, times(2)).getUserByEmail(anyString(), anyString());
+    verify(userService, times(2)).getUserByUserName(anyString(), anyString());
+  }
+
+  @Test
+  public void testIgnoreUserWithoutId() {
+    doReturn(mockUser(null, EMAIL_ADDRESS)).when(userService)
+        .getUserByEmail(MOCK_INTEGRATION_USER, EMAIL_ADDRESS);
+
+    JiraUserDirectory users = resolver.resolve(userService, MOCK_INTEGRATION_USER,
+        Collections.singletonList(EMAIL_ADDRESS), Collections.<String>emptyList());
+
+    assertNull(users.getUserByEmail(EMAIL_ADDRESS));
+  }
+
+  @Test
+  public void testResolveInParallel() {
+    initResolver();
+
+    List<String> emails = Arrays.asList(EMAIL_ADDRESS, OTHER_EMAIL_ADDRESS);
+    List<String> userNames = Collections.singletonList(USERNAME);
+
+    // each lookup waits for the others, so they only succeed if all of them run at the same time
+    final CountDownLatch latch = new CountDownLatch(emails.size() + userNames.size());
+
+    Answer<User> answer = new Answer<User>() {
+      @Override
+      public User answer(InvocationOnMock invocation) throws Throwable {
+        latch.countDown();
+
+        if (latch.await(5, TimeUnit.SECONDS)) {
+          return mockUser(1L, (String) invocation.getArguments()[1]);
+        }
+
+        return null;
+      }
+    };
+
+    doAnswer(answer).when(userService).getUserByEmail(anyString(), anyString());
+    doAnswer(answer).when(userService).getUserByUserName(anyString(), anyString());
+
+    JiraUserDirectory users =
+        resolver.resolve(userService, MOCK_INTEGRATION_USER, emails, userNames);
+
+    assertEquals(EMAIL_ADDRESS, users.getUserByEmail(EMAIL_ADDRESS).getEmailAddress());
+    assertEquals(OTHER_EMAIL_ADDRESS, users.getUserByEmail(OTHER_EMAIL_ADDRESS).getEmailAddress());
+    assertEquals(USERNAME, users.getUserByUserName(USERNAME).getEmailAddress());
+  }
+
+  @Test
+  public void testLookupInBackground() {
+    initResolver();
+
+    // the lookup only succeeds if the caller isn't blocked until the lookup finishes
+    final CountDownLatch released = new CountDownLatch(1);
+
+    doAnswer(new Answer<User>() {
+      @Override
+      public User answer(InvocationOnMock invocation) throws Throwable {
+        if (released.await(5, TimeUnit.SECONDS)) {
+          return mockUser(1L, EMAIL_ADDRESS);
+        }
+
+        return null;
+      }
+    }).when(userService).getUserByEmail(MOCK_INTEGRATION_USER, EMAIL_ADDRESS);
+
+    JiraUserLookup lookup = resolver.lookup(userService, MOCK_INTEGRATION_USER,
+        Collections.singletonList(EMAIL_ADDRESS), Collections.<String>emptyList());
+
+    released.countDown();
+
+    JiraUserDirectory users = lookup.join();
+    assertEquals(EMAIL_ADDRESS, users.getUserByEmail(EMAIL_ADDRESS).getEmailAddress());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testLookupFailure() {
+    initResolver();
+
+    doReturn(mockUser(1L, EMAIL_ADDRESS)).when(userService)
+        .getUserByEmail(MOCK_INTEGRATION_USER, EMAIL_ADDRESS);
+    doThrow(IllegalStateException.class).when(userService)
+        .getUserByUserName(MOCK_INTEGRATION_USER, USERNAME);
+
+    resolver.resolve(userService, MOCK_INTEGRATION_USER,
+        Collections.singletonList(EMAIL_ADDRESS), Collections.singletonList(USERNAME));
+  }
+
+  @Test
+  public void testCachedLookups() {
+    JiraUserCache userCache = new JiraUserCache();
+    ReflectionTestUtils.setField(userCache, "maxSize", 1000);
+    ReflectionTestUtils.setField(userCache, "ttlSeconds", 600L);
+    ReflectionTestUtils.setField(userCache, "notFoundTtlSeconds", 60L);
+    userCache.init();
+
+    ReflectionTestUtils.setField(resolver, "userCache", userCache);
+
+    User user = mockUser(1L, EMAIL_ADDRESS);
+    doReturn(user).when(userService).getUserByEmail(MOCK_INTEGRATION_USER, EMAIL_ADDRESS);
+
+    List<String> emails = Collections.singletonList(EMAIL_ADDRESS);
+    List<String> userNames = Collections.singletonList(OTHER_USERNAME);
+
+    for (int i = 0; i < 3; i++) {
+      JiraUserDirectory users =
+          resolver.resolve(userService, MOCK_INTEGRATION_USER, emails, userNames);
+
+      assertEquals(user, users.getUserByEmail(EMAIL_ADDRESS));
+      assertNull(users.getUserByUserName(OTHER_USERNAME));
+    }
+
+    // users not found are cached as well
+    verify(userService, times(1)).getUserByEmail(MOCK_INTEGRATION_USER, EMAIL_ADDRESS);
+    verify(userService, times(1)).getUserByUserName(MOCK_INTEGRATION_USER, OTHER_USERNAME);
+
+    assertEquals(4, userCache.getHitCount());
+    assertEquals(2, userCache.getMissCount());
+  }
+
+  private void initResolver() {
+    ReflectionTestUtils.setField(resolver, "poolSize", 4);
+    ReflectionTestUtils.setField(resolver, "queueSize", 16);
+    resolver.init();
+  }
+
+  private User mockUser(Long id, String emailAddress) {
+    User user = new User();
+    user.setId(id);
+    user.setEmailAddress(emailAddress);
+    return user;
+  }
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.jira.webhook.parser.v2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.USER_DELETED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.USER_UPDATED;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.symphonyoss.integration.jira.webhook.model.JiraUser;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Unit tests for {@link UserEventJiraParser}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class UserEventJiraParserTest {
+
+  @Mock
+  private JiraUserCache userCache;
+
+  @InjectMocks
+  private UserEventJiraParser parser;
+
+  @Test
+  public void testEvents() {
+    assertEquals(Arrays.asList(USER_UPDATED, USER_DELETED), parser.getEvents());
+  }
+
+  @Test
+  public void testInvalidateUser() {
+    ObjectNode node = JsonNodeFactory.instance.objectNode();
+    node.put("webhookEvent", USER_UPDATED);
+
+    ObjectNode userNode = node.putObject("user");
+    userNode.put("name", "test");
+    userNode.put("key", "test1");
+    userNode.put("emailAddress", " test@symphony.com ");
+
+    assertNull(parser.parse(Collections.<String, String>emptyMap(), node));
+
+    ArgumentCaptor<JiraUser> user = ArgumentCaptor.forClass(JiraUser.class);
+    verify(userCache).invalidate(user.capture());
+
+    assertEquals("test", user.getValue().getName());
+    assertEquals("test1", user.getValue().getKey());
+    assertEquals("test@symphony.com", user.getValue().getEmailAddress());
+  }
+
+  @Test
+  public void testEventWithoutUser() {
+    ObjectNode node = JsonNodeFactory.instance.objectNode();
+    node.put("webhookEvent", USER_DELETED);
+
+    assertNull(parser.parse(Collections.<String, String>emptyMap(), node));
+
+    verify(userCache, never()).invalidate(any(JiraUser.class));
+  }
+
+}
@@ -22,12 +22,15 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.ISSUE_EVENT_TYPE_NAME;
 import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_ISSUE_COMMENTED;
 import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.JIRA_ISSUE_CREATED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.USER_DELETED;
+import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.USER_UPDATED;
 import static org.symphonyoss.integration.jira.webhook.JiraEventConstants.WEBHOOK_EVENT;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -41,14 +44,20 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventContext;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventFilter;
+import org.symphonyoss.integration.jira.webhook.parser.JiraEventFilterRegistry;
 import org.symphonyoss.integration.jira.webhook.parser.JiraParser;
 import org.symphonyoss.integration.jira.webhook.parser.JiraParserException;
+import org.symphonyoss.integration.jira.webhook.parser.JiraWebHookParserAdapter;
 import org.symphonyoss.integration.jira.webhook.parser.NullJiraParser;
 import org.symphonyoss.integration.model.config.IntegrationSettings;
 import org.symphonyoss.integration.model.message.MessageMLVersion;
+import org.symphonyoss.integration.utils.SimpleFileUtils;
 import org.symphonyoss.integration.webhook.WebHookPayload;
 import org.symphonyoss.integration.webhook.parser.WebHookParser;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -64,21 +73,33 @@ public class V2JiraParserFactoryTest {
 
   private static final String MOCK_INTEGRATION_TYPE = "mockType";
 
+  private static final String MOCK_INSTANCE = "mockInstance";
+
+  private static final String MOCK_FILTERED_INSTANCE = "mockFilteredInstance";
+
   @Spy
   private List<JiraParser> beans = new ArrayList<>();
 
   @Mock
   private IssueStateMetadataParser issueCreatedJiraParser;
 
+  @Mock
+  private UserEventJiraParser userEventJiraParser;
+
   @Spy
   private NullJiraParser defaultJiraParser;
 
+  @Mock
+  private JiraEventFilterRegistry filterRegistry;
+
   @InjectMocks
   private V2JiraParserFactory factory;
 
   @Before
   public void init() {
     doReturn(Arrays.asList(JIRA_ISSUE_CREATED)).when(issueCreatedJiraParser).getEvents();
+    doReturn(Arrays.asList(USER_UPDATED, USER_DELETED)).when(userEventJiraParser).getEvents();
+    doReturn(JiraEventFilter.ACCEPT_ALL).when(filterRegistry).getFilter(MOCK_INSTANCE);
 
     beans.add(issueCreatedJiraParser);
     beans.add(defaultJiraParser);
@@ -105,6 +126,7 @@ public class V2JiraParserFactoryTest {
 
     verify(issueCreatedJiraParser, times(1)).setIntegrationUser(MOCK_INTEGRATION_TYPE);
     verify(defaultJiraParser, times(1)).setIntegrationUser(MOCK_INTEGRATION_TYPE);
+    verify(filterRegistry, times(1)).onConfigChange();
   }
 
   @Test
@@ -133,6 +155,65 @@ public class V2JiraParserFactoryTest {
     assertNull(parser.parse(payload));
   }
 
+  @Test
+  public void testSkipUnsupportedEvent() throws IOException {
+    Map<String, String> emptyMap = Collections.emptyMap();
+    String body = SimpleFileUtils.readFile("jiraCallbackSampleSprintStarted.json");
+    WebHookPayload payload = new WebHookPayload(emptyMap, emptyMap, body);
+
+    assertEquals(defaultJiraParser, factory.getParser(payload));
+  }
+
+  @Test
+  public void testGetParserAdapter() {
+    Map<String, String> emptyMap = Collections.emptyMap();
+    String body = "{\"webhookEvent\":\"jira:issue_created\"}";
+    WebHookPayload payload = new WebHookPayload(emptyMap, emptyMap, body);
+
+    WebHookParser parser = factory.getParser(payload);
+    assertTrue(parser instanceof JiraWebHookParserAdapter);
+
+    parser.parse(payload);
+    verify(issueCreatedJiraParser, times(1)).parse(eq(emptyMap), any(JsonNode.class));
+  }
+
+  @Test
+  public void testGetParserFromContext() {
+    Map<String, String> emptyMap = Collections.emptyMap();
+    String body = "{\"webhookEvent\":\"jira:issue_created\"}";
+    WebHookPayload payload = new WebHookPayload(emptyMap, emptyMap, body);
+
+    WebHookParser parser = factory.getParser(JiraEventContext.read(payload));
+    assertTrue(parser instanceof JiraWebHookParserAdapter);
+
+    parser.parse(payload);
+    verify(issueCreatedJiraParser, times(1)).parse(eq(emptyMap), any(JsonNode.class));
+  }
+
+  @Test(expected = JiraParserException.class)
+  public void testGetParserFromInvalidContext() {
+    Map<String, String> emptyMap = Collections.emptyMap();
+    WebHookPayload payload = new WebHookPayload(emptyMap, emptyMap, "[]");
+
+    factory.getParser(JiraEventContext.read(payload));
+  }
+
+  @Test
+  public void testEventAccepted() {
+    Map<String, String> emptyMap = Collections.emptyMap();
+    String body = "{\"webhookEvent\":\"jira:issue_created\",\"issue\":{\"fields\":"
+        + "{\"project\":{\"key\":\"SAM\"}}}}";
+    JiraEventContext context = JiraEventContext.read(new WebHookPayload(emptyMap, emptyMap, body));
+
+    doReturn(JiraEventFilter.compile("JIRA", null, null, null)).when(filterRegistry)
+        .getFilter(MOCK_FILTERED_INSTANCE);
+
+    assertTrue(factory.isEventAccepted(MOCK_INSTANCE, context));
+    assertFalse(factory.isEventAccepted(MOCK_FILTERED_INSTANCE, context));
+
+    verify(filterRegistry, times(1)).countFiltered();
+  }
+
   @Test(expected = JiraParserException.class)
   public void testInvalidPayload() {
     Map<String, String> emptyMap = Collections.emptyMap();
@@ -149,4 +230,10 @@ public class V2JiraParserFactoryTest {
 
     assertEquals(issueCreatedJiraParser, factory.getParser(node));
   }
+
+  @Test
+  public void testGetUserEventParser() {
+    assertEquals(userEventJiraParser, factory.getParser(USER_UPDATED, StringUtils.EMPTY));
+    assertEquals(userEventJiraParser, factory.getParser(USER_DELETED, StringUtils.EMPTY));
+  }
 }